@@ -51,15 +51,18 @@ import com.sun.xml.ws.message.stream.StreamHeader;
 import com.sun.xml.stream.buffer.XMLStreamBuffer;
 import com.sun.xml.ws.encoding.ContentTypeImpl;
 
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.ws.WebServiceException;
+import java.io.BufferedInputStream;
 import java.io.OutputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.nio.channels.WritableByteChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.util.List;
 
 /**
  * A stream SOAP codec for handling SOAP message infosets to fast
@@ -69,6 +72,14 @@ import java.nio.channels.ReadableByteChannel;
  * This implementation currently defers to {@link StreamSOAPCodec} for the decoding
  * using {@link XMLStreamReader}.
  *
+ * <p>
+ * If the codec has an external vocabulary, it is negotiated pessimistically,
+ * like Fast Infoset itself: the requests of a client declare that it knows the
+ * vocabulary in a parameter of their content type, and the endpoint then uses
+ * it for its responses. Once a response referred to the vocabulary, the client
+ * uses it for the requests to that endpoint address too. Peers that do not
+ * know the vocabulary keep getting self-contained documents.
+ *
  * @author Paul Sandoz
  */
 public abstract class FastInfosetStreamSOAPCodec implements Codec {
@@ -76,23 +87,32 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
 
     private StAXDocumentParser _statefulParser;
     private StAXDocumentSerializer _serializer;
+    private StAXDocumentSerializer _vocabularySerializer;
     
     private final StreamSOAPCodec _soapCodec;
     
     private final boolean _retainState;
     
+    private final FastInfosetVocabulary _vocabulary;
+    
+    // true if the last decoded request referred to _vocabulary, or declared it knows it
+    private boolean _vocabularyAccepted;
+    
     protected final ContentType _defaultContentType;
     
-    /* package */ FastInfosetStreamSOAPCodec(StreamSOAPCodec soapCodec, SOAPVersion soapVersion, boolean retainState, String mimeType) {
+    /* package */ FastInfosetStreamSOAPCodec(StreamSOAPCodec soapCodec, SOAPVersion soapVersion, boolean retainState,
+            FastInfosetVocabulary vocabulary, String mimeType) {
 //        _soapCodec = StreamSOAPCodec.create(soapVersion);
         _soapCodec = soapCodec;
         _retainState = retainState;
+        _vocabulary = vocabulary;
         _defaultContentType = new ContentTypeImpl(mimeType);
     }
     
     /* package */ FastInfosetStreamSOAPCodec(FastInfosetStreamSOAPCodec that) {
         this._soapCodec = (StreamSOAPCodec) that._soapCodec.copy();
         this._retainState = that._retainState;
+        this._vocabulary = that._vocabulary;
         this._defaultContentType = that._defaultContentType;
     }
     
@@ -101,12 +121,13 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
     }
     
     public ContentType getStaticContentType(Packet packet) {
-        return getContentType(packet.soapAction);
+        return getContentType(packet);
     }
     
     public ContentType encode(Packet packet, OutputStream out) {
         if (packet.getMessage() != null) {
-            final XMLStreamWriter writer = getXMLStreamWriter(out);
+            final XMLStreamWriter writer = useVocabulary(packet)
+                    ? getVocabularyStreamWriter(out) : getXMLStreamWriter(out);
             try {
                 packet.getMessage().writeTo(writer);
                 writer.flush();
@@ -114,7 +135,29 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
                 throw new WebServiceException(e);
             }
         }
-        return getContentType(packet.soapAction);
+        return getContentType(packet);
+    }
+    
+    private boolean useVocabulary(Packet packet) {
+        if (_vocabulary == null) {
+            return false;
+        }
+        if (packet.proxy != null) {
+            // a request, once the endpoint answered with the vocabulary
+            return _vocabulary.isSupportedBy(packet.endpointAddress);
+        }
+        // a response, to a client that knows the vocabulary
+        return _vocabularyAccepted;
+    }
+    
+    private ContentType getContentType(Packet packet) {
+        ContentType ct = getContentType(packet.soapAction);
+        if (_vocabulary != null && packet.proxy != null) {
+            // tell the endpoint it may answer with the vocabulary
+            return new ContentTypeImpl(ct.getContentType() + _vocabulary.getContentTypeParameter(),
+                    ct.getSOAPActionHeader(), ct.getAcceptHeader());
+        }
+        return ct;
     }
     
     public ContentType encode(Packet packet, WritableByteChannel buffer) {
@@ -123,6 +166,20 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
     }
     
     public void decode(InputStream in, String contentType, Packet response) throws IOException {
+        if (_vocabulary != null) {
+            if (!in.markSupported()) {
+                in = new BufferedInputStream(in);
+            }
+            boolean referenced = _vocabulary.isReferencedBy(in);
+            if (response.proxy != null) {
+                // a response; from now on the endpoint gets requests using the vocabulary
+                if (referenced) {
+                    _vocabulary.setSupportedBy(response.endpointAddress);
+                }
+            } else {
+                _vocabularyAccepted = referenced || _vocabulary.isDeclaredBy(contentType);
+            }
+        }
         response.setMessage(
                 _soapCodec.decode(getXMLStreamReader(in)));
     }
@@ -144,6 +201,14 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
         }
     }
     
+    private XMLStreamWriter getVocabularyStreamWriter(OutputStream out) {
+        if (_vocabularySerializer == null) {
+            _vocabularySerializer = _vocabulary.createSerializer();
+        }
+        _vocabularySerializer.setOutputStream(out);
+        return _vocabularySerializer;
+    }
+    
     private XMLStreamReader getXMLStreamReader(InputStream in) {
         // If the _retainState is true (FI stateful) then pick up Codec assiciated XMLStreamReader
         if (_retainState) {
@@ -156,7 +221,13 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
         }
         
         // Otherwise thread assiciated XMLStreamReader
-        return READER_FACTORY.doCreate(null, in, false);
+        XMLStreamReader reader = READER_FACTORY.doCreate(null, in, false);
+        if (_vocabulary != null) {
+            // the URI identifies the content of the vocabulary, so it does not
+            // matter if the parser is later used for other endpoints
+            ((StAXDocumentParser) reader).setExternalVocabularies(_vocabulary.getParserVocabularies());
+        }
+        return reader;
     }
     
     /**
@@ -184,9 +255,35 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
             throw new IllegalArgumentException();
         switch(version) {
             case SOAP_11:
-                return new FastInfosetStreamSOAP11Codec(soapCodec, retainState);
+                return new FastInfosetStreamSOAP11Codec(soapCodec, retainState, null);
+            case SOAP_12:
+                return new FastInfosetStreamSOAP12Codec(soapCodec, retainState, null);
+            default:
+                throw new AssertionError();
+        }
+    }
+    
+    /**
+     * Creates a new {@link FastInfosetStreamSOAPCodec} instance that uses
+     * an external vocabulary.
+     *
+     * @param version the SOAP version of the codec.
+     * @param vocabulary names of the elements of the vocabulary, besides
+     *        those of the SOAP envelope.
+     * @return a new {@link FastInfosetStreamSOAPCodec} instance.
+     * @since JAX-WS RI 2.3.0
+     */
+    public static FastInfosetStreamSOAPCodec create(StreamSOAPCodec soapCodec,
+            SOAPVersion version, List<QName> vocabulary) {
+        if(version==null)
+            // this decoder is for SOAP, not for XML/HTTP
+            throw new IllegalArgumentException();
+        FastInfosetVocabulary v = new FastInfosetVocabulary(version, vocabulary);
+        switch(version) {
+            case SOAP_11:
+                return new FastInfosetStreamSOAP11Codec(soapCodec, false, v);
             case SOAP_12:
-                return new FastInfosetStreamSOAP12Codec(soapCodec, retainState);
+                return new FastInfosetStreamSOAP12Codec(soapCodec, false, v);
             default:
                 throw new AssertionError();
         }
@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding.fastinfoset;
+
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+import com.sun.xml.fastinfoset.vocab.ParserVocabulary;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.SOAPVersion;
+import org.jvnet.fastinfoset.ExternalVocabulary;
+import org.jvnet.fastinfoset.Vocabulary;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An external vocabulary of a port: the names of the SOAP envelope followed by
+ * the local names and namespaces of the elements the port exchanges.
+ *
+ * <p>
+ * The URI of the vocabulary is derived from its content, so peers that built
+ * different vocabularies never mistake one for the other.
+ *
+ * <p>
+ * A client only refers to the vocabulary in its requests once the endpoint
+ * showed that it knows it, so the endpoint addresses that did are kept here.
+ */
+final class FastInfosetVocabulary {
+    private static final String URI_PREFIX = "urn:jaxws:fastinfoset:vocabulary:";
+    private static final String ENVELOPE_PREFIX = "S";
+    private static final String PARAMETER = "vocabulary";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String uri;
+    private final byte[] encodedUri;
+    private final ExternalVocabulary external;
+    private final Map<String, ParserVocabulary> parserVocabularies;
+    private final String parameter;
+
+    private final Set<String> supportedBy = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    FastInfosetVocabulary(SOAPVersion soapVersion, List<QName> names) {
+        Vocabulary v = new Vocabulary();
+        v.prefixes.add(ENVELOPE_PREFIX);
+        v.namespaceNames.add(soapVersion.nsUri);
+        String[] envelope = {"Envelope", "Header", "Body", "Fault"};
+        for (String localName : envelope) {
+            v.localNames.add(localName);
+            v.elements.add(new QName(soapVersion.nsUri, localName, ENVELOPE_PREFIX));
+        }
+        for (QName name : names) {
+            if (name.getNamespaceURI().length() > 0) {
+                v.namespaceNames.add(name.getNamespaceURI());
+            }
+            v.localNames.add(name.getLocalPart());
+        }
+
+        uri = URI_PREFIX + digest(soapVersion, names);
+        encodedUri = uri.getBytes(UTF_8);
+        external = new ExternalVocabulary(uri, v);
+        parserVocabularies = Collections.singletonMap(uri, new ParserVocabulary(v));
+        parameter = ";" + PARAMETER + "=\"" + uri + "\"";
+    }
+
+    String getURI() {
+        return uri;
+    }
+
+    /**
+     * Creates a serializer whose documents refer to this vocabulary.
+     */
+    StAXDocumentSerializer createSerializer() {
+        StAXDocumentSerializer serializer = new StAXDocumentSerializer();
+        serializer.setExternalVocabulary(external);
+        return serializer;
+    }
+
+    /**
+     * The content type parameter by which a client declares that it knows
+     * this vocabulary.
+     */
+    String getContentTypeParameter() {
+        return parameter;
+    }
+
+    /**
+     * Checks whether the content type of a request carries
+     * {@link #getContentTypeParameter()}.
+     */
+    boolean isDeclaredBy(String contentType) {
+        return contentType != null && contentType.contains(parameter);
+    }
+
+    /**
+     * Checks whether the endpoint at the address answered with this vocabulary.
+     */
+    boolean isSupportedBy(EndpointAddress address) {
+        return address != null && supportedBy.contains(address.toString());
+    }
+
+    void setSupportedBy(EndpointAddress address) {
+        if (address != null) {
+            supportedBy.add(address.toString());
+        }
+    }
+
+    /**
+     * The vocabulary to register on a parser, for documents that refer to it.
+     */
+    Map<String, ParserVocabulary> getParserVocabularies() {
+        return parserVocabularies;
+    }
+
+    /**
+     * Checks whether the document at the beginning of the stream refers to
+     * this vocabulary. The stream is reset to where it was.
+     *
+     * @param in a stream that supports {@link InputStream#mark(int)}.
+     */
+    boolean isReferencedBy(InputStream in) throws IOException {
+        // identification and version, header bits, initial vocabulary bits,
+        // URI length (always below 64 octets, C.22.3.1) and URI
+        byte[] header = new byte[4 + 1 + 2 + 1 + encodedUri.length];
+        in.mark(header.length);
+        try {
+            int n = 0;
+            while (n < header.length) {
+                int r = in.read(header, n, header.length - n);
+                if (r == -1) {
+                    return false;
+                }
+                n += r;
+            }
+            // a document with no additional data but an initial vocabulary (X.891 12),
+            // that starts with an external vocabulary
+            if ((header[0] & 0xFF) != 0xE0 || header[1] != 0 || header[2] != 0 || header[3] != 1
+                    || (header[4] & 0x60) != 0x20 || (header[5] & 0x10) == 0
+                    || header[7] != encodedUri.length - 1) {
+                return false;
+            }
+            for (int i = 0; i < encodedUri.length; i++) {
+                if (header[8 + i] != encodedUri[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static String digest(SOAPVersion soapVersion, List<QName> names) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(soapVersion.nsUri.getBytes(UTF_8));
+            for (QName name : names) {
+                md.update((byte) '\n');
+                md.update(name.toString().getBytes(UTF_8));
+            }
+            byte[] d = md.digest();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                sb.append(Character.forDigit((d[i] >> 4) & 0xF, 16)).append(Character.forDigit(d[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding.fastinfoset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.Binding;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.EndpointReference;
+
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codecs;
+import com.sun.xml.ws.api.pipe.ContentType;
+
+import junit.framework.TestCase;
+
+public class FastInfosetVocabularyTest extends TestCase {
+
+    private static final String NS = "urn:test:echo";
+
+    private static final List<QName> NAMES = Arrays.asList(
+            new QName(NS, "echo"), new QName(NS, "echoResponse"));
+
+    private static final EndpointAddress ADDRESS = EndpointAddress.create("http://localhost:8080/echo");
+
+    private static final BindingProvider PROXY = new BindingProvider() {
+        public Map<String, Object> getRequestContext() {
+            return Collections.emptyMap();
+        }
+
+        public Map<String, Object> getResponseContext() {
+            return Collections.emptyMap();
+        }
+
+        public Binding getBinding() {
+            return null;
+        }
+
+        public EndpointReference getEndpointReference() {
+            return null;
+        }
+
+        public <T extends EndpointReference> T getEndpointReference(Class<T> clazz) {
+            return null;
+        }
+    };
+
+    private static FastInfosetStreamSOAPCodec codec(List<QName> vocabulary) {
+        return vocabulary == null
+                ? FastInfosetStreamSOAPCodec.create(Codecs.createSOAPEnvelopeXmlCodec(SOAPVersion.SOAP_11), SOAPVersion.SOAP_11)
+                : FastInfosetStreamSOAPCodec.create(Codecs.createSOAPEnvelopeXmlCodec(SOAPVersion.SOAP_11), SOAPVersion.SOAP_11, vocabulary);
+    }
+
+    private static Message message(String localName, String text) {
+        return Messages.createUsingPayload(new StreamSource(new StringReader(
+                "<t:" + localName + " xmlns:t='" + NS + "'><arg>" + text + "</arg></t:" + localName + ">")),
+                SOAPVersion.SOAP_11);
+    }
+
+    private static Packet request(String text) {
+        Packet p = new Packet(message("echo", text));
+        p.proxy = PROXY;
+        p.endpointAddress = ADDRESS;
+        return p;
+    }
+
+    private static String text(Packet packet) throws Exception {
+        XMLStreamReader reader = packet.getMessage().readPayload();
+        reader.nextTag();
+        return reader.getElementText();
+    }
+
+    /**
+     * The encoded document and its content type.
+     */
+    private static final class Encoded {
+        final byte[] bytes;
+        final String contentType;
+
+        Encoded(FastInfosetStreamSOAPCodec codec, Packet packet) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ContentType ct = codec.encode(packet, out);
+            bytes = out.toByteArray();
+            contentType = ct.getContentType();
+        }
+
+        Packet decode(FastInfosetStreamSOAPCodec codec, Packet packet) throws Exception {
+            codec.decode(new ByteArrayInputStream(bytes), contentType, packet);
+            return packet;
+        }
+    }
+
+    private static boolean refersTo(FastInfosetVocabulary vocabulary, Encoded encoded) throws Exception {
+        return vocabulary.isReferencedBy(new ByteArrayInputStream(encoded.bytes));
+    }
+
+    public void testDerivedFromNames() {
+        FastInfosetVocabulary v = new FastInfosetVocabulary(SOAPVersion.SOAP_11, NAMES);
+
+        assertEquals(v.getURI(), new FastInfosetVocabulary(SOAPVersion.SOAP_11, NAMES).getURI());
+        assertFalse(v.getURI().equals(new FastInfosetVocabulary(SOAPVersion.SOAP_12, NAMES).getURI()));
+        assertFalse(v.getURI().equals(new FastInfosetVocabulary(SOAPVersion.SOAP_11,
+                Collections.singletonList(new QName(NS, "echo"))).getURI()));
+        assertTrue(v.getURI().startsWith("urn:jaxws:fastinfoset:vocabulary:"));
+        assertTrue(v.getParserVocabularies().containsKey(v.getURI()));
+    }
+
+    public void testIsReferencedBy() throws Exception {
+        FastInfosetVocabulary v = new FastInfosetVocabulary(SOAPVersion.SOAP_11, NAMES);
+        FastInfosetVocabulary other = new FastInfosetVocabulary(SOAPVersion.SOAP_12, NAMES);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StAXDocumentSerializer serializer = v.createSerializer();
+        serializer.setOutputStream(out);
+        serializer.writeStartDocument();
+        serializer.writeStartElement("t", "echo", NS);
+        serializer.writeNamespace("t", NS);
+        serializer.writeEndElement();
+        serializer.writeEndDocument();
+        serializer.flush();
+        byte[] document = out.toByteArray();
+
+        ByteArrayInputStream in = new ByteArrayInputStream(document);
+        assertTrue(v.isReferencedBy(in));
+        // the stream is left where it was
+        assertEquals(document.length, in.available());
+        assertFalse(other.isReferencedBy(new ByteArrayInputStream(document)));
+        assertFalse(v.isReferencedBy(new ByteArrayInputStream(new byte[] {(byte) 0xE0, 0, 0})));
+
+        Encoded plain = new Encoded(codec(null), request("hi"));
+        assertFalse(refersTo(v, plain));
+    }
+
+    /**
+     * The client declares it knows the vocabulary, the endpoint answers with it,
+     * then the client uses it for its requests.
+     */
+    public void testNegotiatedWithMatchingVocabulary() throws Exception {
+        FastInfosetVocabulary v = new FastInfosetVocabulary(SOAPVersion.SOAP_11, NAMES);
+        FastInfosetStreamSOAPCodec client = codec(NAMES);
+        FastInfosetStreamSOAPCodec endpoint = codec(NAMES);
+
+        Packet request = request("first");
+        Encoded first = new Encoded(client, request);
+        assertFalse(refersTo(v, first));
+        assertTrue(v.isDeclaredBy(first.contentType));
+
+        assertEquals("first", text(first.decode(endpoint, new Packet())));
+        Encoded response = new Encoded(endpoint, new Packet(message("echoResponse", "first")));
+        assertTrue(refersTo(v, response));
+
+        assertEquals("first", text(response.decode(client, request.createClientResponse(null))));
+
+        Encoded second = new Encoded((FastInfosetStreamSOAPCodec) client.copy(), request("second"));
+        assertTrue(refersTo(v, second));
+        assertEquals("second", text(second.decode((FastInfosetStreamSOAPCodec) endpoint.copy(), new Packet())));
+
+        // another endpoint has not answered yet
+        Packet elsewhere = request("third");
+        elsewhere.endpointAddress = EndpointAddress.create("http://localhost:8080/other");
+        assertFalse(refersTo(v, new Encoded(client, elsewhere)));
+    }
+
+    public void testNotNegotiatedWithoutVocabulary() throws Exception {
+        FastInfosetVocabulary v = new FastInfosetVocabulary(SOAPVersion.SOAP_11, NAMES);
+        FastInfosetStreamSOAPCodec client = codec(NAMES);
+        FastInfosetStreamSOAPCodec endpoint = codec(null);
+
+        Packet request = request("first");
+        Encoded first = new Encoded(client, request);
+        assertEquals("first", text(first.decode(endpoint, new Packet())));
+
+        Encoded response = new Encoded(endpoint, new Packet(message("echoResponse", "first")));
+        assertFalse(refersTo(v, response));
+        assertEquals("first", text(response.decode(client, request.createClientResponse(null))));
+
+        Encoded second = new Encoded(client, request("second"));
+        assertFalse(refersTo(v, second));
+        assertEquals("second", text(second.decode(endpoint, new Packet())));
+    }
+
+    public void testNotNegotiatedWithOtherVocabulary() throws Exception {
+        FastInfosetVocabulary v = new FastInfosetVocabulary(SOAPVersion.SOAP_11, NAMES);
+        FastInfosetStreamSOAPCodec client = codec(NAMES);
+        FastInfosetStreamSOAPCodec endpoint = codec(Collections.singletonList(new QName(NS, "other")));
+
+        Packet request = request("first");
+        Encoded first = new Encoded(client, request);
+        assertEquals("first", text(first.decode(endpoint, new Packet())));
+
+        Encoded response = new Encoded(endpoint, new Packet(message("echoResponse", "first")));
+        assertFalse(refersTo(v, response));
+        response.decode(client, request.createClientResponse(null));
+
+        assertFalse(refersTo(v, new Encoded(client, request("second"))));
+    }
+
+    /**
+     * Each codec copy reuses its serializers, which must not carry
+     * anything over from one message to the next.
+     */
+    public void testSerializersReused() throws Exception {
+        FastInfosetStreamSOAPCodec client = codec(NAMES);
+        FastInfosetStreamSOAPCodec endpoint = codec(NAMES);
+
+        Encoded first = new Encoded(endpoint, new Packet(message("echoResponse", "same")));
+        Encoded second = new Encoded(endpoint, new Packet(message("echoResponse", "same")));
+        assertTrue(Arrays.equals(first.bytes, second.bytes));
+
+        Packet request = request("first");
+        new Encoded(client, request).decode(endpoint, new Packet());
+        Encoded response = new Encoded(endpoint, new Packet(message("echoResponse", "first")));
+        response.decode(client, request.createClientResponse(null));
+
+        Encoded a = new Encoded(client, request("same"));
+        Encoded b = new Encoded(client, request("same"));
+        assertTrue(Arrays.equals(a.bytes, b.bytes));
+        assertEquals("same", text(b.decode(endpoint, new Packet())));
+    }
+}
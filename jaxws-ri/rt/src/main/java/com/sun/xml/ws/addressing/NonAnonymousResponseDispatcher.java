@@ -0,0 +1,452 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.addressing;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.Component;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.WSService;
+import com.sun.xml.ws.api.addressing.NonAnonymousResponseProcessor;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.ClientTubeAssemblerContext;
+import com.sun.xml.ws.api.pipe.Engine;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.TransportTubeFactory;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.util.Pool;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import javax.xml.ws.WebServiceException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers the responses of an endpoint to non-anonymous ReplyTo/FaultTo
+ * addresses on threads of its own, so that slow or unreachable destinations
+ * do not hold the threads of the endpoint.
+ *
+ * <p>
+ * Transport tubelines are pooled per destination address. At most
+ * <tt>.queueSize</tt> responses are queued or being delivered; beyond that
+ * {@link #dispatch} fails. A delivery that fails before the response was sent,
+ * because the destination could not be connected to, is retried up to
+ * <tt>.maxRetries</tt> times, after <tt>.retryDelay</tt> milliseconds, doubled
+ * on every attempt. Any other failure is final, since the destination may
+ * have received the response already. The settings are system properties
+ * prefixed with the name of this class; <tt>.disabled</tt> reverts to
+ * delivering on the engine of the endpoint, with a new transport tube for
+ * every response.
+ *
+ * <p>
+ * The dispatcher of an endpoint is one of its {@link WSEndpoint#getComponents() components},
+ * and is closed when the endpoint is disposed. Its counters are exposed
+ * through the monitoring of the endpoint.
+ *
+ * @see NonAnonymousResponseProcessor
+ * @since JAX-WS RI 2.3.0
+ */
+@ManagedData
+@Description("Delivery of responses to non-anonymous addresses")
+public final class NonAnonymousResponseDispatcher implements Component {
+    private static final Logger LOGGER = Logger.getLogger(NonAnonymousResponseDispatcher.class.getName());
+
+    private static final String PREFIX = NonAnonymousResponseDispatcher.class.getName();
+    private static final boolean DISABLED = Boolean.getBoolean(PREFIX + ".disabled");
+    private static final int THREADS = Integer.getInteger(PREFIX + ".threads", 4);
+    private static final int QUEUE_SIZE = Integer.getInteger(PREFIX + ".queueSize", 1024);
+    private static final int MAX_RETRIES = Integer.getInteger(PREFIX + ".maxRetries", 3);
+    private static final long RETRY_DELAY = Long.getLong(PREFIX + ".retryDelay", 500L);
+    private static final int MAX_ADDRESSES = Integer.getInteger(PREFIX + ".maxAddresses", 64);
+
+    private static final AtomicInteger iota = new AtomicInteger();
+
+    /**
+     * Guards the creation of the dispatchers, rather than the endpoints
+     * that anyone can lock.
+     */
+    private static final Object LOCK = new Object();
+
+    private final @Nullable WSEndpoint<?> endpoint;
+    private final @Nullable Tube transport;
+    private final int queueSize;
+    private final int maxRetries;
+    private final long retryDelay;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Engine engine;
+
+    /**
+     * Transport tubelines by destination address, least recently used first.
+     */
+    private final Map<String, Pool.TubePool> transports = new LinkedHashMap<String, Pool.TubePool>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pool.TubePool> eldest) {
+            if (size() > MAX_ADDRESSES) {
+                eldest.getValue().close();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Deliveries waiting for a retry, failed when the dispatcher is closed.
+     */
+    private final Set<Delivery> waiting = Collections.newSetFromMap(new ConcurrentHashMap<Delivery, Boolean>());
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean closed;
+
+    private NonAnonymousResponseDispatcher(WSEndpoint<?> endpoint) {
+        this(endpoint.getServiceName().getLocalPart(), endpoint.getContainer(), endpoint, null,
+                QUEUE_SIZE, MAX_RETRIES, RETRY_DELAY);
+    }
+
+    /**
+     * Creates a dispatcher that delivers every response through
+     * copies of the given transport tube, for testing.
+     */
+    NonAnonymousResponseDispatcher(String id, Container container, Tube transport,
+                                   int queueSize, int maxRetries, long retryDelay) {
+        this(id, container, null, transport, queueSize, maxRetries, retryDelay);
+    }
+
+    private NonAnonymousResponseDispatcher(String id, Container container,
+                                           WSEndpoint<?> endpoint, Tube transport,
+                                           int queueSize, int maxRetries, long retryDelay) {
+        this.endpoint = endpoint;
+        this.transport = transport;
+        this.queueSize = queueSize;
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+        final String name = "jaxws-response-dispatcher-" + iota.incrementAndGet() + "-thread-";
+        executor = new ScheduledThreadPoolExecutor(THREADS, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name + threadNumber.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        engine = new Engine(id + "-responses", container, executor);
+    }
+
+    /**
+     * Gets the dispatcher of the endpoint, creating it if needed.
+     *
+     * @return null if responses of the endpoint are not dispatched
+     *      this way, because it is disabled or the endpoint does not
+     *      take components.
+     */
+    public static @Nullable NonAnonymousResponseDispatcher get(@NotNull WSEndpoint<?> endpoint) {
+        if (DISABLED) {
+            return null;
+        }
+        NonAnonymousResponseDispatcher d = endpoint.getSPI(NonAnonymousResponseDispatcher.class);
+        if (d != null) {
+            return d;
+        }
+        synchronized (LOCK) {
+            d = endpoint.getSPI(NonAnonymousResponseDispatcher.class);
+            if (d == null) {
+                d = new NonAnonymousResponseDispatcher(endpoint);
+                try {
+                    endpoint.getComponents().add(d);
+                } catch (UnsupportedOperationException e) {
+                    d.close();
+                    return null;
+                }
+            }
+            return d;
+        }
+    }
+
+    public <S> S getSPI(@NotNull Class<S> spiType) {
+        return spiType.isInstance(this) ? spiType.cast(this) : null;
+    }
+
+    /**
+     * Queues the response for delivery to its {@link Packet#endpointAddress}.
+     *
+     * @param callback
+     *      notified of the reply to the response, or of the failure
+     *      of the last attempt to deliver it.
+     * @throws WebServiceException
+     *      if too many responses are already queued.
+     */
+    public void dispatch(@NotNull Packet response, @Nullable Fiber.CompletionCallback callback) {
+        if (closed) {
+            throw new WebServiceException("Unable to queue the response to " + response.endpointAddress
+                    + ", the endpoint is disposed");
+        }
+        if (pending.incrementAndGet() > queueSize) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new WebServiceException("Unable to queue the response to " + response.endpointAddress
+                    + ", " + queueSize + " responses are already pending");
+        }
+        try {
+            // created on the caller's thread, for its context class loader
+            Pool.TubePool pool = getTransport(response.endpointAddress);
+            new Delivery(response, pool, callback).attempt();
+        } catch (RuntimeException e) {
+            // nothing was started, closed in the meantime
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private Pool.TubePool getTransport(EndpointAddress address) {
+        String key = address.toString();
+        synchronized (transports) {
+            Pool.TubePool pool = transports.get(key);
+            if (pool == null) {
+                if (transport != null) {
+                    pool = new Pool.TubePool(transport);
+                    transports.put(key, pool);
+                    return pool;
+                }
+                WSBinding binding = endpoint.getBinding();
+                Tube master = TransportTubeFactory.create(Thread.currentThread().getContextClassLoader(),
+                        new ClientTubeAssemblerContext(
+                                address, endpoint.getPort(), (WSService) null,
+                                binding, endpoint.getContainer(),
+                                ((BindingImpl) binding).createCodec(), null, null));
+                pool = new Pool.TubePool(master);
+                transports.put(key, pool);
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * One response, until it is delivered or given up.
+     */
+    private final class Delivery implements Fiber.CompletionCallback, Runnable {
+        private final Packet response;
+        private final Pool.TubePool transport;
+        private final Fiber.CompletionCallback callback;
+        private int retries;
+        private Tube tube;
+
+        Delivery(Packet response, Pool.TubePool transport, Fiber.CompletionCallback callback) {
+            this.response = response;
+            this.transport = transport;
+            this.callback = callback;
+        }
+
+        void attempt() {
+            tube = transport.take();
+            // the message is consumed by the transport, keep it for the next attempt
+            Packet packet = retries < maxRetries ? response.copy(true) : response;
+            engine.createFiber().start(tube, packet, this);
+        }
+
+        public void run() {
+            if (!waiting.remove(this)) {
+                // given up by close()
+                return;
+            }
+            try {
+                attempt();
+            } catch (RuntimeException e) {
+                onCompletion(e);
+            }
+        }
+
+        public void onCompletion(@NotNull Packet reply) {
+            transport.recycle(tube);
+            pending.decrementAndGet();
+            delivered.increment();
+            if (callback != null) {
+                callback.onCompletion(reply);
+            }
+        }
+
+        public void onCompletion(@NotNull Throwable error) {
+            // the state of the failed tube is unknown, it is not reused
+            if (retries < maxRetries && !closed && isNotSent(error)) {
+                long delay = retryDelay << retries++;
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Delivery to " + response.endpointAddress + " failed, retrying in " + delay + " ms", error);
+                }
+                waiting.add(this);
+                try {
+                    executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+                    retried.increment();
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // closed in the meantime
+                    if (!waiting.remove(this)) {
+                        // and already given up by close()
+                        return;
+                    }
+                    error.addSuppressed(e);
+                }
+            }
+            giveUp(error);
+        }
+
+        void giveUp(Throwable error) {
+            pending.decrementAndGet();
+            failed.increment();
+            LOGGER.log(Level.WARNING, "Unable to deliver the response to " + response.endpointAddress, error);
+            if (callback != null) {
+                callback.onCompletion(error);
+            }
+        }
+    }
+
+    /**
+     * Tells if the failure happened before any of the response reached the
+     * destination, so that sending it again cannot duplicate it.
+     */
+    static boolean isNotSent(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException
+                    || t instanceof NoRouteToHostException
+                    || t instanceof UnknownHostException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops accepting responses. Responses being delivered are completed,
+     * but failed deliveries are no longer retried; the ones waiting
+     * for a retry are given up.
+     */
+    public void close() {
+        closed = true;
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.shutdown();
+        for (Delivery d : waiting) {
+            if (waiting.remove(d)) {
+                d.giveUp(new WebServiceException("Unable to deliver the response to "
+                        + d.response.endpointAddress + ", the endpoint is disposed"));
+            }
+        }
+        synchronized (transports) {
+            for (Pool.TubePool pool : transports.values()) {
+                pool.close();
+            }
+            transports.clear();
+        }
+    }
+
+    /**
+     * Number of responses queued, being delivered or waiting for a retry.
+     */
+    @ManagedAttribute
+    @Description("Number of responses queued, being delivered or waiting for a retry")
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Number of responses delivered.
+     */
+    @ManagedAttribute
+    @Description("Number of responses delivered")
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * Number of failed deliveries that were retried.
+     */
+    @ManagedAttribute
+    @Description("Number of failed deliveries that were retried")
+    public long getRetried() {
+        return retried.sum();
+    }
+
+    /**
+     * Number of responses given up, because of a failure that could
+     * not be retried or after the last retry.
+     */
+    @ManagedAttribute
+    @Description("Number of responses given up")
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Number of responses refused because the queue was full.
+     */
+    @ManagedAttribute
+    @Description("Number of responses refused because the queue was full")
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
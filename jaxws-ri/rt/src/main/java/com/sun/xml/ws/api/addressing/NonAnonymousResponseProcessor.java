@@ -42,6 +42,7 @@ package com.sun.xml.ws.api.addressing;
 
 import com.sun.istack.NotNull;
 
+import com.sun.xml.ws.addressing.NonAnonymousResponseDispatcher;
 import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.WSService;
 import com.sun.xml.ws.api.message.Packet;
@@ -54,6 +55,10 @@ import com.sun.xml.ws.binding.BindingImpl;
 
 /**
  * Delivers response messages targeted at non-anonymous endpoint addresses
+ *
+ * <p>
+ * The default implementation queues them to the {@link NonAnonymousResponseDispatcher}
+ * of the endpoint.
  * @since 2.2.6
  */
 public class NonAnonymousResponseProcessor {
@@ -99,8 +104,27 @@ public class NonAnonymousResponseProcessor {
 	        }
         }
 
-        // we need to assemble a pipeline to talk to this endpoint.
+        // then we'll proceed the rest like one-way.
+        // copied first, the response may be delivered concurrently
+        Packet copy = packet.copy(false);
+        copy.endpointAddress = null;
+
 		WSEndpoint<?> endpoint = packet.endpoint;
+        NonAnonymousResponseDispatcher dispatcher = NonAnonymousResponseDispatcher.get(endpoint);
+        if (dispatcher != null) {
+            try {
+                dispatcher.dispatch(packet, fiberCallback);
+            } catch (RuntimeException e) {
+                if (fiberCallback != null) {
+                    // not queued, the current fiber completes with the failure
+                    currentFiber.setCompletionCallback(fiberCallback);
+                }
+                throw e;
+            }
+            return copy;
+        }
+
+        // we need to assemble a pipeline to talk to this endpoint.
 		WSBinding binding = endpoint.getBinding();
         Tube transport = TransportTubeFactory.create(Thread.currentThread().getContextClassLoader(),
             new ClientTubeAssemblerContext(
@@ -110,10 +134,6 @@ public class NonAnonymousResponseProcessor {
         Fiber fiber = endpoint.getEngine().createFiber();
         fiber.start(transport, packet, fiberCallback);
         
-        // then we'll proceed the rest like one-way.
-        Packet copy = packet.copy(false);
-        copy.endpointAddress = null;
-        
         return copy;
 	}
 }
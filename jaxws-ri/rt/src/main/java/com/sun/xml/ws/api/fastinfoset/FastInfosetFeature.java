@@ -40,9 +40,22 @@
 
 package com.sun.xml.ws.api.fastinfoset;
 
+import com.sun.istack.NotNull;
 import com.sun.xml.ws.api.FeatureConstructor;
+import com.sun.xml.ws.api.model.wsdl.WSDLBoundFault;
+import com.sun.xml.ws.api.model.wsdl.WSDLBoundOperation;
+import com.sun.xml.ws.api.model.wsdl.WSDLDescriptorKind;
+import com.sun.xml.ws.api.model.wsdl.WSDLPart;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 
+import javax.xml.namespace.QName;
 import javax.xml.ws.WebServiceFeature;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
 
 import org.glassfish.gmbal.ManagedAttribute;
 import org.glassfish.gmbal.ManagedData;
@@ -61,6 +74,13 @@ import org.glassfish.gmbal.ManagedData;
  * <p>
  * If this feature is not present on a Web service then the default behaviour
  * is equivalent to this feature being present and enabled.
+ * <p>
+ * With the external vocabulary option, Fast Infoset documents refer to a
+ * vocabulary that both peers derive from the WSDL of the port, the names of
+ * the SOAP envelope and of the elements of the bound operations, instead of
+ * repeating these names literally in every message. A client with the option
+ * enables it for its requests, and an endpoint with the option answers with
+ * it to the requests that use it. Both peers must have the same WSDL.
  * @author Paul.Sandoz@Sun.Com
  */
 @ManagedData
@@ -70,11 +90,15 @@ public class FastInfosetFeature extends WebServiceFeature {
      */
     public static final String ID = "http://java.sun.com/xml/ns/jaxws/fastinfoset";
 
+    private final boolean externalVocabulary;
+
+    private final List<QName> vocabulary;
+
     /**
      * Create a {@link FastInfosetFeature}. The instance created will be enabled.
      */
     public FastInfosetFeature() {
-        this.enabled = true;
+        this(true);
     }
 
     /**
@@ -83,9 +107,40 @@ public class FastInfosetFeature extends WebServiceFeature {
      * @param enabled specifies whether this feature should
      *                be enabled or not.
      */
-    @FeatureConstructor({"enabled"})
     public FastInfosetFeature(boolean enabled) {
+        this(enabled, false);
+    }
+
+    /**
+     * Create a {@link FastInfosetFeature}
+     *
+     * @param enabled specifies whether this feature should
+     *                be enabled or not.
+     * @param externalVocabulary specifies whether the external vocabulary
+     *                derived from the WSDL of the port should be used.
+     * @since JAX-WS RI 2.3.0
+     */
+    @FeatureConstructor({"enabled", "externalVocabulary"})
+    public FastInfosetFeature(boolean enabled, boolean externalVocabulary) {
+        this(enabled, externalVocabulary, Collections.<QName>emptyList());
+    }
+
+    /**
+     * Create a {@link FastInfosetFeature} with an external vocabulary
+     * made of the given element names, in addition to those of the SOAP envelope.
+     *
+     * @param enabled specifies whether this feature should
+     *                be enabled or not.
+     * @param externalVocabulary specifies whether the external vocabulary
+     *                should be used.
+     * @param vocabulary names of the elements of the vocabulary, in the
+     *                order both peers agree on.
+     * @since JAX-WS RI 2.3.0
+     */
+    public FastInfosetFeature(boolean enabled, boolean externalVocabulary, @NotNull Collection<QName> vocabulary) {
         this.enabled = enabled;
+        this.externalVocabulary = externalVocabulary;
+        this.vocabulary = Collections.unmodifiableList(new ArrayList<QName>(vocabulary));
     }
 
     /**
@@ -95,4 +150,65 @@ public class FastInfosetFeature extends WebServiceFeature {
     public String getID() {
         return ID;
     }
+
+    /**
+     * Whether Fast Infoset documents use the external vocabulary.
+     *
+     * @since JAX-WS RI 2.3.0
+     */
+    @ManagedAttribute
+    public boolean isExternalVocabulary() {
+        return externalVocabulary;
+    }
+
+    /**
+     * Names of the elements of the external vocabulary, besides those
+     * of the SOAP envelope.
+     *
+     * @since JAX-WS RI 2.3.0
+     */
+    public @NotNull List<QName> getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Collects the names of the elements the given port exchanges: the payloads,
+     * headers and fault details of its bound operations, sorted so that both
+     * peers of the port obtain the same list.
+     *
+     * @since JAX-WS RI 2.3.0
+     */
+    public static @NotNull List<QName> getVocabulary(@NotNull WSDLPort port) {
+        TreeSet<QName> names = new TreeSet<QName>(new Comparator<QName>() {
+            public int compare(QName o1, QName o2) {
+                return o1.toString().compareTo(o2.toString());
+            }
+        });
+        for (WSDLBoundOperation op : port.getBinding().getBindingOperations()) {
+            addName(names, op.getRequestPayloadName());
+            addName(names, op.getResponsePayloadName());
+            for (WSDLPart part : op.getInParts().values()) {
+                addElementName(names, part);
+            }
+            for (WSDLPart part : op.getOutParts().values()) {
+                addElementName(names, part);
+            }
+            for (WSDLBoundFault fault : op.getFaults()) {
+                addName(names, fault.getQName());
+            }
+        }
+        return new ArrayList<QName>(names);
+    }
+
+    private static void addElementName(TreeSet<QName> names, WSDLPart part) {
+        if (part.getDescriptor().type() == WSDLDescriptorKind.ELEMENT) {
+            addName(names, part.getDescriptor().name());
+        }
+    }
+
+    private static void addName(TreeSet<QName> names, QName name) {
+        if (name != null && name.getLocalPart().length() > 0) {
+            names.add(name);
+        }
+    }
 }
@@ -145,7 +145,28 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     private BitSet moreUnderstoodBits = null;
 
     private SOAPVersion soapVersion;
-    
+
+    /**
+     * Lists with fewer headers than this are searched linearly,
+     * rather than through {@link #nameIndex}.
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * Open-addressed hash table from header names to the position of the first
+     * header of that name, plus one (0 marks a free slot).
+     * <p>
+     * Lazily built by {@link #find(String, String, int)}, and considered stale
+     * once the list is structurally modified (as tracked by {@link #modCount})
+     * or a header is {@link #set(int, Header) set}.
+     */
+    private transient int[] nameIndex;
+    /**
+     * For each position, the position of the next header of the same name, or -1.
+     */
+    private transient int[] nextSameName;
+    private transient int indexedModCount;
+
     /**
      * This method is deprecated - instead use this one: 
      * public HeaderList(SOAPVersion)
@@ -227,6 +248,78 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
         return super.get(index);
     }
 
+    @Override
+    public Header set(int index, Header header) {
+        nameIndex = null;
+        return super.set(index, header);
+    }
+
+    /**
+     * Finds the position of the first header of the given name at or after {@code from}.
+     *
+     * @return -1 if not found.
+     */
+    private int find(String nsUri, String localName, int from) {
+        int len = size();
+        if (len < INDEX_THRESHOLD) {
+            for (int i = from; i < len; i++) {
+                Header h = get(i);
+                if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        if (nameIndex == null || indexedModCount != modCount) {
+            buildNameIndex();
+        }
+        int[] table = nameIndex;
+        int mask = table.length - 1;
+        for (int slot = hash(nsUri, localName) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int i = table[slot] - 1;
+            Header h = get(i);
+            if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
+                while (i >= 0 && i < from) {
+                    i = nextSameName[i];
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void buildNameIndex() {
+        int len = size();
+        int[] table = new int[Integer.highestOneBit(len) << 2];
+        int[] next = new int[len];
+        int mask = table.length - 1;
+        // going backwards so that each slot ends up with the first header of its name
+        for (int i = len - 1; i >= 0; i--) {
+            Header h = get(i);
+            String nsUri = h.getNamespaceURI();
+            String localName = h.getLocalPart();
+            int slot = hash(nsUri, localName) & mask;
+            next[i] = -1;
+            while (table[slot] != 0) {
+                Header first = get(table[slot] - 1);
+                if (first.getLocalPart().equals(localName) && first.getNamespaceURI().equals(nsUri)) {
+                    next[i] = table[slot] - 1;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        nextSameName = next;
+        nameIndex = table;
+        indexedModCount = modCount;
+    }
+
+    private static int hash(String nsUri, String localName) {
+        int h = localName.hashCode() * 31 + nsUri.hashCode();
+        return h ^ (h >>> 16);
+    }
+
     /**
      * Marks the {@link Header} at the specified index as
      * <a href="#MU">"understood"</a>.
@@ -303,17 +396,14 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
      */
     @Override
     public @Nullable Header get(@NotNull String nsUri, @NotNull String localName, boolean markAsUnderstood) {
-        int len = size();
-        for (int i = 0; i < len; i++) {
-            Header h = get(i);
-            if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
-                if (markAsUnderstood) {
-                    understood(i);
-                }
-                return h;
-            }
+        int i = find(nsUri, localName, 0);
+        if (i < 0) {
+            return null;
+        }
+        if (markAsUnderstood) {
+            understood(i);
         }
-        return null;
+        return get(i);
     }
 
     /**
@@ -403,12 +493,12 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
             }
 
             private void fetch() {
-                while (idx < size()) {
-                    Header h = get(idx++);
-                    if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
-                        next = h;
-                        break;
-                    }
+                int i = find(nsUri, localName, idx);
+                if (i >= 0) {
+                    next = get(i);
+                    idx = i + 1;
+                } else {
+                    idx = size();
                 }
             }
 
@@ -668,14 +758,8 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     @Nullable
     @Override
     Header remove(@NotNull String nsUri, @NotNull String localName) {
-        int len = size();
-        for (int i = 0; i < len; i++) {
-            Header h = get(i);
-            if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
-                return remove(i);
-            }
-        }
-        return null;
+        int i = find(nsUri, localName, 0);
+        return (i >= 0) ? remove(i) : null;
     }
     
     /**
@@ -691,35 +775,29 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
      */
     @Override
     public boolean addOrReplace(Header header) {
-        for (int i=0; i < size(); i++) {
-          Header hdr = get(i);
-          if (hdr.getNamespaceURI().equals(header.getNamespaceURI()) &&
-              hdr.getLocalPart().equals(header.getLocalPart())) {
+        int i = find(header.getNamespaceURI(), header.getLocalPart(), 0);
+        if (i >= 0) {
             // Put the new header in the old position. Call super versions
             // internally to avoid UnsupportedOperationException
             removeInternal(i);
             addInternal(i, header);
             return true;
-          }
         }
         return add(header);
     }
     
     @Override
     public void replace(Header old, Header header) {
-        for (int i=0; i < size(); i++) {
-            Header hdr = get(i);
-            if (hdr.getNamespaceURI().equals(header.getNamespaceURI()) &&
-                hdr.getLocalPart().equals(header.getLocalPart())) {
-              // Put the new header in the old position. Call super versions
-              // internally to avoid UnsupportedOperationException
-              removeInternal(i);
-              addInternal(i, header);
-              return;
-            }
-          }
-        
-          throw new IllegalArgumentException();
+        int i = find(header.getNamespaceURI(), header.getLocalPart(), 0);
+        if (i >= 0) {
+            // Put the new header in the old position. Call super versions
+            // internally to avoid UnsupportedOperationException
+            removeInternal(i);
+            addInternal(i, header);
+            return;
+        }
+
+        throw new IllegalArgumentException();
     }
 
     protected void addInternal(int index, Header header) {
@@ -915,13 +993,8 @@ public class HeaderList extends ArrayList<Header> implements MessageHeaders {
     
     @Override
     public boolean isUnderstood(String nsUri, String localName) {
-        for (int i = 0; i < size(); i++) {
-            Header h = get(i);
-            if (h.getLocalPart().equals(localName) && h.getNamespaceURI().equals(nsUri)) {
-                return isUnderstood(i);
-            }
-        }
-        return false;
+        int i = find(nsUri, localName, 0);
+        return i >= 0 && isUnderstood(i);
     }
     
     @Override
@@ -337,6 +337,20 @@ public final class Packet
         this.wsdlOperation = wsdlOp;
     }
 
+    /**
+     * Returns the QName of the wsdl operation associated with this packet if it
+     * is already known, that is if it was set or looked up before.
+     * Unlike {@link #getWSDLOperation()}, this never dispatches the packet, so
+     * it can be called by tubes that run before the operation can be found.
+     *
+     * @return null if the wsdl operation is not known yet.
+     * @since JAX-WS RI 2.3.0
+     */
+    public @Nullable QName getResolvedWSDLOperation() {
+        if (wsdlOperation != null) return wsdlOperation;
+        return (wsdlOperationMapping != null) ? wsdlOperationMapping.getOperationName() : null;
+    }
+
     /**
      * True if this message came from a transport (IOW inbound),
      * and in paricular from a "secure" transport. A transport
@@ -44,6 +44,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.server.Container;
@@ -53,13 +54,26 @@ import com.sun.xml.ws.api.server.ContainerResolver;
  * Collection of {@link Fiber}s.
  * Owns an {@link Executor} to run them.
  *
+ * <p>
+ * If no {@link Executor} is given, fibers run on a cached pool of daemon threads,
+ * or, when virtual threads are requested (see {@link com.sun.xml.ws.developer.VirtualThreadsFeature})
+ * and supported by the JDK, on a new virtual thread per fiber.
+ *
  * @author Kohsuke Kawaguchi
  * @author Jitendra Kotamraju
  */
 public class Engine {
+    private static final Logger LOGGER = Logger.getLogger(Engine.class.getName());
+
+    /**
+     * Runs fibers of every engine without an explicit {@link Executor} on virtual threads.
+     */
+    public static volatile boolean useVirtualThreads = Boolean.getBoolean(Engine.class.getName() + ".virtualThreads");
+
     private volatile Executor threadPool;
     public final String id;
     private final Container container;
+    private final boolean virtualThreads;
 
     String getId() { return id; }
     Container getContainer() { return container; }
@@ -70,7 +84,16 @@ public class Engine {
     }
     
     public Engine(String id, Container container, Executor threadPool) {
-        this(id, container);
+        this(id, container, threadPool, false);
+    }
+
+    /**
+     * @param virtualThreads
+     *      if true and <tt>threadPool</tt> is null, fibers get their own virtual thread
+     * @since 2.3.0
+     */
+    public Engine(String id, Container container, Executor threadPool, boolean virtualThreads) {
+        this(id, container, virtualThreads);
         this.threadPool = threadPool != null ? wrap(threadPool) : null;
     }
 
@@ -79,8 +102,18 @@ public class Engine {
     }
     
     public Engine(String id, Container container) {
+        this(id, container, false);
+    }
+
+    /**
+     * @param virtualThreads
+     *      if true, fibers get their own virtual thread unless an executor is set
+     * @since 2.3.0
+     */
+    public Engine(String id, Container container, boolean virtualThreads) {
         this.id = id;
         this.container = container;
+        this.virtualThreads = virtualThreads || useVirtualThreads;
     }
 
     public void setExecutor(Executor threadPool) {
@@ -90,11 +123,24 @@ public class Engine {
     void addRunnable(Fiber fiber) {
         if(threadPool==null) {
             synchronized(this) {
-                threadPool = wrap(Executors.newCachedThreadPool(new DaemonThreadFactory()));
+                if (threadPool == null) {
+                    threadPool = wrap(createDefaultExecutor());
+                }
             }
         }
         threadPool.execute(fiber);
     }
+
+    private Executor createDefaultExecutor() {
+        if (virtualThreads) {
+            ThreadFactory factory = ThreadHelper.createVirtualThreadFactory("jaxws-engine-" + id + "-vthread-");
+            if (factory != null) {
+                return new ThreadPerTaskExecutor(factory);
+            }
+            LOGGER.warning("Virtual threads are not supported by this JVM, falling back to a thread pool for engine " + id);
+        }
+        return Executors.newCachedThreadPool(new DaemonThreadFactory());
+    }
     
     private Executor wrap(Executor ex) {
         return ContainerResolver.getDefault().wrapExecutor(container, ex);
@@ -113,6 +159,21 @@ public class Engine {
         return new Fiber(this);
     }
 
+    /**
+     * Starts a new (virtual) thread for every fiber; there is nothing to pool.
+     */
+    private static class ThreadPerTaskExecutor implements Executor {
+        private final ThreadFactory factory;
+
+        ThreadPerTaskExecutor(ThreadFactory factory) {
+            this.factory = factory;
+        }
+
+        public void execute(Runnable command) {
+            factory.newThread(command).start();
+        }
+    }
+
     private static class DaemonThreadFactory implements ThreadFactory {
         static final AtomicInteger poolNumber = new AtomicInteger(1);
         final AtomicInteger threadNumber = new AtomicInteger(1);
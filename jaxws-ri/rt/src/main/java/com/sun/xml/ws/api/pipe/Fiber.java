@@ -277,6 +277,14 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
 
+    /**
+     * Guards {@link #currentThread} and {@link #interceptors}. Kept separate from
+     * {@link #lock} so that {@link #cancel(boolean)} can get to the running thread
+     * while the fiber is executing; a {@link ReentrantLock} rather than the monitor
+     * of this object so that fibers running on virtual threads do not pin their carrier.
+     */
+    private final ReentrantLock stateLock = new ReentrantLock();
+
     private volatile boolean isCanceled;
     
     /**
@@ -618,10 +626,13 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
     public void cancel(boolean mayInterrupt) {
         isCanceled = true;
         if (mayInterrupt) {
-            // synchronized(this) is used as Thread running Fiber will be holding lock
-            synchronized(this) {
+            // stateLock is used as Thread running Fiber will be holding lock
+            stateLock.lock();
+            try {
                 if (currentThread != null)
                     currentThread.interrupt();
+            } finally {
+                stateLock.unlock();
             }
         }
     }
@@ -674,10 +685,13 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
             // synchronous use cases cannot disconnect from the current thread
             if (!synchronous) { 
                 /* INTENTIONALLY UNLOCKING EARLY */
-                synchronized(this) {
-                    // currentThread is protected by the monitor for this fiber so 
-                    // that it is accessible to cancel() even when the lock is held
+                stateLock.lock();
+                try {
+                    // currentThread is protected by stateLock so that it
+                    // is accessible to cancel() even when the lock is held
                     currentThread = null;
+                } finally {
+                    stateLock.unlock();
                 }
                 lock.unlock();
                 assert(!lock.isHeldByCurrentThread());
@@ -732,15 +746,20 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
      * <li>Y.processRequest()
      * </ol>
      */
-    public synchronized void addInterceptor(@NotNull FiberContextSwitchInterceptor interceptor) {
-        if (interceptors == null) {
-            interceptors = new ArrayList<FiberContextSwitchInterceptor>();
-        } else {
-            List<FiberContextSwitchInterceptor> l = new ArrayList<FiberContextSwitchInterceptor>();
-            l.addAll(interceptors);
-            interceptors = l;
+    public void addInterceptor(@NotNull FiberContextSwitchInterceptor interceptor) {
+        stateLock.lock();
+        try {
+            if (interceptors == null) {
+                interceptors = new ArrayList<FiberContextSwitchInterceptor>();
+            } else {
+                List<FiberContextSwitchInterceptor> l = new ArrayList<FiberContextSwitchInterceptor>();
+                l.addAll(interceptors);
+                interceptors = l;
+            }
+            interceptors.add(interceptor);
+        } finally {
+            stateLock.unlock();
         }
-        interceptors.add(interceptor);
     }
 
     /**
@@ -766,19 +785,24 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
      * @return true if the specified interceptor was removed. False if
      *         the specified interceptor was not registered with this fiber to begin with.
      */
-    public synchronized boolean removeInterceptor(@NotNull FiberContextSwitchInterceptor interceptor) {
-        if (interceptors != null) {
-            boolean result = interceptors.remove(interceptor);
-            if (interceptors.isEmpty())
-                interceptors = null;
-            else {
-                List<FiberContextSwitchInterceptor> l = new ArrayList<FiberContextSwitchInterceptor>();
-                l.addAll(interceptors);
-                interceptors = l;
+    public boolean removeInterceptor(@NotNull FiberContextSwitchInterceptor interceptor) {
+        stateLock.lock();
+        try {
+            if (interceptors != null) {
+                boolean result = interceptors.remove(interceptor);
+                if (interceptors.isEmpty())
+                    interceptors = null;
+                else {
+                    List<FiberContextSwitchInterceptor> l = new ArrayList<FiberContextSwitchInterceptor>();
+                    l.addAll(interceptors);
+                    interceptors = l;
+                }
+                return result;
             }
-            return result;
+            return false;
+        } finally {
+            stateLock.unlock();
         }
-        return false;
     }
 
     /**
@@ -1027,11 +1051,12 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
         try {
             List<FiberContextSwitchInterceptor> ints;
             ClassLoader old;
-            synchronized(this) {
+            stateLock.lock();
+            try {
                 ints = interceptors;
                 
-                // currentThread is protected by the monitor for this fiber so 
-                // that it is accessible to cancel() even when the lock is held
+                // currentThread is protected by stateLock so that it
+                // is accessible to cancel() even when the lock is held
                 currentThread = Thread.currentThread();
                 if (isTraceEnabled()) {
                     LOGGER.log(Level.FINE, "Thread entering _doRun(): {0}", currentThread);
@@ -1039,6 +1064,8 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
     
                 old = currentThread.getContextClassLoader();
                 currentThread.setContextClassLoader(contextClassLoader);
+            } finally {
+                stateLock.unlock();
             }
 
             try {
@@ -1057,10 +1084,13 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
                         }
                     }
                     
-                    synchronized(this) {
+                    stateLock.lock();
+                    try {
                         needsToReenter = (ints != interceptors);
                         if (needsToReenter)
                             ints = interceptors;
+                    } finally {
+                        stateLock.unlock();
                     }
                 } while (needsToReenter);
             } catch(OnExitRunnableException o) {
@@ -1084,8 +1114,11 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
             return false;
         } finally {
             if (isRequireUnlock.value) {
-                synchronized(this) {
+                stateLock.lock();
+                try {
                     currentThread = null;
+                } finally {
+                    stateLock.unlock();
                 }
                 lock.unlock();
             }
@@ -1272,16 +1305,21 @@ public final class Fiber implements Runnable, Cancelable, ComponentRegistry {
                     interrupted = true;
                 }
             
-            synchronized(this) {
-                return interceptors == originalInterceptors;
-            }
+            return isCurrentInterceptors(originalInterceptors);
         }
         else {
             if (suspendedCount>0)
                 return false;
-            synchronized(this) {
-                return interceptors == originalInterceptors;
-            }
+            return isCurrentInterceptors(originalInterceptors);
+        }
+    }
+
+    private boolean isCurrentInterceptors(List<FiberContextSwitchInterceptor> originalInterceptors) {
+        stateLock.lock();
+        try {
+            return interceptors == originalInterceptors;
+        } finally {
+            stateLock.unlock();
         }
     }
 
@@ -41,6 +41,7 @@
 package com.sun.xml.ws.api.pipe;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.concurrent.ThreadFactory;
@@ -96,6 +97,33 @@ final class ThreadHelper {
         return threadFactory.newThread(r);
     }
 
+    /**
+     * Creates a {@link ThreadFactory} producing virtual threads named
+     * <tt>namePrefix</tt> followed by a counter.
+     *
+     * @return null if the running JDK does not support virtual threads
+     */
+    static ThreadFactory createVirtualThreadFactory(final String namePrefix) {
+        return AccessController.doPrivileged(
+                new PrivilegedAction<ThreadFactory>() {
+                    @Override
+                    public ThreadFactory run() {
+                        // Thread.ofVirtual().name(namePrefix, 0).factory(), new in Java SE 21
+                        try {
+                            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                            Method name = builderType.getMethod("name", String.class, long.class);
+                            builder = name.invoke(builder, namePrefix, 0L);
+                            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                        } catch (ReflectiveOperationException ignored) {
+                            // older JDK, or virtual threads still a disabled preview feature
+                        }
+                        return null;
+                    }
+                }
+        );
+    }
+
     // A Thread factory backed by the Thread constructor that
     // suppresses inheriting of inheritable thread-locals.
     private static class JDK9ThreadFactory implements ThreadFactory {
@@ -47,6 +47,8 @@ import com.sun.xml.ws.resources.ServerMessages;
 import com.sun.xml.ws.resources.WsservletMessages;
 import com.sun.xml.ws.server.ServerRtException;
 import com.sun.xml.ws.server.SingletonResolver;
+import com.sun.xml.ws.util.MethodHandleFactory;
+import com.sun.xml.ws.util.MethodHandleFactory.MethodInvoker;
 
 import javax.xml.ws.Provider;
 import javax.xml.ws.WebServiceContext;
@@ -54,6 +56,8 @@ import javax.xml.ws.WebServiceException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -230,9 +234,16 @@ public abstract class InstanceResolver<T> {
 
     /**
      * Wraps this {@link InstanceResolver} into an {@link Invoker}.
+     *
+     * <p>
+     * Endpoint methods are called through a {@link MethodInvoker} created on
+     * the first invocation of each method, when {@link MethodHandleFactory}
+     * can provide one, and through reflection otherwise.
      */
     public @NotNull Invoker createInvoker() {
         return new Invoker() {
+            private final ConcurrentMap<Method, Object> handles = new ConcurrentHashMap<Method, Object>();
+
             @Override
             public void start(@NotNull WSWebServiceContext wsc, @NotNull WSEndpoint endpoint) {
                 InstanceResolver.this.start(wsc,endpoint);
@@ -245,14 +256,30 @@ public abstract class InstanceResolver<T> {
 
             @Override
             public Object invoke(Packet p, Method m, Object... args) throws InvocationTargetException, IllegalAccessException {
+                Object handle = getHandle(m);
                 T t = resolve(p);
                 try {
+                    if (handle != NO_HANDLE) {
+                        return ((MethodInvoker) handle).invoke(t, args);
+                    }
                     return MethodUtil.invoke(t, m, args );
                 } finally {
                     postInvoke(p,t);
                 }
             }
 
+            private Object getHandle(Method m) {
+                Object handle = handles.get(m);
+                if (handle == null) {
+                    handle = MethodHandleFactory.invoker(m);
+                    if (handle == null) {
+                        handle = NO_HANDLE;
+                    }
+                    handles.putIfAbsent(m, handle);
+                }
+                return handle;
+            }
+
             @Override
             public <U> U invokeProvider(@NotNull Packet p, U arg) {
                 T t = resolve(p);
@@ -269,6 +296,11 @@ public abstract class InstanceResolver<T> {
         };
     }
 
+    /**
+     * Marks methods that have to be invoked through reflection.
+     */
+    private static final Object NO_HANDLE = new Object();
+
     private static final Logger logger =
         Logger.getLogger(
             com.sun.xml.ws.util.Constants.LoggingDomain + ".server");
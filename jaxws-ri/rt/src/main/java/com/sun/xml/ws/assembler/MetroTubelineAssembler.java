@@ -49,6 +49,7 @@ import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubelineAssembler;
 import com.sun.xml.ws.assembler.dev.TubelineAssemblyDecorator;
 import com.sun.xml.ws.dump.LoggingDumpTube;
+import com.sun.xml.ws.profiling.ProfilingTubelineAssemblyDecorator;
 import com.sun.xml.ws.resources.TubelineassemblyMessages;
 import com.sun.xml.ws.util.ServiceFinder;
 
@@ -121,8 +122,10 @@ public class MetroTubelineAssembler implements TubelineAssembler {
             tubeCreator.updateContext(context);
         }
 
-        TubelineAssemblyDecorator decorator = TubelineAssemblyDecorator.composite(
-                ServiceFinder.find(TubelineAssemblyDecorator.class, context.getContainer()));
+        TubelineAssemblyDecorator decorator = ProfilingTubelineAssemblyDecorator.decorate(
+                TubelineAssemblyDecorator.composite(
+                        ServiceFinder.find(TubelineAssemblyDecorator.class, context.getContainer())),
+                context.getBinding());
         
         boolean first = true;
         for (TubeCreator tubeCreator : tubeCreators) {
@@ -175,8 +178,10 @@ public class MetroTubelineAssembler implements TubelineAssembler {
             tubeCreator.updateContext(context);
         }
 
-        TubelineAssemblyDecorator decorator = TubelineAssemblyDecorator.composite(
-                ServiceFinder.find(TubelineAssemblyDecorator.class, context.getEndpoint().getContainer()));
+        TubelineAssemblyDecorator decorator = ProfilingTubelineAssemblyDecorator.decorate(
+                TubelineAssemblyDecorator.composite(
+                        ServiceFinder.find(TubelineAssemblyDecorator.class, context.getEndpoint().getContainer())),
+                context.getEndpoint().getBinding());
         
         boolean first = true;
         for (TubeCreator tubeCreator : tubeCreators) {
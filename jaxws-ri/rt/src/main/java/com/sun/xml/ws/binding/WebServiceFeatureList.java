@@ -50,6 +50,7 @@ import com.sun.xml.ws.api.SOAPVersion;
 import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.WSFeatureList;
 import com.sun.xml.ws.api.FeatureConstructor;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetFeature;
 import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.model.wsdl.WSDLFeaturedObject;
 import com.sun.xml.ws.model.RuntimeModelerException;
@@ -407,6 +408,21 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
     	wsfeatures.put(MTOMFeature.class, new MTOMFeature(b));
     }
 
+    /**
+     * Sets the names of the port as the external vocabulary of the
+     * {@link FastInfosetFeature}, if it asks for one without giving its names.
+     *
+     * @param port the port the vocabulary is derived from, or null if there is no WSDL.
+     */
+    public void setFastInfosetVocabulary(@Nullable WSDLPort port) {
+        FastInfosetFeature fi = get(FastInfosetFeature.class);
+        if (port != null && fi != null && fi.isEnabled() && fi.isExternalVocabulary()
+                && fi.getVocabulary().isEmpty()) {
+            wsfeatures.put(FastInfosetFeature.class,
+                    new FastInfosetFeature(true, true, FastInfosetFeature.getVocabulary(port)));
+        }
+    }
+
     public boolean equals(Object other) {
     	if (!(other instanceof WebServiceFeatureList))
             return false;
@@ -42,13 +42,17 @@ package com.sun.xml.ws.client;
 
 import com.sun.istack.Nullable;
 import com.sun.xml.ws.api.Cancelable;
+import com.sun.xml.ws.developer.CompletableResponse;
 import com.sun.xml.ws.util.CompletedFuture;
 
 import javax.xml.ws.AsyncHandler;
 import javax.xml.ws.Response;
 import javax.xml.ws.WebServiceException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
 
 /**
  * {@link Response} implementation. When Runnbale is executed, it just hands the
@@ -57,7 +61,7 @@ import java.util.concurrent.FutureTask;
  *
  * @author Jitendra Kotamraju
  */
-public final class AsyncResponseImpl<T> extends FutureTask<T> implements Response<T>, ResponseContextReceiver {
+public final class AsyncResponseImpl<T> extends FutureTask<T> implements CompletableResponse<T>, ResponseContextReceiver {
 
     /**
      * Optional {@link AsyncHandler} that gets invoked
@@ -68,6 +72,11 @@ public final class AsyncResponseImpl<T> extends FutureTask<T> implements Respons
     private final Runnable callable;
     private Cancelable cancelable;
 
+    /**
+     * {@link CompletableFuture} view of this response, completed by {@link #done()}.
+     */
+    private final CompletableFuture<T> completable = new CompletableFuture<T>();
+
     /**
      *
      * @param runnable
@@ -80,6 +89,13 @@ public final class AsyncResponseImpl<T> extends FutureTask<T> implements Respons
         super(runnable, null);
         this.callable = runnable;
         this.handler = handler;
+        completable.whenComplete(new BiConsumer<T, Throwable>() {
+            public void accept(T v, Throwable t) {
+                if (completable.isCancelled()) {
+                    AsyncResponseImpl.this.cancel(true);
+                }
+            }
+        });
     }
 
     @Override
@@ -141,6 +157,26 @@ public final class AsyncResponseImpl<T> extends FutureTask<T> implements Respons
         }
     }
     
+    public CompletableFuture<T> toCompletableFuture() {
+        return completable;
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            completable.cancel(false);
+            return;
+        }
+        try {
+            completable.complete(get());
+        } catch (ExecutionException e) {
+            completable.completeExceptionally(e.getCause());
+        } catch (InterruptedException e) {
+            // can't happen, the task is done
+            completable.completeExceptionally(e);
+        }
+    }
+
     public void setCancelable(Cancelable cancelable) {
     	this.cancelable = cancelable;
     }
@@ -42,6 +42,7 @@ package com.sun.xml.ws.client;
 
 import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
 import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.pipe.NextAction;
 import com.sun.xml.ws.api.pipe.Tube;
@@ -49,7 +50,9 @@ import com.sun.xml.ws.api.pipe.TubeCloner;
 import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
 import com.sun.xml.ws.api.server.SDDocument;
 import com.sun.xml.ws.util.MetadataUtil;
+import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.util.pipe.AbstractSchemaValidationTube;
+import com.sun.xml.ws.util.pipe.SchemaCache;
 import org.xml.sax.SAXException;
 
 import javax.xml.transform.Source;
@@ -69,44 +72,61 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
     private static final Logger LOGGER = Logger.getLogger(ClientSchemaValidationTube.class.getName());
 
     private final Schema schema;
-    private final Validator validator;
+    private final Pool<Validator> validators;
+    private Validator validator;
     private final boolean noValidation;
     private final WSDLPort port;
 
     public ClientSchemaValidationTube(WSBinding binding, WSDLPort port, Tube next) {
         super(binding, next);
         this.port = port;
+        SchemaCache.Entry compiled = SchemaCache.NO_SCHEMA;
         if (port != null) {
-            String primaryWsdl = port.getOwner().getParent().getLocation().getSystemId();
-            MetadataResolverImpl mdresolver = new MetadataResolverImpl();
-            Map<String, SDDocument> docs = MetadataUtil.getMetadataClosure(primaryWsdl, mdresolver, true);
-            mdresolver = new MetadataResolverImpl(docs.values());
-            Source[] sources = getSchemaSources(docs.values(), mdresolver);
-            for(Source source : sources) {
-                LOGGER.fine("Constructing client validation schema from = "+source.getSystemId());
-                //printDOM((DOMSource)source);
-            }
-            if (sources.length != 0) {
-                noValidation = false;
-                sf.setResourceResolver(mdresolver);
-                try {
-                    schema = sf.newSchema(sources);
-                } catch(SAXException e) {
-                    throw new WebServiceException(e);
-                }
-                validator = schema.newValidator();
-                return;
+            // stubs of the same service share the WSDL model, hence the schema
+            WSDLModel model = port.getOwner().getParent();
+            compiled = SchemaCache.get(model);
+            if (compiled == null) {
+                compiled = SchemaCache.put(model, compileSchema(model));
             }
         }
-        noValidation = true;
-        schema = null;
-        validator = null;
+        schema = compiled.getSchema();
+        validators = compiled.getValidators();
+        noValidation = schema == null;
+    }
+
+    private Schema compileSchema(WSDLModel model) {
+        String primaryWsdl = model.getLocation().getSystemId();
+        MetadataResolverImpl mdresolver = new MetadataResolverImpl();
+        Map<String, SDDocument> docs = MetadataUtil.getMetadataClosure(primaryWsdl, mdresolver, true);
+        mdresolver = new MetadataResolverImpl(docs.values());
+        Source[] sources = getSchemaSources(docs.values(), mdresolver);
+        for(Source source : sources) {
+            LOGGER.fine("Constructing client validation schema from = "+source.getSystemId());
+            //printDOM((DOMSource)source);
+        }
+        if (sources.length == 0) {
+            return null;
+        }
+        sf.setResourceResolver(mdresolver);
+        try {
+            return sf.newSchema(sources);
+        } catch(SAXException e) {
+            throw new WebServiceException(e);
+        }
     }
 
     protected Validator getValidator() {
+        if (validator == null && schema != null) {
+            validator = schema.newValidator();
+        }
         return validator;
     }
 
+    @Override
+    protected Pool<Validator> getValidatorPool() {
+        return validators;
+    }
+
     protected boolean isNoValidation() {
         return noValidation;
     }
@@ -115,7 +135,7 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
         super(that,cloner);
         this.port = that.port;
         this.schema = that.schema;
-        this.validator = schema.newValidator();
+        this.validators = that.validators;
         this.noValidation = that.noValidation;
     }
 
@@ -41,7 +41,11 @@
 package com.sun.xml.ws.client;
 
 import com.sun.xml.ws.api.model.wsdl.WSDLService;
+import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.profiling.TubelineProfiler;
+import com.sun.xml.ws.profiling.TubelineProfilingFeature;
+import com.sun.xml.ws.util.Pool;
 
 import java.util.Map;
 
@@ -95,6 +99,21 @@ public final class MonitorRootClient extends com.sun.xml.ws.server.MonitorBase {
     @ManagedAttribute
     private WSDLService wsdlService() { return stub.owner.getWsdlService(); }
 
+    //
+    // From Stub
+    //
+
+    @ManagedAttribute
+    @Description("Tubeline pool")
+    private Pool<Tube> tubePool() { return stub.getTubes(); }
+
+    @ManagedAttribute
+    @Description("Time spent in each tube, when tubeline profiling is enabled")
+    private TubelineProfiler tubelineProfile() {
+        TubelineProfilingFeature f = stub.getBinding().getFeature(TubelineProfilingFeature.class);
+        return (f != null && f.isEnabled()) ? f.getProfiler() : null;
+    }
+
     
         
 }
@@ -157,6 +157,7 @@ public class PortInfo implements WSPortInfo {
 
         // merge features from interceptor
         webServiceFeatures.mergeFeatures(owner.serviceInterceptor.preCreateBinding(this, portInterface, webServiceFeatures), false);
+        webServiceFeatures.setFastInfosetVocabulary(portModel);
 
         BindingImpl bindingImpl = BindingImpl.create(bindingId, webServiceFeatures.toArray());
         owner.getHandlerConfigurator().configureHandlers(this,bindingImpl);
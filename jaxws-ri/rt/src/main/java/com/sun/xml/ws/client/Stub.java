@@ -74,7 +74,10 @@ import com.sun.xml.ws.api.pipe.TubelineAssemblerFactory;
 import com.sun.xml.ws.api.server.Container;
 import com.sun.xml.ws.api.server.ContainerResolver;
 import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.InFlightLimitFeature;
 import com.sun.xml.ws.developer.JAXWSProperties;
+import com.sun.xml.ws.developer.TubelinePoolingFeature;
+import com.sun.xml.ws.developer.VirtualThreadsFeature;
 import com.sun.xml.ws.developer.WSBindingProvider;
 import com.sun.xml.ws.model.wsdl.WSDLDirectProperties;
 import com.sun.xml.ws.model.wsdl.WSDLPortProperties;
@@ -135,6 +138,13 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
 
     private final Engine engine;
 
+    /**
+     * Non-null if the number of asynchronous invocations in flight is limited.
+     *
+     * @see InFlightLimitFeature
+     */
+    private final @Nullable InFlightLimiter inFlightLimiter;
+
     /**
      * The {@link WSServiceDelegate} object that owns us.
      */
@@ -293,7 +303,10 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
             } else {
                 this.requestContext.setEndpointAddress(defaultEndPointAddress);
             }
-            this.engine = new Engine(getStringId(), owner.getContainer(), owner.getExecutor());
+            this.engine = new Engine(getStringId(), owner.getContainer(), owner.getExecutor(),
+                    binding.isFeatureEnabled(VirtualThreadsFeature.class));
+            InFlightLimitFeature ilf = binding.getFeature(InFlightLimitFeature.class);
+            this.inFlightLimiter = (ilf != null && ilf.isEnabled()) ? new InFlightLimiter(ilf.getMaxInFlight()) : null;
             this.endpointReference = epr;
             wsdlProperties = (wsdlPort == null) ? new WSDLDirectProperties(owner.getServiceName(), portname) : new WSDLPortProperties(wsdlPort);
             
@@ -305,9 +318,9 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
             managedObjectManager = new MonitorRootClient(this).createManagedObjectManager(this);
     
             if (master != null) {
-                this.tubes = new TubePool(master);
+                this.tubes = TubelinePoolingFeature.createPool(master, binding, owner.getContainer());
             } else {
-                this.tubes = new TubePool(createPipeline(portInfo, binding));
+                this.tubes = TubelinePoolingFeature.createPool(createPipeline(portInfo, binding), binding, owner.getContainer());
             }
     
             addrVersion = binding.getAddressingVersion();
@@ -525,7 +538,7 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
      *                       captured at the point of invocation, to correctly satisfy the spec requirement.
      * @param completionCallback Once the processing is done, the callback is invoked.
      */
-    protected final void processAsync(AsyncResponseImpl<?> receiver, Packet request, RequestContext requestContext, final Fiber.CompletionCallback completionCallback) {
+    protected final void processAsync(final AsyncResponseImpl<?> receiver, final Packet request, final RequestContext requestContext, final Fiber.CompletionCallback completionCallback) {
         // fill in Packet
         request.component = this;
         configureRequestPacket(request, requestContext);
@@ -549,7 +562,49 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
         if (fcsif != null) {
             fiber.addInterceptor(fcsif.create());
         }
-        
+
+        // Check for SyncStartForAsyncInvokeFeature
+        final boolean syncStart = getBinding().isFeatureEnabled(SyncStartForAsyncFeature.class) &&
+                        !requestContext.containsKey(PREVENT_SYNC_START_FOR_ASYNC_INVOKE);
+
+        final InFlightLimiter limiter = inFlightLimiter;
+        if (limiter == null) {
+            startAsync(fiber, pool, request, completionCallback, syncStart);
+            return;
+        }
+
+        // the invocation may wait for a while in the limiter,
+        // so it's only sent away if it's still wanted by then
+        final Fiber.CompletionCallback limitedCallback = new Fiber.CompletionCallback() {
+            @Override
+            public void onCompletion(@NotNull Packet response) {
+                limiter.completed();
+                completionCallback.onCompletion(response);
+            }
+
+            @Override
+            public void onCompletion(@NotNull Throwable error) {
+                limiter.completed();
+                completionCallback.onCompletion(error);
+            }
+        };
+        limiter.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (receiver.isCancelled()) {
+                    limiter.completed();
+                    return;
+                }
+                try {
+                    startAsync(fiber, pool, request, limitedCallback, syncStart);
+                } catch (RuntimeException e) {
+                    limitedCallback.onCompletion(e);
+                }
+            }
+        });
+    }
+
+    private static void startAsync(Fiber fiber, final Pool<Tube> pool, Packet request, final Fiber.CompletionCallback completionCallback, boolean syncStart) {
         // then send it away!
         final Tube tube = pool.take();
 
@@ -568,11 +623,7 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
             }
         };
 
-        // Check for SyncStartForAsyncInvokeFeature
-
-        fiber.start(tube, request, fiberCallback, 
-                        getBinding().isFeatureEnabled(SyncStartForAsyncFeature.class) &&
-                        !requestContext.containsKey(PREVENT_SYNC_START_FOR_ASYNC_INVOKE));
+        fiber.start(tube, request, fiberCallback, syncStart);
     }
     
     protected void configureFiber(Fiber fiber) {
@@ -589,6 +640,7 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
             // multi-thread safety of 'close' needs to be considered more carefully.
             // some calls might be pending while this method is invoked. Should we
             // block until they are complete, or should we abort them (but how?)
+            tp.close();
             Tube p = tp.takeMaster();
             p.preDestroy();
             tubes = null;
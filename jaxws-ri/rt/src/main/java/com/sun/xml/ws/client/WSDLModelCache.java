@@ -0,0 +1,431 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.client;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
+import com.sun.xml.ws.api.wsdl.parser.WSDLParserExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide cache of the {@link WSDLModel}s parsed by {@link WSServiceDelegate}.
+ *
+ * <p>
+ * Applications that create a {@link javax.xml.ws.Service} per tenant or per
+ * request would otherwise fetch and parse the same WSDL, its imports and its
+ * policies over and over. A parsed {@link WSDLModel} is frozen, so services
+ * created for the same WSDL location, in the same environment, share it.
+ *
+ * <p>
+ * The models are softly referenced, and every service using one holds it
+ * strongly, so a model only goes away once no service uses it and the JVM
+ * runs low on memory. At most <tt>com.sun.xml.ws.client.WSDLModelCache.maxSize</tt>
+ * (32 by default) models are kept, the least recently used ones are dropped
+ * first. Everything the models depend on, but the WSDL location, is only
+ * weakly referenced from the keys, so that the cache doesn't hold on to
+ * undeployed applications.
+ *
+ * <p>
+ * A model is dropped when its WSDL changes. A <tt>file:</tt> WSDL is checked
+ * on every lookup, against the modification time and length it had when it
+ * was parsed. An <tt>http:</tt> or <tt>https:</tt> WSDL is revalidated with a
+ * conditional request on its <tt>ETag</tt> or <tt>Last-Modified</tt>, at most
+ * every <tt>com.sun.xml.ws.client.WSDLModelCache.revalidateInterval</tt>
+ * milliseconds (30 seconds by default); without either header, the model
+ * simply expires after that time. Other locations, like <tt>jar:</tt>, are
+ * assumed not to change. Only the WSDL itself is checked, not its imports.
+ *
+ * <p>
+ * The price is that a service may be created from a model up to one
+ * revalidation interval older than its WSDL, or older than imported
+ * documents that changed on their own, and that each revalidation costs
+ * a conditional <tt>HEAD</tt> request on the thread creating the service.
+ * Clients of a WSDL that is redeployed often, or whose imports change
+ * independently, can set the
+ * <tt>com.sun.xml.ws.client.WSDLModelCache.disabled</tt> system property
+ * to parse the WSDL again for every service.
+ */
+final class WSDLModelCache {
+
+    static final boolean DISABLED = Boolean.getBoolean(WSDLModelCache.class.getName() + ".disabled");
+
+    private static final WSDLModelCache INSTANCE =
+            new WSDLModelCache(Integer.getInteger(WSDLModelCache.class.getName() + ".maxSize", 32),
+                    Long.getLong(WSDLModelCache.class.getName() + ".revalidateInterval", 30000L));
+
+    private static final Logger LOGGER = Logger.getLogger(WSDLModelCache.class.getName());
+
+    private final Map<Key, Entry> models;
+
+    /**
+     * Milliseconds between two revalidations of a remote WSDL.
+     */
+    private final long revalidateInterval;
+
+    WSDLModelCache(int maxSize) {
+        this(maxSize, 30000L);
+    }
+
+    WSDLModelCache(final int maxSize, long revalidateInterval) {
+        this.revalidateInterval = revalidateInterval;
+        models = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    static WSDLModelCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the model parsed for the given key, unless its WSDL changed since.
+     *
+     * @return
+     *      null if the WSDL needs to be parsed.
+     */
+    @Nullable WSDLModel get(@NotNull Key key) {
+        Entry e;
+        WSDLModel model;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            e = models.get(key);
+            if (e == null) {
+                return null;
+            }
+            model = e.model.get();
+            if (model == null) {
+                models.remove(key);
+                return null;
+            }
+            if (e.validator.isRemote() && now - e.validated < revalidateInterval) {
+                return model;
+            }
+        }
+        // no lock held while checking, that may take a round-trip
+        if (e.validator.isValid()) {
+            e.validated = now;
+            return model;
+        }
+        synchronized (this) {
+            if (models.get(key) == e) {
+                models.remove(key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the model parsed for the given key, unless another thread
+     * parsed it meanwhile.
+     *
+     * @param validator
+     *      obtained with {@link #createValidator(String)} before the WSDL was parsed.
+     * @return
+     *      the model to use.
+     */
+    synchronized @NotNull WSDLModel put(@NotNull Key key, @NotNull WSDLModel model, @NotNull Validator validator) {
+        Entry e = models.get(key);
+        WSDLModel existing = (e != null) ? e.model.get() : null;
+        if (existing != null) {
+            return existing;
+        }
+        models.put(key, new Entry(model, validator));
+        return model;
+    }
+
+    synchronized int size() {
+        return models.size();
+    }
+
+    synchronized void clear() {
+        models.clear();
+    }
+
+    private static final class Entry {
+        final SoftReference<WSDLModel> model;
+        final Validator validator;
+        volatile long validated;
+
+        Entry(WSDLModel model, Validator validator) {
+            this.model = new SoftReference<WSDLModel>(model);
+            this.validator = validator;
+            this.validated = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Creates the {@link Validator} of the WSDL at the given location.
+     * To be called before the WSDL is read, so that a change made while
+     * it's parsed is noticed on the next lookup.
+     */
+    static @NotNull Validator createValidator(@NotNull String location) {
+        try {
+            URI uri = new URI(location);
+            String scheme = uri.getScheme();
+            if ("file".equalsIgnoreCase(scheme)) {
+                return new FileValidator(new File(uri));
+            }
+            if ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) {
+                return new HttpValidator(uri.toURL());
+            }
+            return Validator.UNCHANGING;
+        } catch (Exception e) {
+            // can't tell when it changes, let it expire
+            LOGGER.log(Level.FINE, "Cannot revalidate " + location, e);
+            return Validator.EXPIRING;
+        }
+    }
+
+    /**
+     * Tells whether a WSDL is still the one that was parsed.
+     */
+    static abstract class Validator {
+        /**
+         * For locations that don't change while the application runs.
+         */
+        static final Validator UNCHANGING = new Validator() {
+            @Override
+            boolean isValid() {
+                return true;
+            }
+
+            @Override
+            boolean isRemote() {
+                return false;
+            }
+        };
+
+        /**
+         * For locations that can't be checked, the model just
+         * expires after the revalidation interval.
+         */
+        static final Validator EXPIRING = new Validator() {
+            @Override
+            boolean isValid() {
+                return false;
+            }
+
+            @Override
+            boolean isRemote() {
+                return true;
+            }
+        };
+
+        abstract boolean isValid();
+
+        /**
+         * Tells if checking is expensive, and should only happen
+         * once per revalidation interval.
+         */
+        abstract boolean isRemote();
+    }
+
+    private static final class FileValidator extends Validator {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        FileValidator(File file) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+
+        @Override
+        boolean isValid() {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        @Override
+        boolean isRemote() {
+            return false;
+        }
+    }
+
+    private static final class HttpValidator extends Validator {
+        private final URL url;
+        private final String etag;
+        private final long lastModified;
+
+        HttpValidator(URL url) throws IOException {
+            this.url = url;
+            HttpURLConnection con = open(url);
+            try {
+                con.getResponseCode();
+                this.etag = con.getHeaderField("ETag");
+                this.lastModified = con.getLastModified();
+            } finally {
+                con.disconnect();
+            }
+        }
+
+        @Override
+        boolean isValid() {
+            if (etag == null && lastModified == 0) {
+                return false;
+            }
+            try {
+                HttpURLConnection con = open(url);
+                try {
+                    if (etag != null) {
+                        con.setRequestProperty("If-None-Match", etag);
+                    } else {
+                        con.setIfModifiedSince(lastModified);
+                    }
+                    int status = con.getResponseCode();
+                    if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                        return true;
+                    }
+                    if (status != HttpURLConnection.HTTP_OK) {
+                        // can't tell, the model is still the best there is
+                        return true;
+                    }
+                    // a server ignoring the condition
+                    return (etag != null) ? etag.equals(con.getHeaderField("ETag"))
+                            : lastModified == con.getLastModified();
+                } finally {
+                    con.disconnect();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Cannot revalidate " + url, e);
+                return true;
+            }
+        }
+
+        @Override
+        boolean isRemote() {
+            return true;
+        }
+
+        private static HttpURLConnection open(URL url) throws IOException {
+            URLConnection c = url.openConnection();
+            c.setUseCaches(false);
+            c.setConnectTimeout(TIMEOUT);
+            c.setReadTimeout(TIMEOUT);
+            HttpURLConnection con = (HttpURLConnection) c;
+            // only the validators are needed, not the document
+            con.setRequestMethod("HEAD");
+            return con;
+        }
+
+        private static final int TIMEOUT = 10000;
+    }
+
+    /**
+     * What a {@link WSDLModel} depends on.
+     *
+     * <p>
+     * Besides the WSDL location, the parsing depends on the container, which
+     * is visible to the extensions, on the class used to resolve relative
+     * locations, on the {@link WSServiceDelegate} class, which provides the
+     * entity resolver, on the context class loader, through which the
+     * metadata resolvers are found, and on the extensions themselves.
+     */
+    static final class Key {
+        private final String location;
+        private final WeakReference<?>[] scope;
+        private final String[] extensions;
+        private final int hash;
+
+        Key(@NotNull String location, @NotNull Object[] scope, @NotNull WSDLParserExtension[] extensions) {
+            this.location = location;
+            this.scope = new WeakReference<?>[scope.length];
+            int h = location.hashCode();
+            for (int i = 0; i < scope.length; i++) {
+                this.scope[i] = (scope[i] != null) ? new WeakReference<Object>(scope[i]) : null;
+                h = h * 31 + System.identityHashCode(scope[i]);
+            }
+            this.extensions = new String[extensions.length];
+            for (int i = 0; i < extensions.length; i++) {
+                this.extensions[i] = extensions[i].getClass().getName();
+            }
+            this.hash = h * 31 + Arrays.hashCode(this.extensions);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            if (hash != that.hash || !location.equals(that.location)
+                    || scope.length != that.scope.length || !Arrays.equals(extensions, that.extensions)) {
+                return false;
+            }
+            for (int i = 0; i < scope.length; i++) {
+                if (scope[i] == null || that.scope[i] == null) {
+                    if (scope[i] != that.scope[i]) {
+                        return false;
+                    }
+                    continue;
+                }
+                Object o1 = scope[i].get();
+                // once gone, the key can't match anything anymore
+                if (o1 == null || o1 != that.scope[i].get()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
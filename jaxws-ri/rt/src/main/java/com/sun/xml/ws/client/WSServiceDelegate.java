@@ -361,8 +361,19 @@ public class WSServiceDelegate extends WSService {
      */
     private WSDLModel parseWSDL(URL wsdlDocumentLocation, Source wsdlSource, Class serviceClass) {
         try {
-            return RuntimeWSDLParser.parse(wsdlDocumentLocation, wsdlSource, createCatalogResolver(),
-                true, getContainer(), serviceClass, ServiceFinder.find(WSDLParserExtension.class).toArray());
+            WSDLParserExtension[] extensions = ServiceFinder.find(WSDLParserExtension.class).toArray();
+            WSDLModelCache.Key key = createWSDLModelKey(wsdlSource, serviceClass, extensions);
+            WSDLModelCache.Validator validator = null;
+            if (key != null) {
+                WSDLModel model = WSDLModelCache.getInstance().get(key);
+                if (model != null) {
+                    return model;
+                }
+                validator = WSDLModelCache.createValidator(wsdlSource.getSystemId());
+            }
+            WSDLModel model = RuntimeWSDLParser.parse(wsdlDocumentLocation, wsdlSource, createCatalogResolver(),
+                true, getContainer(), serviceClass, extensions);
+            return (key != null) ? WSDLModelCache.getInstance().put(key, model, validator) : model;
         } catch (IOException e) {
             throw new WebServiceException(e);
         } catch (XMLStreamException e) {
@@ -374,6 +385,27 @@ public class WSServiceDelegate extends WSService {
         }
     }
 
+    /**
+     * Gets the key of the {@link WSDLModel} parsed from the given source
+     * in the {@link WSDLModelCache}.
+     *
+     * @return
+     *      null if the model can't be shared, that is if the WSDL isn't
+     *      just given by its location.
+     */
+    private @Nullable WSDLModelCache.Key createWSDLModelKey(Source wsdlSource, Class serviceClass, WSDLParserExtension[] extensions) {
+        if (WSDLModelCache.DISABLED || !(wsdlSource instanceof StreamSource)) {
+            return null;
+        }
+        StreamSource ss = (StreamSource) wsdlSource;
+        if (ss.getSystemId() == null || ss.getInputStream() != null || ss.getReader() != null) {
+            return null;
+        }
+        return new WSDLModelCache.Key(ss.getSystemId(),
+                new Object[] {getContainer(), serviceClass, getClass(), Thread.currentThread().getContextClassLoader()},
+                extensions);
+    }
+
     protected EntityResolver createCatalogResolver() {
     	return createDefaultCatalogResolver();
     }
@@ -59,6 +59,8 @@ import com.sun.xml.ws.api.server.Container;
 import com.sun.xml.ws.api.server.ContainerResolver;
 import com.sun.xml.ws.binding.BindingImpl;
 import com.sun.xml.ws.client.*;
+import com.sun.xml.ws.developer.CompletableDispatch;
+import com.sun.xml.ws.developer.CompletableResponse;
 import com.sun.xml.ws.encoding.soap.DeserializationException;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.message.AttachmentSetImpl;
@@ -89,6 +91,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -104,7 +107,7 @@ import java.util.logging.Logger;
  * @author WS Development Team
  * @version 1.0
  */
-public abstract class DispatchImpl<T> extends Stub implements Dispatch<T> {
+public abstract class DispatchImpl<T> extends Stub implements CompletableDispatch<T> {
 
     private static final Logger LOGGER = Logger.getLogger(DispatchImpl.class.getName());
 
@@ -205,6 +208,10 @@ public abstract class DispatchImpl<T> extends Stub implements Dispatch<T> {
         }
     }
 
+    public final CompletableFuture<T> invokeCompletable(T param) {
+        return ((CompletableResponse<T>) invokeAsync(param)).toCompletableFuture();
+    }
+
     private void dumpParam(T param, String method) {
       if (param instanceof Packet) {
         Packet message = (Packet)param;
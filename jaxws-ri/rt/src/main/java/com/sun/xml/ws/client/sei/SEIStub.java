@@ -63,6 +63,8 @@ import com.sun.xml.ws.client.Stub;
 import com.sun.xml.ws.client.WSServiceDelegate;
 import com.sun.xml.ws.model.JavaMethodImpl;
 import com.sun.xml.ws.model.SOAPSEIModel;
+import com.sun.xml.ws.util.MethodHandleFactory;
+import com.sun.xml.ws.util.MethodHandleFactory.MethodInvoker;
 import com.sun.xml.ws.wsdl.OperationDispatcher;
 
 import javax.xml.namespace.QName;
@@ -71,7 +73,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
@@ -152,31 +156,67 @@ public final class SEIStub extends Stub implements InvocationHandler {
      */
     private final Map<Method, MethodHandler> methodHandlers = new HashMap<Method, MethodHandler>();
 
+    /**
+     * Handlers keyed by the {@link Method} instances the proxy passes in,
+     * which are a fixed set per proxy class. Copy-on-write, so lookups
+     * are identity based and lock free; a lost update only costs another
+     * lookup.
+     */
+    private volatile Map<Method, MethodHandler> resolvedHandlers = Collections.emptyMap();
+
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         validateInputs(proxy, method);
         Container old = ContainerResolver.getDefault().enterContainer(owner.getContainer());
         try {
-            MethodHandler handler = methodHandlers.get(method);
-            if (handler != null) {
-                return handler.invoke(proxy, args);
-            } else {
-                // we handle the other method invocations by ourselves
-                try {
-                    return method.invoke(this, args);
-                } catch (IllegalAccessException e) {
-                    // impossible
-                    throw new AssertionError(e);
-                } catch (IllegalArgumentException e) {
-                    throw new AssertionError(e);
-                } catch (InvocationTargetException e) {
-                    throw e.getCause();
-                }
-            }
+            return resolveHandler(method).invoke(proxy, args);
         } finally {
             ContainerResolver.getDefault().exitContainer(old);
         }
     }
 
+    private MethodHandler resolveHandler(Method method) {
+        Map<Method, MethodHandler> resolved = resolvedHandlers;
+        MethodHandler handler = resolved.get(method);
+        if (handler == null) {
+            handler = methodHandlers.get(method);
+            if (handler == null) {
+                // we handle the other method invocations by ourselves
+                handler = new StubMethodHandler(this, method);
+            }
+            resolved = new IdentityHashMap<Method, MethodHandler>(resolved);
+            resolved.put(method, handler);
+            resolvedHandlers = resolved;
+        }
+        return handler;
+    }
+
+    /**
+     * Invokes a non-SEI method ({@link javax.xml.ws.BindingProvider},
+     * {@link Object}, ...) on the stub itself.
+     */
+    private static final class StubMethodHandler extends MethodHandler {
+        private final MethodInvoker invoker;
+
+        StubMethodHandler(SEIStub owner, Method m) {
+            super(owner, m);
+            this.invoker = MethodHandleFactory.invoker(m);
+        }
+
+        @Override
+        Object invoke(Object proxy, Object[] args) throws Throwable {
+            try {
+                return (invoker != null) ? invoker.invoke(owner, args) : method.invoke(owner, args);
+            } catch (IllegalAccessException e) {
+                // impossible
+                throw new AssertionError(e);
+            } catch (IllegalArgumentException e) {
+                throw new AssertionError(e);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
     private void validateInputs(Object proxy, Method method) {
         if (proxy == null || !Proxy.isProxyClass(proxy.getClass())) {
             throw new IllegalStateException("Passed object is not proxy!");
@@ -45,6 +45,7 @@ import com.sun.istack.logging.Logger;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Messages;
 import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.util.xml.XMLStreamReaderToXMLStreamWriter;
 import com.sun.xml.ws.util.xml.XmlUtil;
 
 import javax.xml.stream.*;
@@ -158,6 +159,43 @@ public final class Converter {
         }
     }
 
+    /**
+     * Converts serialized XML to String, indented like the message dumps.
+     * A truncated document is converted up to where it was cut.
+     *
+     * @param data serialized XML
+     * @param length number of bytes of {@code data} to convert
+     * @param encoding encoding of the data
+     * @return null if the data couldn't be read as XML at all
+     */
+    public static String toString(byte[] data, int length, String encoding) {
+        StringWriter stringOut = new StringWriter();
+        XMLStreamWriter writer = null;
+        boolean started = false;
+        try {
+            XMLStreamReader reader = XmlUtil.newXMLInputFactory(true).createXMLStreamReader(
+                    new ByteArrayInputStream(data, 0, length), encoding);
+            writer = createIndenter(xmlOutputFactory.get().createXMLStreamWriter(stringOut));
+            started = true;
+            new XMLStreamReaderToXMLStreamWriter().bridge(reader, writer);
+        } catch (XMLStreamException e) {
+            // end of a truncated document
+        } catch (RuntimeException e) {
+            LOGGER.fine("Unexpected exception occured while converting message data to string", e);
+            started = false;
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (XMLStreamException ignored) {
+                    LOGGER.fine("Unexpected exception occured while closing XMLStreamWriter", ignored);
+                }
+            }
+        }
+        String s = stringOut.toString();
+        return (started && s.length() > 0) ? s : null;
+    }
+
     public static byte[] toBytes(Message message, String encoding) throws XMLStreamException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
@@ -0,0 +1,76 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Response;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link Response} that can be composed as a {@link CompletableFuture}.
+ *
+ * <p>
+ * The {@link Response}s returned by the asynchronous methods of the
+ * JAX-WS RI, on {@link javax.xml.ws.Dispatch} as well as on SEI proxies,
+ * implement this interface:
+ *
+ * <pre>
+ * CompletableFuture&lt;EchoResponse> f =
+ *     ((CompletableResponse&lt;EchoResponse>) port.echoAsync(request)).toCompletableFuture();
+ * </pre>
+ *
+ * <p>
+ * The future is completed by the thread that completes the invocation, right
+ * after the {@link AsyncHandler}, if any, so that the dependent stages run
+ * without any further thread hop. Cancelling the future cancels the invocation.
+ *
+ * @since JAX-WS RI 2.3.0
+ * @see CompletableDispatch
+ */
+public interface CompletableResponse<T> extends Response<T> {
+    /**
+     * Gets the {@link CompletableFuture} view of this response.
+     *
+     * @return
+     *      always the same instance.
+     */
+    CompletableFuture<T> toCompletableFuture();
+}
@@ -0,0 +1,95 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.xml.ws.api.FeatureConstructor;
+
+import javax.xml.ws.WebServiceFeature;
+
+/**
+ * {@link WebServiceFeature} that limits the number of asynchronous invocations
+ * of a port, or of a {@link javax.xml.ws.Dispatch}, that are in flight at once.
+ *
+ * <p>
+ * Asynchronous invocations beyond the limit don't block the caller: they are
+ * queued, and each is sent when an earlier one completes. This lets an
+ * application stream any number of requests through one port, and compose
+ * their {@link CompletableResponse}s, without flooding the service or the
+ * transport with all of them at once.
+ *
+ * <p>
+ * Synchronous invocations are not counted.
+ *
+ * @since JAX-WS RI 2.3.0
+ */
+public final class InFlightLimitFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying this feature
+     */
+    public static final String ID = "http://jax-ws.java.net/features/in-flight-limit";
+
+    private final int maxInFlight;
+
+    /**
+     * @param maxInFlight
+     *      maximum number of asynchronous invocations in flight at once.
+     */
+    public InFlightLimitFeature(int maxInFlight) {
+        this(true, maxInFlight);
+    }
+
+    @FeatureConstructor({"enabled", "maxInFlight"})
+    public InFlightLimitFeature(boolean enabled, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+}
@@ -89,4 +89,12 @@ public @interface StreamingAttachment {
      */
     long memoryThreshold() default 1048576L;
 
+    /**
+     * MTOM attachments are streamed while encoding a message, without
+     * being buffered in memory.
+     *
+     * @see StreamingAttachmentFeature#setStreamingEncode(boolean)
+     */
+    boolean streamingEncode() default false;
+
 }
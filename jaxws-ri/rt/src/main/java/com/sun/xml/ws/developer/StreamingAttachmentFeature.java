@@ -79,16 +79,22 @@ public final class StreamingAttachmentFeature extends WebServiceFeature {
     private String dir;
     private boolean parseEagerly;
     private long memoryThreshold;
+    private boolean streamingEncode;
 
     public StreamingAttachmentFeature() {
     }
 
-    @FeatureConstructor({"dir","parseEagerly","memoryThreshold"})
     public StreamingAttachmentFeature(@Nullable String dir, boolean parseEagerly, long memoryThreshold) {
+        this(dir, parseEagerly, memoryThreshold, false);
+    }
+
+    @FeatureConstructor({"dir","parseEagerly","memoryThreshold","streamingEncode"})
+    public StreamingAttachmentFeature(@Nullable String dir, boolean parseEagerly, long memoryThreshold, boolean streamingEncode) {
         this.enabled = true;
         this.dir = dir;
         this.parseEagerly = parseEagerly;
         this.memoryThreshold = memoryThreshold;
+        this.streamingEncode = streamingEncode;
     }
 
     @ManagedAttribute
@@ -136,4 +142,39 @@ public final class StreamingAttachmentFeature extends WebServiceFeature {
         this.memoryThreshold = memoryThreshold;
     }
 
+    /**
+     * Directory in which large attachments are stored, null for the
+     * default temp directory
+     */
+    public @Nullable String getDir() {
+        return dir;
+    }
+
+    /**
+     * After this threshold(no of bytes), large attachments are
+     * written to file system. -1 keeps everything in memory.
+     */
+    public long getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    /**
+     * MTOM attachments are streamed when a message is encoded
+     *
+     * <p>
+     * The attachments are written directly from their sources, a
+     * {@link StreamingDataHandler} is read only once, and binary data
+     * written through {@code XMLStreamWriterEx.writeBinary(String)} is
+     * kept on the file system once it exceeds {@link #getMemoryThreshold()}.
+     * The encoded message can be written only once.
+     */
+    public void setStreamingEncode(boolean streamingEncode) {
+        this.streamingEncode = streamingEncode;
+    }
+
+    @ManagedAttribute
+    public boolean isStreamingEncode() {
+        return streamingEncode;
+    }
+
 }
@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.xml.ws.api.FeatureConstructor;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.util.Pool;
+
+import javax.xml.ws.WebServiceFeature;
+
+/**
+ * {@link WebServiceFeature} that configures the pool of tubelines of an
+ * endpoint or a port.
+ *
+ * <p>
+ * Every request that finds no idle tubeline clones the whole tubeline
+ * (handlers, addressing, codecs...) before it can be processed. With this
+ * feature the tubelines can be cloned when the endpoint is deployed or the
+ * port is created, and a number of idle tubelines can be kept available by
+ * cloning them in the background, so that bursts of requests don't pay for it.
+ *
+ * @since JAX-WS RI 2.3.0
+ * @see TubelinePooling
+ * @see Pool.TubePool
+ */
+public class TubelinePoolingFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying this feature
+     */
+    public static final String ID = "http://jax-ws.java.net/features/tubeline-pooling";
+
+    private final int initialSize;
+    private final int minIdle;
+
+    public TubelinePoolingFeature() {
+        this(true, 1, 0);
+    }
+
+    /**
+     * @param initialSize
+     *      number of tubelines created up front, including the master tubeline.
+     * @param minIdle
+     *      number of idle tubelines kept available by cloning in the background,
+     *      0 to clone only on demand.
+     */
+    @FeatureConstructor({"enabled", "initialSize", "minIdle"})
+    public TubelinePoolingFeature(boolean enabled, int initialSize, int minIdle) {
+        if (initialSize < 1 || minIdle < 0) {
+            throw new IllegalArgumentException("initialSize=" + initialSize + ", minIdle=" + minIdle);
+        }
+        this.enabled = enabled;
+        this.initialSize = initialSize;
+        this.minIdle = minIdle;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Creates the pool of tubelines of the given binding.
+     *
+     * @param container
+     *      the container the tubeline runs in.
+     */
+    public static Pool.TubePool createPool(Tube master, WSBinding binding, Container container) {
+        TubelinePoolingFeature f = binding.getFeature(TubelinePoolingFeature.class);
+        if (f == null || !f.isEnabled()) {
+            return new Pool.TubePool(master);
+        }
+        return new Pool.TubePool(master, f.getInitialSize(), f.getMinIdle(), container);
+    }
+}
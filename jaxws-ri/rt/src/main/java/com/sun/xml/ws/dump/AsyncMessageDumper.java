@@ -0,0 +1,316 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.dump;
+
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.streaming.XMLStreamWriterFactory;
+import com.sun.xml.ws.commons.xmlutil.Converter;
+import com.sun.xml.ws.dump.MessageDumper.MessageType;
+import com.sun.xml.ws.dump.MessageDumper.ProcessingState;
+
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes message dumps from a background thread.
+ *
+ * <p>
+ * The request thread only serializes the message into a byte array,
+ * stopping as soon as the configured size limit is reached, and hands it
+ * over through a {@link DumpRingBuffer}. Decoding, indenting, formatting and
+ * logging happen on a single daemon writer thread, which goes away after a
+ * while without anything to write and is started again on demand. That
+ * thread has no context class loader, as it serves all the applications.
+ *
+ * <p>
+ * When the writer can't keep up and the buffer is full, dumps are dropped
+ * rather than making the request wait.
+ */
+final class AsyncMessageDumper {
+    private static final Logger LOGGER = Logger.getLogger(AsyncMessageDumper.class.getName());
+
+    /**
+     * Number of dumps that may wait for the writer, set through the
+     * <tt>com.sun.xml.ws.dump.AsyncMessageDumper.capacity</tt> system property.
+     */
+    static final int CAPACITY = Integer.getInteger(AsyncMessageDumper.class.getName() + ".capacity", 1024);
+
+    private static final Charset UTF_8 = Charset.forName(Converter.UTF_8);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long IDLE_EXIT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final DumpRingBuffer<Record> BUFFER = new DumpRingBuffer<Record>(CAPACITY);
+    private static final AtomicBoolean running = new AtomicBoolean();
+    private static volatile Thread writer;
+    private static volatile boolean waiting;
+
+    private AsyncMessageDumper() {}
+
+    /**
+     * A dump waiting to be written.
+     */
+    static final class Record {
+        final MessageDumper dumper;
+        final MessageDumpingFeature feature;
+        final MessageType messageType;
+        final ProcessingState processingState;
+        final int tubeId;
+        final String engineId;
+        final String threadName;
+        final Capture capture;
+        final Throwable throwable;
+
+        /**
+         * @param feature
+         *      if non-null, the dump is logged only when its message logging is
+         *      enabled, and is offered to its message queue.
+         * @param capture
+         *      the message, or null if this is an exception dump.
+         */
+        Record(MessageDumper dumper, MessageDumpingFeature feature, MessageType messageType, ProcessingState processingState,
+                int tubeId, String engineId, Capture capture, Throwable throwable) {
+            this.dumper = dumper;
+            this.feature = feature;
+            this.messageType = messageType;
+            this.processingState = processingState;
+            this.tubeId = tubeId;
+            this.engineId = engineId;
+            this.threadName = Thread.currentThread().getName();
+            this.capture = capture;
+            this.throwable = throwable;
+        }
+
+        String getText() {
+            return (capture != null) ? capture.toString() : Converter.toString(throwable);
+        }
+    }
+
+    /**
+     * Serialized form of a message, possibly truncated.
+     */
+    static final class Capture {
+        final byte[] data;
+        final int length;
+        final boolean truncated;
+
+        Capture(byte[] data, int length, boolean truncated) {
+            this.data = data;
+            this.length = length;
+            this.truncated = truncated;
+        }
+
+        /**
+         * The message indented like the synchronous dumps.
+         */
+        @Override
+        public String toString() {
+            if (data == null) {
+                return "[ Null message ]";
+            }
+            String s = Converter.toString(data, length, Converter.UTF_8);
+            if (s == null) {
+                s = new String(data, 0, length, UTF_8);
+            }
+            return truncated ? s + String.format("%n[ Truncated after %d bytes ]", length) : s;
+        }
+    }
+
+    /**
+     * Serializes the message on the calling thread.
+     *
+     * @param maxSize
+     *      number of bytes after which the serialization is abandoned,
+     *      or 0 for no limit.
+     */
+    static Capture capture(Message message, int maxSize) {
+        if (message == null) {
+            return new Capture(null, 0, false);
+        }
+        CappedOutputStream out = new CappedOutputStream(maxSize > 0 ? maxSize : Integer.MAX_VALUE);
+        XMLStreamWriter xsw = null;
+        boolean completed = false;
+        try {
+            xsw = XMLStreamWriterFactory.create(out, Converter.UTF_8);
+            message.copy().writeTo(xsw);
+            xsw.flush();
+            completed = true;
+        } catch (Exception e) {
+            // the writer may wrap our IOException in its own, just check whether we hit the limit
+            if (!out.truncated) {
+                // Message Dumping should not affect other processing
+                LOGGER.log(Level.WARNING, "Unexpected exception occured while dumping message", e);
+            }
+        } finally {
+            if (completed) {
+                XMLStreamWriterFactory.recycle(xsw);
+            }
+        }
+        return new Capture(out.buf, out.count, out.truncated);
+    }
+
+    /**
+     * Queues the dump for the writer thread.
+     *
+     * @return
+     *      false if the dump was dropped because too many are pending.
+     */
+    static boolean submit(Record record) {
+        if (!BUFFER.offer(record)) {
+            return false;
+        }
+        if (!running.get() && running.compareAndSet(false, true)) {
+            startWriter();
+        } else if (waiting) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    private static void startWriter() {
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                drain();
+            }
+        }, "jaxws-message-dump-writer");
+        t.setDaemon(true);
+        // don't keep the class loader of the application that happened to start it
+        t.setContextClassLoader(null);
+        writer = t;
+        t.start();
+    }
+
+    private static void drain() {
+        long idleSince = System.nanoTime();
+        while (true) {
+            Record r = BUFFER.poll();
+            if (r != null) {
+                write(r);
+                idleSince = System.nanoTime();
+                continue;
+            }
+            if (System.nanoTime() - idleSince > IDLE_EXIT_NANOS) {
+                running.set(false);
+                // a producer may have missed us going away
+                if (BUFFER.isEmpty() || !running.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            waiting = true;
+            if (BUFFER.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            waiting = false;
+        }
+    }
+
+    private static void write(Record r) {
+        try {
+            String logMessage = r.dumper.createLogMessage(r.messageType, r.processingState,
+                    r.tubeId, r.engineId, r.threadName, r.getText());
+            if (r.feature == null || r.feature.getMessageLoggingStatus()) {
+                r.dumper.log(logMessage);
+            }
+            if (r.feature != null) {
+                r.feature.offerMessage(logMessage);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unexpected exception occured while dumping message", e);
+        }
+    }
+
+    /**
+     * Stops the serialization of a message once it gets over the size limit.
+     */
+    private static final class CappedOutputStream extends OutputStream {
+        private final int maxSize;
+        byte[] buf = new byte[256];
+        int count;
+        boolean truncated;
+
+        CappedOutputStream(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == maxSize) {
+                truncated = true;
+                throw new Truncated();
+            }
+            ensureCapacity(count + 1);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int n = Math.min(len, maxSize - count);
+            ensureCapacity(count + n);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            if (n < len) {
+                truncated = true;
+                throw new Truncated();
+            }
+        }
+
+        private void ensureCapacity(int size) {
+            if (size > buf.length) {
+                buf = Arrays.copyOf(buf, Math.min(maxSize, Math.max(buf.length << 1, size)));
+            }
+        }
+    }
+
+    private static final class Truncated extends IOException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -40,6 +40,7 @@
 
 package com.sun.xml.ws.dump;
 
+import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.pipe.Fiber;
 import com.sun.xml.ws.api.pipe.NextAction;
@@ -72,6 +73,16 @@ public class LoggingDumpTube extends AbstractFilterTubeImpl {
     }
 
     private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
+    /**
+     * Set the <tt>com.sun.xml.ws.dump.LoggingDumpTube.async</tt> system property
+     * to write the dumps from a background thread rather than the request thread.
+     */
+    private static final boolean ASYNC = Boolean.getBoolean(LoggingDumpTube.class.getName() + ".async");
+    /**
+     * Number of bytes after which an asynchronously dumped message is truncated, set through the
+     * <tt>com.sun.xml.ws.dump.LoggingDumpTube.maxMessageSize</tt> system property; 0 for no limit.
+     */
+    private static final int MAX_MESSAGE_SIZE = Integer.getInteger(LoggingDumpTube.class.getName() + ".maxMessageSize", 0);
     //
     private MessageDumper messageDumper;
     private final Level loggingLevel;
@@ -113,8 +124,7 @@ public class LoggingDumpTube extends AbstractFilterTubeImpl {
     @Override
     public NextAction processRequest(Packet request) {
         if (messageDumper.isLoggable()) {
-            Packet dumpPacket = (request != null) ? request.copy(true) : null;
-            messageDumper.dump(MessageDumper.MessageType.Request, position.requestState, Converter.toString(dumpPacket), tubeId, Fiber.current().owner.id);
+            dump(MessageDumper.MessageType.Request, position.requestState, request);
         }
 
         return super.processRequest(request);
@@ -123,8 +133,7 @@ public class LoggingDumpTube extends AbstractFilterTubeImpl {
     @Override
     public NextAction processResponse(Packet response) {
         if (messageDumper.isLoggable()) {
-            Packet dumpPacket = (response != null) ? response.copy(true) : null;
-            messageDumper.dump(MessageDumper.MessageType.Response, position.responseState, Converter.toString(dumpPacket), tubeId, Fiber.current().owner.id);
+            dump(MessageDumper.MessageType.Response, position.responseState, response);
         }
 
         return super.processResponse(response);
@@ -133,12 +142,31 @@ public class LoggingDumpTube extends AbstractFilterTubeImpl {
     @Override
     public NextAction processException(Throwable t) {
         if (messageDumper.isLoggable()) {
-            messageDumper.dump(MessageDumper.MessageType.Exception, position.responseState, Converter.toString(t), tubeId, Fiber.current().owner.id);
+            if (ASYNC) {
+                submit(MessageDumper.MessageType.Exception, position.responseState, null, t);
+            } else {
+                messageDumper.dump(MessageDumper.MessageType.Exception, position.responseState, Converter.toString(t), tubeId, Fiber.current().owner.id);
+            }
         }
 
         return super.processException(t);
     }
 
+    private void dump(MessageDumper.MessageType type, ProcessingState state, Packet packet) {
+        if (ASYNC) {
+            Message message = (packet != null) ? packet.getMessage() : null;
+            submit(type, state, AsyncMessageDumper.capture(message, MAX_MESSAGE_SIZE), null);
+        } else {
+            Packet dumpPacket = (packet != null) ? packet.copy(true) : null;
+            messageDumper.dump(type, state, Converter.toString(dumpPacket), tubeId, Fiber.current().owner.id);
+        }
+    }
+
+    private void submit(MessageDumper.MessageType type, ProcessingState state, AsyncMessageDumper.Capture capture, Throwable t) {
+        AsyncMessageDumper.submit(new AsyncMessageDumper.Record(messageDumper, null, type, state,
+                tubeId, Fiber.current().owner.id, capture, t));
+    }
+
     @Override
     public void preDestroy() {
         super.preDestroy();
@@ -103,20 +103,28 @@ final class MessageDumper {
     }
 
     final String createLogMessage(MessageType messageType, ProcessingState processingState, int tubeId, String engineId, String message) {
+        return createLogMessage(messageType, processingState, tubeId, engineId, Thread.currentThread().getName(), message);
+    }
+
+    final String createLogMessage(MessageType messageType, ProcessingState processingState, int tubeId, String engineId, String threadName, String message) {
         return String.format("%s %s in Tube [ %s ] Instance [ %d ] Engine [ %s ] Thread [ %s ]:%n%s",
                 messageType,
                 processingState,
                 tubeName,
                 tubeId,
                 engineId,
-                Thread.currentThread().getName(),
+                threadName,
                 message);
     }
 
     final String dump(MessageType messageType, ProcessingState processingState, String message, int tubeId, String engineId) {
         String logMessage = createLogMessage(messageType, processingState, tubeId, engineId, message);
-        logger.log(loggingLevel, logMessage);
+        log(logMessage);
 
         return logMessage;
     }
+
+    final void log(String logMessage) {
+        logger.log(loggingLevel, logMessage);
+    }
 }
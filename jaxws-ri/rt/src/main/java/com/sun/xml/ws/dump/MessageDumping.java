@@ -74,4 +74,19 @@ public @interface MessageDumping {
      * Turns on or off storing messages
      */
     boolean storeMessages() default false; 
+
+    /**
+     * Write the dumps from a background thread
+     */
+    boolean async() default false;
+
+    /**
+     * Fraction of the exchanges to dump, between 0 and 1
+     */
+    double samplingRate() default 1.0;
+
+    /**
+     * Number of bytes after which an asynchronously dumped message is truncated, 0 for no limit
+     */
+    int maxMessageSize() default 0;
 }
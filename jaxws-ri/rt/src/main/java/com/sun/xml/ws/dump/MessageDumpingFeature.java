@@ -44,12 +44,26 @@ import com.sun.xml.ws.api.FeatureConstructor;
 import org.glassfish.gmbal.ManagedAttribute;
 import org.glassfish.gmbal.ManagedData;
 
+import javax.xml.namespace.QName;
 import javax.xml.ws.WebServiceFeature;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 /**
+ * Dumps the messages passing through the tubeline to a logger.
+ *
+ * <p>
+ * By default, every message is pretty-printed and logged on the request
+ * thread. For production traffic, the dumps can instead be sampled, per
+ * operation if needed, capped in size, and written asynchronously: the
+ * request thread then only serializes the message up to the size limit,
+ * and a background thread formats and logs it. Dumps that the writer
+ * can't keep up with are dropped and counted in {@link #getDroppedMessages()}.
  *
  * @author Marek Potociar (marek.potociar at sun.com)
  */
@@ -64,16 +78,43 @@ public final class MessageDumpingFeature extends WebServiceFeature {
     private final AtomicBoolean messageLoggingStatus;
     private final String messageLoggingRoot;
     private final Level messageLoggingLevel;
+    private final boolean async;
+    private final double samplingRate;
+    private final Map<QName, Double> operationSamplingRates = new ConcurrentHashMap<QName, Double>();
+    private final int maxMessageSize;
+    private final AtomicLong droppedMessages = new AtomicLong();
 
     public MessageDumpingFeature() {
         this(null, null, true);
     }
 
     public MessageDumpingFeature(String msgLogRoot, Level msgLogLevel, boolean storeMessages) {
+        this(msgLogRoot, msgLogLevel, storeMessages, false, 1.0, 0);
+    }
+
+    /**
+     * @param async
+     *      write the dumps from a background thread.
+     * @param samplingRate
+     *      fraction of the exchanges to dump, between 0 and 1. Can be
+     *      overridden per operation with {@link #setSamplingRate(QName, double)}.
+     * @param maxMessageSize
+     *      number of bytes after which a dumped message is truncated, 0 for no limit.
+     *      Only applies to asynchronous dumps.
+     */
+    public MessageDumpingFeature(String msgLogRoot, Level msgLogLevel, boolean storeMessages,
+            boolean async, double samplingRate, int maxMessageSize) {
+        checkSamplingRate(samplingRate);
+        if (maxMessageSize < 0) {
+            throw new IllegalArgumentException("maxMessageSize must not be negative: " + maxMessageSize);
+        }
         this.messageQueue =  (storeMessages) ? new java.util.concurrent.ConcurrentLinkedQueue<String>() : null;
         this.messageLoggingStatus = new AtomicBoolean(true);
         this.messageLoggingRoot = (msgLogRoot != null && msgLogRoot.length() > 0) ? msgLogRoot : MessageDumpingTube.DEFAULT_MSGDUMP_LOGGING_ROOT;
         this.messageLoggingLevel = (msgLogLevel != null) ? msgLogLevel : DEFAULT_MSG_LOG_LEVEL;
+        this.async = async;
+        this.samplingRate = samplingRate;
+        this.maxMessageSize = maxMessageSize;
 
         super.enabled = true;
     }
@@ -84,7 +125,6 @@ public final class MessageDumpingFeature extends WebServiceFeature {
         super.enabled = enabled;
     }
 
-    @FeatureConstructor({"enabled", "messageLoggingRoot", "messageLoggingLevel", "storeMessages"})
     public MessageDumpingFeature(boolean enabled, String msgLogRoot, String msgLogLevel, boolean storeMessages) {
         // this constructor is here just to satisfy JAX-WS specification requirements
         this(msgLogRoot, Level.parse(msgLogLevel), storeMessages);
@@ -92,6 +132,14 @@ public final class MessageDumpingFeature extends WebServiceFeature {
         super.enabled = enabled;
     }
 
+    @FeatureConstructor({"enabled", "messageLoggingRoot", "messageLoggingLevel", "storeMessages", "async", "samplingRate", "maxMessageSize"})
+    public MessageDumpingFeature(boolean enabled, String msgLogRoot, String msgLogLevel, boolean storeMessages,
+            boolean async, double samplingRate, int maxMessageSize) {
+        this(msgLogRoot, Level.parse(msgLogLevel), storeMessages, async, samplingRate, maxMessageSize);
+
+        super.enabled = enabled;
+    }
+
     @Override
     @ManagedAttribute
     public String getID() {
@@ -125,6 +173,80 @@ public final class MessageDumpingFeature extends WebServiceFeature {
         return messageLoggingLevel;
     }
 
+    @ManagedAttribute
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Gets the fraction of the exchanges that are dumped, unless
+     * overridden for their operation.
+     */
+    @ManagedAttribute
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    /**
+     * Gets the fraction of the exchanges of the given WSDL operation that are dumped.
+     */
+    public double getSamplingRate(QName operation) {
+        Double rate = (operation != null) ? operationSamplingRates.get(operation) : null;
+        return (rate != null) ? rate : samplingRate;
+    }
+
+    /**
+     * Overrides the sampling rate for the given WSDL operation.
+     *
+     * <p>
+     * The dumping tube doesn't look up the operation of a request itself, so
+     * this only applies where it is already known, as for SEI based clients.
+     * Other exchanges are sampled at the overall rate.
+     *
+     * @param rate
+     *      between 0 and 1.
+     */
+    public void setSamplingRate(QName operation, double rate) {
+        checkSamplingRate(rate);
+        operationSamplingRates.put(operation, rate);
+    }
+
+    @ManagedAttribute
+    public int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    /**
+     * Gets the number of asynchronous dumps dropped because the
+     * background writer couldn't keep up.
+     */
+    @ManagedAttribute
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * Decides whether the exchange for the given operation is to be dumped.
+     */
+    boolean sample(QName operation) {
+        double rate = getSamplingRate(operation);
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    boolean hasOperationSamplingRates() {
+        return !operationSamplingRates.isEmpty();
+    }
+
+    void messageDropped() {
+        droppedMessages.incrementAndGet();
+    }
+
+    private static void checkSamplingRate(double rate) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException("sampling rate must be between 0 and 1: " + rate);
+        }
+    }
+
     boolean offerMessage(String message) {
         return (messageQueue != null) ? messageQueue.offer(message) : false;
     }
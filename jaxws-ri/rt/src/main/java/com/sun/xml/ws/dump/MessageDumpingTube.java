@@ -40,6 +40,7 @@
 
 package com.sun.xml.ws.dump;
 
+import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.pipe.Fiber;
 import com.sun.xml.ws.api.pipe.NextAction;
@@ -50,6 +51,7 @@ import com.sun.xml.ws.commons.xmlutil.Converter;
 import com.sun.xml.ws.dump.MessageDumper.MessageType;
 import com.sun.xml.ws.dump.MessageDumper.ProcessingState;
 
+import javax.xml.namespace.QName;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -64,6 +66,12 @@ final class MessageDumpingTube extends AbstractFilterTubeImpl {
     private final int tubeId;
     //
     private final MessageDumpingFeature messageDumpingFeature;
+    /**
+     * Whether the current exchange is dumped. Tube instances are not shared
+     * between concurrent requests, so the decision made on the request holds
+     * for the response.
+     */
+    private boolean sampled = true;
     /**
      * @param name
      *      Specify the name that identifies this {@link MessageDumpingTube}
@@ -105,23 +113,66 @@ final class MessageDumpingTube extends AbstractFilterTubeImpl {
 
     @Override
     public NextAction processRequest(Packet request) {
-        dump(MessageType.Request, Converter.toString(request), Fiber.current().owner.id);
+        sampled = messageDumpingFeature.sample(getOperation(request));
+        if (sampled) {
+            dump(MessageType.Request, request, Fiber.current().owner.id);
+        }
         return super.processRequest(request);
     }
 
     @Override
     public NextAction processResponse(Packet response) {
-        dump(MessageType.Response, Converter.toString(response), Fiber.current().owner.id);
+        if (sampled) {
+            dump(MessageType.Response, response, Fiber.current().owner.id);
+        }
         return super.processResponse(response);
     }
 
     @Override
     public NextAction processException(Throwable t) {
-        dump(MessageType.Exception, Converter.toString(t), Fiber.current().owner.id);
+        if (sampled) {
+            if (messageDumpingFeature.isAsync()) {
+                submit(MessageType.Exception, null, t, Fiber.current().owner.id);
+            } else {
+                dump(MessageType.Exception, Converter.toString(t), Fiber.current().owner.id);
+            }
+        }
 
         return super.processException(t);
     }
 
+    /**
+     * The operation of the request, if it is already known. Looking it up
+     * from here would dispatch the request before the tubes meant to
+     * prepare it, and keep the failed lookup.
+     */
+    private QName getOperation(Packet request) {
+        if (!messageDumpingFeature.hasOperationSamplingRates() || request == null) {
+            return null;
+        }
+        return request.getResolvedWSDLOperation();
+    }
+
+    private void dump(MessageType messageType, Packet packet, String engineId) {
+        if (messageDumpingFeature.isAsync()) {
+            Message message = (packet != null) ? packet.getMessage() : null;
+            submit(messageType, AsyncMessageDumper.capture(message, messageDumpingFeature.getMaxMessageSize()), null, engineId);
+        } else {
+            dump(messageType, Converter.toString(packet), engineId);
+        }
+    }
+
+    private void submit(MessageType messageType, AsyncMessageDumper.Capture capture, Throwable t, String engineId) {
+        if (messageDumpingFeature.getMessageLoggingStatus()) {
+            messageDumper.setLoggingLevel(messageDumpingFeature.getMessageLoggingLevel());
+        }
+        AsyncMessageDumper.Record record = new AsyncMessageDumper.Record(messageDumper, messageDumpingFeature,
+                messageType, ProcessingState.Received, tubeId, engineId, capture, t);
+        if (!AsyncMessageDumper.submit(record)) {
+            messageDumpingFeature.messageDropped();
+        }
+    }
+
     protected final void dump(MessageType messageType, String message, String engineId) {
         String logMessage;
         if (messageDumpingFeature.getMessageLoggingStatus()) {
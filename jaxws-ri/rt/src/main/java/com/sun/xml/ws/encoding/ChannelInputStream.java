@@ -0,0 +1,143 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * {@link InputStream} that reads from a {@link ReadableByteChannel}
+ * through a pooled direct {@link ByteBuffer}.
+ *
+ * <p>
+ * Messages are decoded lazily, so this stream usually outlives the
+ * <tt>decode</tt> call. The buffer goes back to the pool once the end of the
+ * channel is reached or the stream is closed. The channel itself is left open;
+ * it belongs to the transport.
+ */
+final class ChannelInputStream extends InputStream {
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+
+    ChannelInputStream(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = DirectBufferPool.INSTANCE.take();
+        this.buffer.flip();     // start empty
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (buffer != null && !buffer.hasRemaining() && len >= buffer.capacity()) {
+            // nothing buffered and a big read: go straight to the caller's array
+            int n = readSome(ByteBuffer.wrap(b, off, len));
+            if (n < 0) {
+                release();
+            }
+            return n;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return buffer == null ? 0 : buffer.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        release();
+    }
+
+    /**
+     * Makes sure there is at least one byte in the buffer.
+     *
+     * @return false at the end of the channel.
+     */
+    private boolean fill() throws IOException {
+        if (buffer == null) {
+            return false;
+        }
+        if (buffer.hasRemaining()) {
+            return true;
+        }
+        buffer.clear();
+        int n = readSome(buffer);
+        buffer.flip();
+        if (n < 0) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    private int readSome(ByteBuffer dst) throws IOException {
+        int n;
+        do {
+            n = channel.read(dst);
+        } while (n == 0);
+        return n;
+    }
+
+    private void release() {
+        if (buffer != null) {
+            DirectBufferPool.INSTANCE.release(buffer);
+            buffer = null;
+        }
+    }
+}
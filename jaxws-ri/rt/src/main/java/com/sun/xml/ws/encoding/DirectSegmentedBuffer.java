@@ -0,0 +1,183 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link OutputStream} that collects the written data in a chain of pooled
+ * direct {@link ByteBuffer}s.
+ *
+ * <p>
+ * Used by transports that need the size of an encoded message before they
+ * can send it (to set the Content-Length header), without keeping a heap
+ * copy of the whole message. The segments are taken from the same pool as
+ * the NIO channel codecs use, so once {@link #release()}d they serve the
+ * next message.
+ *
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class DirectSegmentedBuffer extends OutputStream {
+    private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+    private ByteBuffer current;
+    private long size;
+
+    @Override
+    public void write(int b) throws IOException {
+        segment().put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer seg = segment();
+            int n = Math.min(len, seg.remaining());
+            seg.put(b, off, n);
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    private ByteBuffer segment() {
+        if (current == null || !current.hasRemaining()) {
+            current = DirectBufferPool.INSTANCE.take();
+            segments.add(current);
+        }
+        return current;
+    }
+
+    /**
+     * Number of bytes written so far.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Writes the whole content to the given stream, copying it through a
+     * small heap chunk. The buffer keeps its content.
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        byte[] chunk = new byte[DirectBufferPool.BUFFER_SIZE];
+        for (ByteBuffer seg : segments) {
+            ByteBuffer src = seg.duplicate();
+            src.flip();
+            while (src.hasRemaining()) {
+                int n = Math.min(chunk.length, src.remaining());
+                src.get(chunk, 0, n);
+                os.write(chunk, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Creates a new {@link InputStream} that reads the content written so
+     * far. The stream is only valid until {@link #release()}.
+     */
+    public InputStream newInputStream() {
+        return new InputStream() {
+            private int index;
+            private ByteBuffer src;
+
+            @Override
+            public int read() throws IOException {
+                ByteBuffer seg = next();
+                return seg == null ? -1 : seg.get() & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                ByteBuffer seg = next();
+                if (seg == null) {
+                    return -1;
+                }
+                int n = Math.min(len, seg.remaining());
+                seg.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return src == null ? 0 : src.remaining();
+            }
+
+            private ByteBuffer next() {
+                while (src == null || !src.hasRemaining()) {
+                    if (index >= segments.size()) {
+                        return null;
+                    }
+                    src = segments.get(index++).duplicate();
+                    src.flip();
+                }
+                return src;
+            }
+        };
+    }
+
+    /**
+     * Returns all segments to the pool. The buffer is empty afterwards
+     * and can be reused.
+     */
+    public void release() {
+        for (ByteBuffer seg : segments) {
+            DirectBufferPool.INSTANCE.release(seg);
+        }
+        segments.clear();
+        current = null;
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        // the content stays available until release()
+    }
+}
@@ -54,9 +54,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
 import java.util.UUID;
 
+import javax.xml.ws.WebServiceException;
+
 /**
  * {@link Codec}s that uses the MIME multipart as the underlying format.
  *
@@ -142,6 +145,23 @@ abstract class MimeCodec implements Codec {
         return hasAttachments ? ctImpl : primaryCt;
     }
     
+    /**
+     * Writes the same MIME package as {@link #encode(Packet, OutputStream)},
+     * buffering the output in a pooled direct buffer.
+     */
+    public ContentType encode(Packet packet, WritableByteChannel buffer) {
+        ChannelOutputStream out = new ChannelOutputStream(buffer);
+        try {
+            ContentType ct = encode(packet, out);
+            out.close();
+            return ct;
+        } catch (IOException e) {
+            throw new WebServiceException(e);
+        } finally {
+            out.release();
+        }
+    }
+
     private void writeCustomMimeHeaders(Attachment att, OutputStream out) throws IOException {
         if (att instanceof AttachmentEx) {
             Iterator<AttachmentEx.MimeHeader> allMimeHeaders = ((AttachmentEx) att).getMimeHeaders();
@@ -196,7 +216,13 @@ abstract class MimeCodec implements Codec {
     }
 
     public void decode(ReadableByteChannel in, String contentType, Packet packet) {
-        throw new UnsupportedOperationException();
+        MimeMultipartParser parser = new MimeMultipartParser(new ChannelInputStream(in), contentType,
+                features.get(StreamingAttachmentFeature.class));
+        try {
+            decode(parser, packet);
+        } catch (IOException e) {
+            throw new WebServiceException(e);
+        }
     }
 
     /**
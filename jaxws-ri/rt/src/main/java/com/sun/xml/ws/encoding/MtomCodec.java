@@ -41,6 +41,7 @@
 package com.sun.xml.ws.encoding;
 
 import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import com.sun.xml.bind.DatatypeConverterImpl;
 import com.sun.xml.ws.api.SOAPVersion;
 import com.sun.xml.ws.api.WSFeatureList;
@@ -52,6 +53,7 @@ import com.sun.xml.ws.api.pipe.StreamSOAPCodec;
 import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
 import com.sun.xml.ws.api.streaming.XMLStreamWriterFactory;
 import com.sun.xml.ws.developer.SerializationFeature;
+import com.sun.xml.ws.developer.StreamingAttachmentFeature;
 import com.sun.xml.ws.developer.StreamingDataHandler;
 import com.sun.xml.ws.message.MimeAttachmentSet;
 import com.sun.xml.ws.streaming.XMLStreamWriterUtil;
@@ -76,11 +78,12 @@ import javax.xml.stream.XMLStreamWriter;
 import javax.xml.ws.WebServiceException;
 import javax.xml.ws.soap.MTOMFeature;
 import javax.xml.bind.attachment.AttachmentMarshaller;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -103,12 +106,18 @@ public class MtomCodec extends MimeCodec {
     private final StreamSOAPCodec codec;
     private final MTOMFeature mtomFeature;
     private final SerializationFeature sf;
+    /**
+     * Non-null when attachments are streamed while encoding.
+     */
+    private final StreamingAttachmentFeature streamingFeature;
     private final static String DECODED_MESSAGE_CHARSET = "decodedMessageCharset";
 
     MtomCodec(SOAPVersion version, StreamSOAPCodec codec, WSFeatureList features){
         super(version, features);
         this.codec = codec;
         sf = features.get(SerializationFeature.class);
+        StreamingAttachmentFeature saf = features.get(StreamingAttachmentFeature.class);
+        streamingFeature = (saf != null && saf.isStreamingEncode()) ? saf : null;
         MTOMFeature mtom = features.get(MTOMFeature.class);
         if(mtom == null)
             this.mtomFeature = new MTOMFeature();
@@ -183,14 +192,26 @@ public class MtomCodec extends MimeCodec {
                 //mtom attachments that need to be written after the root part
                 List<ByteArrayBuffer> mtomAttachments = new ArrayList<ByteArrayBuffer>();
                 MtomStreamWriterImpl writer = new MtomStreamWriterImpl(
-                        XMLStreamWriterFactory.create(out, encoding), mtomAttachments, boundary, mtomFeature);
+                        XMLStreamWriterFactory.create(out, encoding), mtomAttachments, boundary, mtomFeature,
+                        streamingFeature);
 
-                packet.getMessage().writeTo(writer);
-                XMLStreamWriterFactory.recycle(writer);
-                writeln(out);
+                boolean attachmentsWritten = false;
+                try {
+                    packet.getMessage().writeTo(writer);
+                    XMLStreamWriterFactory.recycle(writer);
+                    writeln(out);
 
-                for(ByteArrayBuffer bos : mtomAttachments){
-                    bos.write(out);
+                    for(ByteArrayBuffer bos : mtomAttachments){
+                        bos.write(out);
+                    }
+                    attachmentsWritten = true;
+                } finally {
+                    if (!attachmentsWritten) {
+                        // don't leave temp files behind for parts that will never be sent
+                        for(ByteArrayBuffer bos : mtomAttachments){
+                            bos.dispose();
+                        }
+                    }
                 }
 
                 // now write out the attachments in the message that weren't
@@ -225,9 +246,20 @@ public class MtomCodec extends MimeCodec {
 
         private final DataHandler dh;
         private final String boundary;
+        private final boolean streaming;
      
         ByteArrayBuffer(@NotNull DataHandler dh, String b) {
+            this(dh, b, false);
+        }
+
+        /**
+         * @param streaming
+         *      if true, a {@link StreamingDataHandler} is read only once
+         *      and closed after it is written.
+         */
+        ByteArrayBuffer(@NotNull DataHandler dh, String b, boolean streaming) {
             this.dh = dh;
+            this.streaming = streaming;
             String cid = null;
             if (dh instanceof StreamingDataHandler) {
                 StreamingDataHandler sdh = (StreamingDataHandler) dh;
@@ -242,9 +274,37 @@ public class MtomCodec extends MimeCodec {
             //build attachment frame
             writeln("--"+boundary, os);
             writeMimeHeaders(dh.getContentType(), contentId, os);
-            dh.writeTo(os);
+            if (streaming && dh instanceof StreamingDataHandler) {
+                StreamingDataHandler sdh = (StreamingDataHandler) dh;
+                InputStream in = sdh.readOnce();
+                try {
+                    byte[] buf = new byte[8192];
+                    int len;
+                    while ((len = in.read(buf)) != -1) {
+                        os.write(buf, 0, len);
+                    }
+                } finally {
+                    in.close();
+                    sdh.close();
+                }
+            } else {
+                dh.writeTo(os);
+            }
             writeln(os);
         }
+
+        /**
+         * Releases a streamed part that won't be written after all.
+         */
+        void dispose() {
+            if (streaming && dh instanceof StreamingDataHandler) {
+                try {
+                    ((StreamingDataHandler) dh).close();
+                } catch (IOException e) {
+                    // nothing more to do about it
+                }
+            }
+        }
     }
 
     public static void writeMimeHeaders(String contentType, String contentId, OutputStream out) throws IOException {
@@ -281,11 +341,6 @@ public class MtomCodec extends MimeCodec {
         }
     }
 
-    @Override
-    public ContentType encode(Packet packet, WritableByteChannel buffer) {
-        throw new UnsupportedOperationException();
-    }
-
     @Override
     public MtomCodec copy() {
         return new MtomCodec(version, (StreamSOAPCodec)codec.copy(), features);
@@ -352,11 +407,28 @@ public class MtomCodec extends MimeCodec {
         private final List<ByteArrayBuffer> mtomAttachments;
         private final String boundary;
         private final MTOMFeature myMtomFeature;
+        private final StreamingAttachmentFeature streamingFeature;
+
         public MtomStreamWriterImpl(XMLStreamWriter w, List<ByteArrayBuffer> mtomAttachments, String b, MTOMFeature myMtomFeature) {
+            this(w, mtomAttachments, b, myMtomFeature, null);
+        }
+
+        /**
+         * @param streamingFeature
+         *      non-null to stream the attachments, see
+         *      {@link StreamingAttachmentFeature#setStreamingEncode(boolean)}.
+         */
+        public MtomStreamWriterImpl(XMLStreamWriter w, List<ByteArrayBuffer> mtomAttachments, String b, MTOMFeature myMtomFeature,
+                                    @Nullable StreamingAttachmentFeature streamingFeature) {
             super(w);
             this.mtomAttachments = mtomAttachments;
             this.boundary = b;
             this.myMtomFeature = myMtomFeature;
+            this.streamingFeature = streamingFeature;
+        }
+
+        private ByteArrayBuffer newBuffer(DataHandler dh) {
+            return new ByteArrayBuffer(dh, boundary, streamingFeature != null);
         }
 
         @Override
@@ -366,19 +438,33 @@ public class MtomCodec extends MimeCodec {
                 writeCharacters(DatatypeConverterImpl._printBase64Binary(data, start, len));
                 return;
             }
-            ByteArrayBuffer bab = new ByteArrayBuffer(new DataHandler(new ByteArrayDataSource(data, start, len, contentType)), boundary);
+            ByteArrayBuffer bab = newBuffer(new DataHandler(new ByteArrayDataSource(data, start, len, contentType)));
             writeBinary(bab);
         }
 
         @Override
         public void writeBinary(DataHandler dataHandler) throws XMLStreamException {
             // TODO how do we check threshold and if less inline the data
-            writeBinary(new ByteArrayBuffer(dataHandler, boundary));
+            writeBinary(newBuffer(dataHandler));
         }
 
+        /**
+         * The data written to the returned stream is kept until the
+         * attachments are written after the root part; in memory, or
+         * in a temp file beyond the memory threshold when streaming.
+         */
         @Override
         public OutputStream writeBinary(String contentType) throws XMLStreamException {
-            throw new UnsupportedOperationException();
+            SpillingOutputStream data;
+            if (streamingFeature != null) {
+                String dir = streamingFeature.getDir();
+                data = new SpillingOutputStream(streamingFeature.getMemoryThreshold(),
+                        (dir == null || dir.length() == 0) ? null : new File(dir));
+            } else {
+                data = new SpillingOutputStream(-1, null);
+            }
+            writeBinary(newBuffer(data.getDataHandler(contentType)));
+            return data;
         }
 
         @Override
@@ -435,7 +521,7 @@ public class MtomCodec extends MimeCodec {
                 public String addMtomAttachment(DataHandler data, String elementNamespace, String elementLocalName) {
                     // Should we do the threshold processing on DataHandler ? But that would be
                     // expensive as DataHolder need to read the data again from its source
-                    ByteArrayBuffer bab = new ByteArrayBuffer(data, boundary);
+                    ByteArrayBuffer bab = newBuffer(data);
                     mtomAttachments.add(bab);
                     return "cid:"+bab.contentId;
                 }
@@ -446,14 +532,14 @@ public class MtomCodec extends MimeCodec {
                     if (myMtomFeature.getThreshold() > length) {
                         return null;                // JAXB inlines the attachment data
                     }
-                    ByteArrayBuffer bab = new ByteArrayBuffer(new DataHandler(new ByteArrayDataSource(data, offset, length, mimeType)), boundary);
+                    ByteArrayBuffer bab = newBuffer(new DataHandler(new ByteArrayDataSource(data, offset, length, mimeType)));
                     mtomAttachments.add(bab);
                     return "cid:"+bab.contentId;
                 }
 
                 @Override
                 public String addSwaRefAttachment(DataHandler data) {
-                    ByteArrayBuffer bab = new ByteArrayBuffer(data, boundary);
+                    ByteArrayBuffer bab = newBuffer(data);
                     mtomAttachments.add(bab);
                     return "cid:"+bab.contentId;
                 }
@@ -57,6 +57,7 @@ import com.sun.xml.ws.resources.StreamingMessages;
 import com.sun.xml.ws.server.UnsupportedMediaException;
 import static com.sun.xml.ws.binding.WebServiceFeatureList.getSoapVersion;   
 
+import javax.xml.namespace.QName;
 import javax.xml.ws.WebServiceException;
 import javax.xml.ws.WebServiceFeature;
 import javax.xml.ws.soap.MTOMFeature;
@@ -66,6 +67,7 @@ import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.List;
 //import java.util.StringTokenizer;
 
 /**
@@ -177,10 +179,11 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
         String clientAcceptedContentTypes = xmlSoapCodec.getMimeType() + ", " +
                 xmlMtomCodec.getMimeType();
         
-        WebServiceFeature fi = features.get(FastInfosetFeature.class);
+        FastInfosetFeature fi = features.get(FastInfosetFeature.class);
         isFastInfosetDisabled = (fi != null && !fi.isEnabled());
         if (!isFastInfosetDisabled) {
-            fiSoapCodec = getFICodec(xmlSoapCodec, version);
+            fiSoapCodec = getFICodec(xmlSoapCodec, version,
+                    (fi != null && fi.isExternalVocabulary()) ? fi.getVocabulary() : null);
             if (fiSoapCodec != null) {
                 fiMimeType = fiSoapCodec.getMimeType();
                 fiSwaCodec = new SwACodec(version, features, fiSoapCodec);
@@ -485,10 +488,16 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
     
     /**
      * Obtain an FI SOAP codec instance using reflection.
+     *
+     * @param vocabulary names of the external vocabulary, or null if none is used.
      */
-    private static Codec getFICodec(StreamSOAPCodec soapCodec, SOAPVersion version) {
+    private static Codec getFICodec(StreamSOAPCodec soapCodec, SOAPVersion version, List<QName> vocabulary) {
         try {
             Class c = Class.forName("com.sun.xml.ws.encoding.fastinfoset.FastInfosetStreamSOAPCodec");
+            if (vocabulary != null) {
+                Method m = c.getMethod("create", StreamSOAPCodec.class, SOAPVersion.class, List.class);
+                return (Codec)m.invoke(null, soapCodec, version, vocabulary);
+            }
             Method m = c.getMethod("create", StreamSOAPCodec.class, SOAPVersion.class);
             return (Codec)m.invoke(null, soapCodec, version);
         } catch (Exception e) {
@@ -0,0 +1,207 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding;
+
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.developer.StreamingDataHandler;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import javax.activation.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link OutputStream} that keeps the data in memory up to a threshold and
+ * moves it to a temp file beyond that.
+ *
+ * <p>
+ * Used for binary data that is produced while the root part of an MTOM
+ * message is written, but must only be sent after it. Once closed, the data
+ * is available through {@link #getDataHandler(String)}.
+ */
+class SpillingOutputStream extends OutputStream {
+    private final long threshold;
+    private final File dir;
+
+    private ByteArrayBuffer memory = new ByteArrayBuffer();
+    private File file;
+    private OutputStream fileOut;
+    private boolean disposed;
+
+    /**
+     * @param threshold
+     *      number of bytes kept in memory, -1 to never spill.
+     * @param dir
+     *      directory for the temp file, null for the default.
+     */
+    SpillingOutputStream(long threshold, @Nullable File dir) {
+        this.threshold = threshold;
+        this.dir = dir;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        try {
+            out(1).write(b);
+        } catch (IOException e) {
+            dispose();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        try {
+            out(len).write(b, off, len);
+        } catch (IOException e) {
+            dispose();
+            throw e;
+        }
+    }
+
+    private OutputStream out(int len) throws IOException {
+        if (disposed) {
+            throw new IOException("Stream is disposed");
+        }
+        if (fileOut != null) {
+            return fileOut;
+        }
+        if (threshold >= 0 && memory.size() + len > threshold) {
+            file = File.createTempFile("jaxws", ".bin", dir);
+            fileOut = new BufferedOutputStream(openFile(file));
+            memory.writeTo(fileOut);
+            memory = null;
+            return fileOut;
+        }
+        return memory;
+    }
+
+    /**
+     * Opens the temp file. Overridden by tests to fail the writes.
+     */
+    OutputStream openFile(File f) throws IOException {
+        return new FileOutputStream(f);
+    }
+
+    /**
+     * Completes the data. The temp file is kept for
+     * {@link #getDataHandler(String)}, unless it couldn't be completed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (fileOut != null) {
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                dispose();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Drops the data and deletes the temp file, if any.
+     * Can be called any number of times.
+     */
+    void dispose() {
+        disposed = true;
+        memory = null;
+        if (fileOut != null) {
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                // the file is deleted anyway
+            }
+            fileOut = null;
+        }
+        if (file != null) {
+            if (!file.delete() && file.exists()) {
+                LOGGER.log(Level.WARNING, "Failed to delete temp file {0}", file);
+            }
+            file = null;
+        }
+    }
+
+    InputStream newInputStream() throws IOException {
+        if (disposed) {
+            throw new IOException("Stream is disposed");
+        }
+        return (file != null) ? new FileInputStream(file) : memory.newInputStream();
+    }
+
+    /**
+     * {@link StreamingDataHandler} over the written data. Closing it
+     * disposes of the data and deletes the temp file.
+     */
+    StreamingDataHandler getDataHandler(final String contentType) {
+        return new DataSourceStreamingDataHandler(new DataSource() {
+            public InputStream getInputStream() throws IOException {
+                return newInputStream();
+            }
+
+            public OutputStream getOutputStream() {
+                throw new UnsupportedOperationException();
+            }
+
+            public String getContentType() {
+                return contentType;
+            }
+
+            public String getName() {
+                return "";
+            }
+        }) {
+            @Override
+            public void close() throws IOException {
+                dispose();
+            }
+        };
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(SpillingOutputStream.class.getName());
+}
@@ -49,7 +49,6 @@ import com.sun.xml.ws.api.pipe.ContentType;
 import com.sun.xml.ws.message.MimeAttachmentSet;
 
 import java.io.IOException;
-import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 
 import javax.xml.ws.WebServiceFeature;
@@ -87,11 +86,6 @@ public final class SwACodec extends MimeCodec {
         }
     }
 
-    public ContentType encode(Packet packet, WritableByteChannel buffer) {
-        //TODO: not yet implemented
-        throw new UnsupportedOperationException();
-    }
-
     public SwACodec copy() {
         return new SwACodec(this);
     }
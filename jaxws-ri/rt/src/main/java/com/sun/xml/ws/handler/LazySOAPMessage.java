@@ -0,0 +1,438 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.handler;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.HeaderList;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.MessageHeaders;
+import com.sun.xml.ws.message.saaj.SAAJHeader;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.AttachmentPart;
+import javax.xml.soap.MimeHeaders;
+import javax.xml.soap.SOAPBody;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPHeader;
+import javax.xml.soap.SOAPHeaderElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.soap.SOAPPart;
+import javax.xml.ws.WebServiceException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.events.Event;
+import org.w3c.dom.events.EventListener;
+import org.w3c.dom.events.EventTarget;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link SOAPMessage} given to {@link javax.xml.ws.handler.soap.SOAPHandler}s
+ * that only reads the payload and the attachments of the {@link Message}
+ * into SAAJ when needed.
+ *
+ * <p>
+ * {@link #getSOAPHeader()} is served from a SAAJ message that holds just the
+ * headers of the {@link Message}. The headers are still written into a SAAJ
+ * DOM, but the payload, usually the larger part, is left untouched. Any
+ * other method, except {@link #countAttachments()}, first reads the whole
+ * message into SAAJ, with the header changes made so far, and then
+ * delegates to it. If a handler chain never leaves the header, the header
+ * changes are applied to the original {@link Message} by
+ * {@link #getUpdatedMessage()}, which keeps streaming its payload.
+ *
+ * <p>
+ * Changes to the header view are tracked with DOM mutation events, when
+ * the SAAJ implementation supports them. Only the headers that were added,
+ * removed or changed are then replaced, the others stay the original
+ * {@link Header}s, so a handler that just reads the headers leaves the
+ * message as it was. Otherwise all the headers are replaced.
+ *
+ * <p>
+ * A {@link SOAPHeader} obtained before the message is read as a whole must not
+ * be used afterwards, as it no longer belongs to the message.
+ *
+ * @see SOAPMessageContextImpl
+ */
+final class LazySOAPMessage extends SOAPMessage {
+
+    private final SOAPVersion soapVersion;
+
+    /**
+     * The original message, until it is read as a whole.
+     */
+    private Message message;
+
+    /**
+     * SAAJ message with only the headers, created on the first access.
+     */
+    private SOAPMessage headerView;
+
+    /**
+     * The {@link Header}s the {@link #headerView} was created from, with their
+     * element in the view. Null if changes to the view can't be tracked, in
+     * which case all the headers are replaced.
+     */
+    private List<Header> viewHeaders;
+    private List<SOAPHeaderElement> viewElements;
+
+    /**
+     * Whether the header view was modified since the headers were last synced,
+     * and the header elements whose content was.
+     */
+    private boolean modified;
+    private final Set<Node> changed = new HashSet<Node>();
+
+    /**
+     * The whole message, once read.
+     */
+    private SOAPMessage delegate;
+
+    LazySOAPMessage(SOAPVersion soapVersion, Message message) {
+        this.soapVersion = soapVersion;
+        this.message = message;
+    }
+
+    /**
+     * Whether the whole message has been read into SAAJ.
+     */
+    boolean isExpanded() {
+        return delegate != null;
+    }
+
+    /**
+     * The whole message in SAAJ, read if not done yet.
+     */
+    SOAPMessage expand() {
+        if (delegate == null) {
+            try {
+                syncHeaders();
+                delegate = message.readAsSOAPMessage();
+            } catch (SOAPException e) {
+                throw new WebServiceException(e);
+            }
+            message = null;
+            headerView = null;
+            viewHeaders = null;
+            viewElements = null;
+            changed.clear();
+        }
+        return delegate;
+    }
+
+    /**
+     * The original {@link Message} with the header changes applied.
+     * Only valid if the message is not {@link #isExpanded() expanded}.
+     */
+    Message getUpdatedMessage() {
+        try {
+            syncHeaders();
+        } catch (SOAPException e) {
+            throw new WebServiceException(e);
+        }
+        return message;
+    }
+
+    /**
+     * Applies the changes made to the {@link #headerView} to the headers of
+     * {@link #message}, keeping the understood marks.
+     */
+    private void syncHeaders() throws SOAPException {
+        if (headerView == null || (viewHeaders != null && !modified)) {
+            return;
+        }
+        List<SOAPHeaderElement> current = headerElements(headerView.getSOAPHeader());
+        if (viewHeaders == null) {
+            replaceHeaders(current);
+            return;
+        }
+
+        // the headers whose element was removed or changed
+        List<Header> stale = new ArrayList<Header>();
+        Set<SOAPHeaderElement> unchanged = new HashSet<SOAPHeaderElement>();
+        for (int i = 0; i < viewHeaders.size(); i++) {
+            SOAPHeaderElement e = viewElements.get(i);
+            if (current.contains(e) && !changed.contains(e)) {
+                unchanged.add(e);
+            } else {
+                stale.add(viewHeaders.get(i));
+            }
+        }
+        modified = false;
+        changed.clear();
+
+        MessageHeaders headers = message.getHeaders();
+        Set<QName> understood = new HashSet<QName>();
+        for (Header h : stale) {
+            if (headers.isUnderstood(h)) {
+                understood.add(new QName(h.getNamespaceURI(), h.getLocalPart()));
+            }
+            remove(headers, h);
+            int i = viewHeaders.indexOf(h);
+            viewHeaders.remove(i);
+            viewElements.remove(i);
+        }
+        for (SOAPHeaderElement e : current) {
+            if (!unchanged.contains(e)) {
+                Header h = new SAAJHeader(e);
+                headers.add(h);
+                if (understood.contains(e.getElementQName())) {
+                    headers.understood(h);
+                }
+                viewHeaders.add(h);
+                viewElements.add(e);
+            }
+        }
+    }
+
+    /**
+     * Replaces all the headers of {@link #message} with the given elements,
+     * keeping the understood marks by name.
+     */
+    private void replaceHeaders(List<SOAPHeaderElement> elements) {
+        MessageHeaders headers = message.getHeaders();
+        Set<QName> understood = headers.getUnderstoodHeaders();
+        for (Header h : new ArrayList<Header>(headers.asList())) {
+            remove(headers, h);
+        }
+        for (SOAPHeaderElement e : elements) {
+            headers.add(new SAAJHeader(e));
+        }
+        if (understood != null) {
+            for (QName name : understood) {
+                Iterator<Header> it = headers.getHeaders(name, true);
+                while (it.hasNext()) {
+                    it.next();
+                }
+            }
+        }
+    }
+
+    private static void remove(MessageHeaders headers, Header h) {
+        if (headers instanceof HeaderList) {
+            ((HeaderList) headers).remove(h);
+        } else {
+            headers.remove(h.getNamespaceURI(), h.getLocalPart());
+        }
+    }
+
+    private static List<SOAPHeaderElement> headerElements(SOAPHeader header) {
+        List<SOAPHeaderElement> elements = new ArrayList<SOAPHeaderElement>();
+        if (header != null) {
+            Iterator it = header.examineAllHeaderElements();
+            while (it.hasNext()) {
+                elements.add((SOAPHeaderElement) it.next());
+            }
+        }
+        return elements;
+    }
+
+    @Override
+    public SOAPHeader getSOAPHeader() throws SOAPException {
+        if (delegate != null) {
+            return delegate.getSOAPHeader();
+        }
+        if (headerView == null) {
+            SOAPMessage view = soapVersion.getMessageFactory().createMessage();
+            final SOAPHeader viewHeader = view.getSOAPHeader();
+            List<Header> hs = new ArrayList<Header>();
+            boolean matched = viewHeader instanceof EventTarget;
+            Iterator<Header> it = message.getHeaders().getHeaders();
+            while (it.hasNext()) {
+                Header h = it.next();
+                Node last = matched ? viewHeader.getLastChild() : null;
+                h.writeTo(view);
+                hs.add(h);
+                if (matched) {
+                    // each header is expected to append exactly one element
+                    Node added = viewHeader.getLastChild();
+                    matched = added instanceof Element && added != last && added.getPreviousSibling() == last;
+                }
+            }
+            headerView = view;
+            if (matched) {
+                // SAAJ may turn the elements into header elements when first
+                // listed, so that's done before tracking changes
+                List<SOAPHeaderElement> es = headerElements(viewHeader);
+                if (es.size() == hs.size()) {
+                    viewHeaders = hs;
+                    viewElements = es;
+                    ((EventTarget) viewHeader).addEventListener("DOMSubtreeModified", new EventListener() {
+                        @Override
+                        public void handleEvent(Event evt) {
+                            changed(viewHeader, (Node) evt.getTarget());
+                        }
+                    }, false);
+                }
+            }
+        }
+        return headerView.getSOAPHeader();
+    }
+
+    /**
+     * Records a change under the header of the header view.
+     */
+    private void changed(SOAPHeader header, Node target) {
+        if (viewHeaders == null) {
+            return;
+        }
+        modified = true;
+        if (target == header) {
+            // a header was added or removed, which syncHeaders() sees anyway
+            return;
+        }
+        Node n = target;
+        while (n != null && n.getParentNode() != header) {
+            n = n.getParentNode();
+        }
+        if (n != null) {
+            changed.add(n);
+        } else {
+            // can't tell which header changed
+            viewHeaders = null;
+            viewElements = null;
+        }
+    }
+
+    @Override
+    public SOAPBody getSOAPBody() throws SOAPException {
+        return expand().getSOAPBody();
+    }
+
+    @Override
+    public SOAPPart getSOAPPart() {
+        return expand().getSOAPPart();
+    }
+
+    @Override
+    public void setContentDescription(String description) {
+        expand().setContentDescription(description);
+    }
+
+    @Override
+    public String getContentDescription() {
+        return expand().getContentDescription();
+    }
+
+    @Override
+    public void removeAllAttachments() {
+        expand().removeAllAttachments();
+    }
+
+    @Override
+    public int countAttachments() {
+        if (delegate == null) {
+            int count = 0;
+            for (Iterator<?> it = message.getAttachments().iterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+            return count;
+        }
+        return delegate.countAttachments();
+    }
+
+    @Override
+    public Iterator getAttachments() {
+        return expand().getAttachments();
+    }
+
+    @Override
+    public Iterator getAttachments(MimeHeaders headers) {
+        return expand().getAttachments(headers);
+    }
+
+    @Override
+    public void removeAttachments(MimeHeaders headers) {
+        expand().removeAttachments(headers);
+    }
+
+    @Override
+    public AttachmentPart getAttachment(SOAPElement element) throws SOAPException {
+        return expand().getAttachment(element);
+    }
+
+    @Override
+    public void addAttachmentPart(AttachmentPart attachmentPart) {
+        expand().addAttachmentPart(attachmentPart);
+    }
+
+    @Override
+    public AttachmentPart createAttachmentPart() {
+        return expand().createAttachmentPart();
+    }
+
+    @Override
+    public MimeHeaders getMimeHeaders() {
+        return expand().getMimeHeaders();
+    }
+
+    @Override
+    public void saveChanges() throws SOAPException {
+        expand().saveChanges();
+    }
+
+    @Override
+    public boolean saveRequired() {
+        return expand().saveRequired();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws SOAPException, IOException {
+        expand().writeTo(out);
+    }
+
+    @Override
+    public void setProperty(String property, Object value) throws SOAPException {
+        expand().setProperty(property, value);
+    }
+
+    @Override
+    public Object getProperty(String property) throws SOAPException {
+        return expand().getProperty(property);
+    }
+}
@@ -40,6 +40,7 @@
 
 package com.sun.xml.ws.handler;
 import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.HeaderList;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.message.saaj.SAAJFactory;
@@ -82,7 +83,13 @@ public class SOAPMessageContextImpl extends MessageUpdatableContext implements S
         if(soapMsg == null) {
             try {
             	Message m = packet.getMessage();
-            	soapMsg = m != null ? m.readAsSOAPMessage() : null;
+            	if (m == null) {
+            	    soapMsg = null;
+            	} else if (LAZY_SAAJ && m.getHeaders() instanceof HeaderList) {
+            	    soapMsg = new LazySOAPMessage(binding.getSOAPVersion(), m);
+            	} else {
+            	    soapMsg = m.readAsSOAPMessage();
+            	}
             } catch (SOAPException e) {
                 throw new WebServiceException(e);
             }
@@ -109,7 +116,12 @@ public class SOAPMessageContextImpl extends MessageUpdatableContext implements S
         //Check if SOAPMessage has changed, if so construct new one,
         // Packet are handled through MessageContext
         if(soapMsg != null) {
-            packet.setMessage(SAAJFactory.create(soapMsg));
+            if (soapMsg instanceof LazySOAPMessage) {
+                LazySOAPMessage lazy = (LazySOAPMessage) soapMsg;
+                packet.setMessage(lazy.isExpanded() ? SAAJFactory.create(lazy.expand()) : lazy.getUpdatedMessage());
+            } else {
+                packet.setMessage(SAAJFactory.create(soapMsg));
+            }
             soapMsg = null;
         }
     }
@@ -143,4 +155,12 @@ public class SOAPMessageContextImpl extends MessageUpdatableContext implements S
     public Set<String> getRoles() {
         return roles;
     } 
+
+    /**
+     * If true, {@link #getMessage()} returns a {@link LazySOAPMessage}, so
+     * that handlers which only work with the SOAP header don't read the payload
+     * and the attachments into SAAJ. Off by default, as a {@link javax.xml.soap.SOAPHeader}
+     * must then not be used once the rest of the message has been accessed.
+     */
+    private static final boolean LAZY_SAAJ = Boolean.getBoolean(SOAPMessageContextImpl.class.getName() + ".lazySAAJ");
 }
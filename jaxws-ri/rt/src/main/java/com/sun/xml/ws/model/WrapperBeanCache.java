@@ -0,0 +1,236 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.model;
+
+import com.sun.xml.ws.util.RuntimeVersion;
+
+import javax.xml.namespace.QName;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent cache of the wrapper bean class files generated by
+ * {@link WrapperBeanGenerator}, so that they are generated only once and not
+ * on every start of the application.
+ *
+ * <p>
+ * Enabled by pointing {@code -Dcom.sun.xml.ws.model.WrapperBeanCache.dir} to a
+ * directory. Entries are keyed by the bean class name, the wrapper element,
+ * the method signature, the JAX-WS version and the SHA-256 of the class file
+ * that declares the method, so a recompiled SEI never picks up stale beans.
+ * Entries of old versions of an SEI are not removed; the directory can be
+ * cleared at any time. As the cached class files are defined into the
+ * application's class loader, the directory must not be writable by anyone
+ * else than the application.
+ *
+ * <p>
+ * Beans generated at build time (by <tt>wsgen</tt> or the annotation
+ * processor) are found by the {@link RuntimeModeler} on the class path and
+ * never reach the generator or this cache.
+ */
+final class WrapperBeanCache {
+
+    private static final Logger LOGGER = Logger.getLogger(WrapperBeanCache.class.getName());
+
+    static final String DIR_PROPERTY = WrapperBeanCache.class.getName() + ".dir";
+
+    private static final ClassValue<String> CLASS_DIGESTS = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            ClassLoader cl = type.getClassLoader();
+            if (cl == null) {
+                return null;
+            }
+            InputStream in = cl.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+            if (in == null) {
+                return null;
+            }
+            try {
+                try {
+                    MessageDigest md = MessageDigest.getInstance("SHA-256");
+                    byte[] buf = new byte[8192];
+                    int len;
+                    while ((len = in.read(buf)) != -1) {
+                        md.update(buf, 0, len);
+                    }
+                    return toHex(md.digest());
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Can't read class file of " + type.getName(), e);
+                return null;
+            } catch (NoSuchAlgorithmException e) {
+                return null;
+            }
+        }
+    };
+
+    private WrapperBeanCache() {
+    }
+
+    /**
+     * Computes the cache key of a request or response wrapper bean.
+     *
+     * @return null if the bean can't be cached
+     */
+    static String key(String className, Method method, QName elemName) {
+        if (dir() == null) {
+            return null;
+        }
+        String classDigest = CLASS_DIGESTS.get(method.getDeclaringClass());
+        if (classDigest == null) {
+            return null;
+        }
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            update(md, RuntimeVersion.VERSION.toString());
+            update(md, className);
+            update(md, elemName.toString());
+            update(md, method.toGenericString());
+            update(md, classDigest);
+            return toHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the cached class file, or null if there is none
+     */
+    static byte[] load(String className, String key) {
+        File dir = dir();
+        if (key == null || dir == null) {
+            return null;
+        }
+        File f = new File(dir, fileName(className, key));
+        if (!f.isFile()) {
+            return null;
+        }
+        try {
+            byte[] image = Files.readAllBytes(f.toPath());
+            if (image.length < 4 || (image[0] & 0xFF) != 0xCA || (image[1] & 0xFF) != 0xFE
+                    || (image[2] & 0xFF) != 0xBA || (image[3] & 0xFF) != 0xBE) {
+                LOGGER.log(Level.WARNING, "Ignoring corrupted wrapper bean cache entry {0}", f);
+                return null;
+            }
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Wrapper bean {0} loaded from {1}", new Object[]{className, f});
+            }
+            return image;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Can't read wrapper bean cache entry " + f, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a generated class file. Concurrent writers of the same entry
+     * (several applications sharing the directory) are fine, as each writes
+     * a temporary file and renames it.
+     */
+    static void store(String className, String key, byte[] image) {
+        File dir = dir();
+        if (key == null || dir == null) {
+            return;
+        }
+        File f = new File(dir, fileName(className, key));
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(className, ".tmp", dir);
+            OutputStream out = new FileOutputStream(tmp);
+            try {
+                out.write(image);
+            } finally {
+                out.close();
+            }
+            if (!tmp.renameTo(f) && !f.isFile()) {
+                LOGGER.log(Level.FINE, "Can't store wrapper bean cache entry {0}", f);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Can't store wrapper bean cache entry " + f, e);
+        } finally {
+            if (tmp != null && tmp.exists()) {
+                tmp.delete();
+            }
+        }
+    }
+
+    private static File dir() {
+        String dir = System.getProperty(DIR_PROPERTY);
+        if (dir == null || dir.length() == 0) {
+            return null;
+        }
+        File f = new File(dir);
+        if (!f.isDirectory() && !f.mkdirs()) {
+            LOGGER.log(Level.WARNING, "Wrapper bean cache directory {0} can''t be created", f);
+            return null;
+        }
+        return f;
+    }
+
+    private static String fileName(String className, String key) {
+        return className + '-' + key + ".class";
+    }
+
+    private static void update(MessageDigest md, String s) {
+        md.update(s.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static String toHex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
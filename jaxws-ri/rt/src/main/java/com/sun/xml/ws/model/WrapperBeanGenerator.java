@@ -65,6 +65,8 @@ import java.util.logging.Logger;
 /**
  * Runtime Wrapper and exception bean generator implementation.
  * It uses ASM to generate request, response and exception beans.
+ * Request and response beans are kept in the {@link WrapperBeanCache},
+ * if it is enabled.
  *
  * @author Jitendra Kotamraju
  */
@@ -280,10 +282,15 @@ public class WrapperBeanGenerator {
             LOGGER.log(Level.FINE, "Request Wrapper Class : {0}", className);
         }
 
+        String cacheKey = WrapperBeanCache.key(className, method, reqElemName);
+        byte[] image = WrapperBeanCache.load(className, cacheKey);
+        if (image != null) {
+            return Injector.inject(cl, className, image);
+        }
+
         List<Field> requestMembers = RUNTIME_GENERATOR.collectRequestBeanMembers(
                 method);
 
-        byte[] image;
         try {
             image = createBeanImage(className, reqElemName.getLocalPart(), reqElemName.getNamespaceURI(),
                 reqElemName.getLocalPart(), reqElemName.getNamespaceURI(),
@@ -291,6 +298,7 @@ public class WrapperBeanGenerator {
         } catch(Exception e) {
             throw new WebServiceException(e);
         }
+        WrapperBeanCache.store(className, cacheKey, image);
 //        write(image, className);
         return Injector.inject(cl, className, image);
     }
@@ -301,9 +309,14 @@ public class WrapperBeanGenerator {
             LOGGER.log(Level.FINE, "Response Wrapper Class : {0}", className);
         }
 
+        String cacheKey = WrapperBeanCache.key(className, method, resElemName);
+        byte[] image = WrapperBeanCache.load(className, cacheKey);
+        if (image != null) {
+            return Injector.inject(cl, className, image);
+        }
+
         List<Field> responseMembers = RUNTIME_GENERATOR.collectResponseBeanMembers(method);
 
-        byte[] image;
         try {
             image = createBeanImage(className, resElemName.getLocalPart(), resElemName.getNamespaceURI(),
                 resElemName.getLocalPart(), resElemName.getNamespaceURI(),
@@ -311,6 +324,7 @@ public class WrapperBeanGenerator {
         } catch(Exception e) {
             throw new WebServiceException(e);
         }
+        WrapperBeanCache.store(className, cacheKey, image);
 //      write(image, className);
 
         return Injector.inject(cl, className, image);
@@ -0,0 +1,194 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.profiling;
+
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Wraps a {@link Tube} of the tubeline and records how long its
+ * <code>process*</code> methods take.
+ *
+ * <p>
+ * The wrapper is transparent to the {@link com.sun.xml.ws.api.pipe.Fiber}:
+ * the {@link NextAction} of the wrapped tube is returned as is, so the
+ * fiber calls the wrapper back for the response.
+ */
+final class ProfilingTube extends AbstractTubeImpl {
+    private final Tube tube;
+    private final TubelineProfiler profiler;
+    private final TubelineProfiler.TubeRecord record;
+
+    // a tubeline instance only serves one fiber at a time
+
+    /**
+     * The request being processed, to find its operation once dispatched.
+     */
+    private Packet request;
+
+    /**
+     * Time and allocations of {@link #processRequest(Packet)}, when they are
+     * not recorded yet because the operation of the request wasn't known.
+     */
+    private boolean pending;
+    private long pendingTime;
+    private long pendingAllocated;
+
+    ProfilingTube(Tube tube, TubelineProfiler profiler) {
+        this.tube = tube;
+        this.profiler = profiler;
+        this.record = profiler.getRecord(tube);
+    }
+
+    private ProfilingTube(ProfilingTube that, TubeCloner cloner) {
+        super(that, cloner);
+        this.tube = cloner.copy(that.tube);
+        this.profiler = that.profiler;
+        this.record = that.record;
+    }
+
+    @Override
+    public NextAction processRequest(Packet request) {
+        // the previous request never came back through this tube
+        flush(null);
+        long allocated = profiler.isTrackingAllocations() ? TubelineProfiler.allocatedBytes() : 0;
+        long start = System.nanoTime();
+        try {
+            return tube.processRequest(request);
+        } finally {
+            long time = System.nanoTime() - start;
+            if (profiler.isTrackingAllocations()) {
+                allocated = TubelineProfiler.allocatedBytes() - allocated;
+            }
+            // tubes near the transport run before the request is dispatched,
+            // they are recorded when the operation is found
+            this.request = request;
+            QName operation = request.getResolvedWSDLOperation();
+            if (operation != null) {
+                record(record.get(operation), true, time, allocated);
+            } else {
+                pending = true;
+                pendingTime = time;
+                pendingAllocated = allocated;
+            }
+        }
+    }
+
+    @Override
+    public NextAction processResponse(Packet response) {
+        QName operation = getOperation(response);
+        flush(operation);
+        long allocated = profiler.isTrackingAllocations() ? TubelineProfiler.allocatedBytes() : 0;
+        long start = System.nanoTime();
+        try {
+            return tube.processResponse(response);
+        } finally {
+            record(record.get(operation), false, System.nanoTime() - start,
+                    profiler.isTrackingAllocations() ? TubelineProfiler.allocatedBytes() - allocated : 0);
+        }
+    }
+
+    @Override
+    public NextAction processException(Throwable t) {
+        QName operation = getOperation(null);
+        flush(operation);
+        long allocated = profiler.isTrackingAllocations() ? TubelineProfiler.allocatedBytes() : 0;
+        long start = System.nanoTime();
+        try {
+            return tube.processException(t);
+        } finally {
+            record(record.get(operation), false, System.nanoTime() - start,
+                    profiler.isTrackingAllocations() ? TubelineProfiler.allocatedBytes() - allocated : 0);
+        }
+    }
+
+    /**
+     * The operation of the current request, if it was found by then.
+     * Never dispatches the packet itself, which would be too early for the
+     * outer tubes and would keep the failed lookup.
+     */
+    private QName getOperation(Packet response) {
+        QName operation = (response != null) ? response.getResolvedWSDLOperation() : null;
+        if (operation == null && request != null) {
+            operation = request.getResolvedWSDLOperation();
+        }
+        return operation;
+    }
+
+    /**
+     * Records the pending request statistics, if any.
+     */
+    private void flush(QName operation) {
+        if (pending) {
+            record(record.get(operation), true, pendingTime, pendingAllocated);
+            pending = false;
+        }
+        request = null;
+    }
+
+    private void record(TubeStatistics stats, boolean onRequest, long time, long allocated) {
+        (onRequest ? stats.request : stats.response).record(time);
+        if (profiler.isTrackingAllocations()) {
+            stats.allocated.add(allocated);
+        }
+    }
+
+    @Override
+    public void preDestroy() {
+        flush(null);
+        tube.preDestroy();
+    }
+
+    @Override
+    public ProfilingTube copy(TubeCloner cloner) {
+        return new ProfilingTube(this, cloner);
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "[" + tube + "]";
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.profiling;
+
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.assembler.dev.ClientTubelineAssemblyContext;
+import com.sun.xml.ws.assembler.dev.ServerTubelineAssemblyContext;
+import com.sun.xml.ws.assembler.dev.TubelineAssemblyDecorator;
+
+import java.util.Arrays;
+
+/**
+ * {@link TubelineAssemblyDecorator} that wraps every tube of the tubeline
+ * into a {@link ProfilingTube}.
+ */
+public final class ProfilingTubelineAssemblyDecorator extends TubelineAssemblyDecorator {
+    private final TubelineProfiler profiler;
+
+    private ProfilingTubelineAssemblyDecorator(TubelineProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Adds profiling to the given decorator when {@link TubelineProfilingFeature}
+     * is enabled on the binding.
+     *
+     * @return
+     *      the decorator to use for the tubeline.
+     */
+    public static TubelineAssemblyDecorator decorate(TubelineAssemblyDecorator decorator, WSBinding binding) {
+        if (!binding.isFeatureEnabled(TubelineProfilingFeature.class)) {
+            return decorator;
+        }
+        TubelineProfiler profiler = binding.getFeature(TubelineProfilingFeature.class).getProfiler();
+        // profile the tubes as decorated by the others
+        return TubelineAssemblyDecorator.composite(Arrays.asList(
+                decorator, new ProfilingTubelineAssemblyDecorator(profiler)));
+    }
+
+    @Override
+    public Tube decorateClient(Tube tube, ClientTubelineAssemblyContext context) {
+        return wrap(tube, context.getTubelineHead());
+    }
+
+    @Override
+    public Tube decorateServer(Tube tube, ServerTubelineAssemblyContext context) {
+        return wrap(tube, context.getTubelineHead());
+    }
+
+    private Tube wrap(Tube tube, Tube head) {
+        // a tube creator that adds nothing returns the current head
+        if (tube == null || tube == head) {
+            return tube;
+        }
+        return new ProfilingTube(tube, profiler);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.profiling;
+
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import javax.xml.namespace.QName;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent and memory allocated by one {@link com.sun.xml.ws.api.pipe.Tube}
+ * class for one WSDL operation.
+ */
+@ManagedData
+@Description("Tube statistics")
+public final class TubeStatistics {
+    private final String tube;
+    private final QName operation;
+    final LatencyHistogram request = new LatencyHistogram();
+    final LatencyHistogram response = new LatencyHistogram();
+    final LongAdder allocated = new LongAdder();
+
+    TubeStatistics(String tube, QName operation) {
+        this.tube = tube;
+        this.operation = operation;
+    }
+
+    @ManagedAttribute
+    @Description("Tube class")
+    public String getTube() {
+        return tube;
+    }
+
+    /**
+     * @return
+     *      null for messages that are not bound to a WSDL operation.
+     */
+    @ManagedAttribute
+    @Description("WSDL operation")
+    public QName getOperation() {
+        return operation;
+    }
+
+    @ManagedAttribute
+    @Description("Duration of processRequest in nanoseconds")
+    public LatencyHistogram getRequestTime() {
+        return request;
+    }
+
+    @ManagedAttribute
+    @Description("Duration of processResponse and processException in nanoseconds")
+    public LatencyHistogram getResponseTime() {
+        return response;
+    }
+
+    /**
+     * @return
+     *      0 unless allocation tracking is on and supported by the JVM.
+     */
+    @ManagedAttribute
+    @Description("Bytes allocated in processRequest, processResponse and processException")
+    public long getAllocatedBytes() {
+        return allocated.sum();
+    }
+
+    @Override
+    public String toString() {
+        return tube + (operation != null ? "[" + operation + "]" : "") +
+                " request(n=" + request.getCount() + ", p50=" + request.getP50() + "ns, p99=" + request.getP99() + "ns)" +
+                " response(n=" + response.getCount() + ", p50=" + response.getP50() + "ns, p99=" + response.getP99() + "ns)" +
+                " allocated=" + allocated.sum();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.profiling;
+
+import com.sun.xml.ws.api.pipe.Tube;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import javax.xml.namespace.QName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects the {@link TubeStatistics} of the tubelines of an endpoint or a port.
+ *
+ * @see TubelineProfilingFeature
+ */
+@ManagedData
+@Description("Tubeline profile")
+public final class TubelineProfiler {
+
+    private final ConcurrentMap<String, TubeRecord> tubes = new ConcurrentHashMap<String, TubeRecord>();
+    private final boolean trackAllocations;
+
+    TubelineProfiler(boolean trackAllocations) {
+        this.trackAllocations = trackAllocations && enableAllocations();
+    }
+
+    /**
+     * Statistics of a tube class, per operation.
+     */
+    static final class TubeRecord {
+        private final String tube;
+        private final TubeStatistics noOperation;
+        private final ConcurrentMap<QName, TubeStatistics> operations = new ConcurrentHashMap<QName, TubeStatistics>();
+
+        TubeRecord(String tube) {
+            this.tube = tube;
+            this.noOperation = new TubeStatistics(tube, null);
+        }
+
+        TubeStatistics get(QName operation) {
+            if (operation == null) {
+                return noOperation;
+            }
+            TubeStatistics s = operations.get(operation);
+            if (s == null) {
+                TubeStatistics n = new TubeStatistics(tube, operation);
+                s = operations.putIfAbsent(operation, n);
+                if (s == null) {
+                    s = n;
+                }
+            }
+            return s;
+        }
+    }
+
+    TubeRecord getRecord(Tube tube) {
+        String name = tube.getClass().getName();
+        TubeRecord r = tubes.get(name);
+        if (r == null) {
+            TubeRecord n = new TubeRecord(name);
+            r = tubes.putIfAbsent(name, n);
+            if (r == null) {
+                r = n;
+            }
+        }
+        return r;
+    }
+
+    boolean isTrackingAllocations() {
+        return trackAllocations;
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, -1 if unknown.
+     */
+    static long allocatedBytes() {
+        return ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @ManagedAttribute
+    @Description("Whether allocations are recorded")
+    public boolean getTrackAllocations() {
+        return trackAllocations;
+    }
+
+    /**
+     * Gets the statistics collected so far.
+     */
+    @ManagedAttribute
+    @Description("Statistics per tube class and WSDL operation")
+    public List<TubeStatistics> getStatistics() {
+        List<TubeStatistics> result = new ArrayList<TubeStatistics>();
+        for (TubeRecord r : tubes.values()) {
+            if (r.noOperation.request.getCount() > 0 || r.noOperation.response.getCount() > 0) {
+                result.add(r.noOperation);
+            }
+            result.addAll(r.operations.values());
+        }
+        return result;
+    }
+
+    /**
+     * Discards the statistics collected so far.
+     */
+    public void reset() {
+        tubes.clear();
+    }
+
+    /**
+     * Turns on the measurement of thread allocations, if needed.
+     * That's a setting of the whole JVM, which stays on afterwards,
+     * so it's only done when allocations are to be tracked.
+     *
+     * @return
+     *      false if the JVM can't measure allocations.
+     */
+    private static boolean enableAllocations() {
+        if (ALLOCATIONS == null) {
+            return false;
+        }
+        try {
+            if (!ALLOCATIONS.isThreadAllocatedMemoryEnabled()) {
+                ALLOCATIONS.setThreadAllocatedMemoryEnabled(true);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // not permitted or not supported
+            return false;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS;
+
+    static {
+        com.sun.management.ThreadMXBean bean = null;
+        try {
+            ThreadMXBean b = ManagementFactory.getThreadMXBean();
+            if (b instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) b).isThreadAllocatedMemorySupported()) {
+                bean = (com.sun.management.ThreadMXBean) b;
+            }
+        } catch (Throwable t) {
+            // not available on this JVM
+            bean = null;
+        }
+        ALLOCATIONS = bean;
+    }
+}
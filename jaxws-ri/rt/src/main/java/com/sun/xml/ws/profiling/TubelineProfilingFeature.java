@@ -0,0 +1,112 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.profiling;
+
+import com.sun.xml.ws.api.FeatureConstructor;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import javax.xml.ws.WebServiceFeature;
+
+/**
+ * {@link WebServiceFeature} that measures the time spent in each
+ * {@link com.sun.xml.ws.api.pipe.Tube} of the tubeline.
+ *
+ * <p>
+ * When enabled on an endpoint or a port, every tube is wrapped so that the
+ * durations of its <code>processRequest</code> and <code>processResponse</code>
+ * calls are recorded per tube class and per WSDL operation, along with the bytes
+ * they allocate if requested. The overhead is two {@link System#nanoTime()} calls
+ * and a few atomic increments per tube and direction. The results are published
+ * through the monitoring of the endpoint or the port, and are available from
+ * {@link #getProfiler()}.
+ *
+ * <p>
+ * Passing the same feature instance to several ports aggregates their statistics.
+ *
+ * <p>
+ * Tracking allocations turns on the thread allocated memory measurement of
+ * the {@link java.lang.management.ThreadMXBean}, which applies to the whole
+ * JVM and is left on. It is only done for a feature that is enabled and asks
+ * for it.
+ *
+ * @since JAX-WS RI 2.3.0
+ * @see TubelineProfiling
+ */
+@ManagedData
+public final class TubelineProfilingFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying this feature
+     */
+    public static final String ID = "com.sun.xml.ws.profiling.TubelineProfilingFeature";
+
+    private final TubelineProfiler profiler;
+
+    public TubelineProfilingFeature() {
+        this(true, false);
+    }
+
+    /**
+     * @param trackAllocations
+     *      also record the bytes allocated by the tubes, when the JVM supports
+     *      measuring the allocations of a thread. This turns that measurement
+     *      on for the whole JVM.
+     */
+    @FeatureConstructor({"enabled", "trackAllocations"})
+    public TubelineProfilingFeature(boolean enabled, boolean trackAllocations) {
+        this.enabled = enabled;
+        this.profiler = new TubelineProfiler(enabled && trackAllocations);
+    }
+
+    @Override
+    @ManagedAttribute
+    public String getID() {
+        return ID;
+    }
+
+    /**
+     * Gets the statistics collected for the tubelines this feature is enabled on.
+     */
+    @ManagedAttribute
+    public TubelineProfiler getProfiler() {
+        return profiler;
+    }
+}
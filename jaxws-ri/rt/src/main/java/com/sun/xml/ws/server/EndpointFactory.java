@@ -317,6 +317,7 @@ public class EndpointFactory {
             features.mergeFeatures(wsdlPort.getFeatures(), true);
             terminal = createSEIInvokerTube(seiModel,invoker,binding);
         }
+        features.setFastInfosetVocabulary(wsdlPort);
 
         // Process @HandlerChain, if handler-chain is not set via Deployment Descriptor
         if (processHandlerAnnotation) {
@@ -42,11 +42,17 @@ package com.sun.xml.ws.server;
 
 import com.sun.istack.NotNull;
 import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.addressing.NonAnonymousResponseDispatcher;
 import com.sun.xml.ws.api.WSFeatureList;
 import com.sun.xml.ws.api.EndpointAddress;
 import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.server.*;
+import com.sun.xml.ws.profiling.TubelineProfiler;
+import com.sun.xml.ws.profiling.TubelineProfilingFeature;
 import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.ByteArrayPool;
+import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.util.RuntimeVersion;
 import org.glassfish.gmbal.AMXMetadata;
 import org.glassfish.gmbal.Description;
@@ -146,6 +152,13 @@ public final class MonitorRootService extends MonitorBase {
                endpoint.getPort().getAddress() : null;
     }
 
+    @ManagedAttribute
+    @Description("Number of requests dispatched to each WSDL operation")
+    public Map<QName, Long> wsdlOperationDispatchCounts() {
+        return endpoint.getOperationDispatcher() != null ?
+               endpoint.getOperationDispatcher().getDispatchCounts() : null;
+    }
+
     //
     // Items from ServiceDefinition
     //
@@ -175,6 +188,43 @@ public final class MonitorRootService extends MonitorBase {
                endpoint.getSEIModel().getWSDLLocation() : null;
     }
 
+    @ManagedAttribute
+    @Description("SEI model JAXB marshaller pool")
+    public Pool.Marshaller seiModelMarshallerPool() {
+        return endpoint.getSEIModel() != null ?
+               endpoint.getSEIModel().getMarshallerPool() : null;
+    }
+
+    //
+    // Items from the tubeline
+    //
+
+    @ManagedAttribute
+    @Description("Tubeline pool")
+    public Pool<Tube> tubePool() {
+        return endpoint instanceof WSEndpointImpl ?
+               ((WSEndpointImpl) endpoint).getTubePool() : null;
+    }
+
+    @ManagedAttribute
+    @Description("Time spent in each tube, when tubeline profiling is enabled")
+    public TubelineProfiler tubelineProfile() {
+        TubelineProfilingFeature f = endpoint.getBinding().getFeature(TubelineProfilingFeature.class);
+        return (f != null && f.isEnabled()) ? f.getProfiler() : null;
+    }
+
+    @ManagedAttribute
+    @Description("Delivery of responses to non-anonymous ReplyTo/FaultTo addresses")
+    public NonAnonymousResponseDispatcher nonAnonymousResponseDispatcher() {
+        return (NonAnonymousResponseDispatcher) endpoint.getSPI(NonAnonymousResponseDispatcher.class);
+    }
+
+    @ManagedAttribute
+    @Description("Pool of the byte arrays buffering transport messages, shared by all endpoints")
+    public ByteArrayPool byteArrayPool() {
+        return ByteArrayPool.getDefault();
+    }
+
     //
     // Items from RuntimeVersion
     //
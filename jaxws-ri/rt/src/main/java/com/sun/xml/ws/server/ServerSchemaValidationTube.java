@@ -50,9 +50,12 @@ import com.sun.xml.ws.api.pipe.NextAction;
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubeCloner;
 import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.ServiceDefinition;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
+import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.util.pipe.AbstractSchemaValidationTube;
+import com.sun.xml.ws.util.pipe.SchemaCache;
 import org.xml.sax.SAXException;
 
 import javax.xml.transform.Source;
@@ -72,7 +75,8 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
     private static final Logger LOGGER = Logger.getLogger(ServerSchemaValidationTube.class.getName());
 
     private final Schema schema;
-    private final Validator validator;
+    private final Pool<Validator> validators;
+    private Validator validator;
 
     private final boolean noValidation;
     private final SEIModel seiModel;
@@ -84,34 +88,49 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
         this.seiModel = seiModel;
         this.wsdlPort = wsdlPort;
 
-        if (endpoint.getServiceDefinition() != null) {
-            MetadataResolverImpl mdresolver = new MetadataResolverImpl(endpoint.getServiceDefinition());
-            Source[] sources = getSchemaSources(endpoint.getServiceDefinition(), mdresolver);
-            for(Source source : sources) {
-                LOGGER.fine("Constructing service validation schema from = "+source.getSystemId());
-                //printDOM((DOMSource)source);
-            }
-            if (sources.length != 0) {
-                noValidation = false;
-                sf.setResourceResolver(mdresolver);
-                try {
-                    schema = sf.newSchema(sources);
-                } catch(SAXException e) {
-                    throw new WebServiceException(e);
-                }
-                validator = schema.newValidator();
-                return;
+        ServiceDefinition sd = endpoint.getServiceDefinition();
+        SchemaCache.Entry compiled = SchemaCache.NO_SCHEMA;
+        if (sd != null) {
+            compiled = SchemaCache.get(sd);
+            if (compiled == null) {
+                compiled = SchemaCache.put(sd, compileSchema(sd));
             }
         }
-        noValidation = true;
-        schema = null;
-        validator = null;
+        schema = compiled.getSchema();
+        validators = compiled.getValidators();
+        noValidation = schema == null;
+    }
+
+    private Schema compileSchema(ServiceDefinition sd) {
+        MetadataResolverImpl mdresolver = new MetadataResolverImpl(sd);
+        Source[] sources = getSchemaSources(sd, mdresolver);
+        for(Source source : sources) {
+            LOGGER.fine("Constructing service validation schema from = "+source.getSystemId());
+            //printDOM((DOMSource)source);
+        }
+        if (sources.length == 0) {
+            return null;
+        }
+        sf.setResourceResolver(mdresolver);
+        try {
+            return sf.newSchema(sources);
+        } catch(SAXException e) {
+            throw new WebServiceException(e);
+        }
     }
 
     protected Validator getValidator() {
+        if (validator == null && schema != null) {
+            validator = schema.newValidator();
+        }
         return validator;
     }
 
+    @Override
+    protected Pool<Validator> getValidatorPool() {
+        return validators;
+    }
+
     protected boolean isNoValidation() {
         return noValidation;
     }
@@ -155,7 +174,7 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
         super(that,cloner);
         //this.docs = that.docs;
         this.schema = that.schema;      // Schema is thread-safe
-        this.validator = schema.newValidator();
+        this.validators = that.validators;
         this.noValidation = that.noValidation;
         this.seiModel = that.seiModel;
         this.wsdlPort = that.wsdlPort;
@@ -44,6 +44,7 @@ import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 import com.sun.xml.stream.buffer.XMLStreamBuffer;
 import com.sun.xml.ws.addressing.EPRSDDocumentFilter;
+import com.sun.xml.ws.addressing.NonAnonymousResponseDispatcher;
 import com.sun.xml.ws.addressing.WSEPRExtension;
 import com.sun.xml.ws.api.Component;
 import com.sun.xml.ws.api.ComponentFeature;
@@ -59,6 +60,8 @@ import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.pipe.*;
 import com.sun.xml.ws.api.server.*;
 import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.TubelinePoolingFeature;
+import com.sun.xml.ws.developer.VirtualThreadsFeature;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.model.wsdl.WSDLDirectProperties;
 import com.sun.xml.ws.model.wsdl.WSDLPortProperties;
@@ -200,9 +203,9 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
         }
         this.masterCodec = c;
 
-        tubePool = new TubePool(masterTubeline);
+        tubePool = TubelinePoolingFeature.createPool(masterTubeline, binding, container);
         terminalTube.setEndpoint(this);
-        engine = new Engine(toString(), container);
+        engine = new Engine(toString(), container, binding.isFeatureEnabled(VirtualThreadsFeature.class));
         wsdlProperties = (port == null) ? new WSDLDirectProperties(serviceName, portName, seiModel) : new WSDLPortProperties(port, seiModel);
 
         Map<QName, WSEndpointReference.EPRExtension> eprExtensions = new HashMap<QName, WSEndpointReference.EPRExtension>();
@@ -267,11 +270,18 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
             this.context = new ServerPipeAssemblerContext(
                 seiModel, port, this, null /* not known */, false);
 
-                tubePool = new TubePool(masterTubeline);
-                engine = new Engine(toString(), container);
+                tubePool = TubelinePoolingFeature.createPool(masterTubeline, binding, container);
+                engine = new Engine(toString(), container, binding.isFeatureEnabled(VirtualThreadsFeature.class));
                 wsdlProperties = (port == null) ? new WSDLDirectProperties(serviceName, portName, seiModel) : new WSDLPortProperties(port, seiModel);
   }
 
+    /**
+     * Pool of tubelines serving the requests of this endpoint.
+     */
+    Pool<Tube> getTubePool() {
+        return tubePool;
+    }
+
     public Collection<WSEndpointReference.EPRExtension> getEndpointReferenceExtensions() {
         return endpointReferenceExtensions.values();
     }
@@ -442,6 +452,14 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
             }
             disposed = true;
 
+            if (tubePool instanceof TubePool) {
+                ((TubePool) tubePool).close();
+            }
+            for (Component c : componentRegistry) {
+                if (c instanceof NonAnonymousResponseDispatcher) {
+                    ((NonAnonymousResponseDispatcher) c).close();
+                }
+            }
             masterTubeline.preDestroy();
 
             for (Handler handler : binding.getHandlerChain()) {
@@ -40,6 +40,9 @@
 
 package com.sun.xml.ws.spi.db;
 
+import com.sun.xml.ws.util.MethodHandleFactory;
+
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import javax.xml.ws.WebServiceException;
 
@@ -53,11 +56,13 @@ import javax.xml.ws.WebServiceException;
 public class FieldGetter extends PropertyGetterBase {
 
     protected Field field;
+    protected MethodHandle handle;
     
     public FieldGetter(Field f) {
         verifyWrapperType(f.getDeclaringClass());   
         field = f;
         type = f.getType();
+        handle = MethodHandleFactory.getter(f, false);
     }
     
     public Field getField() {
@@ -65,6 +70,13 @@ public class FieldGetter extends PropertyGetterBase {
     }
     
     public Object get(final Object instance) {
+        if (handle != null) {
+            try {
+                return handle.invokeExact(instance);
+            } catch (Throwable t) {
+                throw new WebServiceException(t);
+            }
+        }
         try {
             return field.get(instance);
         } catch (Exception e) {
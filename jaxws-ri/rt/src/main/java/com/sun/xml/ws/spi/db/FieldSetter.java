@@ -40,6 +40,9 @@
 
 package com.sun.xml.ws.spi.db;
 
+import com.sun.xml.ws.util.MethodHandleFactory;
+
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import javax.xml.ws.WebServiceException;
 import static com.sun.xml.ws.spi.db.PropertyGetterBase.verifyWrapperType;
@@ -52,11 +55,13 @@ import static com.sun.xml.ws.spi.db.PropertyGetterBase.verifyWrapperType;
 public class FieldSetter extends PropertySetterBase {
     
     protected Field field;
+    protected MethodHandle handle;
     
     public FieldSetter(Field f) {
         verifyWrapperType(f.getDeclaringClass());        
         field = f;
         type = f.getType();
+        handle = MethodHandleFactory.setter(f, false);
     }
     
     public Field getField() {
@@ -65,6 +70,14 @@ public class FieldSetter extends PropertySetterBase {
 
     public void set(final Object instance, final Object val) {
         final Object resource = (type.isPrimitive() && val == null)? uninitializedValue(type): val;
+        if (handle != null) {
+            try {
+                handle.invokeExact(instance, resource);
+                return;
+            } catch (Throwable t) {
+                throw new WebServiceException(t);
+            }
+        }
         try {
             field.set(instance, resource);
         } catch (Exception e) {
@@ -40,6 +40,8 @@
 
 package com.sun.xml.ws.spi.db;
 
+import com.sun.xml.ws.util.MethodHandleFactory;
+
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
@@ -311,8 +313,13 @@ public class JAXBWrapperAccessor extends WrapperAccessor {
     static private class PrivFieldSetter extends FieldSetter {     
         private PrivFieldSetter(Field f) {
             super(f);
+            handle = MethodHandleFactory.setter(f, true);
         }
         private void setPriv(final Object instance, final Object val) {
+            if (handle != null) {
+                set(instance, val);
+                return;
+            }
             final Object resource = (type.isPrimitive() && val == null)? uninitializedValue(type): val;
             if (field.isAccessible()) {
                 try {
@@ -341,6 +348,7 @@ public class JAXBWrapperAccessor extends WrapperAccessor {
     static private class PrivFieldGetter extends FieldGetter {      
         private PrivFieldGetter(Field f) {
             super(f);
+            handle = MethodHandleFactory.getter(f, true);
         }        
         static private class PrivilegedGetter implements PrivilegedExceptionAction {
             private Object value;
@@ -360,6 +368,9 @@ public class JAXBWrapperAccessor extends WrapperAccessor {
             }
         }            
         private Object getPriv(final Object instance) {
+            if (handle != null) {
+                return get(instance);
+            }
             if (field.isAccessible()) {
                 try {
                     return field.get(instance);
@@ -40,6 +40,9 @@
 
 package com.sun.xml.ws.spi.db;
 
+import com.sun.xml.ws.util.MethodHandleFactory;
+
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import javax.xml.ws.WebServiceException;
 
@@ -52,11 +55,13 @@ import javax.xml.ws.WebServiceException;
 public class MethodGetter extends PropertyGetterBase {
 
     private Method method;
+    private final MethodHandle handle;
     
     public MethodGetter(Method m) {
         verifyWrapperType(m.getDeclaringClass());    
         method = m;
         type = m.getReturnType();
+        handle = MethodHandleFactory.getter(m);
     }
     
     public Method getMethod() {
@@ -69,6 +74,13 @@ public class MethodGetter extends PropertyGetterBase {
     }    
     
     public Object get(final Object instance) {
+        if (handle != null) {
+            try {
+                return handle.invokeExact(instance);
+            } catch (Throwable t) {
+                throw new WebServiceException(t);
+            }
+        }
         final Object[] args = new Object[0];
         try {
             return method.invoke(instance, args);
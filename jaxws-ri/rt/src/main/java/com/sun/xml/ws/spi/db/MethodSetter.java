@@ -41,6 +41,10 @@
 package com.sun.xml.ws.spi.db;
 
 import static com.sun.xml.ws.spi.db.PropertyGetterBase.verifyWrapperType;
+
+import com.sun.xml.ws.util.MethodHandleFactory;
+
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import javax.xml.ws.WebServiceException;
 
@@ -53,11 +57,13 @@ import javax.xml.ws.WebServiceException;
 public class MethodSetter extends PropertySetterBase {
     
     private Method method;
+    private final MethodHandle handle;
     
     public MethodSetter(Method m) {
         verifyWrapperType(m.getDeclaringClass());      
         method = m;
         type = m.getParameterTypes()[0];
+        handle = MethodHandleFactory.setter(m);
     }
     
     public Method getMethod() {
@@ -71,6 +77,14 @@ public class MethodSetter extends PropertySetterBase {
     
     public void set(final Object instance, Object val) {
         final Object resource = (type.isPrimitive() && val == null)? uninitializedValue(type): val;
+        if (handle != null) {
+            try {
+                handle.invokeExact(instance, resource);
+                return;
+            } catch (Throwable t) {
+                throw new WebServiceException(t);
+            }
+        }
         final Object[] args = {resource};
         try {
             method.invoke(instance, args);
@@ -92,6 +92,7 @@ import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.resources.WsservletMessages;
 import com.sun.xml.ws.server.UnsupportedMediaException;
 import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.ByteArrayPool;
 import com.sun.xml.ws.util.Pool;
 
 
@@ -130,6 +131,12 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      */
     private ServiceDefinition serviceDefinition = null;
 
+    /**
+     * Documents of {@link #wsdls} as published, or null if they are
+     * rendered for every request.
+     */
+    private final MetadataCache metadataCache = MetadataCache.DISABLED ? null : new MetadataCache();
+
     public final HttpAdapterList<? extends HttpAdapter> owner;
 
     /**
@@ -192,6 +199,9 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      */
     public final void initWSDLMap(final ServiceDefinition serviceDefinition) {
         this.serviceDefinition = serviceDefinition;
+        if (metadataCache != null) {
+            metadataCache.clear();
+        }
         if(serviceDefinition==null) {
             wsdls = Collections.emptyMap();
             revWsdls = Collections.emptyMap();
@@ -586,10 +596,14 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                 }
                 OutputStream os = con.getProtocol().contains("1.1") ? con.getOutput() : new Http10OutputStream(con);
                 if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    codec.encode(packet, buf);
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
-                    buf.writeTo(os);
+                    ByteArrayBuffer buf = new ByteArrayBuffer(ByteArrayPool.getDefault());
+                    try {
+                        codec.encode(packet, buf);
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                        buf.writeTo(os);
+                    } finally {
+                        buf.release();
+                    }
                 } else {
                     codec.encode(packet, os);
                 }
@@ -612,10 +626,14 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
             if (isClientErrorStatus(con.getStatus())) {
                 OutputStream os = con.getOutput();
                 if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    writeClientError(con.getStatus(), buf, packet);
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
-                    buf.writeTo(os);
+                    ByteArrayBuffer buf = new ByteArrayBuffer(ByteArrayPool.getDefault());
+                    try {
+                        writeClientError(con.getStatus(), buf, packet);
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                        buf.writeTo(os);
+                    } finally {
+                        buf.release();
+                    }
                 } else {
                     writeClientError(con.getStatus(), os, packet);
                 }
@@ -628,25 +646,33 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                 con.setContentTypeResponseHeader(contentType.getContentType());
                 OutputStream os = con.getProtocol().contains("1.1") ? con.getOutput() : new Http10OutputStream(con);
                 if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    codec.encode(packet, buf);
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
-                    buf.writeTo(os);
+                    ByteArrayBuffer buf = new ByteArrayBuffer(ByteArrayPool.getDefault());
+                    try {
+                        codec.encode(packet, buf);
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                        buf.writeTo(os);
+                    } finally {
+                        buf.release();
+                    }
                 } else {
                     codec.encode(packet, os);
                 }
                 os.close();
             } else {
 
-                ByteArrayBuffer buf = new ByteArrayBuffer();
-                contentType = codec.encode(packet, buf);
-                con.setContentTypeResponseHeader(contentType.getContentType());
-                if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                ByteArrayBuffer buf = new ByteArrayBuffer(ByteArrayPool.getDefault());
+                try {
+                    contentType = codec.encode(packet, buf);
+                    con.setContentTypeResponseHeader(contentType.getContentType());
+                    if (dump || LOGGER.isLoggable(Level.FINER)) {
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                    }
+                    OutputStream os = con.getOutput();
+                    buf.writeTo(os);
+                    os.close();
+                } finally {
+                    buf.release();
                 }
-                OutputStream os = con.getOutput();
-                buf.writeTo(os);
-                os.close();
             }
         }
     }
@@ -920,6 +946,11 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
             return;
         }
 
+        if (metadataCache != null) {
+            publishCachedWSDL(con, doc);
+            return;
+        }
+
         con.setStatus(HttpURLConnection.HTTP_OK);
         con.setContentTypeResponseHeader("text/xml;charset=utf-8");
 
@@ -932,6 +963,40 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
         os.close();
     }
 
+    private void publishCachedWSDL(@NotNull WSHTTPConnection con, @NotNull SDDocument doc) throws IOException {
+        String baseAddress = con.getBaseAddress();
+        int generation = owner.getGeneration();
+        MetadataCache.Document rendered = metadataCache.get(doc, baseAddress, generation);
+        if (rendered == null) {
+            PortAddressResolver portAddressResolver = getPortAddressResolver(baseAddress);
+            DocumentAddressResolver resolver = getDocumentAddressResolver(portAddressResolver);
+
+            ByteArrayBuffer buf = new ByteArrayBuffer(8192);
+            doc.writeTo(portAddressResolver, resolver, buf);
+            rendered = metadataCache.put(doc, baseAddress, generation, buf.toByteArray());
+        }
+
+        boolean gzip = MetadataCache.acceptsGzip(con.getRequestHeader("Accept-Encoding"));
+        con.setResponseHeader("ETag", rendered.getETag(gzip));
+        con.setResponseHeader("Vary", "Accept-Encoding");
+        if (rendered.isNotModified(con.getRequestHeader("If-None-Match"), gzip)) {
+            con.setStatus(HttpURLConnection.HTTP_NOT_MODIFIED);
+            con.getOutput().close();
+            return;
+        }
+
+        byte[] contents = gzip ? rendered.getGzipped() : rendered.getContents();
+        con.setStatus(HttpURLConnection.HTTP_OK);
+        con.setContentTypeResponseHeader("text/xml;charset=utf-8");
+        if (gzip) {
+            con.setResponseHeader("Content-Encoding", "gzip");
+        }
+        con.setContentLengthResponseHeader(contents.length);
+        OutputStream os = con.getOutput();
+        os.write(contents);
+        os.close();
+    }
+
     public PortAddressResolver getPortAddressResolver(String baseAddress) {
         return owner.createPortAddressResolver(baseAddress, endpoint.getImplementationClass());
     }
@@ -958,16 +1023,21 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
         private final WSHTTPConnection con;
 
         Http10OutputStream(WSHTTPConnection con) {
+            super(ByteArrayPool.getDefault());
             this.con = con;
         }
 
         @Override
         public void close() throws IOException {
             super.close();
-            con.setContentLengthResponseHeader(size());
-            OutputStream os = con.getOutput();
-            writeTo(os);
-            os.close();
+            try {
+                con.setContentLengthResponseHeader(size());
+                OutputStream os = con.getOutput();
+                writeTo(os);
+                os.close();
+            } finally {
+                release();
+            }
         }
     }
 
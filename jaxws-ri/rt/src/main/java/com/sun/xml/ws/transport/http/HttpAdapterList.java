@@ -48,11 +48,12 @@ import com.sun.istack.NotNull;
 
 import javax.xml.namespace.QName;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Map;
-import java.util.HashMap;
 import java.util.AbstractList;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * List of {@link HttpAdapter}s created together.
@@ -70,19 +71,23 @@ import java.util.Map.Entry;
  * @author Jitendra Kotamraju
  */
 public abstract class HttpAdapterList<T extends HttpAdapter> extends AbstractList<T> implements AdapterFactory<T> {
-    private final List<T> adapters = new ArrayList<T>();
-    private final Map<PortInfo, String> addressMap = new HashMap<PortInfo, String>();
+    private final List<T> adapters = new CopyOnWriteArrayList<T>();
+    private final Map<PortInfo, String> addressMap = new ConcurrentHashMap<PortInfo, String>();
+    private final UrlPatternRouter<T> router = new UrlPatternRouter<T>();
+    private final AtomicInteger generation = new AtomicInteger();
 
     // TODO: documented because it's used by AS
     @Override
     public T createAdapter(String name, String urlPattern, WSEndpoint<?> endpoint) {
         T t = createHttpAdapter(name, urlPattern, endpoint);
         adapters.add(t);
+        router.add(urlPattern, t);
         WSDLPort port = endpoint.getPort();
         if (port != null) {
             PortInfo portInfo = new PortInfo(port.getOwner().getName(),port.getName().getLocalPart(), endpoint.getImplementationClass());
             addressMap.put(portInfo, getValidPath(urlPattern));
         }
+        generation.incrementAndGet();
         return t;
     }
 
@@ -129,6 +134,62 @@ public abstract class HttpAdapterList<T extends HttpAdapter> extends AbstractLis
     }
 
 
+    /**
+     * Removes an adapter, so that it no longer serves requests.
+     *
+     * @return
+     *      false if the adapter was not in this list.
+     */
+    public boolean removeAdapter(T adapter) {
+        if (!adapters.remove(adapter)) {
+            return false;
+        }
+        router.remove(adapter);
+        WSDLPort port = adapter.getEndpoint().getPort();
+        if (port != null) {
+            addressMap.remove(new PortInfo(port.getOwner().getName(), port.getName().getLocalPart(),
+                    adapter.getEndpoint().getImplementationClass()));
+        }
+        generation.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gets a number that changes whenever an adapter is added or removed,
+     * and so whenever the port addresses that {@link #createPortAddressResolver}
+     * resolves may have changed.
+     */
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Finds the adapter whose url-pattern matches the given path.
+     *
+     * <p>
+     * Exact url-patterns win over path ones (<tt>/foo/*</tt>), and among the
+     * path ones, the adapter created first wins. Implicit url-patterns
+     * (<tt>*.ext</tt>) are not matched.
+     *
+     * @param path
+     *      request path relative to the context, such as <tt>/echo</tt>.
+     * @return
+     *      null if no adapter matches.
+     */
+    public T getAdapter(@NotNull String path) {
+        return router.route(path);
+    }
+
+    /**
+     * Finds the adapter whose url-pattern matches the part of <tt>uri</tt>
+     * starting at <tt>offset</tt>, typically the end of the context path.
+     *
+     * @see #getAdapter(String)
+     */
+    public T getAdapter(@NotNull String uri, int offset) {
+        return router.route(uri, offset);
+    }
+
     @Override
     public T get(int index) {
         return adapters.get(index);
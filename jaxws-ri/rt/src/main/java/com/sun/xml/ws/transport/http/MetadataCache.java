@@ -0,0 +1,296 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.server.SDDocument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * WSDL and schema documents of an {@link HttpAdapter}, as published for
+ * a given base address.
+ *
+ * <p>
+ * Publishing a document rewrites its port addresses and its imports for the
+ * address it was requested through, which is far more expensive than the
+ * copy of the result, and load balancers and clients keep requesting the
+ * same documents. The rendered documents are kept per document and base
+ * address, along with their gzipped form, and an <tt>ETag</tt> derived from
+ * their contents, so that it's the same on all the nodes of a cluster.
+ *
+ * <p>
+ * The documents also depend on the url-patterns of the other adapters of
+ * the {@link HttpAdapterList}, so each one records the
+ * {@link HttpAdapterList#getGeneration() generation} of the list it was
+ * rendered for, and is dropped when it's looked up for another one.
+ *
+ * <p>
+ * Since the base address comes from the request, at most
+ * <tt>com.sun.xml.ws.transport.http.MetadataCache.maxSize</tt> (64 by default)
+ * documents are kept, the least recently used ones making room for new ones.
+ * Each of them is held twice, plain and gzipped.
+ *
+ * <p>
+ * Nothing else is looked at, so a document whose rendering depends on more
+ * than its base address, like an {@link SDDocument} that generates its
+ * contents or an {@link HttpAdapter#getDocumentAddressResolver} override
+ * that looks at the request, would be served as first rendered. The
+ * <tt>com.sun.xml.ws.transport.http.MetadataCache.disabled</tt> system
+ * property renders the documents again for every request in that case.
+ */
+final class MetadataCache {
+
+    static final boolean DISABLED = Boolean.getBoolean(MetadataCache.class.getName() + ".disabled");
+
+    private static final int MAX_SIZE = Integer.getInteger(MetadataCache.class.getName() + ".maxSize", 64);
+
+    private final int maxSize;
+
+    /**
+     * In access order, guarded by itself.
+     */
+    private final Map<Key, Document> documents;
+
+    MetadataCache() {
+        this(MAX_SIZE);
+    }
+
+    MetadataCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.documents = new LinkedHashMap<Key, Document>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Document> eldest) {
+                return size() > MetadataCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the rendered document. A document rendered for another
+     * generation is stale, and dropped.
+     *
+     * @return
+     *      null if the document hasn't been rendered for the given
+     *      address and generation.
+     */
+    @Nullable Document get(@NotNull SDDocument doc, @Nullable String baseAddress, int generation) {
+        Key key = new Key(doc, baseAddress);
+        synchronized (documents) {
+            Document d = documents.get(key);
+            if (d != null && d.generation != generation) {
+                documents.remove(key);
+                return null;
+            }
+            return d;
+        }
+    }
+
+    /**
+     * Keeps the rendered document, dropping the least recently
+     * used one if the cache is full.
+     *
+     * @return
+     *      the document to publish.
+     */
+    @NotNull Document put(@NotNull SDDocument doc, @Nullable String baseAddress, int generation, @NotNull byte[] contents) {
+        Document d = new Document(contents, generation);
+        Key key = new Key(doc, baseAddress);
+        synchronized (documents) {
+            documents.put(key, d);
+        }
+        return d;
+    }
+
+    void clear() {
+        synchronized (documents) {
+            documents.clear();
+        }
+    }
+
+    int size() {
+        synchronized (documents) {
+            return documents.size();
+        }
+    }
+
+    private static final class Key {
+        private final SDDocument doc;
+        /**
+         * Null for connections that don't know their address,
+         * such as the local transport's.
+         */
+        private final String baseAddress;
+
+        Key(SDDocument doc, String baseAddress) {
+            this.doc = doc;
+            this.baseAddress = baseAddress;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return doc == that.doc
+                    && (baseAddress == null ? that.baseAddress == null : baseAddress.equals(that.baseAddress));
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(doc) * 31 + (baseAddress == null ? 0 : baseAddress.hashCode());
+        }
+    }
+
+    /**
+     * Rendered document.
+     */
+    static final class Document {
+        private final byte[] contents;
+        private final int generation;
+        private final String etag;
+        private final String gzipETag;
+        private volatile byte[] gzipped;
+
+        Document(byte[] contents, int generation) {
+            this.contents = contents;
+            this.generation = generation;
+            CRC32 crc = new CRC32();
+            crc.update(contents, 0, contents.length);
+            String tag = Long.toHexString(crc.getValue()) + '-' + Integer.toHexString(contents.length);
+            this.etag = '"' + tag + '"';
+            this.gzipETag = "\"" + tag + "-gzip\"";
+        }
+
+        @NotNull byte[] getContents() {
+            return contents;
+        }
+
+        /**
+         * Gets the gzipped contents, compressing them the first time.
+         */
+        @NotNull byte[] getGzipped() throws IOException {
+            byte[] gz = gzipped;
+            if (gz == null) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream(contents.length / 4 + 64);
+                GZIPOutputStream out = new GZIPOutputStream(baos);
+                out.write(contents);
+                out.close();
+                gzipped = gz = baos.toByteArray();
+            }
+            return gz;
+        }
+
+        /**
+         * Gets the <tt>ETag</tt> of the plain or gzipped contents.
+         */
+        @NotNull String getETag(boolean gzip) {
+            return gzip ? gzipETag : etag;
+        }
+
+        /**
+         * Tells if the client already has the variant of this document
+         * that would be served. The tag of the other encoding doesn't
+         * match, as its bytes differ.
+         *
+         * @param ifNoneMatch
+         *      value of the <tt>If-None-Match</tt> request header.
+         * @param gzip
+         *      true if the gzipped contents would be served.
+         */
+        boolean isNotModified(@Nullable String ifNoneMatch, boolean gzip) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            String served = getETag(gzip);
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(served)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Tells if the client accepts gzipped contents.
+     *
+     * @param acceptEncoding
+     *      value of the <tt>Accept-Encoding</tt> request header.
+     */
+    static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            int semi = coding.indexOf(';');
+            String name = (semi < 0 ? coding : coding.substring(0, semi)).trim().toLowerCase(Locale.ENGLISH);
+            if (!name.equals("gzip") && !name.equals("x-gzip")) {
+                continue;
+            }
+            if (semi < 0) {
+                return true;
+            }
+            String param = coding.substring(semi + 1).trim();
+            if (!param.startsWith("q=")) {
+                return true;
+            }
+            try {
+                return Float.parseFloat(param.substring(2).trim()) > 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps request paths to the targets deployed at servlet-style url-patterns.
+ *
+ * <p>
+ * Two kinds of url-patterns are supported: exact ones, such as
+ * <tt>/echo</tt>, and path ones, such as <tt>/echo/*</tt>, which match
+ * <tt>/echo</tt> itself and anything under it. Implicit (<tt>*.ext</tt>)
+ * patterns are not. An exact match wins over a path match, and among
+ * the path patterns matching a request, the one added first wins.
+ *
+ * <p>
+ * The patterns are compiled into a radix tree, so that routing a request
+ * only walks the characters of its path once, without allocating anything.
+ * Targets can be added and removed at any time: each change builds a new
+ * tree that is then published to the routing threads, which never lock.
+ *
+ * @param <T> type of the targets, typically {@link HttpAdapter}s.
+ */
+public final class UrlPatternRouter<T> {
+
+    private final List<Route<T>> routes = new ArrayList<Route<T>>();
+    private volatile Node<T> root = new Node<T>("");
+
+    /**
+     * Tells whether the given url-pattern can be routed by this class.
+     *
+     * @return
+     *      false for implicit mappings, such as <tt>*.ws</tt>.
+     */
+    public static boolean isSupported(@NotNull String urlPattern) {
+        return urlPattern.indexOf("*.") == -1;
+    }
+
+    /**
+     * Starts routing the requests matching the url-pattern to the given target.
+     *
+     * @return
+     *      false, and nothing is added, if the url-pattern is not supported,
+     *      or if it is an exact pattern that is already mapped.
+     */
+    public synchronized boolean add(@NotNull String urlPattern, @NotNull T target) {
+        if (!isSupported(urlPattern)) {
+            return false;
+        }
+        Route<T> r = new Route<T>(urlPattern, target);
+        if (!r.wildcard) {
+            for (Route<T> existing : routes) {
+                if (!existing.wildcard && existing.path.equals(r.path)) {
+                    return false;
+                }
+            }
+        }
+        routes.add(r);
+        root = compile(routes);
+        return true;
+    }
+
+    /**
+     * Stops routing requests to the given target.
+     *
+     * @return
+     *      false if the target was not mapped.
+     */
+    public synchronized boolean remove(@NotNull T target) {
+        boolean removed = false;
+        for (int i = routes.size() - 1; i >= 0; i--) {
+            if (routes.get(i).target == target) {
+                routes.remove(i);
+                removed = true;
+            }
+        }
+        if (removed) {
+            root = compile(routes);
+        }
+        return removed;
+    }
+
+    /**
+     * Finds the target for the given path.
+     *
+     * @param path
+     *      request path relative to the context, such as <tt>/echo</tt>.
+     * @return
+     *      null if no url-pattern matches.
+     */
+    public @Nullable T route(@NotNull String path) {
+        return route(path, 0);
+    }
+
+    /**
+     * Finds the target for the part of <tt>uri</tt> starting at <tt>offset</tt>.
+     *
+     * <p>
+     * This saves creating a substring when the request URI still starts
+     * with the context path.
+     */
+    public @Nullable T route(@NotNull String uri, int offset) {
+        final int length = uri.length();
+        Node<T> node = root;
+        int pos = offset;
+        T best = null;
+        int bestOrder = Integer.MAX_VALUE;
+        while (true) {
+            if (node.wildcard != null && node.wildcardOrder < bestOrder) {
+                if (pos == length || uri.charAt(pos) == '/' || uri.charAt(pos) == '?') {
+                    best = node.wildcard;
+                    bestOrder = node.wildcardOrder;
+                }
+            }
+            if (pos == length) {
+                return (node.exact != null) ? node.exact : best;
+            }
+            Node<T> child = node.child(uri.charAt(pos));
+            if (child == null || !uri.regionMatches(pos, child.label, 0, child.label.length())) {
+                return best;
+            }
+            pos += child.label.length();
+            node = child;
+        }
+    }
+
+    /**
+     * Tells whether requests are routed to the given target.
+     */
+    public synchronized boolean contains(@NotNull T target) {
+        for (Route<T> r : routes) {
+            if (r.target == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Url-patterns currently mapped, in the order they were added.
+     */
+    public synchronized List<String> getUrlPatterns() {
+        List<String> patterns = new ArrayList<String>(routes.size());
+        for (Route<T> r : routes) {
+            patterns.add(r.urlPattern);
+        }
+        return patterns;
+    }
+
+    @Override
+    public String toString() {
+        return getUrlPatterns().toString();
+    }
+
+    private static <T> Node<T> compile(List<Route<T>> routes) {
+        Node<T> root = new Node<T>("");
+        for (int i = 0; i < routes.size(); i++) {
+            Route<T> r = routes.get(i);
+            Node<T> n = root.insert(r.path, 0);
+            if (r.wildcard) {
+                if (n.wildcard == null) {
+                    n.wildcard = r.target;
+                    n.wildcardOrder = i;
+                }
+            } else {
+                n.exact = r.target;
+            }
+        }
+        return root;
+    }
+
+    private static final class Route<T> {
+        final String urlPattern;
+        final T target;
+        final boolean wildcard;
+        /**
+         * url-pattern without the trailing <tt>/*</tt>.
+         */
+        final String path;
+
+        Route(String urlPattern, T target) {
+            this.urlPattern = urlPattern;
+            this.target = target;
+            this.wildcard = urlPattern.endsWith("/*");
+            this.path = wildcard ? urlPattern.substring(0, urlPattern.length() - 2) : urlPattern;
+        }
+    }
+
+    /**
+     * Node of the radix tree, for the path spelled by the labels from the root.
+     * Nodes are only modified while a new tree is compiled.
+     */
+    private static final class Node<T> {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final char[] NO_CHARS = new char[0];
+
+        String label;
+        /**
+         * Children, sorted on the first character of their label,
+         * which is unique among the children of a node.
+         */
+        @SuppressWarnings("unchecked")
+        Node<T>[] children = NO_CHILDREN;
+        char[] firstChars = NO_CHARS;
+        T exact;
+        T wildcard;
+        int wildcardOrder = Integer.MAX_VALUE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node<T> child(char c) {
+            int i = Arrays.binarySearch(firstChars, c);
+            return (i >= 0) ? children[i] : null;
+        }
+
+        /**
+         * Gets the node for <tt>path</tt>, starting from <tt>pos</tt>
+         * under this node, creating it if needed.
+         */
+        Node<T> insert(String path, int pos) {
+            if (pos == path.length()) {
+                return this;
+            }
+            char c = path.charAt(pos);
+            int i = Arrays.binarySearch(firstChars, c);
+            if (i < 0) {
+                Node<T> n = new Node<T>(path.substring(pos));
+                addChild(-i - 1, n);
+                return n;
+            }
+            Node<T> child = children[i];
+            int common = 0;
+            int max = Math.min(child.label.length(), path.length() - pos);
+            while (common < max && child.label.charAt(common) == path.charAt(pos + common)) {
+                common++;
+            }
+            if (common < child.label.length()) {
+                // split the edge at the end of the common prefix
+                Node<T> split = new Node<T>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.addChild(0, child);
+                children[i] = split;
+                child = split;
+            }
+            return child.insert(path, pos + common);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addChild(int index, Node<T> n) {
+            Node<T>[] c = new Node[children.length + 1];
+            char[] f = new char[firstChars.length + 1];
+            System.arraycopy(children, 0, c, 0, index);
+            System.arraycopy(firstChars, 0, f, 0, index);
+            c[index] = n;
+            f[index] = n.label.charAt(0);
+            System.arraycopy(children, index, c, index + 1, children.length - index);
+            System.arraycopy(firstChars, index, f, index + 1, firstChars.length - index);
+            children = c;
+            firstChars = f;
+        }
+    }
+}
@@ -99,6 +99,7 @@ public class HttpClientTransport {
     private final EndpointAddress endpoint;
     private final Packet context;
     private final Integer chunkSize;
+    private long fixedLength = -1;
 
 
     public HttpClientTransport(@NotNull Packet packet, @NotNull Map<String,List<String>> reqHeaders) {
@@ -135,6 +136,14 @@ public class HttpClientTransport {
         return outputStream;
     }
 
+    /*
+     * Streams the request body of the given length without buffering it in
+     * HttpURLConnection. Has no effect when chunking is enabled.
+     */
+    void setFixedLength(long length) {
+        fixedLength = length;
+    }
+
     void closeOutput() throws IOException {
         if (outputStream != null) {
             outputStream.close();
@@ -297,6 +306,8 @@ public class HttpClientTransport {
         Integer chunkSize = (Integer)context.invocationProperties.get(JAXWSProperties.HTTP_CLIENT_STREAMING_CHUNK_SIZE);
         if (chunkSize != null) {
             httpConnection.setChunkedStreamingMode(chunkSize);
+        } else if (fixedLength >= 0 && requiresOutputStream()) {
+            httpConnection.setFixedLengthStreamingMode(fixedLength);
         }
 
         // set the properties on HttpURLConnection
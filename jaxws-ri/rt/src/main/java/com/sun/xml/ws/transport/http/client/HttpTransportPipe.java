@@ -49,11 +49,14 @@ import com.sun.xml.ws.api.pipe.*;
 import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
 import com.sun.xml.ws.client.ClientTransportException;
 import com.sun.xml.ws.developer.HttpConfigFeature;
+import com.sun.xml.ws.developer.JAXWSProperties;
+import com.sun.xml.ws.encoding.DirectSegmentedBuffer;
 import com.sun.xml.ws.resources.ClientMessages;
 import com.sun.xml.ws.resources.WsservletMessages;
 import com.sun.xml.ws.transport.Headers;
 import com.sun.xml.ws.transport.http.HttpAdapter;
 import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.ByteArrayPool;
 import com.sun.xml.ws.util.RuntimeVersion;
 import com.sun.xml.ws.util.StreamUtils;
 
@@ -89,6 +92,24 @@ public class HttpTransportPipe extends AbstractTubeImpl {
      */
     public static boolean dump;
 
+    /**
+     * Streams request bodies without a heap copy of the encoded message.
+     *
+     * <p>
+     * When the Content-Length has to be known up front (the content type
+     * depends on the encoding, or chunking is off), the message is encoded
+     * into pooled off-heap segments and then sent in fixed-length streaming
+     * mode, instead of being buffered on the heap by both this pipe and
+     * {@link HttpURLConnection}. Dumping copies only what it prints while the
+     * body is written.
+     *
+     * <p>
+     * Fixed-length streaming disables the transparent retries of
+     * {@link HttpURLConnection} on authentication challenges and redirects,
+     * hence this is off by default.
+     */
+    public static boolean streamRequests = Boolean.getBoolean(HttpTransportPipe.class.getName()+".streamRequests");
+
     private final Codec codec;
     private final WSBinding binding;
     private final CookieHandler cookieJar;      // shared object among the tubes
@@ -182,25 +203,31 @@ public class HttpTransportPipe extends AbstractTubeImpl {
             request.addSatellite(new HttpResponseProperties(con));
 
             ContentType ct = codec.getStaticContentType(request);
-            if (ct == null) {
-                ByteArrayBuffer buf = new ByteArrayBuffer();
+            boolean chunked = request.invocationProperties.get(JAXWSProperties.HTTP_CLIENT_STREAMING_CHUNK_SIZE) != null;
+            if (streamRequests && (ct == null || !chunked)) {
+                writeStreaming(request, con, reqHeaders);
+            } else if (ct == null) {
+                ByteArrayBuffer buf = new ByteArrayBuffer(ByteArrayPool.getDefault());
+                try {
+                    ct = codec.encode(request, buf);
+                    // data size is available, set it as Content-Length
+                    reqHeaders.put("Content-Length", Collections.singletonList(Integer.toString(buf.size())));
+                    reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
+                    if (ct.getAcceptHeader() != null) {
+                        reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
+                    }
+                    if (binding instanceof SOAPBinding) {
+                        writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
+                    }
 
-                ct = codec.encode(request, buf);
-                // data size is available, set it as Content-Length
-                reqHeaders.put("Content-Length", Collections.singletonList(Integer.toString(buf.size())));
-                reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
-                if (ct.getAcceptHeader() != null) {
-                    reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
-                }
-                if (binding instanceof SOAPBinding) {
-                    writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
-                }
+                    if (dump || LOGGER.isLoggable(Level.FINER)) {
+                        dump(buf, "HTTP request", reqHeaders);
+                    }
 
-                if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    dump(buf, "HTTP request", reqHeaders);
+                    buf.writeTo(con.getOutput());
+                } finally {
+                    buf.release();
                 }
-
-                buf.writeTo(con.getOutput());
             } else {
                 // Set static Content-Type
                 reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
@@ -211,13 +238,24 @@ public class HttpTransportPipe extends AbstractTubeImpl {
                     writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
                 }
 
-                if(dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    codec.encode(request, buf);
-                    dump(buf, "HTTP request - "+request.endpointAddress, reqHeaders);
-                    OutputStream out = con.getOutput();
-                    if (out != null) {
-                        buf.writeTo(out);
+                if (streamRequests && (dump || LOGGER.isLoggable(Level.FINER))) {
+                    OutputStream os = con.getOutput();
+                    if (os != null) {
+                        DumpOutputStream tee = new DumpOutputStream(os);
+                        codec.encode(request, tee);
+                        dump(tee, "HTTP request - "+request.endpointAddress, reqHeaders);
+                    }
+                } else if(dump || LOGGER.isLoggable(Level.FINER)) {
+                    ByteArrayBuffer buf = new ByteArrayBuffer(ByteArrayPool.getDefault());
+                    try {
+                        codec.encode(request, buf);
+                        dump(buf, "HTTP request - "+request.endpointAddress, reqHeaders);
+                        OutputStream out = con.getOutput();
+                        if (out != null) {
+                            buf.writeTo(out);
+                        }
+                    } finally {
+                        buf.release();
                     }
                 } else {
                     OutputStream os = con.getOutput();
@@ -237,6 +275,42 @@ public class HttpTransportPipe extends AbstractTubeImpl {
         }
     }
 
+    /*
+     * Encodes the message into pooled off-heap segments to learn its length,
+     * then streams it to the connection in fixed-length mode.
+     */
+    private void writeStreaming(Packet request, HttpClientTransport con, Map<String, List<String>> reqHeaders) throws IOException {
+        DirectSegmentedBuffer buf = new DirectSegmentedBuffer();
+        try {
+            ContentType ct = codec.encode(request, buf);
+            reqHeaders.put("Content-Length", Collections.singletonList(Long.toString(buf.size())));
+            reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
+            if (ct.getAcceptHeader() != null) {
+                reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
+            }
+            if (binding instanceof SOAPBinding) {
+                writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
+            }
+            // a compressed body no longer has the computed length
+            if (reqHeaders.get("Content-Encoding") == null) {
+                con.setFixedLength(buf.size());
+            }
+
+            OutputStream os = con.getOutput();
+            if (os != null) {
+                if (dump || LOGGER.isLoggable(Level.FINER)) {
+                    DumpOutputStream tee = new DumpOutputStream(os);
+                    buf.writeTo(tee);
+                    dump(tee, "HTTP request - "+request.endpointAddress, reqHeaders);
+                } else {
+                    buf.writeTo(os);
+                }
+            }
+        } finally {
+            buf.release();
+        }
+    }
+
     private Packet createResponsePacket(Packet request, HttpClientTransport con) throws IOException {
         con.readResponseCodeAndMessage();   // throws IOE
         recordCookies(request, con);
@@ -434,7 +508,23 @@ public class HttpTransportPipe extends AbstractTubeImpl {
     }
 
 
+    private void dump(DumpOutputStream tee, String caption, Map<String, List<String>> headers) throws IOException {
+        try {
+            dump(tee.head, tee.size, caption, headers);
+        } finally {
+            tee.head.release();
+        }
+    }
+
     private void dump(ByteArrayBuffer buf, String caption, Map<String, List<String>> headers) throws IOException {
+        dump(buf, buf.size(), caption, headers);
+    }
+
+    /*
+     * @param size
+     *      size of the whole message, buf may only hold its first bytes.
+     */
+    private void dump(ByteArrayBuffer buf, long size, String caption, Map<String, List<String>> headers) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintWriter pw = new PrintWriter(baos, true);
         pw.println("---["+caption +"]---");
@@ -450,9 +540,9 @@ public class HttpTransportPipe extends AbstractTubeImpl {
             }
         }
 
-        if (buf.size() > HttpAdapter.dump_threshold) {
+        if (size > HttpAdapter.dump_threshold) {
             byte[] b = buf.getRawData();
-            baos.write(b, 0, HttpAdapter.dump_threshold);
+            baos.write(b, 0, Math.min(buf.size(), HttpAdapter.dump_threshold));
             pw.println();
             pw.println(WsservletMessages.MESSAGE_TOO_LONG(HttpAdapter.class.getName() + ".dumpTreshold"));
         } else {
@@ -469,4 +559,36 @@ public class HttpTransportPipe extends AbstractTubeImpl {
         }
     }
 
+    /*
+     * Writes through to the connection, keeping only the bytes a dump would
+     * print and counting the rest.
+     */
+    private static final class DumpOutputStream extends FilterOutputStream {
+        final ByteArrayBuffer head = new ByteArrayBuffer(ByteArrayPool.getDefault());
+        long size;
+
+        DumpOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (head.size() < HttpAdapter.dump_threshold) {
+                head.write(b);
+            }
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            int keep = Math.min(len, HttpAdapter.dump_threshold - head.size());
+            if (keep > 0) {
+                head.write(b, off, keep);
+            }
+            size += len;
+        }
+    }
+
 }
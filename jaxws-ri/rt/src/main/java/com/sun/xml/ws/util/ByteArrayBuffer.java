@@ -62,6 +62,15 @@ import java.io.OutputStream;
  *      given {@link InputStream} without using a temporary buffer.
  * </ol>
  *
+ * <p>
+ * A buffer created with a {@link ByteArrayPool} takes its storage from the
+ * pool and must be {@link #release() released} once its contents are no
+ * longer needed, including through {@link #getRawData()} or
+ * {@link #newInputStream()}. Streams opened on a pooled buffer fail
+ * once it is released, but nothing guards the array returned by
+ * {@link #getRawData()}, so never release a buffer whose contents
+ * anything may still read lazily.
+ *
  * @author Kohsuke Kawaguchi
  */
 public class ByteArrayBuffer extends OutputStream {
@@ -75,8 +84,21 @@ public class ByteArrayBuffer extends OutputStream {
      */
     private int count;
 
+    /**
+     * Where {@link #buf} comes from, or null if it's allocated.
+     */
+    private final ByteArrayPool pool;
+
+    /**
+     * Number of times storage went back to {@link #pool}, so that streams
+     * over an array that was handed back can tell.
+     */
+    private int releases;
+
     private static final int CHUNK_SIZE = 4096;
 
+    private static final byte[] EMPTY = new byte[0];
+
     /**
      * Creates a new byte array output stream. The buffer capacity is
      * initially 32 bytes, though its size increases if necessary.
@@ -96,6 +118,20 @@ public class ByteArrayBuffer extends OutputStream {
         if (size <= 0)
             throw new IllegalArgumentException();
         buf = new byte[size];
+        pool = null;
+    }
+
+    /**
+     * Creates a new byte array output stream whose storage comes
+     * from the given pool.
+     *
+     * @param pool
+     *      if null, this is the same as {@link #ByteArrayBuffer()}.
+     * @see ByteArrayPool#getDefault()
+     */
+    public ByteArrayBuffer(ByteArrayPool pool) {
+        this.pool = pool;
+        this.buf = (pool != null) ? pool.take(ByteArrayPool.MIN_LENGTH) : new byte[32];
     }
 
     public ByteArrayBuffer(byte[] data) {
@@ -105,6 +141,7 @@ public class ByteArrayBuffer extends OutputStream {
     public ByteArrayBuffer(byte[] data, int length) {
         this.buf = data;
         this.count = length;
+        this.pool = null;
     }
 
     /**
@@ -115,6 +152,8 @@ public class ByteArrayBuffer extends OutputStream {
      *      if the read operation fails with an {@link IOException}.
      */
     public final void write(InputStream in) throws IOException {
+        if(count==buf.length)
+            ensureCapacity(count+1);        // released, or created full
         while(true) {
             int cap = buf.length-count;     // the remaining buffer space
             int sz = in.read(buf,count,cap);
@@ -143,8 +182,13 @@ public class ByteArrayBuffer extends OutputStream {
 
     private void ensureCapacity(int newcount) {
         if (newcount > buf.length) {
-            byte newbuf[] = new byte[Math.max(buf.length << 1, newcount)];
+            int size = Math.max(buf.length << 1, newcount);
+            byte newbuf[] = (pool != null) ? pool.take(size) : new byte[size];
             System.arraycopy(buf, 0, newbuf, 0, count);
+            if (pool != null && buf != EMPTY) {
+                pool.release(buf);
+                releases++;
+            }
             buf = newbuf;
         }
     }
@@ -168,6 +212,22 @@ public class ByteArrayBuffer extends OutputStream {
         count = 0;
     }
 
+    /**
+     * Empties this buffer and returns its storage to the {@link ByteArrayPool}
+     * it came from. The buffer can still be written to afterwards.
+     *
+     * <p>
+     * Does nothing but {@link #reset()} if the buffer isn't pooled.
+     */
+    public final void release() {
+        count = 0;
+        if (pool != null && buf != EMPTY) {
+            pool.release(buf);
+            buf = EMPTY;
+            releases++;
+        }
+    }
+
     /**
      * Gets the <b>copy</b> of exact-size byte[] that represents the written data.
      *
@@ -203,16 +263,93 @@ public class ByteArrayBuffer extends OutputStream {
 
     /**
      * Creates a new {@link InputStream} that reads from this buffer.
+     *
+     * <p>
+     * If the buffer is pooled, the stream fails with an {@link IOException}
+     * once the storage it reads from goes back to the pool, instead of
+     * reading whatever the next user of the array wrote into it.
      */
     public final InputStream newInputStream() {
-        return new ByteArrayInputStream(buf,0,count);
+        return newInputStream(0,count);
     }
 
     /**
      * Creates a new {@link InputStream} that reads a part of this bfufer.
+     *
+     * @see #newInputStream()
      */
     public final InputStream newInputStream(int start, int length) {
-        return new ByteArrayInputStream(buf,start,length);
+        if (pool == null)
+            return new ByteArrayInputStream(buf,start,length);
+        return new PooledInputStream(start,length);
+    }
+
+    /**
+     * {@link ByteArrayInputStream} over pooled storage, checking
+     * that the storage is still ours on every access.
+     */
+    private final class PooledInputStream extends InputStream {
+        private final byte[] data = buf;
+        private final int generation = releases;
+        private int pos;
+        private int mark;
+        private final int end;
+
+        PooledInputStream(int start, int length) {
+            this.pos = this.mark = start;
+            this.end = Math.min(start + length, data.length);
+        }
+
+        private void check() throws IOException {
+            if (generation != releases)
+                throw new IOException("The buffer was released to its pool and may hold other data by now");
+        }
+
+        @Override
+        public int read() throws IOException {
+            check();
+            return (pos < end) ? (data[pos++] & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            check();
+            if (pos >= end)
+                return -1;
+            int n = Math.min(len, end - pos);
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            check();
+            long k = Math.max(0, Math.min(n, end - pos));
+            pos += k;
+            return k;
+        }
+
+        @Override
+        public int available() throws IOException {
+            check();
+            return end - pos;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+            mark = pos;
+        }
+
+        @Override
+        public void reset() {
+            pos = mark;
+        }
     }
 
     /**
@@ -0,0 +1,196 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-classed pool of the byte arrays backing the {@link ByteArrayBuffer}s
+ * used by the transports to buffer whole messages.
+ *
+ * <p>
+ * The arrays come in powers of two, from {@value #MIN_LENGTH} bytes up to
+ * {@value #MAX_LENGTH} bytes, each class being a {@link Pool.ByteArray}.
+ * A pooled buffer that needs to grow takes an array from the next class
+ * and returns the one it outgrew, so a buffer that reached its size once
+ * costs no allocation the next time. Larger arrays are allocated and
+ * dropped as usual.
+ *
+ * <p>
+ * Each class retains at most
+ * <tt>com.sun.xml.ws.util.ByteArrayPool.maxRetainedBytes</tt> bytes
+ * (4MB by default) worth of idle arrays, and at least two arrays, so a busy
+ * server can keep several times that amount of heap that the collector
+ * will never get back. That's what it pays for not allocating and zeroing
+ * a large array per message. With a small heap, or a collector that deals
+ * well with short-lived large arrays, the
+ * <tt>com.sun.xml.ws.util.ByteArrayPool.disabled</tt> system property turns
+ * the pool off, and the buffers allocate their arrays on their own.
+ *
+ * @see ByteArrayBuffer#ByteArrayBuffer(ByteArrayPool)
+ */
+@ManagedData
+@Description("Pool of the byte arrays buffering transport messages")
+public final class ByteArrayPool {
+
+    public static final int MIN_LENGTH = 4096;
+    public static final int MAX_LENGTH = 1024 * 1024;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_LENGTH);
+
+    private static final ByteArrayPool DEFAULT =
+            Boolean.getBoolean(ByteArrayPool.class.getName() + ".disabled") ? null :
+                    new ByteArrayPool(Integer.getInteger(ByteArrayPool.class.getName() + ".maxRetainedBytes", 4 * 1024 * 1024));
+
+    private final Pool.ByteArray[] classes;
+
+    /**
+     * Number of arrays too large to be pooled.
+     */
+    private final LongAdder oversized = new LongAdder();
+
+    /**
+     * @param maxRetainedBytes
+     *      maximum number of bytes retained by each size class.
+     */
+    public ByteArrayPool(int maxRetainedBytes) {
+        classes = new Pool.ByteArray[Integer.numberOfTrailingZeros(MAX_LENGTH) - MIN_SHIFT + 1];
+        for (int i = 0; i < classes.length; i++) {
+            int length = MIN_LENGTH << i;
+            classes[i] = new Pool.ByteArray(length, Math.max(2, maxRetainedBytes / length));
+        }
+    }
+
+    /**
+     * Gets the process-wide pool.
+     *
+     * @return
+     *      null if pooling is disabled.
+     */
+    public static @Nullable ByteArrayPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Takes an array of at least the given length.
+     */
+    public @NotNull byte[] take(int minLength) {
+        if (minLength > MAX_LENGTH) {
+            oversized.increment();
+            return new byte[minLength];
+        }
+        return classes[classOf(minLength)].take();
+    }
+
+    /**
+     * Returns an array obtained from {@link #take(int)}.
+     * Arrays of any other length are ignored.
+     *
+     * <p>
+     * The caller must not touch the array afterwards.
+     */
+    public void release(@NotNull byte[] array) {
+        int length = array.length;
+        if (length < MIN_LENGTH || length > MAX_LENGTH || (length & (length - 1)) != 0) {
+            return;
+        }
+        classes[classOf(length)].recycle(array);
+    }
+
+    private static int classOf(int length) {
+        if (length <= MIN_LENGTH) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_SHIFT;
+    }
+
+    /**
+     * Gets the pools of each size class, smallest first,
+     * whose counters tell how well the arrays are reused.
+     */
+    @ManagedAttribute
+    @Description("Pools of each size class, smallest first")
+    public Pool.ByteArray[] getSizeClasses() {
+        return classes.clone();
+    }
+
+    /**
+     * Number of arrays taken from this pool that had to be allocated,
+     * including the ones too large to be pooled.
+     */
+    @ManagedAttribute
+    @Description("Number of arrays that had to be allocated")
+    public long getAllocations() {
+        long n = oversized.sum();
+        for (Pool.ByteArray c : classes) {
+            n += c.getCreates();
+        }
+        return n;
+    }
+
+    /**
+     * Number of arrays taken from this pool that were reused.
+     */
+    @ManagedAttribute
+    @Description("Number of arrays reused from the pool")
+    public long getReuses() {
+        long n = 0;
+        for (Pool.ByteArray c : classes) {
+            n += c.getHits();
+        }
+        return n;
+    }
+
+    /**
+     * Number of arrays too large to be pooled.
+     */
+    @ManagedAttribute
+    @Description("Number of arrays too large to be pooled")
+    public long getOversized() {
+        return oversized.sum();
+    }
+}
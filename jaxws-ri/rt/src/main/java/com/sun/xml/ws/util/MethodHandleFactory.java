@@ -0,0 +1,299 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates {@link MethodHandle}s that replace core reflection on the hot paths
+ * (endpoint invocation, wrapper bean property access, proxy dispatch).
+ *
+ * <p>
+ * All handles are adapted to a generic, {@link Object}-only type so that
+ * callers can use {@link MethodHandle#invokeExact} without knowing the
+ * actual signature, and they are meant to be created once, when the model is
+ * built. Each factory method returns {@code null} when no handle can be
+ * created, in which case the caller keeps using reflection:
+ * <ul>
+ * <li>when a {@link SecurityManager} is installed, as the reflective paths
+ *     carry the privileged blocks and the {@code sun.reflect.misc} trampoline
+ *     that such environments rely on,
+ * <li>when the member isn't accessible,
+ * <li>when disabled with
+ *     {@code -Dcom.sun.xml.ws.util.MethodHandleFactory.disabled=true}.
+ * </ul>
+ *
+ * <p>
+ * {@code LambdaMetafactory} isn't used: the classes it spins are defined in
+ * the class loader of the JAX-WS runtime, which usually can't see the
+ * application classes the handles point to.
+ */
+public final class MethodHandleFactory {
+
+    private static final Logger LOGGER = Logger.getLogger(MethodHandleFactory.class.getName());
+
+    private static final boolean DISABLED = Boolean.getBoolean(MethodHandleFactory.class.getName() + ".disabled");
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType INVOKER = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private MethodHandleFactory() {
+    }
+
+    /**
+     * Handle of type {@code (Object)Object} for a getter method.
+     */
+    public static MethodHandle getter(Method m) {
+        if (!enabled() || Modifier.isStatic(m.getModifiers())) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(m).asType(GETTER);
+        } catch (IllegalAccessException e) {
+            return unavailable(m, e);
+        } catch (RuntimeException e) {
+            return unavailable(m, e);
+        }
+    }
+
+    /**
+     * Handle of type {@code (Object,Object)void} for a setter method.
+     * The return value of the method, if any, is dropped.
+     */
+    public static MethodHandle setter(Method m) {
+        if (!enabled() || Modifier.isStatic(m.getModifiers())) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(m).asFixedArity().asType(SETTER);
+        } catch (IllegalAccessException e) {
+            return unavailable(m, e);
+        } catch (RuntimeException e) {
+            return unavailable(m, e);
+        }
+    }
+
+    /**
+     * Handle of type {@code (Object)Object} that reads the given field.
+     *
+     * @param suppressAccessChecks
+     *      if true, the field is made accessible first, as
+     *      {@link Field#setAccessible(boolean)} would.
+     */
+    public static MethodHandle getter(Field f, boolean suppressAccessChecks) {
+        if (!enabled() || Modifier.isStatic(f.getModifiers())) {
+            return null;
+        }
+        try {
+            return lookup(f, suppressAccessChecks).unreflectGetter(f).asType(GETTER);
+        } catch (IllegalAccessException e) {
+            return unavailable(f, e);
+        } catch (RuntimeException e) {
+            return unavailable(f, e);
+        }
+    }
+
+    /**
+     * Handle of type {@code (Object,Object)void} that writes the given field.
+     *
+     * @param suppressAccessChecks
+     *      if true, the field is made accessible first, as
+     *      {@link Field#setAccessible(boolean)} would.
+     */
+    public static MethodHandle setter(Field f, boolean suppressAccessChecks) {
+        if (!enabled() || Modifier.isStatic(f.getModifiers())) {
+            return null;
+        }
+        try {
+            return lookup(f, suppressAccessChecks).unreflectSetter(f).asType(SETTER);
+        } catch (IllegalAccessException e) {
+            return unavailable(f, e);
+        } catch (RuntimeException e) {
+            return unavailable(f, e);
+        }
+    }
+
+    /**
+     * {@link MethodInvoker} that calls the given instance method through
+     * a handle, the equivalent of {@link Method#invoke(Object, Object...)}.
+     */
+    public static MethodInvoker invoker(Method m) {
+        if (!enabled() || Modifier.isStatic(m.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle mh = MethodHandles.publicLookup().unreflect(m).asFixedArity();
+            return new MethodInvoker(m, mh.asType(mh.type().generic())
+                    .asSpreader(Object[].class, m.getParameterTypes().length)
+                    .asType(INVOKER));
+        } catch (IllegalAccessException e) {
+            return unavailable(m, e);
+        } catch (RuntimeException e) {
+            return unavailable(m, e);
+        }
+    }
+
+    /**
+     * Calls an instance method through a {@link MethodHandle} of type
+     * {@code (Object,Object[])Object}, with the arguments spread from the array.
+     *
+     * <p>
+     * As with {@link Method#invoke(Object, Object...)}, the receiver and the
+     * arguments are checked first, so that a value the handle can't convert
+     * to the parameter type, like {@code null} for a primitive, fails with an
+     * {@link IllegalArgumentException}, and only what the method itself throws
+     * is wrapped into an {@link InvocationTargetException}.
+     */
+    public static final class MethodInvoker {
+        private final Class<?> declaringClass;
+        private final Class<?>[] parameterTypes;
+        private final MethodHandle handle;
+
+        MethodInvoker(Method m, MethodHandle handle) {
+            this.declaringClass = m.getDeclaringClass();
+            this.parameterTypes = m.getParameterTypes();
+            this.handle = handle;
+        }
+
+        /**
+         * @return
+         *      the value returned by the method, {@code null} for a {@code void} method.
+         * @throws NullPointerException
+         *      if the receiver is null.
+         * @throws IllegalArgumentException
+         *      if the receiver or the arguments don't fit the method.
+         * @throws InvocationTargetException
+         *      if the method throws an exception.
+         */
+        public Object invoke(Object target, Object... args) throws InvocationTargetException {
+            if (args == null) {
+                args = NO_ARGS;
+            }
+            checkArguments(target, args);
+            try {
+                return handle.invokeExact(target, args);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private void checkArguments(Object target, Object[] args) {
+            if (target == null) {
+                throw new NullPointerException();
+            }
+            if (!declaringClass.isInstance(target)) {
+                throw new IllegalArgumentException("object is not an instance of declaring class");
+            }
+            if (args.length != parameterTypes.length) {
+                throw new IllegalArgumentException("wrong number of arguments");
+            }
+            for (int i = 0; i < args.length; i++) {
+                Class<?> type = parameterTypes[i];
+                Object arg = args[i];
+                if (type.isPrimitive() ? !isConvertible(arg, type) : arg != null && !type.isInstance(arg)) {
+                    throw new IllegalArgumentException("argument type mismatch");
+                }
+            }
+        }
+    }
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final Class<?>[] NUMBERS = {byte.class, short.class, int.class, long.class, float.class, double.class};
+    private static final Class<?>[] NUMBER_WRAPPERS = {Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class};
+
+    /**
+     * Whether the value unboxes to the given primitive type, possibly
+     * with a widening conversion.
+     */
+    static boolean isConvertible(Object value, Class<?> primitive) {
+        if (value == null) {
+            return false;
+        }
+        Class<?> c = value.getClass();
+        if (c == Boolean.class || primitive == boolean.class) {
+            return c == Boolean.class && primitive == boolean.class;
+        }
+        int to = indexOf(NUMBERS, primitive);
+        if (c == Character.class) {
+            // char widens to int and above
+            return primitive == char.class || to >= 2;
+        }
+        int from = indexOf(NUMBER_WRAPPERS, c);
+        return from >= 0 && to >= from;
+    }
+
+    private static int indexOf(Class<?>[] types, Class<?> type) {
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static MethodHandles.Lookup lookup(Field f, boolean suppressAccessChecks) {
+        if (suppressAccessChecks && !f.isAccessible()) {
+            f.setAccessible(true);
+        }
+        return suppressAccessChecks ? MethodHandles.lookup() : MethodHandles.publicLookup();
+    }
+
+    private static boolean enabled() {
+        return !DISABLED && System.getSecurityManager() == null;
+    }
+
+    private static <T> T unavailable(Object member, Exception e) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "No method handle for " + member + ", using reflection", e);
+        }
+        return null;
+    }
+}
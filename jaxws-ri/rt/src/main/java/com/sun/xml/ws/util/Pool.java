@@ -42,11 +42,25 @@ package com.sun.xml.ws.util;
 
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.server.ContainerResolver;
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import java.lang.ref.SoftReference;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.lang.ref.WeakReference;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * General-purpose object pool.
@@ -57,15 +71,84 @@ import java.lang.ref.WeakReference;
  *
  * <p>
  * This class provides a default implementation of such a pool.
+ * Idle objects are first kept in a small array of slots, striped by thread,
+ * so that concurrent {@link #take()}/{@link #recycle(Object)} calls rarely
+ * touch the same memory; the overflow goes to a shared queue. A thread that
+ * finds neither its slot nor the queue filled takes from the slots of the
+ * other threads before creating a new object. At most
+ * {@link #getMaxSize()} idle objects are retained, anything recycled beyond
+ * that is dropped. The idle objects are only softly reachable, so the JVM
+ * may evict them when it runs low on memory, rather than at every collection.
  *
- * TODO: improve the implementation
+ * <p>
+ * The pool keeps counters of hits, misses, creations and evictions,
+ * which are exposed through the monitoring of the endpoints and stubs.
  *
  * @author Kohsuke Kawaguchi
  */
+@ManagedData
+@Description("Object pool statistics")
 public abstract class Pool<T> {
 
-    // volatile since multiple threads may access queue reference
-    private volatile WeakReference<ConcurrentLinkedQueue<T>> queue;
+    /**
+     * Default for {@link #getMaxSize()}, set through the
+     * <tt>com.sun.xml.ws.util.Pool.maxSize</tt> system property.
+     */
+    public static final int DEFAULT_MAX_SIZE = Integer.getInteger(Pool.class.getName() + ".maxSize", 256);
+
+    private static final int STRIPES;
+
+    static {
+        int n = 1;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        while (n < cpus * 2 && n < 64) {
+            n <<= 1;
+        }
+        STRIPES = n;
+    }
+
+    private final int maxSize;
+
+    // volatile since multiple threads may access the storage reference
+    private volatile SoftReference<Storage<T>> storage;
+
+    /**
+     * Number of idle objects; kept outside of {@link #storage} so that
+     * what the GC took away can still be accounted for.
+     */
+    private final AtomicInteger idle = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder creates = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    protected Pool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize
+     *      maximum number of idle objects retained by the pool.
+     */
+    protected Pool(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Idle objects.
+     */
+    private static final class Storage<T> {
+        final AtomicReferenceArray<T> slots;
+        final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<T>();
+
+        Storage(int stripes) {
+            slots = new AtomicReferenceArray<T>(stripes);
+        }
+    }
 
     /**
      * Gets a new object from the pool.
@@ -77,32 +160,176 @@ public abstract class Pool<T> {
      *      always non-null.
      */
     public final T take() {
-        T t = getQueue().poll();
-        if(t==null)
-            return create();
+        Storage<T> s = getStorage();
+        int stripe = stripe(s);
+        T t = s.slots.getAndSet(stripe, null);
+        if (t == null) {
+            t = s.queue.poll();
+        }
+        if (t == null && idle.get() > 0) {
+            t = steal(s, stripe);
+        }
+        if (t == null) {
+            misses.increment();
+            creates.increment();
+            t = create();
+            taken(false, getIdleCount());
+            return t;
+        }
+        int left = idle.decrementAndGet();
+        hits.increment();
+        taken(true, left);
         return t;
     }
 
-    private ConcurrentLinkedQueue<T> getQueue() {
-        WeakReference<ConcurrentLinkedQueue<T>> q = queue;
-        if (q != null) {
-            ConcurrentLinkedQueue<T> d = q.get();
-            if (d != null)
-                return d;
+    /**
+     * Takes an object recycled into the slot of another thread, which may
+     * never come back for it.
+     */
+    private static <T> T steal(Storage<T> s, int stripe) {
+        int mask = s.slots.length() - 1;
+        for (int i = 1; i <= mask; i++) {
+            int j = (stripe + i) & mask;
+            if (s.slots.get(j) != null) {
+                T t = s.slots.getAndSet(j, null);
+                if (t != null) {
+                    return t;
+                }
+            }
         }
+        return null;
+    }
 
-        // overwrite the queue
-        ConcurrentLinkedQueue<T> d = new ConcurrentLinkedQueue<T>();
-        queue = new WeakReference<ConcurrentLinkedQueue<T>>(d);
+    /**
+     * Called by {@link #take()} after an object was handed out.
+     *
+     * <p>
+     * Derived classes can use this to refill the pool ahead of demand.
+     * This method is called on the hot path, and must not block.
+     *
+     * @param hit
+     *      true if the object came from the pool, false if it was created.
+     * @param idle
+     *      number of idle objects left.
+     */
+    protected void taken(boolean hit, int idle) {
+    }
+
+    /**
+     * Creates a new object and puts it in the pool, unless it is full.
+     *
+     * @return
+     *      false if the pool was already full.
+     */
+    protected final boolean fill() {
+        if (getIdleCount() >= maxSize) {
+            return false;
+        }
+        creates.increment();
+        recycle(create());
+        return true;
+    }
+
+    private Storage<T> getStorage() {
+        Storage<T> s = currentStorage();
+        if (s != null)
+            return s;
 
-        return d;
+        synchronized (this) {
+            s = currentStorage();
+            if (s != null)
+                return s;
+            if (storage != null) {
+                // cleared by the GC; everything that was idle is gone
+                evictions.add(Math.max(0, idle.getAndSet(0)));
+            }
+            // overwrite the storage
+            s = new Storage<T>(Integer.highestOneBit(Math.min(STRIPES, maxSize)));
+            storage = new SoftReference<Storage<T>>(s);
+            return s;
+        }
+    }
+
+    private Storage<T> currentStorage() {
+        SoftReference<Storage<T>> ref = storage;
+        return ref != null ? ref.get() : null;
+    }
+
+    private static int stripe(Storage<?> s) {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32));
+        h ^= (h >>> 16);
+        return h & (s.slots.length() - 1);
     }
 
     /**
      * Returns an object back to the pool.
      */
     public final void recycle(T t) {
-        getQueue().offer(t);
+        Storage<T> s = getStorage();
+        if (idle.incrementAndGet() > maxSize) {
+            idle.decrementAndGet();
+            evictions.increment();
+            return;
+        }
+        if (!s.slots.compareAndSet(stripe(s), null, t)) {
+            s.queue.offer(t);
+        }
+    }
+
+    /**
+     * Maximum number of idle objects this pool retains.
+     */
+    @ManagedAttribute
+    @Description("Maximum number of idle objects retained")
+    public final int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Number of idle objects currently in the pool.
+     */
+    @ManagedAttribute
+    @Description("Number of idle objects in the pool")
+    public final int getIdleCount() {
+        return Math.max(0, idle.get());
+    }
+
+    /**
+     * Number of {@link #take()} calls served from the pool.
+     */
+    @ManagedAttribute
+    @Description("Number of requests served by a pooled object")
+    public final long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of {@link #take()} calls that found the pool empty.
+     */
+    @ManagedAttribute
+    @Description("Number of requests that found the pool empty")
+    public final long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of objects created by {@link #create()}.
+     */
+    @ManagedAttribute
+    @Description("Number of objects created")
+    public final long getCreates() {
+        return creates.sum();
+    }
+
+    /**
+     * Number of idle objects dropped, either because the pool was full
+     * or because the garbage collector reclaimed them.
+     */
+    @ManagedAttribute
+    @Description("Number of idle objects dropped because the pool was full or memory was low")
+    public final long getEvictions() {
+        return evictions.sum();
     }
 
     /**
@@ -161,21 +388,193 @@ public abstract class Pool<T> {
         }
     }
 
+    /**
+     * JAXP {@link javax.xml.validation.Validator} pool.
+     *
+     * <p>
+     * {@link javax.xml.validation.Schema} is thread-safe, but its validators
+     * are not, so the tubes validating against the same schema share one
+     * of these.
+     */
+    public static final class Validator extends Pool<javax.xml.validation.Validator> {
+        private final javax.xml.validation.Schema schema;
+
+        public Validator(javax.xml.validation.Schema schema) {
+            this.schema = schema;
+        }
+
+        @Override
+        protected javax.xml.validation.Validator create() {
+            return schema.newValidator();
+        }
+    }
+
+    /**
+     * Pool of byte arrays of one size.
+     *
+     * @see ByteArrayPool
+     */
+    public static final class ByteArray extends Pool<byte[]> {
+        private final int length;
+
+        public ByteArray(int length, int maxSize) {
+            super(maxSize);
+            this.length = length;
+        }
+
+        /**
+         * Length of the arrays in this pool.
+         */
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        protected byte[] create() {
+            return new byte[length];
+        }
+    }
+
     /**
      * {@link Tube} pool.
+     *
+     * <p>
+     * Cloning a tubeline is expensive, so the pool can be pre-warmed with
+     * a number of clones when it is created, and can keep a target number of
+     * idle tubelines by cloning in the background whenever requests drain it.
+     * The target adapts to the load: it grows by one whenever a request finds
+     * the pool empty, and shrinks back towards the configured minimum after
+     * a period without such misses.
+     *
+     * <p>
+     * The background clones are made by a thread of the pool, which is let go
+     * after a while without cloning to do, and is stopped by {@link #close()}.
+     * They run in the {@link Container} and with the context class loader the
+     * pool was created with, like the clones made on demand by requests.
+     *
+     * @see com.sun.xml.ws.developer.TubelinePoolingFeature
      */
     public static final class TubePool extends Pool<Tube> {
+        /**
+         * Number of takes without a miss after which the adaptive target
+         * is lowered by one.
+         */
+        private static final int DECAY_PERIOD = 1024;
+
         private final Tube master;
+        private final int minIdle;
+        private final AtomicInteger target;
+        private final AtomicInteger takesSinceMiss = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile boolean closed;
+
+        /**
+         * Thread and context of the background clones, null if there are none.
+         */
+        private final ThreadPoolExecutor refillExecutor;
+        private final Container container;
+        private final ClassLoader classLoader;
 
         public TubePool(Tube master) {
+            this(master, 1, 0, null);
+        }
+
+        /**
+         * @param initialSize
+         *      number of tubelines, including the master, created up front.
+         * @param minIdle
+         *      number of idle tubelines kept by cloning in the background,
+         *      0 to only clone on demand.
+         * @param container
+         *      the container the tubeline runs in, entered to clone it in
+         *      the background. If null, the container of the current thread.
+         */
+        public TubePool(Tube master, int initialSize, int minIdle, Container container) {
             this.master = master;
+            this.minIdle = Math.min(minIdle, getMaxSize());
+            this.target = new AtomicInteger(this.minIdle);
+            if (this.minIdle > 0) {
+                this.container = (container != null) ? container : ContainerResolver.getInstance().getContainer();
+                this.classLoader = Thread.currentThread().getContextClassLoader();
+                this.refillExecutor = createRefillExecutor();
+            } else {
+                this.container = null;
+                this.classLoader = null;
+                this.refillExecutor = null;
+            }
             recycle(master);    // we'll use master as a part of the pool, too.
+            for (int i = 1; i < initialSize && fill(); i++) {
+                // pre-warm
+            }
         }
 
         @Override
         protected Tube create() {
             return TubeCloner.clone(master);
         }
+
+        @Override
+        protected void taken(boolean hit, int idle) {
+            if (minIdle == 0) {
+                return;
+            }
+            int t = target.get();
+            if (!hit) {
+                takesSinceMiss.set(0);
+                if (t < getMaxSize()) {
+                    target.compareAndSet(t, t + 1);
+                }
+            } else if (takesSinceMiss.incrementAndGet() >= DECAY_PERIOD) {
+                takesSinceMiss.set(0);
+                if (t > minIdle) {
+                    target.compareAndSet(t, t - 1);
+                }
+            }
+            if (idle < target.get() && !closed && refilling.compareAndSet(false, true)) {
+                try {
+                    refillExecutor.execute(new Runnable() {
+                        public void run() {
+                            Thread thread = Thread.currentThread();
+                            ClassLoader oldClassLoader = thread.getContextClassLoader();
+                            thread.setContextClassLoader(classLoader);
+                            Container old = ContainerResolver.getDefault().enterContainer(container);
+                            try {
+                                while (!closed && getIdleCount() < target.get() && fill()) {
+                                    // clone until the target is reached
+                                }
+                            } finally {
+                                ContainerResolver.getDefault().exitContainer(old);
+                                thread.setContextClassLoader(oldClassLoader);
+                                refilling.set(false);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    refilling.set(false);
+                }
+            }
+        }
+
+        /**
+         * Current number of idle tubelines the pool tries to keep.
+         */
+        @ManagedAttribute
+        @Description("Number of idle tubelines kept by cloning in the background")
+        public int getTargetIdleCount() {
+            return minIdle == 0 ? 0 : target.get();
+        }
+
+        /**
+         * Stops cloning in the background, and lets the thread doing it go.
+         * Called when the owner of the pool is disposed.
+         */
+        public void close() {
+            closed = true;
+            if (refillExecutor != null) {
+                // a clone in progress completes, the loop then stops
+                refillExecutor.shutdown();
+            }
+        }
         
         /**
          *
@@ -187,6 +586,21 @@ public abstract class Pool<T> {
         public final Tube takeMaster() {
             return master;
         }
-        
+
+        /**
+         * Single daemon thread, only alive while there is cloning to do.
+         */
+        private static ThreadPoolExecutor createRefillExecutor() {
+            ThreadPoolExecutor tpe = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "jaxws-tubepool-refill");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            tpe.allowCoreThreadTimeOut(true);
+            return tpe;
+        }
     }
 }
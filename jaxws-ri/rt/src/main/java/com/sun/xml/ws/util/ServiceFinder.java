@@ -145,6 +145,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * The provider-lookup mechanism always executes in the security context of the
  * caller.  Trusted system code should typically invoke the methods in this
  * class from within a privileged security context.
+ * <p/>
+ * <p> The provider-class names are cached per class loader, but every lookup
+ * instantiates new providers.  The providers of services known to be stateless
+ * can be cached as well, see {@link #setInstancesCached(Class, boolean)}.  These
+ * caches hold on to the class loader, so they must be {@link #invalidate(ClassLoader)
+ * invalidated} when the application it belongs to is undeployed.
  *
  * @author Mark Reinhold
  * @version 1.11, 03/12/19
@@ -156,6 +162,36 @@ public final class ServiceFinder<T> implements Iterable<T> {
 
     private static WeakHashMap<ClassLoader, ConcurrentHashMap<String, ServiceName[]>> serviceNameCache 
              = new WeakHashMap<ClassLoader, ConcurrentHashMap<String, ServiceName[]>>();
+
+    /**
+     * Provider instances of the services in {@link #cachedServices}.
+     */
+    private static final WeakHashMap<ClassLoader, ConcurrentHashMap<String, Object[]>> instanceCache
+             = new WeakHashMap<ClassLoader, ConcurrentHashMap<String, Object[]>>();
+
+    /**
+     * Names of the services whose provider instances are cached, initially
+     * given by the <tt>com.sun.xml.ws.util.ServiceFinder.cachedServices</tt>
+     * system property, as a comma-separated list.
+     */
+    private static final Set<String> cachedServices = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    static {
+        String names = null;
+        try {
+            names = System.getProperty(ServiceFinder.class.getName() + ".cachedServices");
+        } catch (SecurityException e) {
+            // use the defaults
+        }
+        if (names != null) {
+            for (String name : names.split(",")) {
+                name = name.trim();
+                if (name.length() > 0) {
+                    cachedServices.add(name);
+                }
+            }
+        }
+    }
     
     private final Class<T> serviceClass;
     private final @Nullable ClassLoader classLoader;
@@ -250,7 +286,9 @@ public final class ServiceFinder<T> implements Iterable<T> {
      */
     @SuppressWarnings("unchecked")
 	public Iterator<T> iterator() {
-        Iterator<T> it = new LazyIterator<T>(serviceClass,classLoader);
+        Iterator<T> it = cachedServices.contains(serviceClass.getName()) ?
+                cachedInstances(serviceClass, classLoader) :
+                new LazyIterator<T>(serviceClass,classLoader);
         return component != null ? 
         		new CompositeIterator<T>(
         				component.getIterableSPI(serviceClass).iterator(),it) :
@@ -273,6 +311,84 @@ public final class ServiceFinder<T> implements Iterable<T> {
         return result.toArray((T[])Array.newInstance(serviceClass,result.size()));
     }
 
+    /**
+     * Enables or disables caching of the provider instances of the given service.
+     *
+     * <p>
+     * Once enabled, all the lookups of the service through the same class
+     * loader return the same provider instances, so this must only be enabled
+     * for services whose providers are stateless and thread-safe, such as
+     * factories.  The providers supplied by {@link Component}s are never cached.
+     *
+     * @since JAX-WS RI 2.3.0
+     */
+    public static void setInstancesCached(@NotNull Class<?> service, boolean cached) {
+        if (cached) {
+            cachedServices.add(service.getName());
+        } else {
+            cachedServices.remove(service.getName());
+            synchronized (instanceCache) {
+                for (ConcurrentHashMap<String, Object[]> instances : instanceCache.values()) {
+                    instances.remove(service.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells if the provider instances of the given service are cached.
+     *
+     * @since JAX-WS RI 2.3.0
+     */
+    public static boolean isInstancesCached(@NotNull Class<?> service) {
+        return cachedServices.contains(service.getName());
+    }
+
+    /**
+     * Forgets the provider-class names and the provider instances found
+     * through the given class loader.
+     *
+     * <p>
+     * Containers call this when they undeploy the application the class loader
+     * belongs to, so that the cached providers don't keep it from being
+     * garbage collected.
+     *
+     * @since JAX-WS RI 2.3.0
+     */
+    public static void invalidate(@Nullable ClassLoader loader) {
+        synchronized (serviceNameCache) {
+            serviceNameCache.remove(loader);
+        }
+        synchronized (instanceCache) {
+            instanceCache.remove(loader);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Iterator<T> cachedInstances(Class<T> service, ClassLoader loader) {
+        ConcurrentHashMap<String, Object[]> instances;
+        synchronized (instanceCache) {
+            instances = instanceCache.get(loader);
+            if (instances == null) {
+                instances = new ConcurrentHashMap<String, Object[]>();
+                instanceCache.put(loader, instances);
+            }
+        }
+        Object[] providers = instances.get(service.getName());
+        if (providers == null) {
+            List<T> l = new ArrayList<T>();
+            for (Iterator<T> it = new LazyIterator<T>(service, loader); it.hasNext();) {
+                l.add(it.next());
+            }
+            providers = l.toArray((T[]) Array.newInstance(service, l.size()));
+            Object[] existing = instances.putIfAbsent(service.getName(), providers);
+            if (existing != null) {
+                providers = existing;
+            }
+        }
+        return Arrays.asList((T[]) providers).iterator();
+    }
+
     private static void fail(Class service, String msg, Throwable cause)
         throws ServiceConfigurationError {
         ServiceConfigurationError sce
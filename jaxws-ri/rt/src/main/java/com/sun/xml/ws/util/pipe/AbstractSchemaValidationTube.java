@@ -56,6 +56,7 @@ import com.sun.xml.ws.developer.SchemaValidationFeature;
 import com.sun.xml.ws.developer.ValidationErrorHandler;
 import com.sun.xml.ws.server.SDDocumentImpl;
 import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.util.xml.XmlUtil;
 import com.sun.xml.ws.wsdl.SDDocumentResolver;
 import com.sun.xml.ws.wsdl.parser.WSDLConstants;
@@ -119,6 +120,20 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
 
     protected abstract Validator getValidator();
 
+    /**
+     * Pool of validators shared by all the copies of this tube.
+     *
+     * <p>
+     * If non-null, {@link #doProcess(Packet)} takes its validator from this
+     * pool rather than from {@link #getValidator()}.
+     *
+     * @return
+     *      null by default.
+     */
+    protected @Nullable Pool<Validator> getValidatorPool() {
+        return null;
+    }
+
     protected abstract boolean isNoValidation();
 
     private static class ValidationDocumentAddressResolver implements DocumentAddressResolver {
@@ -556,24 +571,34 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
     }
 
     protected void doProcess(Packet packet) throws SAXException {
-        getValidator().reset();
-        Class<? extends ValidationErrorHandler> handlerClass = feature.getErrorHandler();
-        ValidationErrorHandler handler;
-        try {
-            handler = handlerClass.newInstance();
-        } catch(Exception e) {
-            throw new WebServiceException(e);
-        }
-        handler.setPacket(packet);
-        getValidator().setErrorHandler(handler);
-        Message msg = packet.getMessage().copy();
-        Source source = msg.readPayloadAsSource();
+        Pool<Validator> pool = getValidatorPool();
+        Validator validator = pool != null ? pool.take() : getValidator();
         try {
-            // Validator javadoc allows ONLY SAX, and DOM Sources
-            // But the impl seems to handle all kinds.
-            getValidator().validate(source);
-        } catch(IOException e) {
-            throw new WebServiceException(e);
+            validator.reset();
+            Class<? extends ValidationErrorHandler> handlerClass = feature.getErrorHandler();
+            ValidationErrorHandler handler;
+            try {
+                handler = handlerClass.newInstance();
+            } catch(Exception e) {
+                throw new WebServiceException(e);
+            }
+            handler.setPacket(packet);
+            validator.setErrorHandler(handler);
+            Message msg = packet.getMessage().copy();
+            Source source = msg.readPayloadAsSource();
+            try {
+                // Validator javadoc allows ONLY SAX, and DOM Sources
+                // But the impl seems to handle all kinds.
+                validator.validate(source);
+            } catch(IOException e) {
+                throw new WebServiceException(e);
+            }
+        } finally {
+            if (pool != null) {
+                // don't keep the packet reachable from the pool
+                validator.setErrorHandler(null);
+                pool.recycle(validator);
+            }
         }
     }
 
@@ -0,0 +1,160 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util.pipe;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.util.Pool;
+
+import javax.xml.validation.Schema;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide cache of the compiled {@link Schema}s used by
+ * {@link AbstractSchemaValidationTube}.
+ *
+ * <p>
+ * Compiling the schema of a WSDL is by far the most expensive part of
+ * setting up schema validation, and the client side even has to fetch the
+ * metadata closure first. The compiled schema only depends on the set of
+ * documents it was built from, so it is cached against the object that owns
+ * that document set (the endpoint's {@link com.sun.xml.ws.api.server.ServiceDefinition}
+ * or the client's {@link com.sun.xml.ws.api.model.wsdl.WSDLModel}), together
+ * with a bounded pool of {@link javax.xml.validation.Validator}s.
+ *
+ * <p>
+ * The owners are weakly referenced, so an entry goes away with the
+ * endpoint or the service it was built for.
+ */
+public final class SchemaCache {
+
+    /**
+     * A schema is only compiled once per document set, so on the client side
+     * the schemas imported by a WSDL are fetched when the first tube is
+     * created, and later changes to them go unnoticed for as long as the
+     * {@link com.sun.xml.ws.api.model.wsdl.WSDLModel} lives. The
+     * <tt>com.sun.xml.ws.util.pipe.SchemaCache.disabled</tt> system property
+     * makes every tube fetch and compile its own schema, for when those
+     * schemas are still being edited.
+     */
+    private static final boolean DISABLED = Boolean.getBoolean(SchemaCache.class.getName() + ".disabled");
+
+    /**
+     * Entry for document sets that do not contain any schema.
+     */
+    public static final SchemaCache.Entry NO_SCHEMA = new Entry(null);
+
+    private static final Map<Object, Entry> CACHE = new WeakHashMap<Object, Entry>();
+
+    private SchemaCache() {}
+
+    /**
+     * Gets the entry cached for the given document set.
+     *
+     * @return
+     *      null if nothing has been cached yet.
+     */
+    public static @Nullable Entry get(@NotNull Object documentSet) {
+        if (DISABLED) {
+            return null;
+        }
+        synchronized (CACHE) {
+            return CACHE.get(documentSet);
+        }
+    }
+
+    /**
+     * Caches the schema compiled from the given document set.
+     *
+     * <p>
+     * If two threads compile the same document set concurrently,
+     * the first one wins and both end up using its entry.
+     *
+     * @param schema
+     *      null if the document set does not contain any schema.
+     * @return
+     *      the cached entry, always non-null.
+     */
+    public static @NotNull Entry put(@NotNull Object documentSet, @Nullable Schema schema) {
+        Entry e = schema == null ? NO_SCHEMA : new Entry(schema);
+        if (DISABLED) {
+            return e;
+        }
+        synchronized (CACHE) {
+            Entry old = CACHE.get(documentSet);
+            if (old != null) {
+                return old;
+            }
+            CACHE.put(documentSet, e);
+            return e;
+        }
+    }
+
+    /**
+     * Compiled schema and the pool of its validators.
+     */
+    public static final class Entry {
+        private final Schema schema;
+        private final Pool.Validator validators;
+
+        Entry(Schema schema) {
+            this.schema = schema;
+            this.validators = schema == null ? null : new Pool.Validator(schema);
+        }
+
+        /**
+         * @return
+         *      null if there is nothing to validate against.
+         */
+        public @Nullable Schema getSchema() {
+            return schema;
+        }
+
+        /**
+         * @return
+         *      null if there is nothing to validate against.
+         */
+        public @Nullable Pool.Validator getValidators() {
+            return validators;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.wsdl;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.model.SEIModel;
+import com.sun.xml.ws.api.model.WSDLOperationMapping;
+import com.sun.xml.ws.api.model.wsdl.WSDLBoundOperation;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.model.AbstractSEIModelImpl;
+import com.sun.xml.ws.model.JavaMethodImpl;
+import com.sun.xml.ws.resources.AddressingMessages;
+import com.sun.xml.ws.resources.ServerMessages;
+import com.sun.xml.ws.util.QNameMap;
+import com.sun.xml.ws.wsdl.WSDLOperationFinder.WSDLOperationMappingImpl;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Dispatch tables of an {@link OperationDispatcher}, computed once from the
+ * SEI model (or from the WSDL port when there is no SEI model).
+ *
+ * <p>
+ * There is one table per dispatch key, <code>wsa:Action</code>, payload QName
+ * and SOAPAction, each resolving the key with a single lookup. A request only
+ * needs one lookup per key that is present, and no objects are created for
+ * it. All keys are interned, and small payload tables (the common case of
+ * endpoints with a handful of operations) are scanned comparing references
+ * first, which beats hashing the two strings of the QName.
+ *
+ * <p>
+ * Every operation has a counter of the requests dispatched to it.
+ *
+ * @author Rama Pulavarthi
+ * @author Jitendra Kotamraju
+ */
+final class OperationDispatchTable {
+    private static final Logger LOGGER = Logger.getLogger(OperationDispatchTable.class.getName());
+
+    static final String EMPTY_PAYLOAD_LOCAL = "";
+    static final String EMPTY_PAYLOAD_NSURI = "";
+    static final QName EMPTY_PAYLOAD = new QName(EMPTY_PAYLOAD_NSURI, EMPTY_PAYLOAD_LOCAL);
+
+    /**
+     * Payload tables up to this size are scanned rather than hashed.
+     */
+    private static final int SMALL_TABLE = 8;
+
+    /**
+     * An operation the requests can be dispatched to.
+     */
+    static final class Target {
+        final WSDLOperationMapping mapping;
+        private final LongAdder count = new LongAdder();
+
+        Target(WSDLOperationMapping mapping) {
+            this.mapping = mapping;
+        }
+
+        WSDLOperationMapping hit() {
+            count.increment();
+            return mapping;
+        }
+    }
+
+    /**
+     * The operations sharing one <code>wsa:Action</code>.
+     */
+    static final class ActionTargets {
+        /**
+         * Keyed by payload QName, so that action and payload together
+         * form the WS-I operation signature.
+         */
+        final QNameMap<Target> byPayload = new QNameMap<Target>();
+        /**
+         * Used when the payload doesn't match; some WS-Trust STS WSDLs
+         * declare a payload different from what is sent.
+         */
+        Target last;
+    }
+
+    private final List<Target> targets = new ArrayList<Target>();
+
+    /**
+     * Null when addressing is off.
+     */
+    private final @Nullable Map<String, ActionTargets> actions;
+
+    private final QNameMap<Target> payloads = new QNameMap<Target>();
+    // payload QNames shared by several operations; valid, but not dispatchable
+    private final QNameMap<Boolean> ambiguousPayloads = new QNameMap<Boolean>();
+    // small table form of payloads, null when there are too many of them
+    private final String[] payloadNsUris;
+    private final String[] payloadLocalParts;
+    private final Target[] payloadTargets;
+
+    private final Map<String, Target> soapActions = new HashMap<String, Target>();
+
+    OperationDispatchTable(@Nullable WSDLPort wsdlModel, @NotNull WSBinding binding, @Nullable SEIModel seiModel) {
+        AddressingVersion av = binding.getAddressingVersion();
+        actions = (av != null) ? new HashMap<String, ActionTargets>() : null;
+
+        if (seiModel != null) {
+            buildFromSEIModel((AbstractSEIModelImpl) seiModel);
+        } else {
+            buildFromWSDLModel(wsdlModel);
+        }
+
+        int n = payloads.size();
+        if (n <= SMALL_TABLE) {
+            payloadNsUris = new String[n];
+            payloadLocalParts = new String[n];
+            payloadTargets = new Target[n];
+            int i = 0;
+            for (QNameMap.Entry<Target> e : payloads.entrySet()) {
+                payloadNsUris[i] = e.nsUri;
+                payloadLocalParts[i] = e.localName;
+                payloadTargets[i] = e.getValue();
+                i++;
+            }
+        } else {
+            payloadNsUris = null;
+            payloadLocalParts = null;
+            payloadTargets = null;
+        }
+    }
+
+    private void buildFromSEIModel(AbstractSEIModelImpl seiModel) {
+        Map<JavaMethodImpl, Target> byMethod = new HashMap<JavaMethodImpl, Target>();
+        for (JavaMethodImpl m : seiModel.getJavaMethods()) {
+            Target t = new Target(new WSDLOperationMappingImpl(m.getOperation(), m));
+            targets.add(t);
+            byMethod.put(m, t);
+        }
+
+        if (actions != null) {
+            Map<ActionBasedOperationSignature, Target> signatures = new HashMap<ActionBasedOperationSignature, Target>();
+            for (JavaMethodImpl m : seiModel.getJavaMethods()) {
+                if (m.getMEP().isAsync)
+                    continue;
+                String action = m.getInputAction();
+                //first look at annotations and then in wsdlmodel
+                if (action == null || action.equals("")) {
+                    if (m.getOperation() != null) action = m.getOperation().getOperation().getInput().getAction();
+                }
+                if (action != null) {
+                    addAction(signatures, action, payloadName(m.getRequestPayloadName()), byMethod.get(m),
+                            m.getOperationQName());
+                }
+            }
+        }
+
+        // Find if any payload QNames repeat for operations
+        QNameMap<List<String>> unique = new QNameMap<List<String>>();
+        for (JavaMethodImpl m : seiModel.getJavaMethods()) {
+            if (m.getMEP().isAsync)
+                continue;
+            QName name = payloadName(m.getRequestPayloadName());
+            List<String> methods = unique.get(name);
+            if (methods == null) {
+                methods = new ArrayList<String>();
+                unique.put(name, methods);
+            }
+            methods.add(m.getMethod().getName());
+        }
+        for (QNameMap.Entry<List<String>> e : unique.entrySet()) {
+            if (e.getValue().size() > 1) {
+                LOGGER.warning(ServerMessages.NON_UNIQUE_DISPATCH_QNAME(e.getValue(), e.createQName()));
+                ambiguousPayloads.put(e.nsUri, e.localName, Boolean.TRUE);
+            }
+        }
+        // Set up method handlers only for unique QNames. So that dispatching
+        // happens consistently for a method
+        for (JavaMethodImpl m : seiModel.getJavaMethods()) {
+            QName name = payloadName(m.getRequestPayloadName());
+            List<String> methods = unique.get(name);
+            if (methods != null && methods.size() == 1) {
+                payloads.put(name.getNamespaceURI().intern(), name.getLocalPart().intern(), byMethod.get(m));
+            }
+        }
+
+        // Find if any SOAPAction repeat for operations
+        Map<String, Integer> uniqueSOAPActions = new HashMap<String, Integer>();
+        for (JavaMethodImpl m : seiModel.getJavaMethods()) {
+            Integer count = uniqueSOAPActions.get(m.getSOAPAction());
+            uniqueSOAPActions.put(m.getSOAPAction(), count == null ? 1 : count + 1);
+        }
+        for (JavaMethodImpl m : seiModel.getJavaMethods()) {
+            String soapAction = m.getSOAPAction();
+            if (uniqueSOAPActions.get(soapAction) == 1) {
+                soapActions.put(('"' + soapAction + '"').intern(), byMethod.get(m));
+            }
+        }
+    }
+
+    private void buildFromWSDLModel(WSDLPort wsdlModel) {
+        Map<ActionBasedOperationSignature, Target> signatures = new HashMap<ActionBasedOperationSignature, Target>();
+        for (WSDLBoundOperation wsdlOp : wsdlModel.getBinding().getBindingOperations()) {
+            Target t = new Target(new WSDLOperationMappingImpl(wsdlOp, null));
+            targets.add(t);
+
+            QName name = payloadName(wsdlOp.getRequestPayloadName());
+            if (actions != null) {
+                addAction(signatures, wsdlOp.getOperation().getInput().getAction(), name, t, wsdlOp.getName());
+            }
+            payloads.put(name.getNamespaceURI().intern(), name.getLocalPart().intern(), t);
+            String soapAction = wsdlOp.getSOAPAction();
+            soapActions.put(soapAction != null ? soapAction.intern() : null, t);
+        }
+    }
+
+    private void addAction(Map<ActionBasedOperationSignature, Target> signatures,
+                           String action, QName payloadName, Target t, QName operationName) {
+        ActionBasedOperationSignature opSignature = new ActionBasedOperationSignature(action, payloadName);
+        Target old = signatures.put(opSignature, t);
+        if (old != null) {
+            LOGGER.warning(AddressingMessages.NON_UNIQUE_OPERATION_SIGNATURE(
+                    old.mapping, operationName, action, payloadName));
+        }
+
+        action = action.intern();
+        ActionTargets a = actions.get(action);
+        if (a == null) {
+            a = new ActionTargets();
+            actions.put(action, a);
+        }
+        a.byPayload.put(payloadName.getNamespaceURI().intern(), payloadName.getLocalPart().intern(), t);
+        a.last = t;
+    }
+
+    private static QName payloadName(QName name) {
+        return (name == null) ? EMPTY_PAYLOAD : name;
+    }
+
+    boolean isAddressingEnabled() {
+        return actions != null;
+    }
+
+    /**
+     * @return
+     *      null if no operation uses the action.
+     */
+    @Nullable WSDLOperationMapping getByAction(@NotNull String action, @NotNull String nsUri, @NotNull String localPart) {
+        ActionTargets a = actions.get(action);
+        if (a == null)
+            return null;
+        Target t = a.byPayload.get(nsUri, localPart);
+        return (t != null ? t : a.last).hit();
+    }
+
+    /**
+     * @return
+     *      null if the payload doesn't identify a unique operation.
+     */
+    @Nullable WSDLOperationMapping getByPayload(@NotNull String nsUri, @NotNull String localPart) {
+        Target t;
+        if (payloadTargets != null) {
+            t = null;
+            for (int i = 0; i < payloadTargets.length; i++) {
+                String ns = payloadNsUris[i];
+                String local = payloadLocalParts[i];
+                if ((local == localPart || local.equals(localPart)) && (ns == nsUri || ns.equals(nsUri))) {
+                    t = payloadTargets[i];
+                    break;
+                }
+            }
+        } else {
+            t = payloads.get(nsUri, localPart);
+        }
+        return t != null ? t.hit() : null;
+    }
+
+    /**
+     * Whether some operation accepts the payload, even if it is not
+     * the only one to do so.
+     */
+    boolean isKnownPayload(@NotNull String nsUri, @NotNull String localPart) {
+        return ambiguousPayloads.containsKey(nsUri, localPart) || payloads.containsKey(nsUri, localPart);
+    }
+
+    @Nullable WSDLOperationMapping getBySOAPAction(@Nullable String soapAction) {
+        if (soapAction == null)
+            return null;
+        Target t = soapActions.get(soapAction);
+        return t != null ? t.hit() : null;
+    }
+
+    /**
+     * Number of requests dispatched to each operation so far.
+     */
+    Map<QName, Long> getDispatchCounts() {
+        Map<QName, Long> counts = new LinkedHashMap<QName, Long>();
+        for (Target t : targets) {
+            QName name = t.mapping.getOperationName();
+            Long c = counts.get(name);
+            counts.put(name, t.count.sum() + (c != null ? c : 0L));
+        }
+        return counts;
+    }
+}
@@ -46,38 +46,44 @@ import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.model.SEIModel;
 import com.sun.xml.ws.api.model.WSDLOperationMapping;
 import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.message.AddressingUtils;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
 import com.sun.xml.ws.resources.ServerMessages;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 
 import javax.xml.namespace.QName;
-import java.util.List;
-import java.util.ArrayList;
-import java.text.MessageFormat;
+import java.util.Map;
+
+import static com.sun.xml.ws.wsdl.OperationDispatchTable.EMPTY_PAYLOAD_LOCAL;
+import static com.sun.xml.ws.wsdl.OperationDispatchTable.EMPTY_PAYLOAD_NSURI;
 
 /**
  * This class abstracts the process of identifying the wsdl operation from a SOAP Message request.
  * This is primarily for dispatching the request messages to an endpoint method.
  *
- * Different implementations of {@link WSDLOperationFinder} are used underneath to identify the wsdl operation based on
- * if AddressingFeature is enabled or not.
- * 
+ * <p>
+ * The operation is identified, in this order, by
+ * <ol>
+ * <li>WS-Addressing Action Message Addressing Property, <code>wsa:Action</code>, and SOAP payload QName,
+ *     when AddressingFeature is enabled (WS-I BP operation signature),
+ * <li>SOAP payload first child's QName,
+ * <li>SOAPAction.
+ * </ol>
+ * The lookup tables for all three are precomputed when the dispatcher is created,
+ * see {@link OperationDispatchTable}.
+ *
  * @author Rama Pulavarthi
  */
 public class OperationDispatcher {
-    private List<WSDLOperationFinder> opFinders;
-    private WSBinding binding;
+    private final OperationDispatchTable table;
+    private final WSBinding binding;
 
     public OperationDispatcher(@NotNull WSDLPort wsdlModel, @NotNull WSBinding binding, @Nullable SEIModel seiModel) {
         this.binding = binding;
-        opFinders = new ArrayList<WSDLOperationFinder>();
-        if (binding.getAddressingVersion() != null) {
-            opFinders.add(new ActionBasedOperationFinder(wsdlModel, binding, seiModel));
-        }
-        opFinders.add(new PayloadQNameBasedOperationFinder(wsdlModel, binding, seiModel));
-        opFinders.add(new SOAPActionBasedOperationFinder(wsdlModel, binding, seiModel));
-
+        this.table = new OperationDispatchTable(wsdlModel, binding, seiModel);
     }
 
     /**
@@ -92,19 +98,63 @@ public class OperationDispatcher {
     }
 
     public @NotNull WSDLOperationMapping getWSDLOperationMapping(Packet request) throws DispatchException {
-        WSDLOperationMapping opName;
-        for(WSDLOperationFinder finder: opFinders) {
-            opName = finder.getWSDLOperationMapping(request);
-            if(opName != null)
-                return opName;
+        Message message = request.getMessage();
+        String localPart = message.getPayloadLocalPart();
+        String nsUri;
+        if (localPart == null) {
+            localPart = EMPTY_PAYLOAD_LOCAL;
+            nsUri = EMPTY_PAYLOAD_NSURI;
+        } else {
+            nsUri = message.getPayloadNamespaceURI();
+            if (nsUri == null)
+                nsUri = EMPTY_PAYLOAD_NSURI;
+        }
+
+        WSDLOperationMapping op;
+        if (table.isAddressingEnabled()) {
+            AddressingVersion av = binding.getAddressingVersion();
+            String action = AddressingUtils.getAction(message.getHeaders(), av, binding.getSOAPVersion());
+            // null when addressing is not engaged, use other ways to dispatch.
+            if (action != null) {
+                op = table.getByAction(action, nsUri, localPart);
+                if (op != null)
+                    return op;
+                // invalid action header
+                throw new DispatchException(Messages.create(action, av, binding.getSOAPVersion()));
+            }
+        }
+
+        op = table.getByPayload(nsUri, localPart);
+        if (op != null)
+            return op;
+        // Check if payload itself is correct
+        if (!table.isKnownPayload(nsUri, localPart)) {
+            String dispatchKey = "{" + nsUri + "}" + localPart;
+            String faultString = ServerMessages.DISPATCH_CANNOT_FIND_METHOD(dispatchKey);
+            throw new DispatchException(SOAPFaultBuilder.createSOAPFaultMessage(
+                 binding.getSOAPVersion(), faultString, binding.getSOAPVersion().faultCodeClient));
         }
+
+        op = table.getBySOAPAction(request.soapAction);
+        if (op != null)
+            return op;
+
         //No way to dispatch this request
-        String err = MessageFormat.format("Request=[SOAPAction={0},Payload='{'{1}'}'{2}]",
-                request.soapAction, request.getMessage().getPayloadNamespaceURI(),
-                request.getMessage().getPayloadLocalPart());
+        String err = "Request=[SOAPAction=" + request.soapAction +
+                ",Payload={" + message.getPayloadNamespaceURI() + "}" + message.getPayloadLocalPart() + "]";
         String faultString = ServerMessages.DISPATCH_CANNOT_FIND_METHOD(err);
         Message faultMsg = SOAPFaultBuilder.createSOAPFaultMessage(
                 binding.getSOAPVersion(), faultString, binding.getSOAPVersion().faultCodeClient);
         throw new DispatchException(faultMsg);
     }
+
+    /**
+     * Gets the number of requests dispatched to each operation of the port.
+     *
+     * @return
+     *      snapshot of the counters, in the order of the operations in the model.
+     */
+    public @NotNull Map<QName, Long> getDispatchCounts() {
+        return table.getDispatchCounts();
+    }
 }
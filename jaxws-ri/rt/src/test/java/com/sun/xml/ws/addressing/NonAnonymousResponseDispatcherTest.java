@@ -0,0 +1,257 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.addressing;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.ws.WebServiceException;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.Container;
+
+import junit.framework.TestCase;
+
+public class NonAnonymousResponseDispatcherTest extends TestCase {
+
+    /**
+     * Transport that fails the first {@link #failures} requests, then replies.
+     */
+    private static final class TestTransport extends AbstractTubeImpl {
+        final AtomicInteger requests;
+        final int failures;
+        final Throwable failure;
+
+        TestTransport(int failures, Throwable failure) {
+            this.requests = new AtomicInteger();
+            this.failures = failures;
+            this.failure = failure;
+        }
+
+        private TestTransport(TestTransport that, TubeCloner cloner) {
+            super(that, cloner);
+            this.requests = that.requests;
+            this.failures = that.failures;
+            this.failure = that.failure;
+        }
+
+        @Override
+        public @NotNull NextAction processRequest(@NotNull Packet request) {
+            if (requests.incrementAndGet() <= failures) {
+                return doThrow(new WebServiceException(failure));
+            }
+            return doReturnWith(request.copy(false));
+        }
+
+        @Override
+        public @NotNull NextAction processResponse(@NotNull Packet response) {
+            return doReturnWith(response);
+        }
+
+        @Override
+        public @NotNull NextAction processException(@NotNull Throwable t) {
+            return doThrow(t);
+        }
+
+        public void preDestroy() {
+        }
+
+        @Override
+        public TestTransport copy(TubeCloner cloner) {
+            return new TestTransport(this, cloner);
+        }
+    }
+
+    private static final class Callback implements Fiber.CompletionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Packet response;
+        volatile Throwable error;
+
+        public void onCompletion(@NotNull Packet response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        public void onCompletion(@NotNull Throwable error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("not completed", done.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static Packet response() {
+        Packet p = new Packet();
+        p.endpointAddress = EndpointAddress.create("http://localhost:1/replyTo");
+        return p;
+    }
+
+    private static NonAnonymousResponseDispatcher dispatcher(TestTransport transport, int maxRetries, long retryDelay) {
+        return new NonAnonymousResponseDispatcher("test", new Container() {}, transport, 16, maxRetries, retryDelay);
+    }
+
+    public void testDelivered() throws Exception {
+        TestTransport transport = new TestTransport(0, null);
+        NonAnonymousResponseDispatcher d = dispatcher(transport, 3, 1);
+        try {
+            Callback callback = new Callback();
+            d.dispatch(response(), callback);
+            callback.await();
+
+            assertNotNull(callback.response);
+            assertNull(callback.error);
+            assertEquals(1, transport.requests.get());
+            assertEquals(1, d.getDelivered());
+            assertEquals(0, d.getRetried());
+            assertEquals(0, d.getFailed());
+            assertEquals(0, d.getPending());
+        } finally {
+            d.close();
+        }
+    }
+
+    public void testConnectFailureRetried() throws Exception {
+        TestTransport transport = new TestTransport(2, new ConnectException("Connection refused"));
+        NonAnonymousResponseDispatcher d = dispatcher(transport, 3, 1);
+        try {
+            Callback callback = new Callback();
+            d.dispatch(response(), callback);
+            callback.await();
+
+            assertNotNull(callback.response);
+            assertEquals(3, transport.requests.get());
+            assertEquals(1, d.getDelivered());
+            assertEquals(2, d.getRetried());
+            assertEquals(0, d.getFailed());
+            assertEquals(0, d.getPending());
+        } finally {
+            d.close();
+        }
+    }
+
+    public void testGivenUpAfterLastRetry() throws Exception {
+        TestTransport transport = new TestTransport(Integer.MAX_VALUE, new ConnectException("Connection refused"));
+        NonAnonymousResponseDispatcher d = dispatcher(transport, 2, 1);
+        try {
+            Callback callback = new Callback();
+            d.dispatch(response(), callback);
+            callback.await();
+
+            assertNull(callback.response);
+            assertNotNull(callback.error);
+            assertEquals(3, transport.requests.get());
+            assertEquals(0, d.getDelivered());
+            assertEquals(2, d.getRetried());
+            assertEquals(1, d.getFailed());
+            assertEquals(0, d.getPending());
+        } finally {
+            d.close();
+        }
+    }
+
+    /**
+     * A read timeout may come after the destination got the response,
+     * sending it again could duplicate it.
+     */
+    public void testReadTimeoutNotRetried() throws Exception {
+        TestTransport transport = new TestTransport(1, new SocketTimeoutException("Read timed out"));
+        NonAnonymousResponseDispatcher d = dispatcher(transport, 3, 1);
+        try {
+            Callback callback = new Callback();
+            d.dispatch(response(), callback);
+            callback.await();
+
+            assertNotNull(callback.error);
+            assertEquals(1, transport.requests.get());
+            assertEquals(0, d.getRetried());
+            assertEquals(1, d.getFailed());
+            assertEquals(0, d.getPending());
+        } finally {
+            d.close();
+        }
+    }
+
+    public void testCloseWhileWaitingForRetry() throws Exception {
+        TestTransport transport = new TestTransport(Integer.MAX_VALUE, new ConnectException("Connection refused"));
+        NonAnonymousResponseDispatcher d = dispatcher(transport, 3, TimeUnit.MINUTES.toMillis(10));
+        Callback callback = new Callback();
+        d.dispatch(response(), callback);
+        for (int i = 0; i < 1000 && d.getRetried() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, d.getRetried());
+        assertEquals(1, d.getPending());
+
+        d.close();
+        callback.await();
+
+        assertNotNull(callback.error);
+        assertEquals(1, transport.requests.get());
+        assertEquals(1, d.getFailed());
+        assertEquals(0, d.getPending());
+
+        try {
+            d.dispatch(response(), new Callback());
+            fail("dispatched after close");
+        } catch (WebServiceException expected) {
+        }
+        assertEquals(0, d.getPending());
+    }
+
+    public void testIsNotSent() {
+        assertTrue(NonAnonymousResponseDispatcher.isNotSent(
+                new WebServiceException(new ConnectException())));
+        assertFalse(NonAnonymousResponseDispatcher.isNotSent(
+                new WebServiceException(new SocketTimeoutException())));
+        assertFalse(NonAnonymousResponseDispatcher.isNotSent(new WebServiceException("HTTP 500")));
+    }
+}
@@ -41,6 +41,7 @@
 package com.sun.xml.ws.api.message;
 
 import java.io.ByteArrayInputStream;
+import java.util.Iterator;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
@@ -102,6 +103,38 @@ public class HeaderListTest extends TestCase {
         }
     }
     
+    public void testLookupByNameWithManyHeaders() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            testInstance.add(Headers.create(new QName(TEST_NS, "h" + (i % 10)), "" + i));
+        }
+
+        Header h = testInstance.get(TEST_NS, "h3", false);
+        assertSame(testInstance.get(3), h);
+        assertFalse(testInstance.isUnderstood(3));
+        assertNull(testInstance.get("urn:other", "h3", false));
+
+        Iterator<Header> it = testInstance.getHeaders(TEST_NS, "h3", true);
+        assertSame(testInstance.get(3), it.next());
+        assertSame(testInstance.get(13), it.next());
+        assertFalse(it.hasNext());
+        assertTrue(testInstance.isUnderstood(3));
+        assertTrue(testInstance.isUnderstood(13));
+
+        // lookups must see structural changes and replaced headers
+        testInstance.remove(3);
+        assertSame(testInstance.get(12), testInstance.get(TEST_NS, "h3", false));
+        assertTrue(testInstance.isUnderstood(TEST_NS, "h3"));
+        testInstance.set(0, Headers.create(new QName(TEST_NS, "x"), "x"));
+        assertSame(testInstance.get(0), testInstance.get(TEST_NS, "x", false));
+        assertSame(testInstance.get(9), testInstance.get(TEST_NS, "h0", false));
+
+        Header replacement = Headers.create(new QName(TEST_NS, "h5"), "new");
+        testInstance.addOrReplace(replacement);
+        assertSame(replacement, testInstance.get(4));
+        assertSame(replacement, testInstance.remove(TEST_NS, "h5"));
+        assertSame(testInstance.get(13), testInstance.get(TEST_NS, "h5", false));
+    }
+
     public void testUnderstoodBehavior() throws Exception {
       //a fairly complex SOAPMessage with 2 mustUnderstand=true headers, 
         //one mustUnderstand=false and one with no mustUnderstand specified
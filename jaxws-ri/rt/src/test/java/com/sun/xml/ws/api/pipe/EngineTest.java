@@ -42,7 +42,9 @@ package com.sun.xml.ws.api.pipe;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import com.sun.istack.NotNull;
 import com.sun.xml.ws.api.message.Packet;
@@ -141,6 +143,37 @@ public class EngineTest extends TestCase {
         assertEquals(testContainer, firstCall.container);
     }
     
+    public void testVirtualThreadsEngine() throws Exception {
+        Container testContainer = new Container() {};
+        Engine e = new Engine("engine1", testContainer, true);
+
+        Fiber f = e.createFiber();
+        TestTube testTube = new TestTube();
+        Packet request = new Packet();
+        final CountDownLatch done = new CountDownLatch(1);
+        final SimpleCompletionCallback callback = new SimpleCompletionCallback() {
+            @Override
+            public void onCompletion(@NotNull Packet response) {
+                super.onCompletion(response);
+                done.countDown();
+            }
+
+            @Override
+            public void onCompletion(@NotNull Throwable error) {
+                super.onCompletion(error);
+                done.countDown();
+            }
+        };
+
+        // runs on a virtual thread when the JDK has them, on the default pool otherwise
+        f.start(testTube, request, callback);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(request, callback.response);
+        assertNull(callback.error);
+        assertEquals(testContainer, testTube.getCalls().get(0).container);
+    }
+
     static class SimpleCompletionCallback implements CompletionCallback {
         public Packet response = null;
         public Throwable error = null;
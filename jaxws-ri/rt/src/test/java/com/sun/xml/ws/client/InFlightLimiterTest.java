@@ -0,0 +1,146 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.xml.ws.WebServiceException;
+
+import junit.framework.TestCase;
+
+public class InFlightLimiterTest extends TestCase {
+
+    public void testStartsUpToTheLimit() {
+        InFlightLimiter limiter = new InFlightLimiter(2);
+        final List<Integer> started = new ArrayList<Integer>();
+        for (int i = 0; i < 5; i++) {
+            final int n = i;
+            limiter.submit(new Runnable() {
+                public void run() {
+                    started.add(n);
+                }
+            });
+        }
+        assertEquals(2, started.size());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(3, limiter.getWaiting());
+
+        limiter.completed();
+        assertEquals(3, started.size());
+        assertEquals(Integer.valueOf(2), started.get(2));
+
+        limiter.completed();
+        limiter.completed();
+        limiter.completed();
+        assertEquals(5, started.size());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    public void testCompletionOnStartingThreadDoesNotRecurse() {
+        final InFlightLimiter limiter = new InFlightLimiter(1);
+        final int[] depth = new int[1];
+        final int[] maxDepth = new int[1];
+        final int[] started = new int[1];
+        for (int i = 0; i < 1000; i++) {
+            limiter.submit(new Runnable() {
+                public void run() {
+                    depth[0]++;
+                    maxDepth[0] = Math.max(maxDepth[0], depth[0]);
+                    started[0]++;
+                    // completes synchronously, as a cancelled invocation does
+                    limiter.completed();
+                    depth[0]--;
+                }
+            });
+        }
+        assertEquals(1000, started[0]);
+        assertEquals(1, maxDepth[0]);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    public void testResponseCompletesFuture() throws Exception {
+        AsyncResponseImpl<String> r = new AsyncResponseImpl<String>(NOOP, null);
+        CompletableFuture<String> f = r.toCompletableFuture();
+        assertSame(f, r.toCompletableFuture());
+        assertFalse(f.isDone());
+
+        r.set("hello", null);
+        assertEquals("hello", f.get());
+        assertEquals("hello", r.get());
+    }
+
+    public void testResponseFailsFuture() throws Exception {
+        AsyncResponseImpl<String> r = new AsyncResponseImpl<String>(NOOP, null);
+        WebServiceException error = new WebServiceException("boom");
+        r.set(null, error);
+        try {
+            r.toCompletableFuture().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(error, e.getCause());
+        }
+    }
+
+    public void testCancellingFutureCancelsResponse() {
+        AsyncResponseImpl<String> r = new AsyncResponseImpl<String>(NOOP, null);
+        assertTrue(r.toCompletableFuture().cancel(true));
+        assertTrue(r.isCancelled());
+
+        r = new AsyncResponseImpl<String>(NOOP, null);
+        r.cancel(true);
+        try {
+            r.toCompletableFuture().join();
+            fail();
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
+    private static final Runnable NOOP = new Runnable() {
+        public void run() {
+        }
+    };
+}
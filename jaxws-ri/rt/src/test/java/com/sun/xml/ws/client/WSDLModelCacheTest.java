@@ -0,0 +1,186 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.client;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
+import com.sun.xml.ws.api.wsdl.parser.WSDLParserExtension;
+import com.sun.xml.ws.model.wsdl.WSDLModelImpl;
+
+import junit.framework.TestCase;
+
+public class WSDLModelCacheTest extends TestCase {
+
+    private static final WSDLParserExtension[] NO_EXTENSIONS = new WSDLParserExtension[0];
+
+    private final Object container = new Object();
+
+    public void testKey() {
+        WSDLModelCache.Key key = key("http://host/echo?wsdl", container);
+        assertEquals(key, key("http://host/echo?wsdl", container));
+        assertEquals(key.hashCode(), key("http://host/echo?wsdl", container).hashCode());
+        assertFalse(key.equals(key("http://host/other?wsdl", container)));
+        assertFalse(key.equals(key("http://host/echo?wsdl", new Object())));
+        assertFalse(key.equals(key("http://host/echo?wsdl", null)));
+        assertEquals(key("http://host/echo?wsdl", null), key("http://host/echo?wsdl", null));
+        assertFalse(key.equals(new WSDLModelCache.Key("http://host/echo?wsdl", new Object[] {container},
+                new WSDLParserExtension[] {new WSDLParserExtension() {}})));
+    }
+
+    public void testModelsAreShared() {
+        WSDLModelCache cache = new WSDLModelCache(10);
+        WSDLModel model = newModel();
+        assertNull(cache.get(key("a", container)));
+        assertSame(model, cache.put(key("a", container), model, WSDLModelCache.Validator.UNCHANGING));
+        assertSame(model, cache.get(key("a", container)));
+
+        // parsed concurrently by another thread
+        assertSame(model, cache.put(key("a", container), newModel(), WSDLModelCache.Validator.UNCHANGING));
+        assertNull(cache.get(key("a", new Object())));
+    }
+
+    public void testLeastRecentlyUsedModelsAreDropped() {
+        WSDLModelCache cache = new WSDLModelCache(2);
+        WSDLModel a = newModel();
+        cache.put(key("a", container), a, WSDLModelCache.Validator.UNCHANGING);
+        cache.put(key("b", container), newModel(), WSDLModelCache.Validator.UNCHANGING);
+        assertSame(a, cache.get(key("a", container)));
+        cache.put(key("c", container), newModel(), WSDLModelCache.Validator.UNCHANGING);
+        assertEquals(2, cache.size());
+        assertSame(a, cache.get(key("a", container)));
+        assertNull(cache.get(key("b", container)));
+    }
+
+    public void testChangedFileIsParsedAgain() throws Exception {
+        File wsdl = File.createTempFile("echo", ".wsdl");
+        try {
+            write(wsdl, "<definitions/>");
+            String location = wsdl.toURI().toString();
+            WSDLModelCache cache = new WSDLModelCache(10);
+            WSDLModel model = newModel();
+            cache.put(key(location, container), model, WSDLModelCache.createValidator(location));
+            assertSame(model, cache.get(key(location, container)));
+
+            long lastModified = wsdl.lastModified();
+            write(wsdl, "<definitions name='changed'/>");
+            assertTrue(wsdl.setLastModified(lastModified + 2000));
+            assertNull(cache.get(key(location, container)));
+            assertEquals(0, cache.size());
+        } finally {
+            wsdl.delete();
+        }
+    }
+
+    public void testChangedRemoteWSDLIsParsedAgain() throws Exception {
+        final String[] etag = {"\"1\""};
+        final int[] requests = {0};
+        final boolean[] downloaded = {false};
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                requests[0]++;
+                exchange.getResponseHeaders().set("ETag", etag[0]);
+                if (etag[0].equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    downloaded[0] = true;
+                    byte[] wsdl = "<definitions/>".getBytes();
+                    exchange.sendResponseHeaders(200, wsdl.length);
+                    exchange.getResponseBody().write(wsdl);
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            String location = "http://localhost:" + server.getAddress().getPort() + "/echo?wsdl";
+            WSDLModelCache cache = new WSDLModelCache(10, 0);
+            WSDLModel model = newModel();
+            cache.put(key(location, container), model, WSDLModelCache.createValidator(location));
+            assertSame(model, cache.get(key(location, container)));
+            assertEquals(2, requests[0]);
+
+            etag[0] = "\"2\"";
+            assertNull(cache.get(key(location, container)));
+
+            // not revalidated before the interval is over
+            cache = new WSDLModelCache(10, 60000);
+            cache.put(key(location, container), model, WSDLModelCache.createValidator(location));
+            etag[0] = "\"3\"";
+            assertSame(model, cache.get(key(location, container)));
+
+            // the validators are read without downloading the WSDL
+            assertFalse(downloaded[0]);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes());
+        } finally {
+            out.close();
+        }
+    }
+
+    private static WSDLModelCache.Key key(String location, Object scope) {
+        return new WSDLModelCache.Key(location, new Object[] {scope, WSDLModelCacheTest.class}, NO_EXTENSIONS);
+    }
+
+    /**
+     * The cache never looks into the models, an empty one will do.
+     */
+    private static WSDLModel newModel() {
+        return new WSDLModelImpl();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.dump;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class DumpRingBufferTest extends TestCase {
+
+    public void testCapacityIsRoundedUp() {
+        assertEquals(8, new DumpRingBuffer<Object>(5).capacity());
+        assertEquals(8, new DumpRingBuffer<Object>(8).capacity());
+        assertEquals(1, new DumpRingBuffer<Object>(1).capacity());
+    }
+
+    public void testFifoAndFull() {
+        DumpRingBuffer<Integer> b = new DumpRingBuffer<Integer>(4);
+        assertTrue(b.isEmpty());
+        assertNull(b.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(b.offer(i));
+        }
+        assertFalse(b.offer(4));
+        assertEquals(Integer.valueOf(0), b.poll());
+        assertTrue(b.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(Integer.valueOf(i), b.poll());
+        }
+        assertNull(b.poll());
+        assertTrue(b.isEmpty());
+    }
+
+    public void testConcurrentProducers() throws Exception {
+        final DumpRingBuffer<Integer> b = new DumpRingBuffer<Integer>(64);
+        final int producers = 4;
+        final int perProducer = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!b.offer(i)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            threads[p].start();
+        }
+        start.countDown();
+        AtomicInteger received = new AtomicInteger();
+        long sum = 0;
+        while (received.get() < producers * perProducer) {
+            Integer i = b.poll();
+            if (i != null) {
+                received.incrementAndGet();
+                sum += i;
+            }
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals((long) producers * perProducer * (perProducer - 1) / 2, sum);
+        assertNull(b.poll());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.dump;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.dump.MessageDumper.MessageType;
+import com.sun.xml.ws.dump.MessageDumper.ProcessingState;
+import com.sun.xml.ws.message.stream.StreamMessage;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+
+public class MessageDumpingFeatureTest extends TestCase {
+
+    private static final QName ECHO = new QName("urn:test", "echo");
+
+    private static final String ENVELOPE =
+            "<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">" +
+            "<S:Body><t:echo xmlns:t=\"urn:test\"><t:value>hello</t:value></t:echo></S:Body>" +
+            "</S:Envelope>";
+
+    private static Message createMessage() throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(ENVELOPE));
+        return new StreamMessage(SOAPVersion.SOAP_11, reader, null);
+    }
+
+    public void testSamplingRate() {
+        MessageDumpingFeature all = new MessageDumpingFeature(null, null, false, false, 1.0, 0);
+        MessageDumpingFeature none = new MessageDumpingFeature(null, null, false, false, 0.0, 0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(all.sample(null));
+            assertFalse(none.sample(null));
+        }
+
+        assertFalse(none.hasOperationSamplingRates());
+        none.setSamplingRate(ECHO, 1.0);
+        assertTrue(none.hasOperationSamplingRates());
+        assertEquals(1.0, none.getSamplingRate(ECHO));
+        assertEquals(0.0, none.getSamplingRate(new QName("urn:test", "other")));
+        assertTrue(none.sample(ECHO));
+        assertFalse(none.sample(null));
+
+        try {
+            none.setSamplingRate(ECHO, 1.5);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new MessageDumpingFeature(null, null, false, false, -0.1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testMaxMessageSize() throws Exception {
+        AsyncMessageDumper.Capture whole = AsyncMessageDumper.capture(createMessage(), 0);
+        assertFalse(whole.truncated);
+        assertTrue(whole.toString().contains("hello"));
+
+        AsyncMessageDumper.Capture cut = AsyncMessageDumper.capture(createMessage(), 60);
+        assertTrue(cut.truncated);
+        assertEquals(60, cut.length);
+        assertFalse(cut.toString().contains("hello"));
+        assertTrue(cut.toString().endsWith("[ Truncated after 60 bytes ]"));
+
+        try {
+            new MessageDumpingFeature(null, null, false, true, 1.0, -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testAsync() throws Exception {
+        MessageDumpingFeature feature = new MessageDumpingFeature(null, Level.FINEST, true, true, 1.0, 0);
+        assertTrue(feature.isAsync());
+        MessageDumper dumper = new MessageDumper("test", Logger.getLogger(getClass().getName()), Level.FINEST);
+        AsyncMessageDumper.Capture capture = AsyncMessageDumper.capture(createMessage(), feature.getMaxMessageSize());
+        assertTrue(AsyncMessageDumper.submit(new AsyncMessageDumper.Record(dumper, feature,
+                MessageType.Request, ProcessingState.Received, 1, "engine", capture, null)));
+
+        String dump = null;
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((dump = feature.nextMessage()) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(dump);
+        assertTrue(dump.contains("hello"));
+        assertTrue(dump.contains(Thread.currentThread().getName()));
+
+        // the writer doesn't hold on to the class loader of the request thread
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if ("jaxws-message-dump-writer".equals(t.getName())) {
+                assertNull(t.getContextClassLoader());
+            }
+        }
+    }
+}
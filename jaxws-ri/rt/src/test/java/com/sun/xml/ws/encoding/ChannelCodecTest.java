@@ -0,0 +1,154 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Attachment;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.ContentType;
+import com.sun.xml.ws.binding.WebServiceFeatureList;
+import com.sun.xml.ws.message.ByteArrayAttachment;
+import junit.framework.TestCase;
+
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Round trips messages through the {@link java.nio.channels} encode/decode paths.
+ */
+public class ChannelCodecTest extends TestCase {
+
+    public void testSOAP11SmallMessage() throws Exception {
+        roundTrip(StreamSOAPCodec.create(SOAPVersion.SOAP_11), SOAPVersion.SOAP_11, "hello");
+    }
+
+    public void testSOAP12LargeMessage() throws Exception {
+        // spans several pooled buffers
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("0123456789");
+        }
+        roundTrip(StreamSOAPCodec.create(SOAPVersion.SOAP_12), SOAPVersion.SOAP_12, sb.toString());
+    }
+
+    public void testMtomLargeAttachment() throws Exception {
+        WebServiceFeatureList features = new WebServiceFeatureList();
+        MtomCodec codec = new MtomCodec(SOAPVersion.SOAP_11, StreamSOAPCodec.create(SOAPVersion.SOAP_11), features);
+        byte[] data = attachmentData();
+
+        Message m = Messages.createUsingPayload(new StreamSource(new StringReader(
+                "<echo xmlns='urn:test'><data><xop:Include xmlns:xop='http://www.w3.org/2004/08/xop/include'" +
+                " href='cid:data@test'/></data></echo>")), SOAPVersion.SOAP_11);
+        m.getAttachments().add(new ByteArrayAttachment("data@test", data, "application/octet-stream"));
+
+        Message decoded = roundTrip(codec, new Packet(m));
+        Attachment att = decoded.getAttachments().get("data@test");
+        assertNotNull(att);
+        assertTrue(Arrays.equals(data, att.asByteArray()));
+        // the xop:Include is resolved into the content of the attachment
+        XMLStreamReader reader = decoded.readPayload();
+        reader.nextTag();
+        assertEquals("data", reader.getLocalName());
+        assertEquals(XMLStreamReader.CHARACTERS, reader.next());
+        assertTrue(Arrays.equals(data, Base64.getMimeDecoder().decode(reader.getText())));
+    }
+
+    public void testSwALargeAttachment() throws Exception {
+        WebServiceFeatureList features = new WebServiceFeatureList();
+        SwACodec codec = new SwACodec(SOAPVersion.SOAP_12, features, StreamSOAPCodec.create(SOAPVersion.SOAP_12));
+        byte[] data = attachmentData();
+
+        Message m = Messages.createUsingPayload(new StreamSource(new StringReader(
+                "<echo xmlns='urn:test'>hello</echo>")), SOAPVersion.SOAP_12);
+        m.getAttachments().add(new ByteArrayAttachment("data@test", data, "application/octet-stream"));
+        m.getAttachments().add(new ByteArrayAttachment("small@test", new byte[] {1, 2, 3}, "application/octet-stream"));
+
+        Message decoded = roundTrip(codec, new Packet(m));
+        assertEquals("hello", decoded.readPayload().getElementText());
+        Attachment att = decoded.getAttachments().get("data@test");
+        assertNotNull(att);
+        assertTrue(Arrays.equals(data, att.asByteArray()));
+        assertTrue(Arrays.equals(new byte[] {1, 2, 3}, decoded.getAttachments().get("small@test").asByteArray()));
+    }
+
+    /**
+     * More than fits in one pooled direct buffer, and not a multiple of it.
+     */
+    private static byte[] attachmentData() {
+        byte[] data = new byte[3 * DirectBufferPool.BUFFER_SIZE + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+
+    private static Message roundTrip(Codec codec, Packet request) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ContentType ct = codec.encode(request, Channels.newChannel(baos));
+
+        Packet response = new Packet();
+        codec.decode(Channels.newChannel(new ByteArrayInputStream(baos.toByteArray())), ct.getContentType(), response);
+        return response.getMessage();
+    }
+
+    private void roundTrip(Codec codec, SOAPVersion version, String text) throws Exception {
+        Packet request = new Packet(Messages.createUsingPayload(
+                new StreamSource(new StringReader("<echo xmlns='urn:test'>" + text + "</echo>")), version));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ContentType ct = codec.encode(request, Channels.newChannel(baos));
+
+        Packet response = new Packet();
+        codec.decode(Channels.newChannel(new ByteArrayInputStream(baos.toByteArray())), ct.getContentType(), response);
+
+        assertEquals("echo", response.getMessage().getPayloadLocalPart());
+        XMLStreamReader reader = response.getMessage().readPayload();
+        assertEquals(text, reader.getElementText());
+    }
+}
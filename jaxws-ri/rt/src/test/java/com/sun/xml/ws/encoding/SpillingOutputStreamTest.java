@@ -0,0 +1,185 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding;
+
+import com.sun.xml.ws.developer.StreamingDataHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import junit.framework.TestCase;
+
+public class SpillingOutputStreamTest extends TestCase {
+
+    public void testInMemory() throws Exception {
+        SpillingOutputStream out = new SpillingOutputStream(-1, null);
+        out.write("hello".getBytes("US-ASCII"));
+        out.close();
+        StreamingDataHandler dh = out.getDataHandler("application/octet-stream");
+        assertEquals("hello", read(dh.readOnce()));
+        // can be read again
+        assertEquals("hello", read(dh.readOnce()));
+        assertEquals("application/octet-stream", dh.getContentType());
+    }
+
+    public void testSpillToFile() throws Exception {
+        SpillingOutputStream out = new SpillingOutputStream(4, null);
+        out.write('0');
+        out.write("123456789".getBytes("US-ASCII"));
+        out.close();
+        StreamingDataHandler dh = out.getDataHandler("application/octet-stream");
+        assertEquals("0123456789", read(dh.readOnce()));
+        dh.close();
+        try {
+            dh.readOnce();
+            fail("temp file should have been deleted");
+        } catch (java.io.IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Fails the file writes once the given number of bytes is written,
+     * and remembers the temp file.
+     */
+    private static final class FailingSpillingOutputStream extends SpillingOutputStream {
+        private final int failAfter;
+        private final boolean failOnClose;
+        File file;
+
+        FailingSpillingOutputStream(int threshold, int failAfter, boolean failOnClose) {
+            super(threshold, null);
+            this.failAfter = failAfter;
+            this.failOnClose = failOnClose;
+        }
+
+        @Override
+        OutputStream openFile(File f) throws IOException {
+            file = f;
+            return new FilterOutputStream(super.openFile(f)) {
+                private int written;
+
+                @Override
+                public void write(int b) throws IOException {
+                    if (++written > failAfter) {
+                        throw new IOException("disk full");
+                    }
+                    super.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    for (int i = 0; i < len; i++) {
+                        write(b[off + i]);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    if (failOnClose) {
+                        throw new IOException("disk full");
+                    }
+                }
+            };
+        }
+    }
+
+    public void testWriteFailureDeletesFile() throws Exception {
+        FailingSpillingOutputStream out = new FailingSpillingOutputStream(4, 6, false);
+        out.write("0123".getBytes("US-ASCII"));
+        try {
+            // the buffered stream only hits the file when it is full
+            out.write(new byte[20000]);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        assertNotNull(out.file);
+        assertFalse(out.file.exists());
+        try {
+            out.write('x');
+            fail("disposed stream must not be written to");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    public void testCloseFailureDeletesFile() throws Exception {
+        FailingSpillingOutputStream out = new FailingSpillingOutputStream(4, Integer.MAX_VALUE, true);
+        out.write("0123456789".getBytes("US-ASCII"));
+        assertTrue(out.file.exists());
+        try {
+            out.close();
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        assertFalse(out.file.exists());
+    }
+
+    public void testDataHandlerCloseDeletesFile() throws Exception {
+        FailingSpillingOutputStream out = new FailingSpillingOutputStream(4, Integer.MAX_VALUE, false);
+        out.write("0123456789".getBytes("US-ASCII"));
+        out.close();
+        StreamingDataHandler dh = out.getDataHandler("application/octet-stream");
+        assertTrue(out.file.exists());
+        dh.close();
+        assertFalse(out.file.exists());
+        // closing again is harmless
+        dh.close();
+    }
+
+    private static String read(InputStream in) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[3];
+        int len;
+        while ((len = in.read(buf)) != -1) {
+            baos.write(buf, 0, len);
+        }
+        in.close();
+        return baos.toString("US-ASCII");
+    }
+}
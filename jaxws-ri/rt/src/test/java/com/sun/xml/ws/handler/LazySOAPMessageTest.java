@@ -0,0 +1,204 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.handler;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.MessageHeaders;
+import com.sun.xml.ws.message.stream.StreamMessage;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPHeader;
+import javax.xml.soap.SOAPHeaderElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+public class LazySOAPMessageTest extends TestCase {
+
+    private static final String NS = "urn:test";
+    private static final QName FIRST = new QName(NS, "first");
+    private static final QName SECOND = new QName(NS, "second");
+    private static final QName ADDED = new QName(NS, "added");
+
+    private static final String ENVELOPE =
+            "<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">" +
+            "<S:Header><t:first xmlns:t=\"urn:test\">1</t:first><t:second xmlns:t=\"urn:test\">2</t:second></S:Header>" +
+            "<S:Body><t:echo xmlns:t=\"urn:test\"><t:value>hello</t:value></t:echo></S:Body>" +
+            "</S:Envelope>";
+
+    private static Message createMessage() throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(ENVELOPE));
+        return new StreamMessage(SOAPVersion.SOAP_11, reader, null);
+    }
+
+    public void testHeaderChangesKeepPayloadStreaming() throws Exception {
+        Message m = createMessage();
+        m.getHeaders().understood(FIRST);
+        LazySOAPMessage lazy = new LazySOAPMessage(SOAPVersion.SOAP_11, m);
+
+        SOAPHeader header = lazy.getSOAPHeader();
+        assertTrue(header.examineAllHeaderElements().hasNext());
+        header.addHeaderElement(ADDED).addTextNode("2");
+
+        Message updated = lazy.getUpdatedMessage();
+        assertFalse(lazy.isExpanded());
+        assertSame(m, updated);
+        MessageHeaders headers = updated.getHeaders();
+        assertNotNull(headers.get(FIRST, false));
+        assertNotNull(headers.get(ADDED, false));
+        assertTrue(headers.isUnderstood(FIRST));
+        assertFalse(headers.isUnderstood(ADDED));
+
+        // the payload was never read
+        assertTrue(updated.hasPayload());
+        assertEquals("echo", updated.getPayloadLocalPart());
+        XMLStreamReader payload = updated.readPayload();
+        payload.nextTag();
+        assertEquals("hello", payload.getElementText());
+    }
+
+    public void testExpandKeepsHeaderChanges() throws Exception {
+        LazySOAPMessage lazy = new LazySOAPMessage(SOAPVersion.SOAP_11, createMessage());
+        lazy.getSOAPHeader().addHeaderElement(ADDED).addTextNode("2");
+
+        assertEquals("echo", lazy.getSOAPBody().getFirstChild().getLocalName());
+        assertTrue(lazy.isExpanded());
+
+        SOAPMessage whole = lazy.expand();
+        int count = 0;
+        boolean added = false;
+        for (Iterator it = whole.getSOAPHeader().examineAllHeaderElements(); it.hasNext(); count++) {
+            SOAPHeaderElement e = (SOAPHeaderElement) it.next();
+            added |= ADDED.equals(e.getElementQName());
+        }
+        assertEquals(3, count);
+        assertTrue(added);
+    }
+
+    public void testReadOnlyHandlerKeepsHeaders() throws Exception {
+        Message m = createMessage();
+        m.getHeaders().understood(FIRST);
+        Header first = m.getHeaders().get(FIRST, false);
+        Header second = m.getHeaders().get(SECOND, false);
+        LazySOAPMessage lazy = new LazySOAPMessage(SOAPVersion.SOAP_11, m);
+
+        int count = 0;
+        for (Iterator it = lazy.getSOAPHeader().examineAllHeaderElements(); it.hasNext(); count++) {
+            assertNotNull(((SOAPHeaderElement) it.next()).getTextContent());
+        }
+        assertEquals(2, count);
+        assertEquals(0, lazy.countAttachments());
+        assertFalse(lazy.isExpanded());
+
+        MessageHeaders headers = lazy.getUpdatedMessage().getHeaders();
+        assertEquals(2, headers.asList().size());
+        assertSame(first, headers.get(FIRST, false));
+        assertSame(second, headers.get(SECOND, false));
+        assertTrue(headers.isUnderstood(FIRST));
+        assertFalse(headers.isUnderstood(SECOND));
+    }
+
+    public void testOnlyChangedHeadersAreReplaced() throws Exception {
+        Message m = createMessage();
+        m.getHeaders().understood(FIRST);
+        Header second = m.getHeaders().get(SECOND, false);
+        LazySOAPMessage lazy = new LazySOAPMessage(SOAPVersion.SOAP_11, m);
+
+        SOAPHeader header = lazy.getSOAPHeader();
+        for (Iterator it = header.examineAllHeaderElements(); it.hasNext(); ) {
+            SOAPHeaderElement e = (SOAPHeaderElement) it.next();
+            if (FIRST.equals(e.getElementQName())) {
+                e.setTextContent("changed");
+            }
+        }
+
+        MessageHeaders headers = lazy.getUpdatedMessage().getHeaders();
+        assertEquals(2, headers.asList().size());
+        assertSame(second, headers.get(SECOND, false));
+        Header first = headers.get(FIRST, false);
+        assertEquals("changed", first.getStringContent());
+        assertTrue(headers.isUnderstood(FIRST));
+
+        // nothing changed since
+        assertSame(first, lazy.getUpdatedMessage().getHeaders().get(FIRST, false));
+
+        for (Iterator it = header.examineAllHeaderElements(); it.hasNext(); ) {
+            SOAPHeaderElement e = (SOAPHeaderElement) it.next();
+            if (SECOND.equals(e.getElementQName())) {
+                e.detachNode();
+            }
+        }
+        headers = lazy.getUpdatedMessage().getHeaders();
+        assertEquals(1, headers.asList().size());
+        assertSame(first, headers.get(FIRST, false));
+        assertNull(headers.get(SECOND, false));
+    }
+
+    public void testNestedChangeReplacesItsHeader() throws Exception {
+        Message m = createMessage();
+        Header first = m.getHeaders().get(FIRST, false);
+        LazySOAPMessage lazy = new LazySOAPMessage(SOAPVersion.SOAP_11, m);
+
+        for (Iterator it = lazy.getSOAPHeader().examineAllHeaderElements(); it.hasNext(); ) {
+            SOAPHeaderElement e = (SOAPHeaderElement) it.next();
+            if (SECOND.equals(e.getElementQName())) {
+                e.addChildElement("nested", "t", NS).addTextNode("3");
+            }
+        }
+
+        MessageHeaders headers = lazy.getUpdatedMessage().getHeaders();
+        assertSame(first, headers.get(FIRST, false));
+        assertEquals("23", headers.get(SECOND, false).getStringContent());
+    }
+
+    public void testUntouchedMessageIsReturnedAsIs() throws Exception {
+        Message m = createMessage();
+        LazySOAPMessage lazy = new LazySOAPMessage(SOAPVersion.SOAP_11, m);
+        assertSame(m, lazy.getUpdatedMessage());
+        assertNotNull(m.getHeaders().get(FIRST, false));
+    }
+}
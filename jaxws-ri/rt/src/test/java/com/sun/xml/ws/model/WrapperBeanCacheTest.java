@@ -0,0 +1,116 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.model;
+
+import javax.xml.namespace.QName;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class WrapperBeanCacheTest extends TestCase {
+
+    private static final QName ELEMENT = new QName("urn:test", "echo");
+
+    private File dir;
+
+    public interface Echo {
+        String echo(String value);
+
+        int add(int a, int b);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("wrapper-beans").toFile();
+        System.setProperty(WrapperBeanCache.DIR_PROPERTY, dir.getPath());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        System.clearProperty(WrapperBeanCache.DIR_PROPERTY);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    public void testStoreAndLoad() throws Exception {
+        Method echo = Echo.class.getMethod("echo", String.class);
+        String key = WrapperBeanCache.key("test.jaxws.Echo", echo, ELEMENT);
+        assertNotNull(key);
+        assertNull(WrapperBeanCache.load("test.jaxws.Echo", key));
+
+        byte[] image = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 52};
+        WrapperBeanCache.store("test.jaxws.Echo", key, image);
+        assertTrue(Arrays.equals(image, WrapperBeanCache.load("test.jaxws.Echo", key)));
+        // no temporary files left behind
+        assertEquals(1, dir.listFiles().length);
+    }
+
+    public void testKeyDependsOnMethodAndElement() throws Exception {
+        Method echo = Echo.class.getMethod("echo", String.class);
+        Method add = Echo.class.getMethod("add", int.class, int.class);
+        String key = WrapperBeanCache.key("test.jaxws.Echo", echo, ELEMENT);
+        assertEquals(key, WrapperBeanCache.key("test.jaxws.Echo", echo, ELEMENT));
+        assertFalse(key.equals(WrapperBeanCache.key("test.jaxws.Echo", add, ELEMENT)));
+        assertFalse(key.equals(WrapperBeanCache.key("test.jaxws.Echo", echo, new QName("urn:test", "other"))));
+        assertFalse(key.equals(WrapperBeanCache.key("test.jaxws.EchoResponse", echo, ELEMENT)));
+    }
+
+    public void testCorruptedEntryIgnored() throws Exception {
+        Method echo = Echo.class.getMethod("echo", String.class);
+        String key = WrapperBeanCache.key("test.jaxws.Echo", echo, ELEMENT);
+        WrapperBeanCache.store("test.jaxws.Echo", key, new byte[]{1, 2, 3, 4});
+        assertNull(WrapperBeanCache.load("test.jaxws.Echo", key));
+    }
+
+    public void testDisabled() throws Exception {
+        System.clearProperty(WrapperBeanCache.DIR_PROPERTY);
+        Method echo = Echo.class.getMethod("echo", String.class);
+        assertNull(WrapperBeanCache.key("test.jaxws.Echo", echo, ELEMENT));
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.sun.xml.ws.api.server.DocumentAddressResolver;
+import com.sun.xml.ws.api.server.PortAddressResolver;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.wsdl.parser.WSDLConstants;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+
+import junit.framework.TestCase;
+
+public class MetadataCacheTest extends TestCase {
+
+    private static final byte[] WSDL = "<definitions/>".getBytes();
+
+    public void testDocumentsAreKeptPerBaseAddressAndGeneration() {
+        MetadataCache cache = new MetadataCache();
+        SDDocument doc = newDocument();
+        assertNull(cache.get(doc, "http://a", 0));
+
+        MetadataCache.Document d = cache.put(doc, "http://a", 0, WSDL);
+        assertSame(d, cache.get(doc, "http://a", 0));
+        assertNull(cache.get(doc, "http://b", 0));
+        assertNull(cache.get(newDocument(), "http://a", 0));
+
+        // an adapter was added or removed, the stale document is dropped
+        assertNull(cache.get(doc, "http://a", 1));
+        assertEquals(0, cache.size());
+        MetadataCache.Document d1 = cache.put(doc, "http://a", 1, WSDL);
+        assertSame(d1, cache.get(doc, "http://a", 1));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertNull(cache.get(doc, "http://a", 1));
+    }
+
+    public void testNullBaseAddress() {
+        MetadataCache cache = new MetadataCache();
+        SDDocument doc = newDocument();
+        assertNull(cache.get(doc, null, 0));
+        MetadataCache.Document d = cache.put(doc, null, 0, WSDL);
+        assertSame(d, cache.get(doc, null, 0));
+        assertNull(cache.get(doc, "http://a", 0));
+        cache.put(doc, "http://a", 0, WSDL);
+        assertSame(d, cache.get(doc, null, 0));
+    }
+
+    public void testSizeIsBounded() {
+        MetadataCache cache = new MetadataCache();
+        SDDocument doc = newDocument();
+        for (int i = 0; i < 1000; i++) {
+            assertNotNull(cache.put(doc, "http://host" + i, 0, WSDL));
+        }
+        assertTrue(cache.size() < 1000);
+        assertNull(cache.get(doc, "http://host0", 0));
+        assertNotNull(cache.get(doc, "http://host999", 0));
+    }
+
+    public void testLeastRecentlyUsedIsDropped() {
+        MetadataCache cache = new MetadataCache(2);
+        SDDocument doc = newDocument();
+        cache.put(doc, "http://a", 0, WSDL);
+        cache.put(doc, "http://b", 0, WSDL);
+        assertNotNull(cache.get(doc, "http://a", 0));
+        cache.put(doc, "http://c", 0, WSDL);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(doc, "http://a", 0));
+        assertNull(cache.get(doc, "http://b", 0));
+        assertNotNull(cache.get(doc, "http://c", 0));
+    }
+
+    public void testETag() throws Exception {
+        MetadataCache.Document d = new MetadataCache.Document(WSDL, 0);
+        String etag = d.getETag(false);
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertFalse(etag.equals(d.getETag(true)));
+        assertEquals(etag, new MetadataCache.Document(WSDL.clone(), 5).getETag(false));
+        assertFalse(etag.equals(new MetadataCache.Document("<definitions />".getBytes(), 0).getETag(false)));
+
+        assertFalse(d.isNotModified(null, false));
+        assertFalse(d.isNotModified("\"other\"", false));
+        assertTrue(d.isNotModified(etag, false));
+        assertTrue(d.isNotModified("\"other\", W/" + etag, false));
+        assertTrue(d.isNotModified("*", false));
+        assertTrue(d.isNotModified("*", true));
+
+        // only the tag of the variant being served matches
+        assertFalse(d.isNotModified(etag, true));
+        assertFalse(d.isNotModified(d.getETag(true), false));
+        assertTrue(d.isNotModified(d.getETag(true), true));
+    }
+
+    public void testGzip() throws Exception {
+        MetadataCache.Document d = new MetadataCache.Document(WSDL, 0);
+        byte[] gz = d.getGzipped();
+        assertSame(gz, d.getGzipped());
+        ByteArrayBuffer buf = new ByteArrayBuffer();
+        buf.write(new GZIPInputStream(new ByteArrayInputStream(gz)));
+        assertTrue(Arrays.equals(WSDL, buf.toByteArray()));
+    }
+
+    public void testAcceptsGzip() {
+        assertFalse(MetadataCache.acceptsGzip(null));
+        assertFalse(MetadataCache.acceptsGzip("identity"));
+        assertFalse(MetadataCache.acceptsGzip("deflate, br"));
+        assertTrue(MetadataCache.acceptsGzip("gzip"));
+        assertTrue(MetadataCache.acceptsGzip("deflate, GZIP"));
+        assertTrue(MetadataCache.acceptsGzip("gzip;q=0.5, deflate"));
+        assertFalse(MetadataCache.acceptsGzip("gzip;q=0"));
+        assertFalse(MetadataCache.acceptsGzip("gzip; q=0.0"));
+    }
+
+    private static SDDocument newDocument() {
+        return new WSDLDocument();
+    }
+
+    /**
+     * The cache only tells documents apart by identity, and never asks them
+     * anything; this one always renders {@link #WSDL}.
+     */
+    private static final class WSDLDocument implements SDDocument {
+        public QName getRootName() {
+            return WSDLConstants.QNAME_DEFINITIONS;
+        }
+
+        public boolean isWSDL() {
+            return true;
+        }
+
+        public boolean isSchema() {
+            return false;
+        }
+
+        public Set<String> getImports() {
+            return Collections.emptySet();
+        }
+
+        public URL getURL() {
+            return null;
+        }
+
+        public void writeTo(PortAddressResolver portAddressResolver, DocumentAddressResolver resolver,
+                OutputStream os) throws IOException {
+            os.write(WSDL);
+        }
+
+        public void writeTo(PortAddressResolver portAddressResolver, DocumentAddressResolver resolver,
+                XMLStreamWriter out) throws XMLStreamException {
+            out.writeEmptyElement("definitions");
+        }
+    }
+}
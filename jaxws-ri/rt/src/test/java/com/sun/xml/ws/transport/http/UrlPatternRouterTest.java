@@ -0,0 +1,154 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class UrlPatternRouterTest extends TestCase {
+
+    public void testExactPatterns() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        assertTrue(r.add("/echo", "echo"));
+        assertTrue(r.add("/echo2", "echo2"));
+        assertTrue(r.add("/ec", "ec"));
+        assertEquals("echo", r.route("/echo"));
+        assertEquals("echo2", r.route("/echo2"));
+        assertEquals("ec", r.route("/ec"));
+        assertNull(r.route("/e"));
+        assertNull(r.route("/echo/x"));
+        assertNull(r.route("/echo3"));
+        assertNull(r.route(""));
+    }
+
+    public void testDuplicateExactPattern() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        assertTrue(r.add("/echo", "first"));
+        assertFalse(r.add("/echo", "second"));
+        assertEquals("first", r.route("/echo"));
+        assertTrue(r.contains("first"));
+        assertFalse(r.contains("second"));
+    }
+
+    public void testImplicitPatternIsRejected() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        assertFalse(r.add("*.ws", "ws"));
+        assertNull(r.route("/a.ws"));
+    }
+
+    public void testPathPatterns() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        r.add("/svc/*", "svc");
+        assertEquals("svc", r.route("/svc"));
+        assertEquals("svc", r.route("/svc/a/b"));
+        assertEquals("svc", r.route("/svc?wsdl"));
+        assertNull(r.route("/svcx"));
+        assertNull(r.route("/sv"));
+    }
+
+    public void testExactWinsOverPath() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        r.add("/svc/*", "path");
+        r.add("/svc/echo", "exact");
+        assertEquals("exact", r.route("/svc/echo"));
+        assertEquals("path", r.route("/svc/echo2"));
+        assertEquals("path", r.route("/svc/echo/x"));
+    }
+
+    public void testFirstAddedPathPatternWins() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        r.add("/a/b/*", "ab");
+        r.add("/a/*", "a");
+        assertEquals("ab", r.route("/a/b/c"));
+        assertEquals("a", r.route("/a/c"));
+
+        r = new UrlPatternRouter<String>();
+        r.add("/a/*", "a");
+        r.add("/a/b/*", "ab");
+        assertEquals("a", r.route("/a/b/c"));
+    }
+
+    public void testDefaultPattern() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        r.add("/*", "all");
+        r.add("/echo", "echo");
+        assertEquals("all", r.route(""));
+        assertEquals("all", r.route("/anything"));
+        assertEquals("echo", r.route("/echo"));
+    }
+
+    public void testRouteWithOffset() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        r.add("/echo", "echo");
+        r.add("/svc/*", "svc");
+        assertEquals("echo", r.route("/ctx/echo", 4));
+        assertEquals("svc", r.route("/ctx/svc/x", 4));
+        assertNull(r.route("/ctx/echo", 0));
+    }
+
+    public void testRemove() {
+        UrlPatternRouter<String> r = new UrlPatternRouter<String>();
+        r.add("/a/*", "a");
+        r.add("/a/b/*", "ab");
+        r.add("/echo", "echo");
+        assertTrue(r.remove("a"));
+        assertFalse(r.remove("a"));
+        assertEquals("ab", r.route("/a/b/c"));
+        assertNull(r.route("/a/c"));
+        assertEquals(Arrays.asList("/a/b/*", "/echo"), r.getUrlPatterns());
+        assertTrue(r.add("/echo2", "echo2"));
+        assertTrue(r.remove("echo"));
+        assertNull(r.route("/echo"));
+        assertEquals("echo2", r.route("/echo2"));
+    }
+
+    public void testManyPatterns() {
+        UrlPatternRouter<Integer> r = new UrlPatternRouter<Integer>();
+        for (int i = 0; i < 400; i++) {
+            assertTrue(r.add("/services/port" + i, i));
+        }
+        for (int i = 0; i < 400; i++) {
+            assertEquals(Integer.valueOf(i), r.route("/services/port" + i));
+        }
+        assertNull(r.route("/services/port400"));
+    }
+}
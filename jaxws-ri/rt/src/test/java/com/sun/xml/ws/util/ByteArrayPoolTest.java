@@ -0,0 +1,149 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class ByteArrayPoolTest extends TestCase {
+
+    public void testSizeClasses() {
+        ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+        assertEquals(4096, pool.take(1).length);
+        assertEquals(4096, pool.take(4096).length);
+        assertEquals(8192, pool.take(4097).length);
+        assertEquals(1024 * 1024, pool.take(1024 * 1024).length);
+        assertEquals(1024 * 1024 + 1, pool.take(1024 * 1024 + 1).length);
+        assertEquals(1, pool.getOversized());
+        assertEquals(5, pool.getAllocations());
+        assertEquals(0, pool.getReuses());
+    }
+
+    public void testReleasedArraysAreReused() {
+        ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+        byte[] a = pool.take(10000);
+        pool.release(a);
+        assertSame(a, pool.take(9000));
+        assertEquals(1, pool.getReuses());
+
+        // not from the pool
+        pool.release(new byte[5000]);
+        assertEquals(0, pool.getSizeClasses()[0].getIdleCount());
+    }
+
+    public void testPooledBufferReusesStorage() throws IOException {
+        ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        ByteArrayBuffer buf = new ByteArrayBuffer(pool);
+        buf.write(new ByteArrayInputStream(data));
+        assertTrue(Arrays.equals(data, buf.toByteArray()));
+        buf.release();
+        assertEquals(0, buf.size());
+        long allocations = pool.getAllocations();
+
+        for (int i = 0; i < 10; i++) {
+            buf = new ByteArrayBuffer(pool);
+            buf.write(data, 0, data.length);
+            assertTrue(Arrays.equals(data, buf.toByteArray()));
+            buf.release();
+        }
+        assertEquals(allocations, pool.getAllocations());
+        assertTrue(pool.getReuses() > 0);
+    }
+
+    public void testWriteAfterRelease() throws IOException {
+        ByteArrayBuffer buf = new ByteArrayBuffer(new ByteArrayPool(1024 * 1024));
+        buf.write(1);
+        buf.release();
+        buf.release();
+        buf.write(new ByteArrayInputStream(new byte[] {2, 3}));
+        buf.write(4);
+        assertTrue(Arrays.equals(new byte[] {2, 3, 4}, buf.toByteArray()));
+    }
+
+    public void testStreamOverReleasedBufferFails() throws IOException {
+        ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+        ByteArrayBuffer buf = new ByteArrayBuffer(pool);
+        buf.write(new byte[] {1, 2, 3}, 0, 3);
+        InputStream in = buf.newInputStream();
+        assertEquals(1, in.read());
+        buf.release();
+        // the next user of the array must not show through
+        ByteArrayBuffer next = new ByteArrayBuffer(pool);
+        next.write(new byte[] {9, 9, 9}, 0, 3);
+        try {
+            in.read();
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+
+        // growing hands the old array back too
+        in = next.newInputStream();
+        next.write(new byte[ByteArrayPool.MIN_LENGTH], 0, ByteArrayPool.MIN_LENGTH);
+        try {
+            in.read(new byte[3], 0, 3);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        in = next.newInputStream(1, 2);
+        assertEquals(9, in.read());
+        assertEquals(9, in.read());
+        assertEquals(-1, in.read());
+    }
+
+    public void testUnpooledBuffer() {
+        ByteArrayBuffer buf = new ByteArrayBuffer((ByteArrayPool) null);
+        buf.write(new byte[100], 0, 100);
+        buf.release();
+        assertEquals(0, buf.size());
+        assertTrue(buf.getRawData().length >= 100);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import junit.framework.TestCase;
+
+public class MethodHandleFactoryTest extends TestCase {
+
+    public static class Bean {
+        private int count;
+        public String name;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String echo(String s, int times) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < times; i++) {
+                sb.append(s);
+            }
+            return sb.toString();
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+    public void testMethodAccessors() throws Throwable {
+        Bean bean = new Bean();
+        MethodHandle setter = MethodHandleFactory.setter(Bean.class.getMethod("setCount", int.class));
+        MethodHandle getter = MethodHandleFactory.getter(Bean.class.getMethod("getCount"));
+        assertNotNull(setter);
+        assertNotNull(getter);
+        setter.invokeExact((Object) bean, (Object) 7);
+        assertEquals(7, bean.count);
+        assertEquals(7, (Object) getter.invokeExact((Object) bean));
+    }
+
+    public void testFieldAccessors() throws Throwable {
+        Bean bean = new Bean();
+        Field name = Bean.class.getField("name");
+        MethodHandle setter = MethodHandleFactory.setter(name, false);
+        MethodHandle getter = MethodHandleFactory.getter(name, false);
+        setter.invokeExact((Object) bean, (Object) "x");
+        assertEquals("x", (Object) getter.invokeExact((Object) bean));
+
+        Field count = Bean.class.getDeclaredField("count");
+        // private field, only with access checks suppressed
+        assertNull(MethodHandleFactory.getter(count, false));
+        MethodHandle privateGetter = MethodHandleFactory.getter(count, true);
+        bean.count = 3;
+        assertEquals(3, (Object) privateGetter.invokeExact((Object) bean));
+    }
+
+    public void testInvoker() throws Throwable {
+        Bean bean = new Bean();
+        Method echo = Bean.class.getMethod("echo", String.class, int.class);
+        MethodHandleFactory.MethodInvoker invoker = MethodHandleFactory.invoker(echo);
+        assertEquals("abab", invoker.invoke(bean, "ab", 2));
+        assertEquals("", invoker.invoke(bean, null, 0));
+        // widened like with reflection
+        assertEquals("aaa", invoker.invoke(bean, "a", (short) 3));
+        assertEquals("a", invoker.invoke(bean, "a", (char) 1));
+
+        MethodHandleFactory.MethodInvoker setCount = MethodHandleFactory.invoker(Bean.class.getMethod("setCount", int.class));
+        assertNull(setCount.invoke(bean, 5));
+        assertEquals(5, bean.count);
+
+        MethodHandleFactory.MethodInvoker getCount = MethodHandleFactory.invoker(Bean.class.getMethod("getCount"));
+        assertEquals(5, getCount.invoke(bean, (Object[]) null));
+    }
+
+    public void testInvokerWrapsOnlyExceptionsOfTheMethod() throws Throwable {
+        MethodHandleFactory.MethodInvoker fail = MethodHandleFactory.invoker(Bean.class.getMethod("fail"));
+        try {
+            fail.invoke(new Bean());
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals("fail", e.getCause().getMessage());
+        }
+    }
+
+    public void testInvokerRejectsArgumentsLikeReflection() throws Throwable {
+        Method echo = Bean.class.getMethod("echo", String.class, int.class);
+        MethodHandleFactory.MethodInvoker invoker = MethodHandleFactory.invoker(echo);
+        Object[][] wrong = {
+            {"a", null},            // null primitive
+            {"a", 2L},              // narrowing
+            {"a", "2"},             // not a number
+            {2, 2},                 // wrong reference type
+            {"a"},                  // too few
+            {"a", 2, 3},            // too many
+        };
+        for (Object[] args : wrong) {
+            assertIllegalArgument(echo, new Bean(), args);
+            assertIllegalArgument(invoker, new Bean(), args);
+        }
+        assertIllegalArgument(echo, new Object(), new Object[] {"a", 2});
+        assertIllegalArgument(invoker, new Object(), new Object[] {"a", 2});
+
+        try {
+            invoker.invoke(null, "a", 2);
+            fail();
+        } catch (NullPointerException e) {
+            // expected, as with reflection
+        }
+    }
+
+    public void testIsConvertible() {
+        assertTrue(MethodHandleFactory.isConvertible(1, int.class));
+        assertTrue(MethodHandleFactory.isConvertible((byte) 1, double.class));
+        assertTrue(MethodHandleFactory.isConvertible('c', long.class));
+        assertTrue(MethodHandleFactory.isConvertible('c', char.class));
+        assertTrue(MethodHandleFactory.isConvertible(true, boolean.class));
+        assertFalse(MethodHandleFactory.isConvertible(1.0f, int.class));
+        assertFalse(MethodHandleFactory.isConvertible((short) 1, char.class));
+        assertFalse(MethodHandleFactory.isConvertible('c', short.class));
+        assertFalse(MethodHandleFactory.isConvertible(1, boolean.class));
+        assertFalse(MethodHandleFactory.isConvertible(true, int.class));
+        assertFalse(MethodHandleFactory.isConvertible(null, int.class));
+    }
+
+    private static void assertIllegalArgument(Method m, Object target, Object[] args) throws Exception {
+        try {
+            m.invoke(target, args);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void assertIllegalArgument(MethodHandleFactory.MethodInvoker invoker, Object target, Object[] args) throws Exception {
+        try {
+            invoker.invoke(target, args);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.server.ContainerResolver;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import junit.framework.TestCase;
+
+public class PoolTest extends TestCase {
+
+    private static final class CountingPool extends Pool<Object> {
+        CountingPool(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected Object create() {
+            return new Object();
+        }
+    }
+
+    public void testHitsAndMisses() {
+        CountingPool pool = new CountingPool(4);
+        Object o = pool.take();
+        assertEquals(1, pool.getMisses());
+        assertEquals(1, pool.getCreates());
+        assertEquals(0, pool.getIdleCount());
+
+        pool.recycle(o);
+        assertEquals(1, pool.getIdleCount());
+        assertSame(o, pool.take());
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    public void testBoundedIdle() {
+        CountingPool pool = new CountingPool(2);
+        Object[] taken = new Object[5];
+        for (int i = 0; i < taken.length; i++) {
+            taken[i] = pool.take();
+        }
+        for (Object o : taken) {
+            pool.recycle(o);
+        }
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(3, pool.getEvictions());
+
+        pool.take();
+        pool.take();
+        pool.take();
+        assertEquals(2, pool.getHits());
+        assertEquals(6, pool.getCreates());
+    }
+
+    /**
+     * Objects recycled by other threads land in their slots, but must
+     * still be found by this one.
+     */
+    public void testTakeRecycledByOtherThreads() throws Exception {
+        final CountingPool pool = new CountingPool(8);
+        final Object[] taken = new Object[8];
+        for (int i = 0; i < taken.length; i++) {
+            taken[i] = pool.take();
+        }
+        for (final Object o : taken) {
+            Thread t = new Thread() {
+                @Override
+                public void run() {
+                    pool.recycle(o);
+                }
+            };
+            t.start();
+            t.join();
+        }
+        assertEquals(taken.length, pool.getIdleCount());
+
+        for (int i = 0; i < taken.length; i++) {
+            pool.take();
+        }
+        assertEquals(taken.length, pool.getHits());
+        assertEquals(taken.length, pool.getCreates());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    public void testInvalidMaxSize() {
+        try {
+            new CountingPool(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static final class NoopTube extends AbstractTubeImpl {
+        NoopTube() {
+        }
+
+        private NoopTube(NoopTube that, TubeCloner cloner) {
+            super(that, cloner);
+        }
+
+        public NextAction processRequest(Packet request) {
+            return doReturnWith(request);
+        }
+
+        public NextAction processResponse(Packet response) {
+            return doReturnWith(response);
+        }
+
+        public NextAction processException(Throwable t) {
+            return doThrow(t);
+        }
+
+        public void preDestroy() {
+        }
+
+        public NoopTube copy(TubeCloner cloner) {
+            return new NoopTube(this, cloner);
+        }
+    }
+
+    public void testTubePoolPrewarm() {
+        Pool.TubePool pool = new Pool.TubePool(new NoopTube(), 4, 0, null);
+        assertEquals(4, pool.getIdleCount());
+        assertEquals(3, pool.getCreates());
+        for (int i = 0; i < 4; i++) {
+            pool.take();
+        }
+        assertEquals(0, pool.getMisses());
+    }
+
+    public void testTubePoolRefill() throws Exception {
+        Pool.TubePool pool = new Pool.TubePool(new NoopTube(), 1, 2, null);
+        Tube t = pool.take();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (pool.getIdleCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(pool.getIdleCount() >= 2);
+        assertNotNull(t);
+        pool.close();
+    }
+
+    /**
+     * Tube that remembers the context it was last cloned in.
+     */
+    private static final class ContextTube extends AbstractTubeImpl {
+        static volatile ClassLoader clonedWith;
+        static volatile Container clonedIn;
+
+        ContextTube() {
+        }
+
+        private ContextTube(ContextTube that, TubeCloner cloner) {
+            super(that, cloner);
+            clonedWith = Thread.currentThread().getContextClassLoader();
+            clonedIn = ContainerResolver.getInstance().getContainer();
+        }
+
+        public NextAction processRequest(Packet request) {
+            return doReturnWith(request);
+        }
+
+        public NextAction processResponse(Packet response) {
+            return doReturnWith(response);
+        }
+
+        public NextAction processException(Throwable t) {
+            return doThrow(t);
+        }
+
+        public void preDestroy() {
+        }
+
+        public ContextTube copy(TubeCloner cloner) {
+            return new ContextTube(this, cloner);
+        }
+    }
+
+    public void testTubePoolRefillContext() throws Exception {
+        Container container = new Container() {
+        };
+        ClassLoader application = new URLClassLoader(new URL[0]);
+        Thread thread = Thread.currentThread();
+        ClassLoader old = thread.getContextClassLoader();
+        Pool.TubePool pool;
+        thread.setContextClassLoader(application);
+        try {
+            pool = new Pool.TubePool(new ContextTube(), 1, 1, container);
+        } finally {
+            thread.setContextClassLoader(old);
+        }
+        ContextTube.clonedIn = null;
+
+        pool.take();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (ContextTube.clonedIn == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertSame(container, ContextTube.clonedIn);
+        assertSame(application, ContextTube.clonedWith);
+
+        // the refill thread goes away with the pool
+        pool.close();
+        deadline = System.currentTimeMillis() + 10000;
+        while (isRefillThreadAlive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(isRefillThreadAlive());
+    }
+
+    private static boolean isRefillThreadAlive() {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if ("jaxws-tubepool-refill".equals(t.getName()) && t.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
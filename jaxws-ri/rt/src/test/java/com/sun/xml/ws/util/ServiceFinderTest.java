@@ -0,0 +1,130 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+public class ServiceFinderTest extends TestCase {
+
+    public interface Greeter {
+    }
+
+    public static final class HelloGreeter implements Greeter {
+    }
+
+    private File dir;
+    private URLClassLoader loader;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        dir = File.createTempFile("service-finder", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        File services = new File(dir, "META-INF/services");
+        assertTrue(services.mkdirs());
+        OutputStream os = new FileOutputStream(new File(services, Greeter.class.getName()));
+        try {
+            os.write((HelloGreeter.class.getName() + "\n").getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+        loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, ServiceFinderTest.class.getClassLoader());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ServiceFinder.setInstancesCached(Greeter.class, false);
+        ServiceFinder.invalidate(loader);
+        delete(dir);
+        super.tearDown();
+    }
+
+    public void testNewInstancesByDefault() {
+        assertFalse(ServiceFinder.isInstancesCached(Greeter.class));
+        Greeter g1 = single(ServiceFinder.find(Greeter.class, loader));
+        Greeter g2 = single(ServiceFinder.find(Greeter.class, loader));
+        assertNotSame(g1, g2);
+    }
+
+    public void testCachedInstances() {
+        ServiceFinder.setInstancesCached(Greeter.class, true);
+        assertTrue(ServiceFinder.isInstancesCached(Greeter.class));
+        Greeter g1 = single(ServiceFinder.find(Greeter.class, loader));
+        assertSame(g1, single(ServiceFinder.find(Greeter.class, loader)));
+        assertEquals(1, ServiceFinder.find(Greeter.class, loader).toArray().length);
+
+        // undeployed
+        ServiceFinder.invalidate(loader);
+        Greeter g2 = single(ServiceFinder.find(Greeter.class, loader));
+        assertNotSame(g1, g2);
+        assertSame(g2, single(ServiceFinder.find(Greeter.class, loader)));
+
+        ServiceFinder.setInstancesCached(Greeter.class, false);
+        assertNotSame(g2, single(ServiceFinder.find(Greeter.class, loader)));
+    }
+
+    private static Greeter single(ServiceFinder<Greeter> finder) {
+        Iterator<Greeter> it = finder.iterator();
+        assertTrue(it.hasNext());
+        Greeter g = it.next();
+        assertTrue(g instanceof HelloGreeter);
+        assertFalse(it.hasNext());
+        return g;
+    }
+
+    private static void delete(File f) throws IOException {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) {
+                delete(c);
+            }
+        }
+        f.delete();
+    }
+}
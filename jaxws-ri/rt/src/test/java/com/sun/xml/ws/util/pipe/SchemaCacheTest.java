@@ -0,0 +1,97 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util.pipe;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+public class SchemaCacheTest extends TestCase {
+
+    private static final String XSD =
+            "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='urn:test'>"
+          + "<xs:element name='echo' type='xs:string'/>"
+          + "</xs:schema>";
+
+    private static Schema compile() throws Exception {
+        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        return sf.newSchema(new StreamSource(new StringReader(XSD)));
+    }
+
+    public void testMissingEntry() {
+        assertNull(SchemaCache.get(new Object()));
+    }
+
+    public void testFirstCompiledSchemaWins() throws Exception {
+        Object docs = new Object();
+        Schema first = compile();
+        SchemaCache.Entry e = SchemaCache.put(docs, first);
+        assertSame(first, e.getSchema());
+        assertSame(e, SchemaCache.get(docs));
+
+        SchemaCache.Entry again = SchemaCache.put(docs, compile());
+        assertSame(e, again);
+        assertSame(first, again.getSchema());
+    }
+
+    public void testNoSchema() {
+        Object docs = new Object();
+        SchemaCache.Entry e = SchemaCache.put(docs, null);
+        assertSame(SchemaCache.NO_SCHEMA, e);
+        assertNull(e.getSchema());
+        assertNull(e.getValidators());
+        assertSame(e, SchemaCache.get(docs));
+    }
+
+    public void testValidatorsAreReused() throws Exception {
+        SchemaCache.Entry e = SchemaCache.put(new Object(), compile());
+        Validator v = e.getValidators().take();
+        v.validate(new StreamSource(new StringReader("<echo xmlns='urn:test'>hi</echo>")));
+        e.getValidators().recycle(v);
+        assertSame(v, e.getValidators().take());
+        assertEquals(1, e.getValidators().getCreates());
+    }
+}
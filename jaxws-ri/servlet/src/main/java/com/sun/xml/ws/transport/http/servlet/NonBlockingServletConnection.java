@@ -0,0 +1,252 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.servlet;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.encoding.DirectSegmentedBuffer;
+import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.ByteArrayPool;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link ServletConnectionImpl} that uses the Servlet 3.1 non-blocking I/O.
+ *
+ * <p>
+ * The request body is collected with a {@link ReadListener} into pooled
+ * direct buffers, so no container thread waits for a slow client to finish
+ * its upload. Once the body is complete, the request is processed like any
+ * other asynchronous request, with the response encoded into pooled buffers.
+ * The encoded response is then handed to the container with a
+ * {@link WriteListener}, which writes only as much as the client accepts.
+ *
+ * <p>
+ * The whole request and response are held in memory (off-heap) while they
+ * are in flight. This class is only loaded when the non-blocking mode is
+ * enabled on a Servlet 3.1 container.
+ *
+ * @see ServletAdapter#invokeAsync(ServletContext, HttpServletRequest, HttpServletResponse, HttpAdapter.CompletionCallback)
+ */
+class NonBlockingServletConnection extends ServletConnectionImpl {
+
+    private final HttpServletResponse response;
+    private final DirectSegmentedBuffer requestBody = new DirectSegmentedBuffer();
+    private final DirectSegmentedBuffer responseBody = new DirectSegmentedBuffer();
+    private boolean responseStarted;
+
+    NonBlockingServletConnection(@NotNull ServletAdapter adapter, ServletContext context, HttpServletRequest request, HttpServletResponse response) {
+        super(adapter, context, request, response);
+        this.response = response;
+    }
+
+    @Override
+    public @NotNull InputStream getInput() {
+        return requestBody.newInputStream();
+    }
+
+    @Override
+    public @NotNull OutputStream getOutput() {
+        if (!responseStarted) {
+            commitStatusAndHeaders();
+            responseStarted = true;
+        }
+        return responseBody;
+    }
+
+    /**
+     * Reads the request body without blocking, and then lets the
+     * {@link HttpAdapter} process the request. When the response is
+     * encoded, it is written without blocking and {@code done} is run.
+     *
+     * <p>
+     * The request body is released once the fiber processing it has
+     * finished, never earlier, as the request message may read it lazily
+     * up to then. A request that fails before that point is answered with
+     * 400 when the client's upload failed, 500 otherwise, as long as the
+     * response isn't committed yet.
+     */
+    void process(final ServletAdapter adapter, final AsyncContext asyncContext, final Runnable done) throws IOException {
+        final ServletInputStream in = asyncContext.getRequest().getInputStream();
+        in.setReadListener(new ReadListener() {
+            private byte[] chunk = takeChunk();
+            private boolean dispatched;
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (in.isReady() && !in.isFinished()) {
+                    int len = in.read(chunk);
+                    if (len == -1) {
+                        break;
+                    }
+                    requestBody.write(chunk, 0, len);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() throws IOException {
+                chunk = releaseChunk(chunk);
+                dispatched = true;
+                try {
+                    dispatch(adapter, new HttpAdapter.CompletionCallback() {
+                        @Override
+                        public void onCompletion() {
+                            requestBody.release();
+                            try {
+                                writeResponse(done);
+                            } catch (IOException ioe) {
+                                LOGGER.log(Level.FINE, "Failed to write response", ioe);
+                                fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, done);
+                            }
+                        }
+                    });
+                } catch (IOException e) {
+                    // nothing was started that could still read the body
+                    LOGGER.log(Level.FINE, "Failed to process request", e);
+                    requestBody.release();
+                    fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, done);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.FINE, "Failed to process request", e);
+                    requestBody.release();
+                    fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, done);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                LOGGER.log(Level.FINE, "Failed to read request", t);
+                chunk = releaseChunk(chunk);
+                if (dispatched) {
+                    // the fiber owns the body now and releases it when done
+                    return;
+                }
+                requestBody.release();
+                fail(HttpServletResponse.SC_BAD_REQUEST, done);
+            }
+        });
+    }
+
+    /**
+     * Hands the fully read request to the adapter.
+     * Overridden by tests to stand in for the endpoint.
+     */
+    void dispatch(ServletAdapter adapter, HttpAdapter.CompletionCallback callback) throws IOException {
+        adapter.invokeAsync(this, callback);
+    }
+
+    /**
+     * Sets the error status, unless the response is already on its way,
+     * and completes the request.
+     */
+    private void fail(int status, Runnable done) {
+        if (!response.isCommitted()) {
+            response.setStatus(status);
+        }
+        responseBody.release();
+        done.run();
+    }
+
+    private void writeResponse(final Runnable done) throws IOException {
+        // the whole body is known, so the container doesn't need to chunk it
+        if (!response.isCommitted() && responseBody.size() <= Integer.MAX_VALUE) {
+            response.setContentLength((int) responseBody.size());
+        }
+        final ServletOutputStream out = response.getOutputStream();
+        final InputStream src = responseBody.newInputStream();
+        out.setWriteListener(new WriteListener() {
+            private byte[] chunk = takeChunk();
+
+            @Override
+            public void onWritePossible() throws IOException {
+                while (out.isReady()) {
+                    int len = src.read(chunk, 0, chunk.length);
+                    if (len == -1) {
+                        chunk = releaseChunk(chunk);
+                        responseBody.release();
+                        done.run();
+                        return;
+                    }
+                    out.write(chunk, 0, len);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                LOGGER.log(Level.FINE, "Failed to write response", t);
+                chunk = releaseChunk(chunk);
+                fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, done);
+            }
+        });
+    }
+
+    private static byte[] takeChunk() {
+        ByteArrayPool pool = ByteArrayPool.getDefault();
+        return (pool != null) ? pool.take(CHUNK_SIZE) : new byte[CHUNK_SIZE];
+    }
+
+    /**
+     * Returns the chunk to the pool, if it wasn't already.
+     *
+     * @return null, to be assigned to the chunk
+     */
+    private static byte[] releaseChunk(byte[] chunk) {
+        ByteArrayPool pool = ByteArrayPool.getDefault();
+        if (chunk != null && pool != null) {
+            pool.release(chunk);
+        }
+        return null;
+    }
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(NonBlockingServletConnection.class.getName());
+}
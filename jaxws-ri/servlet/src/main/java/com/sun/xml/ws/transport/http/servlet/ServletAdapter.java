@@ -207,19 +207,25 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
             if (asyncRequest) {
                 final javax.servlet.AsyncContext asyncContext = request.startAsync(request, response);
                 final AsyncCompletionCheck completionCheck = new AsyncCompletionCheck();
-                new WSAsyncListener(connection, callback).addListenerTo(asyncContext,completionCheck);
                 //asyncContext.setTimeout(10000L);// TODO get it from @ or config file
-                super.invokeAsync(connection, new CompletionCallback() {
-                    @Override
-                    public void onCompletion() {
-                        synchronized (completionCheck) {
-                            if(!completionCheck.isCompleted()) {
-                                asyncContext.complete();
-                                completionCheck.markComplete();
-                            }
+                if (nonBlockingIO) {
+                    NonBlockingServletConnection nbConnection = new NonBlockingServletConnection(this, context, request, response);
+                    new WSAsyncListener(nbConnection, callback).addListenerTo(asyncContext,completionCheck);
+                    nbConnection.process(this, asyncContext, new Runnable() {
+                        @Override
+                        public void run() {
+                            completeAsync(asyncContext, completionCheck);
                         }
-                    }
-                });
+                    });
+                } else {
+                    new WSAsyncListener(connection, callback).addListenerTo(asyncContext,completionCheck);
+                    super.invokeAsync(connection, new CompletionCallback() {
+                        @Override
+                        public void onCompletion() {
+                            completeAsync(asyncContext, completionCheck);
+                        }
+                    });
+                }
                 asyncStarted = true;
             } else {
                 super.handle(connection);
@@ -231,6 +237,15 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
         }
     }
 
+    private static void completeAsync(javax.servlet.AsyncContext asyncContext, AsyncCompletionCheck completionCheck) {
+        synchronized (completionCheck) {
+            if(!completionCheck.isCompleted()) {
+                asyncContext.complete();
+                completionCheck.markComplete();
+            }
+        }
+    }
+
     /**
      * Synchronizes the CompletionHandler action and Container's timeout action.
      */
@@ -268,4 +283,13 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
 
     private boolean isServlet30Based = ServletUtil.isServlet30Based();
 
+    /**
+     * Reads requests and writes responses with the Servlet 3.1 non-blocking
+     * I/O, so that slow clients don't hold container threads. Off by default,
+     * as every message is then fully buffered before it is processed.
+     */
+    private static final boolean NON_BLOCKING_IO = Boolean.getBoolean(ServletAdapter.class.getName() + ".nonBlockingIO");
+
+    private final boolean nonBlockingIO = NON_BLOCKING_IO && ServletUtil.isServlet31Based();
+
 }
@@ -201,21 +201,7 @@ public class ServletConnectionImpl extends WSHTTPConnection implements WebServic
 
     @Override
     public @NotNull OutputStream getOutput() throws IOException {
-        response.setStatus(status);
-        if (responseHeaders != null) {
-            for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
-                String name = entry.getKey();
-                if (name == null) {
-                    continue;
-                }
-                if (name.equalsIgnoreCase("Content-Type") || name.equalsIgnoreCase("Content-Length")) {
-                    continue;   // ignore headers that interfere with the operation
-                }
-                for (String value : entry.getValue()) {
-                    response.addHeader(name, value);
-                }
-            }
-        }
+        commitStatusAndHeaders();
         if (out == null) {
             out = new FilterOutputStream(response.getOutputStream()) {
                 boolean closed;
@@ -247,6 +233,27 @@ public class ServletConnectionImpl extends WSHTTPConnection implements WebServic
         return out;
     }
 
+    /**
+     * Sets the status code and the response headers on the servlet response.
+     */
+    void commitStatusAndHeaders() {
+        response.setStatus(status);
+        if (responseHeaders != null) {
+            for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
+                String name = entry.getKey();
+                if (name == null) {
+                    continue;
+                }
+                if (name.equalsIgnoreCase("Content-Type") || name.equalsIgnoreCase("Content-Length")) {
+                    continue;   // ignore headers that interfere with the operation
+                }
+                for (String value : entry.getValue()) {
+                    response.addHeader(name, value);
+                }
+            }
+        }
+    }
+
     @Override
     public @NotNull WebServiceContextDelegate getWebServiceContextDelegate() {
         return this;
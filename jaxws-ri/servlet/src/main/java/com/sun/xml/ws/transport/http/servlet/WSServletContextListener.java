@@ -45,6 +45,7 @@ import com.sun.xml.ws.api.server.Container;
 import com.sun.xml.ws.resources.WsservletMessages;
 import com.sun.xml.ws.transport.http.DeploymentDescriptorParser;
 import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.ServiceFinder;
 
 import javax.servlet.*;
 import javax.xml.ws.WebServiceException;
@@ -102,6 +103,13 @@ public final class WSServletContextListener
             }
         }
 
+        // drop provider instances cached for the application's class loader
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = getClass().getClassLoader();
+        }
+        ServiceFinder.invalidate(classLoader);
+
         if (logger.isLoggable(Level.INFO)) {
             logger.info(WsservletMessages.LISTENER_INFO_DESTROY());
         }
@@ -42,8 +42,10 @@ package com.sun.xml.ws.transport.http.servlet;
 
 import com.sun.istack.localization.Localizable;
 import com.sun.istack.localization.Localizer;
+import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.resources.WsservletMessages;
 import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.transport.http.UrlPatternRouter;
 import com.sun.xml.ws.util.exception.JAXWSExceptionBase;
 
 import javax.servlet.ServletContext;
@@ -55,11 +57,11 @@ import javax.xml.ws.Binding;
 import javax.xml.ws.http.HTTPBinding;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -77,19 +79,35 @@ import java.util.logging.Logger;
 public class WSServletDelegate {
 
     /**
-     * All {@link ServletAdapter}s that are deployed in the current web application.
+     * All {@link ServletAdapter}s served by this delegate: those it was
+     * created with, and those added since by {@link #addAdapter}.
      */
     public final List<ServletAdapter> adapters;
 
-    private final Map<String, ServletAdapter> fixedUrlPatternEndpoints = new HashMap<String, ServletAdapter>();
-    private final List<ServletAdapter> pathUrlPatternEndpoints = new ArrayList<ServletAdapter>();
+    /**
+     * Routes requests to {@link #adapters}, and only to them.
+     */
+    private final UrlPatternRouter<ServletAdapter> router = new UrlPatternRouter<ServletAdapter>();
+
+    /**
+     * Creates the adapters added by {@link #addAdapter}. That's the list of
+     * the first adapter this delegate was created with, if it has one, so
+     * that the port addresses and the status page include them too.
+     */
+    private ServletAdapterList owner;
+
+    private final ServletContext context;
     private final Map<Locale,Localizer> localizerMap = new HashMap<Locale,Localizer>();
     private final JAXWSRIServletProbeProvider probe = new JAXWSRIServletProbeProvider();
 
     public WSServletDelegate(List<ServletAdapter> adapters, ServletContext context) {
-        this.adapters = adapters;
+        this.adapters = new CopyOnWriteArrayList<ServletAdapter>(adapters);
+        this.context = context;
 
         for(ServletAdapter info : adapters) {
+            if (owner == null && info.owner instanceof ServletAdapterList) {
+                owner = (ServletAdapterList) info.owner;
+            }
             registerEndpointUrlPattern(info);
         }
 
@@ -268,43 +286,58 @@ public class WSServletDelegate {
     }
 
     private void registerEndpointUrlPattern(ServletAdapter a) {
-        String urlPattern = a.urlPattern;
-        if (urlPattern.indexOf("*.") != -1) {
+        if (!UrlPatternRouter.isSupported(a.urlPattern)) {
             // cannot deal with implicit mapping right now
             logger.warning(
                 WsservletMessages.SERVLET_WARNING_IGNORING_IMPLICIT_URL_PATTERN(a.name));
-        } else if (urlPattern.endsWith("/*")) {
-            pathUrlPatternEndpoints.add(a);
-        } else {
-            if (fixedUrlPatternEndpoints.containsKey(urlPattern)) {
-                logger.warning(
-                    WsservletMessages.SERVLET_WARNING_DUPLICATE_ENDPOINT_URL_PATTERN(a.name));
-            } else {
-                fixedUrlPatternEndpoints.put(urlPattern, a);
-            }
+        } else if (!router.add(a.urlPattern, a)) {
+            logger.warning(
+                WsservletMessages.SERVLET_WARNING_DUPLICATE_ENDPOINT_URL_PATTERN(a.name));
         }
     }
 
     /**
-     * Determines which {@link ServletAdapter} serves the given request.
+     * Deploys an endpoint after this delegate was created.
+     *
+     * <p>
+     * The adapter is created by the {@link ServletAdapterList} of the
+     * adapters this delegate was created with, if any, so that the port
+     * addresses and the status page include it. Requests being routed
+     * concurrently see either the old or the new set of endpoints.
      */
-    protected ServletAdapter getTarget(HttpServletRequest request) {
+    public synchronized ServletAdapter addAdapter(String name, String urlPattern, WSEndpoint<?> endpoint) {
+        if (owner == null) {
+            owner = new ServletAdapterList(context);
+        }
+        ServletAdapter a = owner.createAdapter(name, urlPattern, endpoint);
+        adapters.add(a);
+        registerEndpointUrlPattern(a);
+        return a;
+    }
 
-        String path =
-            request.getRequestURI().substring(
-                request.getContextPath().length());
-        ServletAdapter result = fixedUrlPatternEndpoints.get(path);
-        if (result == null) {
-            for (ServletAdapter candidate : pathUrlPatternEndpoints) {
-                String noSlashStar = candidate.getValidPath();
-                if (path.equals(noSlashStar) || path.startsWith(noSlashStar+"/") || path.startsWith(noSlashStar+"?")) {
-                    result = candidate;
-                    break;
-                }
-            }
+    /**
+     * Stops dispatching requests to the given adapter, and removes it
+     * from its {@link ServletAdapterList}.
+     *
+     * @return
+     *      false if the adapter was not served by this delegate.
+     */
+    public synchronized boolean removeAdapter(ServletAdapter a) {
+        if (!adapters.remove(a)) {
+            return false;
         }
+        router.remove(a);
+        if (a.owner instanceof ServletAdapterList) {
+            ((ServletAdapterList) a.owner).removeAdapter(a);
+        }
+        return true;
+    }
 
-        return result;
+    /**
+     * Determines which {@link ServletAdapter} serves the given request.
+     */
+    protected ServletAdapter getTarget(HttpServletRequest request) {
+        return router.route(request.getRequestURI(), request.getContextPath().length());
     }
 
     protected Localizer getLocalizerFor(ServletRequest request) {
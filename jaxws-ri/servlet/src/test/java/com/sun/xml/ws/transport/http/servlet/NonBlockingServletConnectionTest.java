@@ -0,0 +1,211 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.servlet;
+
+import com.sun.xml.ws.transport.http.HttpAdapter;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+import junit.framework.TestCase;
+
+public class NonBlockingServletConnectionTest extends TestCase {
+
+    /**
+     * Request body that arrives in pieces, each made available by {@link #deliver}.
+     */
+    private static final class PartialInput extends ServletInputStream {
+        private final Queue<Integer> available = new ArrayDeque<Integer>();
+        private boolean finished;
+        ReadListener listener;
+
+        void deliver(byte[] data) throws IOException {
+            for (byte b : data) {
+                available.add(b & 0xFF);
+            }
+            listener.onDataAvailable();
+        }
+
+        void finish() throws IOException {
+            finished = true;
+            listener.onAllDataRead();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished && available.isEmpty();
+        }
+
+        @Override
+        public boolean isReady() {
+            return !available.isEmpty();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+
+        @Override
+        public int read() {
+            Integer b = available.poll();
+            return b == null ? -1 : b;
+        }
+    }
+
+    /**
+     * Stands in for the endpoint: the "fiber" runs only when {@link #runFiber} is called.
+     */
+    private static final class TestConnection extends NonBlockingServletConnection {
+        HttpAdapter.CompletionCallback callback;
+        RuntimeException dispatchFailure;
+
+        TestConnection(HttpServletRequest request, HttpServletResponse response) {
+            super(null, null, request, response);
+        }
+
+        @Override
+        void dispatch(ServletAdapter adapter, HttpAdapter.CompletionCallback callback) {
+            if (dispatchFailure != null) {
+                throw dispatchFailure;
+            }
+            this.callback = callback;
+        }
+
+        void runFiber() throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            InputStream in = getInput();
+            for (int b = in.read(); b != -1; b = in.read()) {
+                body.write(b);
+            }
+            setStatus(HttpServletResponse.SC_OK);
+            OutputStream out = getOutput();
+            out.write(body.toByteArray());
+            out.close();
+            callback.onCompletion();
+        }
+    }
+
+    private final PartialInput input = new PartialInput();
+    private final ServletStubs.Response response = new ServletStubs.Response();
+    private int completions;
+    private TestConnection connection;
+
+    @Override
+    protected void setUp() throws Exception {
+        HttpServletRequest request = new ServletStubs.Request(input);
+        connection = new TestConnection(request, response);
+        connection.process(null, new ServletStubs.Async(request, response), new Runnable() {
+            public void run() {
+                completions++;
+            }
+        });
+    }
+
+    public void testRoundTrip() throws Exception {
+        byte[] body = "<S:Envelope/>".getBytes("UTF-8");
+        input.deliver(body);
+        input.finish();
+        assertEquals(0, completions);
+
+        connection.runFiber();
+        assertEquals(200, response.status);
+        assertTrue(Arrays.equals(body, response.written.toByteArray()));
+        assertEquals(1, completions);
+    }
+
+    public void testPartialReads() throws Exception {
+        byte[] body = new byte[20000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        input.deliver(Arrays.copyOfRange(body, 0, 7));
+        input.deliver(Arrays.copyOfRange(body, 7, 12000));
+        input.deliver(Arrays.copyOfRange(body, 12000, body.length));
+        input.finish();
+        assertNotNull(connection.callback);
+
+        connection.runFiber();
+        assertTrue(Arrays.equals(body, response.written.toByteArray()));
+        assertEquals(1, completions);
+    }
+
+    public void testClientAbort() throws Exception {
+        input.deliver("<S:Env".getBytes("UTF-8"));
+        input.listener.onError(new IOException("connection reset"));
+        assertNull(connection.callback);
+        assertEquals(400, response.status);
+        assertEquals(1, completions);
+    }
+
+    /**
+     * An error reported once the fiber has the request must neither
+     * pull the body from under it nor complete the request early.
+     */
+    public void testErrorAfterDispatch() throws Exception {
+        byte[] body = "<S:Envelope/>".getBytes("UTF-8");
+        input.deliver(body);
+        input.finish();
+        input.listener.onError(new IOException("late"));
+        assertEquals(0, completions);
+
+        connection.runFiber();
+        assertTrue(Arrays.equals(body, response.written.toByteArray()));
+        assertEquals(1, completions);
+    }
+
+    public void testDispatchFailure() throws Exception {
+        connection.dispatchFailure = new IllegalStateException("no fiber");
+        input.deliver("<S:Envelope/>".getBytes("UTF-8"));
+        input.finish();
+        assertEquals(500, response.status);
+        assertEquals(1, completions);
+    }
+}
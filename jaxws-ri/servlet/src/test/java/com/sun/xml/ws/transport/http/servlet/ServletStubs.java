@@ -0,0 +1,605 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.servlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpUpgradeHandler;
+import javax.servlet.http.Part;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Just enough of a servlet container to drive a connection from a test:
+ * a request with a given body, a response that keeps what is written to
+ * it, and the {@link AsyncContext} that ties them together.
+ *
+ * <p>
+ * Anything a test doesn't set up answers as an empty request would.
+ */
+final class ServletStubs {
+
+    private ServletStubs() {}
+
+    static final class Request implements HttpServletRequest {
+        private final ServletInputStream input;
+        private final Map<String, Object> attributes = new HashMap<String, Object>();
+
+        Request(ServletInputStream input) {
+            this.input = input;
+        }
+
+        public ServletInputStream getInputStream() {
+            return input;
+        }
+
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        public Enumeration<String> getAttributeNames() {
+            return Collections.enumeration(attributes.keySet());
+        }
+
+        public void setAttribute(String name, Object o) {
+            attributes.put(name, o);
+        }
+
+        public void removeAttribute(String name) {
+            attributes.remove(name);
+        }
+
+        public String getMethod() {
+            return "POST";
+        }
+
+        public String getScheme() {
+            return "http";
+        }
+
+        public String getProtocol() {
+            return "HTTP/1.1";
+        }
+
+        public String getServerName() {
+            return "localhost";
+        }
+
+        public int getServerPort() {
+            return 80;
+        }
+
+        public String getContextPath() {
+            return "";
+        }
+
+        public String getServletPath() {
+            return "";
+        }
+
+        public String getRequestURI() {
+            return "/";
+        }
+
+        public StringBuffer getRequestURL() {
+            return new StringBuffer("http://localhost/");
+        }
+
+        public String getHeader(String name) {
+            return null;
+        }
+
+        public Enumeration<String> getHeaders(String name) {
+            return Collections.enumeration(Collections.<String>emptyList());
+        }
+
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.<String>emptyList());
+        }
+
+        public long getDateHeader(String name) {
+            return -1;
+        }
+
+        public int getIntHeader(String name) {
+            return -1;
+        }
+
+        public String getCharacterEncoding() {
+            return null;
+        }
+
+        public void setCharacterEncoding(String env) {
+        }
+
+        public int getContentLength() {
+            return -1;
+        }
+
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        public String getContentType() {
+            return null;
+        }
+
+        public String getParameter(String name) {
+            return null;
+        }
+
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(Collections.<String>emptyList());
+        }
+
+        public String[] getParameterValues(String name) {
+            return null;
+        }
+
+        public Map<String, String[]> getParameterMap() {
+            return Collections.emptyMap();
+        }
+
+        public BufferedReader getReader() {
+            throw new IllegalStateException("getInputStream() is used");
+        }
+
+        public String getRemoteAddr() {
+            return "127.0.0.1";
+        }
+
+        public String getRemoteHost() {
+            return "localhost";
+        }
+
+        public int getRemotePort() {
+            return 0;
+        }
+
+        public String getLocalName() {
+            return "localhost";
+        }
+
+        public String getLocalAddr() {
+            return "127.0.0.1";
+        }
+
+        public int getLocalPort() {
+            return 80;
+        }
+
+        public Locale getLocale() {
+            return Locale.getDefault();
+        }
+
+        public Enumeration<Locale> getLocales() {
+            return Collections.enumeration(Collections.singletonList(Locale.getDefault()));
+        }
+
+        public boolean isSecure() {
+            return false;
+        }
+
+        public RequestDispatcher getRequestDispatcher(String path) {
+            return null;
+        }
+
+        public String getRealPath(String path) {
+            return null;
+        }
+
+        public ServletContext getServletContext() {
+            return null;
+        }
+
+        public AsyncContext startAsync() {
+            throw new IllegalStateException("use ServletStubs.Async");
+        }
+
+        public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+            throw new IllegalStateException("use ServletStubs.Async");
+        }
+
+        public boolean isAsyncStarted() {
+            return true;
+        }
+
+        public boolean isAsyncSupported() {
+            return true;
+        }
+
+        public AsyncContext getAsyncContext() {
+            throw new IllegalStateException("use ServletStubs.Async");
+        }
+
+        public DispatcherType getDispatcherType() {
+            return DispatcherType.REQUEST;
+        }
+
+        public String getAuthType() {
+            return null;
+        }
+
+        public Cookie[] getCookies() {
+            return null;
+        }
+
+        public String getPathInfo() {
+            return null;
+        }
+
+        public String getPathTranslated() {
+            return null;
+        }
+
+        public String getQueryString() {
+            return null;
+        }
+
+        public String getRemoteUser() {
+            return null;
+        }
+
+        public boolean isUserInRole(String role) {
+            return false;
+        }
+
+        public Principal getUserPrincipal() {
+            return null;
+        }
+
+        public String getRequestedSessionId() {
+            return null;
+        }
+
+        public HttpSession getSession(boolean create) {
+            if (create) {
+                throw new UnsupportedOperationException("no sessions");
+            }
+            return null;
+        }
+
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        public String changeSessionId() {
+            throw new IllegalStateException("no session");
+        }
+
+        public boolean isRequestedSessionIdValid() {
+            return false;
+        }
+
+        public boolean isRequestedSessionIdFromCookie() {
+            return false;
+        }
+
+        public boolean isRequestedSessionIdFromURL() {
+            return false;
+        }
+
+        public boolean isRequestedSessionIdFromUrl() {
+            return false;
+        }
+
+        public boolean authenticate(HttpServletResponse response) {
+            return false;
+        }
+
+        public void login(String username, String password) {
+            throw new UnsupportedOperationException("no authentication");
+        }
+
+        public void logout() {
+        }
+
+        public Collection<Part> getParts() {
+            return Collections.emptyList();
+        }
+
+        public Part getPart(String name) {
+            return null;
+        }
+
+        public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) {
+            throw new UnsupportedOperationException("no upgrades");
+        }
+    }
+
+    /**
+     * Keeps the status and the body, which can be written without blocking
+     * at any time. It is committed once something is written.
+     */
+    static final class Response implements HttpServletResponse {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        int status = SC_OK;
+        long contentLength = -1;
+        private String contentType;
+
+        private final ServletOutputStream output = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                try {
+                    writeListener.onWritePossible();
+                } catch (IOException e) {
+                    writeListener.onError(e);
+                }
+            }
+
+            @Override
+            public void write(int b) {
+                written.write(b);
+            }
+        };
+
+        public ServletOutputStream getOutputStream() {
+            return output;
+        }
+
+        public PrintWriter getWriter() {
+            throw new IllegalStateException("getOutputStream() is used");
+        }
+
+        public boolean isCommitted() {
+            return written.size() > 0;
+        }
+
+        public void setStatus(int sc) {
+            status = sc;
+        }
+
+        public void setStatus(int sc, String sm) {
+            status = sc;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void sendError(int sc, String msg) {
+            status = sc;
+        }
+
+        public void sendError(int sc) {
+            status = sc;
+        }
+
+        public void sendRedirect(String location) {
+            status = SC_FOUND;
+        }
+
+        public void setContentLength(int len) {
+            contentLength = len;
+        }
+
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+        }
+
+        public void setContentType(String type) {
+            contentType = type;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getCharacterEncoding() {
+            return "ISO-8859-1";
+        }
+
+        public void setCharacterEncoding(String charset) {
+        }
+
+        public void setBufferSize(int size) {
+        }
+
+        public int getBufferSize() {
+            return 0;
+        }
+
+        public void flushBuffer() {
+        }
+
+        public void resetBuffer() {
+            written.reset();
+        }
+
+        public void reset() {
+            written.reset();
+            status = SC_OK;
+        }
+
+        public void setLocale(Locale loc) {
+        }
+
+        public Locale getLocale() {
+            return Locale.getDefault();
+        }
+
+        public void addCookie(Cookie cookie) {
+        }
+
+        public boolean containsHeader(String name) {
+            return false;
+        }
+
+        public String encodeURL(String url) {
+            return url;
+        }
+
+        public String encodeRedirectURL(String url) {
+            return url;
+        }
+
+        public String encodeUrl(String url) {
+            return url;
+        }
+
+        public String encodeRedirectUrl(String url) {
+            return url;
+        }
+
+        public void setDateHeader(String name, long date) {
+        }
+
+        public void addDateHeader(String name, long date) {
+        }
+
+        public void setHeader(String name, String value) {
+        }
+
+        public void addHeader(String name, String value) {
+        }
+
+        public void setIntHeader(String name, int value) {
+        }
+
+        public void addIntHeader(String name, int value) {
+        }
+
+        public String getHeader(String name) {
+            return null;
+        }
+
+        public Collection<String> getHeaders(String name) {
+            return Collections.emptyList();
+        }
+
+        public Collection<String> getHeaderNames() {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Asynchronous processing of a {@link Request}, which can't be
+     * dispatched anywhere.
+     */
+    static final class Async implements AsyncContext {
+        private final ServletRequest request;
+        private final ServletResponse response;
+        private long timeout = 30000;
+        int completions;
+
+        Async(ServletRequest request, ServletResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        public ServletRequest getRequest() {
+            return request;
+        }
+
+        public ServletResponse getResponse() {
+            return response;
+        }
+
+        public boolean hasOriginalRequestAndResponse() {
+            return true;
+        }
+
+        public void dispatch() {
+            throw new UnsupportedOperationException("no container to dispatch to");
+        }
+
+        public void dispatch(String path) {
+            throw new UnsupportedOperationException("no container to dispatch to");
+        }
+
+        public void dispatch(ServletContext context, String path) {
+            throw new UnsupportedOperationException("no container to dispatch to");
+        }
+
+        public void complete() {
+            completions++;
+        }
+
+        public void start(Runnable run) {
+            run.run();
+        }
+
+        public void addListener(AsyncListener listener) {
+        }
+
+        public void addListener(AsyncListener listener, ServletRequest servletRequest,
+                ServletResponse servletResponse) {
+        }
+
+        public <T extends AsyncListener> T createListener(Class<T> clazz) {
+            throw new UnsupportedOperationException("no container to create listeners");
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+    }
+}
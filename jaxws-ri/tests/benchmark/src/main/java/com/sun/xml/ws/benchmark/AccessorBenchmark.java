@@ -0,0 +1,133 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.spi.db.MethodGetter;
+import com.sun.xml.ws.spi.db.MethodSetter;
+import com.sun.xml.ws.util.MethodHandleFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective vs. {@link MethodHandle} based member access, as used for
+ * endpoint invocation and wrapper bean properties.
+ *
+ * <p>
+ * The {@code reflective*} benchmarks are what the runtime does with
+ * {@code -Dcom.sun.xml.ws.util.MethodHandleFactory.disabled=true} (or under a
+ * security manager), the others are the default path.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar AccessorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessorBenchmark {
+
+    private final ComplexType bean = new ComplexType("Hello World!", 42, 3.14f);
+    private final EchoPort endpoint = new EchoPortImpl();
+    private final Object[] args = {bean};
+    private final Integer value = 42;
+
+    private Method getter;
+    private Method setter;
+    private Method operation;
+    private MethodGetter methodGetter;
+    private MethodSetter methodSetter;
+    private MethodHandleFactory.MethodInvoker invoker;
+
+    @Setup
+    public void setUp() throws Exception {
+        getter = ComplexType.class.getMethod("getVarInt");
+        setter = ComplexType.class.getMethod("setVarInt", int.class);
+        operation = EchoPort.class.getMethod("echoComplexType", ComplexType.class);
+        methodGetter = new MethodGetter(getter);
+        methodSetter = new MethodSetter(setter);
+        invoker = MethodHandleFactory.invoker(operation);
+    }
+
+    @Benchmark
+    public Object reflectiveGet() throws Exception {
+        return getter.invoke(bean);
+    }
+
+    @Benchmark
+    public Object handleGet() {
+        return methodGetter.get(bean);
+    }
+
+    @Benchmark
+    public void reflectiveSet() throws Exception {
+        setter.invoke(bean, value);
+    }
+
+    @Benchmark
+    public void handleSet() {
+        methodSetter.set(bean, value);
+    }
+
+    @Benchmark
+    public Object reflectiveInvoke() throws Exception {
+        return operation.invoke(endpoint, args);
+    }
+
+    @Benchmark
+    public Object handleInvoke() throws Exception {
+        return invoker.invoke(endpoint, args);
+    }
+}
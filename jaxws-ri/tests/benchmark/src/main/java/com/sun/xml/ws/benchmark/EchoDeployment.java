@@ -0,0 +1,203 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.server.DocumentAddressResolver;
+import com.sun.xml.ws.api.server.PortAddressResolver;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.transport.local.InVmServer;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.handler.Handler;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.MTOMFeature;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deploys {@link EchoPortImpl} into an {@link InVmServer} and creates a
+ * matching {@link EchoPort} proxy.
+ *
+ * <p>
+ * The client talks to the endpoint through the "in-vm" transport, so a call
+ * goes through <tt>SEIStub</tt>, the client tubeline, <tt>LocalTransportTube</tt>,
+ * <tt>WSEndpointImpl</tt> and the server tubeline down to <tt>SEIInvokerTube</tt>,
+ * encoding and decoding the message on both sides, without any socket I/O.
+ */
+public final class EchoDeployment {
+
+    /**
+     * Binding/feature combinations the benchmarks can run against.
+     */
+    public enum Variant {
+        PLAIN,
+        MTOM,
+        ADDRESSING,
+        HANDLER;
+
+        WebServiceFeature[] features() {
+            switch (this) {
+            case MTOM:
+                return new WebServiceFeature[]{new MTOMFeature(true)};
+            case ADDRESSING:
+                return new WebServiceFeature[]{new AddressingFeature(true, true)};
+            default:
+                return new WebServiceFeature[0];
+            }
+        }
+    }
+
+    static final QName SERVICE_NAME = new QName(EchoPort.NS, "EchoService");
+    static final QName PORT_NAME = new QName(EchoPort.NS, "EchoPort");
+
+    private static final AtomicInteger iota = new AtomicInteger();
+
+    private final InVmServer server;
+    private final File metadataDir;
+    private final URL wsdl;
+    private final EchoPort port;
+
+    public EchoDeployment(@NotNull Variant variant) throws IOException {
+        String id = "benchmark-" + variant.name().toLowerCase() + '-' + iota.incrementAndGet();
+        String address = "in-vm://" + id + "/";
+
+        WSBinding binding = BindingImpl.create(BindingID.SOAP11_HTTP, variant.features());
+        if (variant == Variant.HANDLER) {
+            binding.setHandlerChain(handlerChain());
+        }
+        WSEndpoint<EchoPortImpl> endpoint = WSEndpoint.create(EchoPortImpl.class, false, null,
+                SERVICE_NAME, PORT_NAME, null, binding, null, null, null, true);
+        server = new InVmServer(id, Collections.<WSEndpoint>singletonList(endpoint));
+
+        metadataDir = File.createTempFile("jaxws-benchmark", "");
+        if (!metadataDir.delete() || !metadataDir.mkdir()) {
+            throw new IOException("Unable to create " + metadataDir);
+        }
+        wsdl = publishMetadata(endpoint, address, metadataDir).toURI().toURL();
+
+        Service service = Service.create(wsdl, SERVICE_NAME);
+        port = service.getPort(PORT_NAME, EchoPort.class, variant.features());
+        BindingProvider bp = (BindingProvider) port;
+        bp.getRequestContext().put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, address);
+        if (variant == Variant.HANDLER) {
+            bp.getBinding().setHandlerChain(handlerChain());
+        }
+    }
+
+    public EchoPort getPort() {
+        return port;
+    }
+
+    /**
+     * The WSDL published for the endpoint, to create more proxies from.
+     */
+    public URL getWsdl() {
+        return wsdl;
+    }
+
+    public void undeploy() {
+        server.undeploy();
+        File[] files = metadataDir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        metadataDir.delete();
+    }
+
+    private static List<Handler> handlerChain() {
+        List<Handler> chain = new ArrayList<Handler>();
+        chain.add(new HeaderReadingHandler());
+        return chain;
+    }
+
+    /**
+     * Writes the generated WSDL and schemas of the endpoint into the given directory,
+     * so that the client side builds its model exactly as it would against a real server.
+     *
+     * @return the primary WSDL file.
+     */
+    private static File publishMetadata(WSEndpoint<?> endpoint, final String address, File dir) throws IOException {
+        final Map<SDDocument, String> names = new HashMap<SDDocument, String>();
+        int i = 0;
+        for (SDDocument doc : endpoint.getServiceDefinition()) {
+            names.put(doc, "doc" + (i++) + (doc.isWSDL() ? ".wsdl" : ".xsd"));
+        }
+        PortAddressResolver par = new PortAddressResolver() {
+            @Override
+            public String getAddressFor(@NotNull QName serviceName, @NotNull String portName) {
+                return address;
+            }
+        };
+        DocumentAddressResolver dar = new DocumentAddressResolver() {
+            public String getRelativeAddressFor(@NotNull SDDocument current, @NotNull SDDocument referenced) {
+                return names.get(referenced);
+            }
+        };
+        for (Map.Entry<SDDocument, String> e : names.entrySet()) {
+            OutputStream os = new FileOutputStream(new File(dir, e.getValue()));
+            try {
+                e.getKey().writeTo(par, dar, os);
+            } finally {
+                os.close();
+            }
+        }
+        return new File(dir, names.get(endpoint.getServiceDefinition().getPrimary()));
+    }
+}
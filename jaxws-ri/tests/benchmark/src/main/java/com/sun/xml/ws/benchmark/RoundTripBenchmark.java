@@ -0,0 +1,146 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full client to server SOAP round trip, in-process.
+ *
+ * <p>
+ * Each benchmark method is one synchronous call on an {@link EchoPort} proxy,
+ * so the score covers request encoding, server dispatch and invocation and
+ * response decoding. Run it through {@link Main} to get throughput,
+ * latency percentiles and allocation per operation in a single report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    @Param({"PLAIN", "MTOM", "ADDRESSING", "HANDLER"})
+    public EchoDeployment.Variant variant;
+
+    @Param({"1024"})
+    public int base64Size;
+
+    private EchoDeployment deployment;
+    private EchoPort port;
+
+    private final String string = "Hello World!";
+    private final String[] stringArray = new String[20];
+    private final ComplexType complexType = new ComplexType(string, 42, 3.14f);
+    private final ComplexType[] complexTypeArray = new ComplexType[20];
+    private final NestedComplexType nestedComplexType = new NestedComplexType(string, 42, 3.14f, complexType);
+    private byte[] base64;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Arrays.fill(stringArray, string);
+        Arrays.fill(complexTypeArray, complexType);
+        base64 = new byte[base64Size];
+        for (int i = 0; i < base64.length; i++) {
+            base64[i] = (byte) i;
+        }
+        deployment = new EchoDeployment(variant);
+        port = deployment.getPort();
+        // first call builds the tubelines; keep it out of the measurement
+        port.echoVoid();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deployment.undeploy();
+    }
+
+    @Benchmark
+    public void echoVoid() {
+        port.echoVoid();
+    }
+
+    @Benchmark
+    public String echoString() {
+        return port.echoString(string);
+    }
+
+    @Benchmark
+    public String[] echoStringArray() {
+        return port.echoStringArray(stringArray);
+    }
+
+    @Benchmark
+    public ComplexType echoComplexType() {
+        return port.echoComplexType(complexType);
+    }
+
+    @Benchmark
+    public ComplexType[] echoComplexTypeArray() {
+        return port.echoComplexTypeArray(complexTypeArray);
+    }
+
+    @Benchmark
+    public NestedComplexType echoNestedComplexType() {
+        return port.echoNestedComplexType(nestedComplexType);
+    }
+
+    @Benchmark
+    public byte[] echoBase64() {
+        return port.echoBase64(base64);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.databinding.DatabindingConfig;
+import com.sun.xml.ws.api.databinding.DatabindingFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the runtime model and databinding of {@link EchoPort},
+ * with each way of providing the doc/lit wrapper beans.
+ *
+ * <p>
+ * Every invocation loads the service classes through a new class loader, as
+ * a (re)deployment does, so wrapper beans are never already defined:
+ * <ul>
+ * <li>{@code GENERATED}: the beans are generated with ASM, the default;
+ * <li>{@code CACHED}: the beans are read from the persistent cache
+ *     ({@code -Dcom.sun.xml.ws.model.WrapperBeanCache.dir}), filled in the
+ *     trial setup;
+ * <li>{@code PREBUILT}: the beans are found by the class loader, as if
+ *     generated by <tt>wsgen</tt> at build time.
+ * </ul>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar StartupBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(3)
+public class StartupBenchmark {
+
+    public enum WrapperBeans { GENERATED, CACHED, PREBUILT }
+
+    private static final String CACHE_DIR_PROPERTY = "com.sun.xml.ws.model.WrapperBeanCache.dir";
+
+    @Param({"GENERATED", "CACHED", "PREBUILT"})
+    public WrapperBeans wrapperBeans;
+
+    private File cacheDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (wrapperBeans != WrapperBeans.GENERATED) {
+            cacheDir = Files.createTempDirectory("jaxws-wrapper-beans").toFile();
+            System.setProperty(CACHE_DIR_PROPERTY, cacheDir.getPath());
+            // fills the cache
+            createDatabinding(new IsolatedLoader(null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (cacheDir != null) {
+            System.clearProperty(CACHE_DIR_PROPERTY);
+            File[] files = cacheDir.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    f.delete();
+                }
+            }
+            cacheDir.delete();
+        }
+    }
+
+    @Benchmark
+    public Object createDatabinding() throws Exception {
+        return createDatabinding(new IsolatedLoader(wrapperBeans == WrapperBeans.PREBUILT ? cacheDir : null));
+    }
+
+    private static Object createDatabinding(ClassLoader loader) throws ClassNotFoundException {
+        DatabindingConfig config = new DatabindingConfig();
+        config.setContractClass(loader.loadClass(EchoPort.class.getName()));
+        config.setEndpointClass(loader.loadClass(EchoPortImpl.class.getName()));
+        config.setClassLoader(loader);
+        return DatabindingFactory.newInstance().createRuntime(config);
+    }
+
+    /**
+     * Defines the classes of this package itself, so that they, and the
+     * wrapper beans created for them, are new for every instance.
+     */
+    private static final class IsolatedLoader extends ClassLoader {
+        private static final String PACKAGE = EchoPort.class.getPackage().getName() + '.';
+
+        /**
+         * Directory with class files of prebuilt wrapper beans, or null.
+         */
+        private final File prebuilt;
+
+        IsolatedLoader(File prebuilt) {
+            super(StartupBenchmark.class.getClassLoader());
+            this.prebuilt = prebuilt;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(PACKAGE)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    c = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            try {
+                byte[] image = read(name);
+                if (image == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, image, 0, image.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+
+        private byte[] read(String name) throws IOException {
+            if (prebuilt != null) {
+                // cache entries are named <class name>-<key>.class
+                File[] files = prebuilt.listFiles();
+                if (files != null) {
+                    for (File f : files) {
+                        if (f.getName().startsWith(name + '-')) {
+                            return Files.readAllBytes(f.toPath());
+                        }
+                    }
+                }
+            }
+            InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+            if (in == null) {
+                return null;
+            }
+            try {
+                byte[] buf = new byte[8192];
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int len;
+                while ((len = in.read(buf)) != -1) {
+                    out.write(buf, 0, len);
+                }
+                return out.toByteArray();
+            } finally {
+                in.close();
+            }
+        }
+    }
+}
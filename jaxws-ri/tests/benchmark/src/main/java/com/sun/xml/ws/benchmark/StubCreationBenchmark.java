@@ -0,0 +1,171 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.sun.xml.ws.benchmark;
+
+import com.oracle.webservices.impl.internalspi.encoding.StreamDecoder;
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.BindingIDFactory;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.client.ServiceInterceptorFactory;
+import com.sun.xml.ws.api.message.saaj.SAAJFactory;
+import com.sun.xml.ws.api.pipe.TransportTubeFactory;
+import com.sun.xml.ws.api.pipe.TubelineAssemblerFactory;
+import com.sun.xml.ws.api.policy.PolicyResolverFactory;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.api.wsdl.parser.MetadataResolverFactory;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.WSBindingProvider;
+import com.sun.xml.ws.util.ServiceFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.ws.Service;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating an {@link EchoPortImpl} endpoint and an {@link EchoPort}
+ * proxy, with the stateless factories looked up through {@link ServiceFinder}
+ * either instantiated on every lookup ({@code NEW}, the default) or cached
+ * per class loader ({@code CACHED}).
+ *
+ * <p>
+ * Each endpoint is disposed and each proxy closed after its invocation,
+ * outside of the measurement, so that they don't pile up.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar StubCreationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class StubCreationBenchmark {
+
+    public enum Providers { NEW, CACHED }
+
+    /**
+     * Services whose providers keep no per-lookup state.
+     */
+    private static final Class<?>[] STATELESS = {
+        BindingIDFactory.class,
+        MetadataResolverFactory.class,
+        PolicyResolverFactory.class,
+        SAAJFactory.class,
+        ServiceInterceptorFactory.class,
+        StreamDecoder.class,
+        TransportTubeFactory.class,
+        TubelineAssemblerFactory.class
+    };
+
+    @Param({"NEW", "CACHED"})
+    public Providers providers;
+
+    /**
+     * Only there to publish the WSDL {@link #createStub} needs.
+     */
+    private EchoDeployment deployment;
+
+    @Setup
+    public void setUp() throws IOException {
+        deployment = new EchoDeployment(EchoDeployment.Variant.PLAIN);
+        for (Class<?> service : STATELESS) {
+            ServiceFinder.setInstancesCached(service, providers == Providers.CACHED);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Class<?> service : STATELESS) {
+            ServiceFinder.setInstancesCached(service, false);
+        }
+        deployment.undeploy();
+    }
+
+    /**
+     * What an invocation created, released after it.
+     */
+    @State(Scope.Thread)
+    public static class Created {
+        WSEndpoint<?> endpoint;
+        EchoPort stub;
+
+        @TearDown(Level.Invocation)
+        public void release() throws IOException {
+            if (endpoint != null) {
+                endpoint.dispose();
+                endpoint = null;
+            }
+            if (stub != null) {
+                ((WSBindingProvider) stub).close();
+                stub = null;
+            }
+        }
+    }
+
+    @Benchmark
+    public Object createEndpoint(Created created) {
+        WSBinding binding = BindingImpl.create(BindingID.SOAP11_HTTP);
+        created.endpoint = WSEndpoint.create(EchoPortImpl.class, false, null,
+                EchoDeployment.SERVICE_NAME, EchoDeployment.PORT_NAME, null, binding, null, null, null, true);
+        return created.endpoint;
+    }
+
+    @Benchmark
+    public Object createStub(Created created) {
+        Service service = Service.create(deployment.getWsdl(), EchoDeployment.SERVICE_NAME);
+        created.stub = service.getPort(EchoDeployment.PORT_NAME, EchoPort.class);
+        return created.stub;
+    }
+}
@@ -0,0 +1,4 @@
+package com.sun.xml.ws.benchmark.generated;
+public class AccessorBenchmark_jmhType extends AccessorBenchmark_jmhType_B3 {
+}
+
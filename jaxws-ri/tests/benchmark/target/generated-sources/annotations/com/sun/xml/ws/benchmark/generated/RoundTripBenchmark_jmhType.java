@@ -0,0 +1,4 @@
+package com.sun.xml.ws.benchmark.generated;
+public class RoundTripBenchmark_jmhType extends RoundTripBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.sun.xml.ws.benchmark.generated;
+public class StartupBenchmark_jmhType extends StartupBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.sun.xml.ws.benchmark.generated;
+public class StubCreationBenchmark_jmhType extends StubCreationBenchmark_jmhType_B3 {
+}
+
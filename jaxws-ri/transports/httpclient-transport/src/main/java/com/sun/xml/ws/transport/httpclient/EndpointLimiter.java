@@ -0,0 +1,100 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.httpclient;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Bounds the number of concurrent exchanges with one endpoint.
+ *
+ * <p>
+ * Unlike a semaphore, a caller over the limit is not blocked: its send
+ * is queued and started by whichever exchange completes next.
+ */
+final class EndpointLimiter {
+    private final int max;
+    private final Queue<Runnable> pending = new ArrayDeque<Runnable>();
+    private int inFlight;
+
+    EndpointLimiter(int max) {
+        this.max = max;
+    }
+
+    /**
+     * Runs the given send now if there is room, or queues it.
+     * Every started send must eventually call {@link #release()}.
+     */
+    void submit(Runnable send) {
+        synchronized (this) {
+            if (inFlight >= max) {
+                pending.add(send);
+                return;
+            }
+            inFlight++;
+        }
+        send.run();
+    }
+
+    /**
+     * Signals completion of an exchange and starts the next queued one, if any.
+     */
+    void release() {
+        Runnable next;
+        synchronized (this) {
+            next = pending.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+            // the slot is handed over to the queued send
+        }
+        next.run();
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized int getQueued() {
+        return pending.size();
+    }
+}
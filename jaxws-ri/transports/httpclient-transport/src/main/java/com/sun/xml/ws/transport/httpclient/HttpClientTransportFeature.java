@@ -0,0 +1,222 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.httpclient;
+
+import com.sun.xml.ws.api.FeatureConstructor;
+import com.sun.xml.ws.developer.JAXWSProperties;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.xml.ws.WebServiceFeature;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Enables the {@link HttpClient} based, non-blocking client transport.
+ *
+ * <p>
+ * Requests go out through {@link HttpClient#sendAsync}; the calling
+ * {@link com.sun.xml.ws.api.pipe.Fiber} is suspended while the exchange is in
+ * flight, so asynchronous invocations do not hold a thread per outstanding call.
+ *
+ * <p>
+ * The {@link HttpClient}s (and therefore their connections) are owned by this
+ * feature instance. Pass the same instance to all ports talking to the same
+ * servers to share connections and HTTP/2 streams between them.
+ *
+ * <p>
+ * {@link HttpClient} cannot use an {@link javax.net.ssl.SSLSocketFactory} or a
+ * {@link javax.net.ssl.HostnameVerifier}, so {@link JAXWSProperties#SSL_SOCKET_FACTORY}
+ * and {@link JAXWSProperties#HOSTNAME_VERIFIER} are rejected; set {@link #SSL_CONTEXT}
+ * and {@link #SSL_PARAMETERS} in the request context instead.
+ *
+ * @since 2.3.0
+ */
+public class HttpClientTransportFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying this feature
+     */
+    public static final String ID = "http://jax-ws.java.net/features/transport/httpclient";
+
+    /**
+     * Default number of requests that may be in flight to a single endpoint.
+     */
+    public static final int DEFAULT_MAX_REQUESTS_PER_ENDPOINT = 64;
+
+    /**
+     * Request context property holding the {@link SSLContext} for https requests.
+     * One {@link HttpClient} is kept per distinct instance, so reuse it.
+     */
+    public static final String SSL_CONTEXT = "com.sun.xml.ws.transport.httpclient.SSLContext";
+
+    /**
+     * Request context property holding the {@link SSLParameters} for https requests.
+     * One {@link HttpClient} is kept per distinct instance, so reuse it.
+     */
+    public static final String SSL_PARAMETERS = "com.sun.xml.ws.transport.httpclient.SSLParameters";
+
+    private final int maxRequestsPerEndpoint;
+    private final boolean http2;
+    private final Executor executor;
+
+    private final Map<ClientKey, HttpClient> clients = new ConcurrentHashMap<ClientKey, HttpClient>();
+    private final Map<String, EndpointLimiter> limiters = new ConcurrentHashMap<String, EndpointLimiter>();
+
+    public HttpClientTransportFeature() {
+        this(DEFAULT_MAX_REQUESTS_PER_ENDPOINT, true, null);
+    }
+
+    @FeatureConstructor({"maxRequestsPerEndpoint", "http2"})
+    public HttpClientTransportFeature(int maxRequestsPerEndpoint, boolean http2) {
+        this(maxRequestsPerEndpoint, http2, null);
+    }
+
+    /**
+     * @param maxRequestsPerEndpoint
+     *      upper bound on concurrent exchanges, and therefore HTTP/1.1 connections,
+     *      per scheme/host/port. Further requests are queued without blocking a thread.
+     * @param http2
+     *      true to negotiate HTTP/2 (multiplexing all requests to an endpoint over
+     *      one connection), false to stick to HTTP/1.1.
+     * @param executor
+     *      executor for the {@link HttpClient}'s asynchronous tasks, or null for
+     *      the client's default.
+     */
+    public HttpClientTransportFeature(int maxRequestsPerEndpoint, boolean http2, Executor executor) {
+        if (maxRequestsPerEndpoint <= 0) {
+            throw new IllegalArgumentException("maxRequestsPerEndpoint must be positive: " + maxRequestsPerEndpoint);
+        }
+        this.enabled = true;
+        this.maxRequestsPerEndpoint = maxRequestsPerEndpoint;
+        this.http2 = http2;
+        this.executor = executor;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public int getMaxRequestsPerEndpoint() {
+        return maxRequestsPerEndpoint;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    /**
+     * Gets the {@link HttpClient} to use for the given settings.
+     *
+     * @param connectTimeout
+     *      timeout in milliseconds, or null for none.
+     * @param sslContext
+     *      null for the default one.
+     * @param sslParameters
+     *      null for the default ones.
+     */
+    HttpClient getClient(Integer connectTimeout, SSLContext sslContext, SSLParameters sslParameters) {
+        ClientKey k = new ClientKey(connectTimeout != null ? connectTimeout : -1, sslContext, sslParameters);
+        return clients.computeIfAbsent(k, key -> {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER);
+            if (key.connectTimeout >= 0) {
+                builder.connectTimeout(Duration.ofMillis(key.connectTimeout));
+            }
+            if (key.sslContext != null) {
+                builder.sslContext(key.sslContext);
+            }
+            if (key.sslParameters != null) {
+                builder.sslParameters(key.sslParameters);
+            }
+            if (executor != null) {
+                builder.executor(executor);
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Settings that need a client of their own. The SSL objects have no
+     * value equality, they are compared by identity.
+     */
+    private static final class ClientKey {
+        final int connectTimeout;
+        final SSLContext sslContext;
+        final SSLParameters sslParameters;
+
+        ClientKey(int connectTimeout, SSLContext sslContext, SSLParameters sslParameters) {
+            this.connectTimeout = connectTimeout;
+            this.sslContext = sslContext;
+            this.sslParameters = sslParameters;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ClientKey)) {
+                return false;
+            }
+            ClientKey that = (ClientKey) o;
+            return connectTimeout == that.connectTimeout
+                    && sslContext == that.sslContext
+                    && sslParameters == that.sslParameters;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(connectTimeout, System.identityHashCode(sslContext),
+                    System.identityHashCode(sslParameters));
+        }
+    }
+
+    /**
+     * Gets the in-flight request limiter of the server the given address points to.
+     */
+    EndpointLimiter getLimiter(URI address) {
+        return limiters.computeIfAbsent(address.getScheme() + "://" + address.getAuthority(),
+                key -> new EndpointLimiter(maxRequestsPerEndpoint));
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.httpclient;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.ContentType;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.client.BindingProviderProperties;
+import com.sun.xml.ws.client.ClientTransportException;
+import com.sun.xml.ws.developer.HttpConfigFeature;
+import com.sun.xml.ws.developer.JAXWSProperties;
+import com.sun.xml.ws.resources.ClientMessages;
+import com.sun.xml.ws.resources.WsservletMessages;
+import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.transport.http.client.HttpTransportPipe;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.RuntimeVersion;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.soap.SOAPBinding;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.CookieHandler;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Transport {@link com.sun.xml.ws.api.pipe.Tube} that sends requests with
+ * {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)}.
+ *
+ * <p>
+ * {@link #processRequest(Packet)} encodes the message, suspends the current
+ * {@link Fiber} and hands the request to the {@link HttpClient}. The fiber is
+ * resumed from the response future, so no thread waits for the server while
+ * the call is in flight. Synchronous invocations still work: the calling thread
+ * simply waits for the resume, as with any other suspending tube.
+ *
+ * <p>
+ * Honors the request context properties used by the default HTTP transport:
+ * {@link JAXWSProperties#CONNECT_TIMEOUT}, {@link BindingProviderProperties#REQUEST_TIMEOUT},
+ * {@link JAXWSProperties#HTTP_CLIENT_STREAMING_CHUNK_SIZE} (the body is then sent
+ * chunked, in pieces of that size), {@link MessageContext#HTTP_REQUEST_HEADERS},
+ * {@link MessageContext#HTTP_REQUEST_METHOD}, basic authentication and session
+ * maintenance through the {@link HttpConfigFeature}'s {@link CookieHandler}.
+ * Messages are dumped like {@link HttpTransportPipe#dump} does. The SSL settings
+ * are those of {@link HttpClientTransportFeature}; the properties that
+ * {@link HttpClient} cannot honor are rejected rather than ignored.
+ *
+ * @since 2.3.0
+ */
+public class HttpClientTransportTube extends AbstractTubeImpl {
+
+    private static final Logger LOGGER = Logger.getLogger(HttpClientTransportTube.class.getName());
+
+    private static final List<String> USER_AGENT = Collections.singletonList(RuntimeVersion.VERSION.toString());
+
+    /**
+     * Headers {@link HttpClient} computes itself and refuses to accept from us.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(Arrays.asList(
+            "connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning"));
+
+    private final Codec codec;
+    private final WSBinding binding;
+    private final HttpClientTransportFeature feature;
+    private final CookieHandler cookieJar;
+
+    public HttpClientTransportTube(Codec codec, WSBinding binding, HttpClientTransportFeature feature) {
+        this.codec = codec;
+        this.binding = binding;
+        this.feature = feature;
+        HttpConfigFeature configFeature = binding.getFeature(HttpConfigFeature.class);
+        if (configFeature == null) {
+            configFeature = new HttpConfigFeature();
+        }
+        this.cookieJar = configFeature.getCookieHandler();
+    }
+
+    /*
+     * Copy constructor for {@link Tube#copy(TubeCloner)}.
+     */
+    private HttpClientTransportTube(HttpClientTransportTube that, TubeCloner cloner) {
+        this(that.codec.copy(), that.binding, that.feature);
+        cloner.add(that, this);
+    }
+
+    @Override
+    public NextAction processRequest(@NotNull Packet request) {
+        final HttpRequest httpRequest;
+        try {
+            httpRequest = createRequest(request);
+        } catch (WebServiceException e) {
+            return doThrow(e);
+        } catch (Exception e) {
+            return doThrow(new WebServiceException(e));
+        }
+        Fiber fiber = Fiber.current();
+        HttpClient client = feature.getClient(
+                (Integer) request.invocationProperties.get(JAXWSProperties.CONNECT_TIMEOUT),
+                (SSLContext) request.invocationProperties.get(HttpClientTransportFeature.SSL_CONTEXT),
+                (SSLParameters) request.invocationProperties.get(HttpClientTransportFeature.SSL_PARAMETERS));
+        EndpointLimiter limiter = feature.getLimiter(httpRequest.uri());
+        // only send once the fiber is really suspended, so that a quick
+        // response cannot race with the suspension
+        return doSuspend(() -> limiter.submit(() -> send(client, limiter, httpRequest, request, fiber)));
+    }
+
+    private void send(HttpClient client, EndpointLimiter limiter, HttpRequest httpRequest,
+                      Packet request, Fiber fiber) {
+        try {
+            client.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> {
+                        limiter.release();
+                        if (error != null) {
+                            fiber.resume(unwrap(error), request);
+                            return;
+                        }
+                        Packet reply;
+                        try {
+                            reply = createResponsePacket(request, response);
+                        } catch (Throwable t) {
+                            fiber.resume(t instanceof WebServiceException ? t : new WebServiceException(t), request);
+                            return;
+                        }
+                        fiber.resume(reply);
+                    });
+        } catch (RuntimeException e) {
+            limiter.release();
+            fiber.resume(new WebServiceException(e), request);
+        }
+    }
+
+    @Override
+    public NextAction processResponse(@NotNull Packet response) {
+        return doReturnWith(response);
+    }
+
+    @Override
+    public NextAction processException(@NotNull Throwable t) {
+        return doThrow(t);
+    }
+
+    private HttpRequest createRequest(Packet request) throws IOException {
+        checkUnsupported(request);
+        URI address = request.endpointAddress.getURI();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(address);
+
+        Map<String, List<String>> reqHeaders = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        @SuppressWarnings("unchecked")
+        Map<String, List<String>> userHeaders = (Map<String, List<String>>) request.invocationProperties.get(MessageContext.HTTP_REQUEST_HEADERS);
+        if (userHeaders != null) {
+            reqHeaders.putAll(userHeaders);
+        }
+        if (!reqHeaders.containsKey("User-Agent")) {
+            reqHeaders.put("User-Agent", USER_AGENT);
+        }
+        addBasicAuth(request, reqHeaders);
+        if (isMaintainSession(request)) {
+            Map<String, List<String>> cookies = cookieJar.get(address, reqHeaders);
+            for (Map.Entry<String, List<String>> e : cookies.entrySet()) {
+                if (!e.getValue().isEmpty()) {
+                    reqHeaders.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+
+        ByteArrayBuffer buf = new ByteArrayBuffer();
+        ContentType ct = codec.encode(request, buf);
+        reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
+        if (ct.getAcceptHeader() != null) {
+            reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
+        }
+        if (binding instanceof SOAPBinding && binding.getSOAPVersion() != SOAPVersion.SOAP_12) {
+            String soapAction = ct.getSOAPActionHeader();
+            reqHeaders.put("SOAPAction", Collections.singletonList(soapAction != null ? soapAction : "\"\""));
+        }
+
+        for (Map.Entry<String, List<String>> e : reqHeaders.entrySet()) {
+            if (RESTRICTED_HEADERS.contains(e.getKey().toLowerCase())) {
+                continue;
+            }
+            for (String value : e.getValue()) {
+                builder.header(e.getKey(), value);
+            }
+        }
+
+        Integer reqTimeout = (Integer) request.invocationProperties.get(BindingProviderProperties.REQUEST_TIMEOUT);
+        if (reqTimeout != null && reqTimeout > 0) {
+            builder.timeout(Duration.ofMillis(reqTimeout));
+        }
+
+        if (HttpTransportPipe.dump || LOGGER.isLoggable(Level.FINER)) {
+            dump(buf.getRawData(), buf.size(), "HTTP request - " + request.endpointAddress, reqHeaders);
+        }
+
+        String requestMethod = (String) request.invocationProperties.get(MessageContext.HTTP_REQUEST_METHOD);
+        String method = (requestMethod != null) ? requestMethod : "POST";
+        Integer chunkSize = (Integer) request.invocationProperties.get(JAXWSProperties.HTTP_CLIENT_STREAMING_CHUNK_SIZE);
+        HttpRequest.BodyPublisher body;
+        if (buf.size() == 0) {
+            body = HttpRequest.BodyPublishers.noBody();
+        } else if (chunkSize != null && chunkSize > 0) {
+            // without a content length, HTTP/1.1 sends it chunked. ofByteArrays()
+            // alone would sum up the lengths of the list, so it's hidden
+            body = HttpRequest.BodyPublishers.fromPublisher(
+                    HttpRequest.BodyPublishers.ofByteArrays(split(buf, chunkSize)));
+        } else {
+            body = HttpRequest.BodyPublishers.ofByteArray(buf.getRawData(), 0, buf.size());
+        }
+        builder.method(method, body);
+        return builder.build();
+    }
+
+    private static List<byte[]> split(ByteArrayBuffer buf, int chunkSize) {
+        byte[] data = buf.getRawData();
+        List<byte[]> chunks = new ArrayList<byte[]>(buf.size() / chunkSize + 1);
+        for (int off = 0; off < buf.size(); off += chunkSize) {
+            chunks.add(Arrays.copyOfRange(data, off, Math.min(buf.size(), off + chunkSize)));
+        }
+        return chunks;
+    }
+
+    /*
+     * HttpClient has no room for these, better fail than silently
+     * talk to a server with other credentials or checks than asked.
+     */
+    private static void checkUnsupported(Packet request) {
+        if (request.invocationProperties.get(JAXWSProperties.SSL_SOCKET_FACTORY) != null) {
+            throw new WebServiceException(JAXWSProperties.SSL_SOCKET_FACTORY
+                    + " is not supported by the HttpClient transport, set an SSLContext as "
+                    + HttpClientTransportFeature.SSL_CONTEXT + " instead");
+        }
+        if (request.invocationProperties.get(JAXWSProperties.HOSTNAME_VERIFIER) != null) {
+            throw new WebServiceException(JAXWSProperties.HOSTNAME_VERIFIER
+                    + " is not supported by the HttpClient transport, which always verifies host names");
+        }
+    }
+
+    private Packet createResponsePacket(Packet request, HttpResponse<byte[]> response) throws IOException {
+        Map<String, List<String>> headers = response.headers().map();
+        if (isMaintainSession(request)) {
+            cookieJar.put(request.endpointAddress.getURI(), headers);
+        }
+        request.addSatellite(new HttpClientResponseProperties(response.statusCode(), headers));
+
+        byte[] body = response.body();
+        boolean hasBody = body != null && body.length > 0;
+        if (HttpTransportPipe.dump || LOGGER.isLoggable(Level.FINER)) {
+            dump(body, hasBody ? body.length : 0,
+                    "HTTP response - " + request.endpointAddress + " - " + response.statusCode(), headers);
+        }
+        checkStatusCode(response.statusCode(), hasBody);
+
+        Packet reply = request.createClientResponse(null);
+        reply.wasTransportSecure = "https".equalsIgnoreCase(response.uri().getScheme());
+        if (hasBody) {
+            String contentType = response.headers().firstValue("Content-Type").orElse(null);
+            if (contentType != null && contentType.contains("text/html") && binding instanceof SOAPBinding) {
+                throw new ClientTransportException(ClientMessages.localizableHTTP_STATUS_CODE(response.statusCode(), null));
+            }
+            codec.decode(new ByteArrayInputStream(body), contentType, reply);
+        }
+        return reply;
+    }
+
+    /*
+     * Same rules as the default HTTP transport:
+     * SOAP 1.1/HTTP - 200, 202, 500
+     * SOAP 1.2/HTTP - 200, 202, 400, 500
+     * XML/HTTP - all
+     */
+    private void checkStatusCode(int statusCode, boolean hasBody) {
+        if (!(binding instanceof SOAPBinding)) {
+            return;
+        }
+        if (statusCode == HttpURLConnection.HTTP_OK || statusCode == HttpURLConnection.HTTP_ACCEPTED) {
+            return;
+        }
+        boolean fault = statusCode == HttpURLConnection.HTTP_INTERNAL_ERROR
+                || (statusCode == HttpURLConnection.HTTP_BAD_REQUEST && binding.getSOAPVersion() == SOAPVersion.SOAP_12);
+        if (!fault || !hasBody) {
+            throw new ClientTransportException(ClientMessages.localizableHTTP_STATUS_CODE(statusCode, null));
+        }
+    }
+
+    private static boolean isMaintainSession(Packet context) {
+        Boolean b = (Boolean) context.invocationProperties.get(BindingProvider.SESSION_MAINTAIN_PROPERTY);
+        return b != null && b;
+    }
+
+    private static void addBasicAuth(Packet context, Map<String, List<String>> reqHeaders) {
+        String user = (String) context.invocationProperties.get(BindingProvider.USERNAME_PROPERTY);
+        if (user != null) {
+            String pw = (String) context.invocationProperties.get(BindingProvider.PASSWORD_PROPERTY);
+            if (pw != null) {
+                String creds = DatatypeConverter.printBase64Binary((user + ":" + pw).getBytes());
+                reqHeaders.put("Authorization", Collections.singletonList("Basic " + creds));
+            }
+        }
+    }
+
+    /*
+     * Same format as HttpTransportPipe.
+     */
+    private static void dump(byte[] data, int size, String caption, Map<String, List<String>> headers) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintWriter pw = new PrintWriter(baos, true);
+        pw.println("---[" + caption + "]---");
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                pw.println(header.getKey() + ": " + value);
+            }
+        }
+        baos.write(data != null ? data : new byte[0], 0, Math.min(size, HttpAdapter.dump_threshold));
+        if (size > HttpAdapter.dump_threshold) {
+            pw.println();
+            pw.println(WsservletMessages.MESSAGE_TOO_LONG(HttpAdapter.class.getName() + ".dumpTreshold"));
+        }
+        pw.println("--------------------");
+
+        String msg = baos.toString();
+        if (HttpTransportPipe.dump) {
+            System.out.println(msg);
+        }
+        if (LOGGER.isLoggable(Level.FINER)) {
+            LOGGER.log(Level.FINER, msg);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+        return cause instanceof WebServiceException ? cause : new WebServiceException(cause);
+    }
+
+    @Override
+    public void preDestroy() {
+        // the HttpClient belongs to the feature and may be shared with other ports
+    }
+
+    @Override
+    public HttpClientTransportTube copy(TubeCloner cloner) {
+        return new HttpClientTransportTube(this, cloner);
+    }
+}
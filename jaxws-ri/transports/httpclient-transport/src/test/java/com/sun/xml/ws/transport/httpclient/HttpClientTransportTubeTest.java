@@ -0,0 +1,276 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.httpclient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Engine;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.client.BindingProviderProperties;
+import com.sun.xml.ws.client.ClientTransportException;
+import com.sun.xml.ws.developer.JAXWSProperties;
+
+import javax.net.ssl.SSLSocketFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+public class HttpClientTransportTubeTest extends TestCase {
+
+    private static final String ENVELOPE =
+            "<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\"><S:Body>%s</S:Body></S:Envelope>";
+
+    private static final String FAULT =
+            "<S:Fault><faultcode>S:Server</faultcode><faultstring>boom</faultstring></S:Fault>";
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private Engine engine;
+    private BindingImpl binding;
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final AtomicReference<String> transferEncoding = new AtomicReference<String>();
+
+    @Override
+    protected void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        engine = new Engine("httpclient-test", executor);
+        binding = BindingImpl.create(BindingID.SOAP11_HTTP);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/echo", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                transferEncoding.set(t.getRequestHeaders().getFirst("Transfer-Encoding"));
+                reply(t, 200, "text/xml", String.format(ENVELOPE, "<pong/>"));
+            }
+        });
+        server.createContext("/fault", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                reply(t, 500, "text/xml", String.format(ENVELOPE, FAULT));
+            }
+        });
+        server.createContext("/error", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                reply(t, 404, "text/plain", "not here");
+            }
+        });
+        server.createContext("/slow", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                try {
+                    unblock.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reply(t, 200, "text/xml", String.format(ENVELOPE, "<pong/>"));
+            }
+        });
+        server.createContext("/blocking", new HttpHandler() {
+            public void handle(HttpExchange t) throws IOException {
+                int now = concurrent.incrementAndGet();
+                maxConcurrent.accumulateAndGet(now, Math::max);
+                try {
+                    unblock.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    concurrent.decrementAndGet();
+                }
+                reply(t, 200, "text/xml", String.format(ENVELOPE, "<pong/>"));
+            }
+        });
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        unblock.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void reply(HttpExchange t, int status, String contentType, String body) throws IOException {
+        InputStream in = t.getRequestBody();
+        while (in.read() != -1) {
+            // drain the request
+        }
+        byte[] data = body.getBytes("UTF-8");
+        t.getResponseHeaders().set("Content-Type", contentType);
+        t.sendResponseHeaders(status, data.length);
+        OutputStream out = t.getResponseBody();
+        out.write(data);
+        out.close();
+    }
+
+    private HttpClientTransportTube createTube(HttpClientTransportFeature feature) {
+        return new HttpClientTransportTube(binding.createCodec(), binding, feature);
+    }
+
+    private Packet createRequest(String path) {
+        Packet p = new Packet(Messages.createUsingPayload(
+                new StreamSource(new StringReader("<ping xmlns=\"urn:test\"/>")), SOAPVersion.SOAP_11));
+        p.endpointAddress = EndpointAddress.create("http://localhost:" + server.getAddress().getPort() + path);
+        return p;
+    }
+
+    /**
+     * Outcome of a fiber run through the tube.
+     */
+    private static final class Result implements Fiber.CompletionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Packet response;
+        volatile Throwable error;
+
+        public void onCompletion(Packet response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        public void onCompletion(Throwable error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        Result await() throws InterruptedException {
+            assertTrue("no response in time", done.await(10, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+
+    private Result start(HttpClientTransportTube tube, Packet request) {
+        Result result = new Result();
+        engine.createFiber().start(tube, request, result);
+        return result;
+    }
+
+    public void testSuccess() throws Exception {
+        Result r = start(createTube(new HttpClientTransportFeature(2, false)), createRequest("/echo")).await();
+        assertNull(r.error);
+        assertFalse(r.response.getMessage().isFault());
+        assertEquals("pong", r.response.getMessage().getPayloadLocalPart());
+        assertNull(transferEncoding.get());
+    }
+
+    public void testSoapFault() throws Exception {
+        Result r = start(createTube(new HttpClientTransportFeature(2, false)), createRequest("/fault")).await();
+        assertNull(r.error);
+        assertTrue(r.response.getMessage().isFault());
+    }
+
+    public void testHttpError() throws Exception {
+        Result r = start(createTube(new HttpClientTransportFeature(2, false)), createRequest("/error")).await();
+        assertTrue(String.valueOf(r.error), r.error instanceof ClientTransportException);
+    }
+
+    public void testRequestTimeout() throws Exception {
+        Packet request = createRequest("/slow");
+        request.invocationProperties.put(BindingProviderProperties.REQUEST_TIMEOUT, 200);
+        Result r = start(createTube(new HttpClientTransportFeature(2, false)), request).await();
+        assertTrue(String.valueOf(r.error), r.error instanceof WebServiceException);
+        assertTrue(String.valueOf(r.error.getCause()), r.error.getCause() instanceof HttpTimeoutException);
+    }
+
+    public void testChunkSize() throws Exception {
+        Packet request = createRequest("/echo");
+        request.invocationProperties.put(JAXWSProperties.HTTP_CLIENT_STREAMING_CHUNK_SIZE, 16);
+        Result r = start(createTube(new HttpClientTransportFeature(2, false)), request).await();
+        assertNull(r.error);
+        assertEquals("chunked", transferEncoding.get());
+    }
+
+    public void testSSLSocketFactoryRejected() throws Exception {
+        Packet request = createRequest("/echo");
+        request.invocationProperties.put(JAXWSProperties.SSL_SOCKET_FACTORY, SSLSocketFactory.getDefault());
+        Result r = start(createTube(new HttpClientTransportFeature(2, false)), request).await();
+        assertTrue(String.valueOf(r.error), r.error instanceof WebServiceException);
+        assertTrue(r.error.getMessage().contains(HttpClientTransportFeature.SSL_CONTEXT));
+    }
+
+    public void testInFlightLimit() throws Exception {
+        HttpClientTransportFeature feature = new HttpClientTransportFeature(2, false);
+        HttpClientTransportTube tube = createTube(feature);
+        List<Result> results = new ArrayList<Result>();
+        for (int i = 0; i < 4; i++) {
+            results.add(start(tube, createRequest("/blocking")));
+        }
+
+        EndpointLimiter limiter = feature.getLimiter(URI.create("http://localhost:" + server.getAddress().getPort()));
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((limiter.getInFlight() < 2 || limiter.getQueued() < 2) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(2, limiter.getQueued());
+
+        unblock.countDown();
+        for (Result r : results) {
+            assertNull(r.await().error);
+        }
+        assertTrue(String.valueOf(maxConcurrent.get()), maxConcurrent.get() <= 2);
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+}
@@ -99,6 +99,15 @@ final class LocalConnectionImpl extends WSHTTPConnection implements WebServiceCo
         return baos;
     }
 
+    /**
+     * Sets the request read by {@link #getInput()}, instead of having
+     * it written to {@link #getOutput()}. The endpoint may read the
+     * buffer lazily, so it must not be written to or released afterwards.
+     */
+    void setInput(@NotNull ByteArrayBuffer request) {
+        baos = request;
+    }
+
     public String toString() {
         return baos.toString();
     }
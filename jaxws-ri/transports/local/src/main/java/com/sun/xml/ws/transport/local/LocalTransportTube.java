@@ -54,11 +54,11 @@ import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.client.ContentNegotiation;
 import com.sun.xml.ws.transport.http.HttpAdapter;
 import com.sun.xml.ws.transport.http.WSHTTPConnection;
+import com.sun.xml.ws.util.ByteArrayBuffer;
 
 import javax.xml.ws.WebServiceException;
 import javax.xml.ws.BindingProvider;
 import javax.xml.ws.handler.MessageContext;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Collections;
@@ -141,15 +141,17 @@ final class LocalTransportTube extends AbstractTubeImpl {
             // TODO : need to fix this properly in Codec
             ContentType contentType = codec.getStaticContentType(request);
             String requestContentType;
+            // not pooled: the endpoint's message, and anything the application
+            // keeps from it, may read the request long after handle() returns
+            ByteArrayBuffer requestBuf = new ByteArrayBuffer();
             if (contentType != null) {
                 requestContentType = contentType.getContentType();
-                codec.encode(request, con.getOutput());
+                codec.encode(request, requestBuf);
             } else {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                contentType = codec.encode(request, baos);
+                contentType = codec.encode(request, requestBuf);
                 requestContentType = contentType.getContentType();
-                baos.writeTo(con.getOutput());
             }
+            con.setInput(requestBuf);
             reqHeaders.put("Content-Type", Collections.singletonList(requestContentType));
 
             String requestAccept = contentType.getAcceptHeader();